@@ -32,6 +32,16 @@ public class Customer implements Runnable {
         }
     }
 
+    // Pause after each purchase
+    public long getRetrievalDelayMillis() {
+        return 4000 / customerRetrievalRate;
+    }
+
+    // Buy one ticket without waiting; returns false if the pool is empty. Used by the simulator.
+    public boolean tick() {
+        return ticketPool.tryRemoveTicket(customerId);
+    }
+
     @Override
     public void run() {
         while (!Thread.currentThread().isInterrupted() && TicketSystemCLI.isRunning()) {
@@ -39,7 +49,7 @@ public class Customer implements Runnable {
             try {
                 ticketPool.removeTicket(customerId); // Remove ticket with ID tracking // Consume tickets
                 // Logger.log("Customer " + customerId + " purchased a ticket.");
-                Thread.sleep(4000 / customerRetrievalRate); // Control retrieval rate
+                Thread.sleep(getRetrievalDelayMillis()); // Control retrieval rate
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 System.out.println("[LOG] Customer " + customerId + " thread interrupted.");
@@ -1,14 +1,52 @@
 package com.example.ticketing;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 public class Logger {
     private static final String LOG_FILE = "system_logs.txt";
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // The log is rotated when it reaches MAX_FILE_BYTES and at midnight. Rotated files are renamed to
+    // system_logs.<time>.txt, gzipped in the background and deleted once there are more than MAX_ROTATED_FILES.
+    private static final long MAX_FILE_BYTES = 5L * 1024 * 1024;
+    private static final int MAX_ROTATED_FILES = 5;
+    private static final String ROTATED_PREFIX = "system_logs.";
+    private static final DateTimeFormatter rotatedFormatter = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final ExecutorService archiver = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // The most recent lines, so the "logs" command can show them without reading the files.
+    // Filled under the log lock; readers copy the slots they need and drop any overwritten meanwhile.
+    private static final int RECENT_LINES = 1024;
+    private static final String[] recent = new String[RECENT_LINES];
+    private static volatile long recentCount;
+    private static long fileSize = -1; // Size of the current log file, read from disk on the first write
+    private static LocalDate fileDate; // Day the current log file was started
 
     public static synchronized void log(String message) {
         String timestampedMessage = "[" + LocalDateTime.now().format(formatter) + "] " + message;
@@ -16,13 +54,130 @@ public class Logger {
         // Write to console
         System.out.println(timestampedMessage);
 
+        recent[(int) (recentCount % RECENT_LINES)] = timestampedMessage;
+        recentCount++;
+
+        // Rotate first if the file is full or from an earlier day; the writer only renames, the archiver compresses
+        rotateIfDue();
+
         // Write to file
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(LOG_FILE, true))) {
             writer.write(timestampedMessage);
             writer.newLine();
+            fileSize += timestampedMessage.length() + System.lineSeparator().length();
         } catch (IOException e) {
             System.err.println("[ERROR] Failed to write log: " + e.getMessage());
         }
     }
-}
 
+    // The last count log lines, from memory when enough have been logged since startup, otherwise from the files
+    public static List<String> recentLogs(int count) throws IOException {
+        long end = recentCount;
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
+        if (count <= RECENT_LINES && end >= count) {
+            List<String> lines = new ArrayList<>(count);
+            for (long i = end - count; i < end; i++) {
+                lines.add(recent[(int) (i % RECENT_LINES)]);
+            }
+            // A slot is only safe if no later line has been written over it while we were copying
+            if (recentCount - RECENT_LINES < end - count) {
+                return lines;
+            }
+        }
+        List<String> lines = readLogs();
+        return lines.subList(Math.max(0, lines.size() - count), lines.size());
+    }
+
+    // All retained log lines, oldest first: the rotated files followed by the current file
+    public static List<String> readLogs() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (Path rotated : rotatedFiles()) {
+            try {
+                readLines(rotated, lines);
+            } catch (NoSuchFileException e) {
+                // Compressed or deleted while we were listing: read the compressed copy if there is one
+                Path compressed = Paths.get(rotated + ".gz");
+                if (Files.exists(compressed)) {
+                    readLines(compressed, lines);
+                }
+            }
+        }
+        if (Files.exists(Paths.get(LOG_FILE))) {
+            readLines(Paths.get(LOG_FILE), lines);
+        }
+        return lines;
+    }
+
+    private static void rotateIfDue() {
+        Path logFile = Paths.get(LOG_FILE);
+        try {
+            if (fileSize < 0) {
+                boolean exists = Files.exists(logFile);
+                fileSize = exists ? Files.size(logFile) : 0;
+                fileDate = exists
+                        ? LocalDate.ofInstant(Files.getLastModifiedTime(logFile).toInstant(), ZoneId.systemDefault())
+                        : LocalDate.now();
+            }
+            if (fileSize == 0 || (fileSize < MAX_FILE_BYTES && fileDate.equals(LocalDate.now()))) {
+                return;
+            }
+            Path rotated = Paths.get(ROTATED_PREFIX + LocalDateTime.now().format(rotatedFormatter) + ".txt");
+            Files.move(logFile, rotated);
+            fileSize = 0;
+            fileDate = LocalDate.now();
+            archiver.execute(() -> compress(rotated));
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to rotate log: " + e.getMessage());
+        }
+    }
+
+    // Runs on the archiver thread: gzip a rotated file, then drop the oldest files beyond MAX_ROTATED_FILES
+    private static void compress(Path rotated) {
+        Path compressed = Paths.get(rotated + ".gz");
+        Path temporary = Paths.get(rotated + ".gz.tmp");
+        try {
+            try (InputStream in = Files.newInputStream(rotated);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary))) {
+                in.transferTo(out);
+            }
+            Files.move(temporary, compressed, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(rotated);
+            List<Path> files = rotatedFiles();
+            for (int i = 0; i < files.size() - MAX_ROTATED_FILES; i++) {
+                Files.deleteIfExists(files.get(i));
+            }
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to compress rotated log: " + e.getMessage());
+        }
+    }
+
+    // Rotated files oldest first, one entry per file: the compressed copy once there is one
+    private static List<Path> rotatedFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get("."), ROTATED_PREFIX + "*.txt*")) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".txt.gz") || (name.endsWith(".txt") && !Files.exists(Paths.get(path + ".gz")))) {
+                    files.add(path);
+                }
+            }
+        }
+        Collections.sort(files); // The timestamp in the name sorts in rotation order
+        return files;
+    }
+
+    private static void readLines(Path path, List<String> lines) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        if (path.toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+    }
+}
@@ -1,24 +1,39 @@
 package com.example.ticketing;
 
-import java.util.LinkedList;
-import java.util.concurrent.CopyOnWriteArrayList;
-
 public class TicketPool {
-    private final LinkedList<String> tickets = new LinkedList<>();
+    // Tickets are numbered consecutively and sold oldest first, so the pool only has to remember
+    // the last ticket sold and the last ticket added: tickets claimedUpTo+1 .. issuedUpTo are available.
+    private long claimedUpTo;
+    private long issuedUpTo;
     private final int maxCapacity;
     private int totalTickets;
+    private final boolean logTickets; // Log every ticket added and sold; the load generator can turn this off
     public TicketPool(int maxCapacity, int totalTickets) {
-        this.maxCapacity = maxCapacity;
-        this.totalTickets = totalTickets;
+        this(maxCapacity, totalTickets, true);
+    }
 
-        // Pre-fill the pool with the initial tickets
-        for (int i = 1; i <= totalTickets; i++) {
-            tickets.add("Ticket " + i);
+    public TicketPool(int maxCapacity, int totalTickets, boolean logTickets) {
+        this(maxCapacity, totalTickets, 0, totalTickets, logTickets); // Pre-fill the pool with the initial tickets
+    }
+
+    // Restore a pool from a snapshot
+    public TicketPool(int maxCapacity, int totalTickets, long claimedUpTo, long issuedUpTo) {
+        this(maxCapacity, totalTickets, claimedUpTo, issuedUpTo, true);
+    }
+
+    private TicketPool(int maxCapacity, int totalTickets, long claimedUpTo, long issuedUpTo, boolean logTickets) {
+        if (claimedUpTo < 0 || claimedUpTo > issuedUpTo) {
+            throw new IllegalArgumentException("Invalid ticket range: sold up to " + claimedUpTo + ", added up to " + issuedUpTo);
         }
+        this.maxCapacity = maxCapacity;
+        this.totalTickets = totalTickets;
+        this.claimedUpTo = claimedUpTo;
+        this.issuedUpTo = issuedUpTo;
+        this.logTickets = logTickets;
     }
 
     public synchronized void addTickets(int numberOfTickets, int vendorId) {
-        while (tickets.size() + numberOfTickets > maxCapacity) {
+        while (getTicketCount() + numberOfTickets > maxCapacity) {
             try {
                 wait(); 
             } catch (InterruptedException e) {
@@ -27,18 +42,30 @@ public class TicketPool {
                 return; // Exit if interrupted
             }
         }
+        issue(numberOfTickets, vendorId);
+    }
+
+    // Add tickets only if they fit right now; used by the simulator, which cannot block
+    public synchronized boolean tryAddTickets(int numberOfTickets, int vendorId) {
+        if (getTicketCount() + numberOfTickets > maxCapacity) {
+            return false;
+        }
+        issue(numberOfTickets, vendorId);
+        return true;
+    }
+
+    private void issue(int numberOfTickets, int vendorId) {
         for (int i = 0; i < numberOfTickets; i++) {
-            String ticket = "Ticket " + (tickets.size() + 1);
-            tickets.add(ticket);
+            ++issuedUpTo;
             // System.out.println("[LOG] Vendor " + vendorId + " added " + ticket);
-            Logger.log("[LOG] Vendor " + vendorId + " added " + ticket);
+            if (logTickets) Logger.log("[LOG] Vendor " + vendorId + " added Ticket " + issuedUpTo); // Only build the line when it is logged
 
         }
         notifyAll(); // Notify customers waiting for tickets
     }
 
     public synchronized void removeTicket(int customerId){
-        while (tickets.isEmpty()) {
+        while (claimedUpTo == issuedUpTo) {
             try {
                 wait();
 
@@ -48,18 +75,45 @@ public class TicketPool {
                 return; // Exit if interrupted
             }
         }
-        String ticket = tickets.removeFirst();
+        sell(customerId);
+    }
+
+    // Buy a ticket only if one is available right now; used by the simulator, which cannot block
+    public synchronized boolean tryRemoveTicket(int customerId) {
+        if (claimedUpTo == issuedUpTo) {
+            return false;
+        }
+        sell(customerId);
+        return true;
+    }
+
+    private void sell(int customerId) {
+        ++claimedUpTo;
         // System.out.println("[LOG] Customer " + customerId + " purchased " + ticket);
-        Logger.log("[LOG] Customer " + customerId + " purchased " + ticket);
+        if (logTickets) Logger.log("[LOG] Customer " + customerId + " purchased Ticket " + claimedUpTo); // Only build the line when it is logged
         notifyAll(); // Notify vendors waiting to add tickets
     }
 
     public synchronized int getTicketCount() {
-        return tickets.size();
+        return (int) (issuedUpTo - claimedUpTo);
     }
 
     public synchronized int getTotalTickets() {
         return totalTickets;
     }
 
+    public synchronized int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    // The ID of the last ticket sold, or 0 if none has been
+    public synchronized long getClaimedUpTo() {
+        return claimedUpTo;
+    }
+
+    // The ID of the last ticket added to the pool
+    public synchronized long getIssuedUpTo() {
+        return issuedUpTo;
+    }
+
 }
@@ -1,11 +1,15 @@
 package com.example.ticketing;
 
 import com.example.ticketing.config.ConfigurationManager;
+import com.example.ticketing.config.SnapshotManager;
 import com.example.ticketing.config.SystemConfig;
+import com.example.ticketing.load.LoadGenerator;
+import com.example.ticketing.load.LoadReport;
+import com.example.ticketing.load.Scenario;
+import com.example.ticketing.simulation.SaleSimulation;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
@@ -30,6 +34,15 @@ public class TicketSystemCLI {
     private static final List<Thread> customerThreads = new ArrayList<>();
 
     public static void main(String[] args) {
+        // Headless load test: --load <scenario-file> [results-file]
+        if (args.length > 0 && args[0].equals("--load")) {
+            if (args.length < 2) {
+                System.err.println("Usage: TicketSystemCLI --load <scenario-file> [results-file]");
+                System.exit(2);
+            }
+            System.exit(runLoadTest(args[1], args.length > 2 ? args[2] : null));
+        }
+
         Scanner scanner = new Scanner(System.in);
 
         // Collect system configuration
@@ -51,7 +64,7 @@ public class TicketSystemCLI {
 
         // Command interface
         while (true) {
-            System.out.println("\nCommands: start | stop | status | saveconfig | loadconfig | logs | exit");
+            System.out.println("\nCommands: start | stop | status | simulate | saveconfig | loadconfig | logs | exit");
             System.out.print("Enter command: ");
             String command = scanner.next().toLowerCase();
 
@@ -99,12 +112,42 @@ public class TicketSystemCLI {
                     // System.out.println("Current ticket count: " + ticketPool.getTicketCount());
                     Logger.log("Current ticket count: " + ticketPool.getTicketCount());                    break;
 
+                case "simulate":
+                    // Replay the current configuration on a virtual clock; the live pool is left alone
+                    System.out.print("Enter minutes to simulate: ");
+                    long minutes = scanner.nextLong();
+                    if (minutes <= 0) {
+                        Logger.log("Minutes to simulate must be positive.");
+                        break;
+                    }
+                    System.out.print("Enter random seed: ");
+                    long seed = scanner.nextLong();
+                    SystemConfig simulationConfig = new SystemConfig(totalTickets, maxCapacity, ticketReleaseRate, customerRetrievalRate);
+                    for (String line : new SaleSimulation(simulationConfig, seed).run(minutes).split("\n")) {
+                        Logger.log("[SIMULATION] " + line);
+                    }
+                    break;
+
                 case "saveconfig":
                     SystemConfig saveConfig = new SystemConfig(totalTickets, maxCapacity, ticketReleaseRate, customerRetrievalRate);
                     ConfigurationManager.saveConfiguration(saveConfig);
+                    SnapshotManager.saveSnapshot(saveConfig, ticketPool); // Save the tickets in the pool as well
                     break;
 
                 case "loadconfig":
+                    // Restore the pool from the snapshot if there is one, otherwise start a fresh pool
+                    SnapshotManager.Snapshot snapshot = SnapshotManager.loadSnapshot();
+                    if (snapshot != null) {
+                        SystemConfig snapshotConfig = snapshot.getConfig();
+                        totalTickets = snapshotConfig.getTotalTickets();
+                        maxCapacity = snapshotConfig.getMaxCapacity();
+                        ticketReleaseRate = snapshotConfig.getTicketReleaseRate();
+                        customerRetrievalRate = snapshotConfig.getCustomerRetrievalRate();
+
+                        ticketPool = snapshot.toTicketPool();
+                        Logger.log("[LOG] Ticket pool restored from snapshot with " + ticketPool.getTicketCount() + " tickets.");
+                        break;
+                    }
                     SystemConfig loadConfig = ConfigurationManager.loadConfiguration();
                     if (loadConfig != null) {
                         totalTickets = loadConfig.getTotalTickets();
@@ -118,10 +161,13 @@ public class TicketSystemCLI {
                     }
                     break;
                 case "logs":
-                    try (BufferedReader reader = new BufferedReader(new FileReader("system_logs.txt"))) {
+                    System.out.print("Enter number of recent lines to show (0 for the whole log): ");
+                    int recentLines = scanner.nextInt();
+                    try {
+                        // Recent lines come from memory; the whole log includes the rotated files
+                        List<String> lines = recentLines > 0 ? Logger.recentLogs(recentLines) : Logger.readLogs();
                         System.out.println("Log file content:");
-                        String line;
-                        while ((line = reader.readLine()) != null) {
+                        for (String line : lines) {
                             System.out.println(line);
                         }
                     } catch (IOException e) {
@@ -162,6 +208,27 @@ public class TicketSystemCLI {
         }
     }
 
+    // Run a load test scenario and write its results; returns the process exit code
+    private static int runLoadTest(String scenarioFile, String resultsFile) {
+        try {
+            Scenario scenario = Scenario.load(Paths.get(scenarioFile));
+            String results = resultsFile != null ? resultsFile : scenario.getResultsFile();
+            Logger.log("[LOG] Running load test " + scenario.getName() + " from " + scenarioFile);
+            LoadReport report = new LoadGenerator(scenario).run();
+            report.write(Paths.get(results));
+            Logger.log("[LOG] " + report.summary());
+            Logger.log("[LOG] Load test results written to " + results);
+            return 0;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("[ERROR] Load test failed: " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("[ERROR] Load test interrupted.");
+            return 1;
+        }
+    }
+
     // Initialize Monitoring thread
     private static void initializeMonitoringThread() {
         if (monitoringThread != null && monitoringThread.isAlive()) {
@@ -1,6 +1,7 @@
 package com.example.ticketing;
 
 public class Vendor implements Runnable {
+    public static final long RELEASE_DELAY_MILLIS = 6000; // Pause after each batch
     private final TicketPool ticketPool;
     private final int ticketReleaseRate;
     private int vendorTicketNumber = 1; // Local ticket numbering for the vendor
@@ -33,6 +34,11 @@ public class Vendor implements Runnable {
         }
     }
 
+    // Add one batch without waiting; returns false if the pool is too full. Used by the simulator.
+    public boolean tick() {
+        return ticketPool.tryAddTickets(ticketReleaseRate, vendorId);
+    }
+
     @Override
     public void run() {
         while (!Thread.currentThread().isInterrupted() && TicketSystemCLI.isRunning()) {
@@ -40,7 +46,7 @@ public class Vendor implements Runnable {
             try {
                 ticketPool.addTickets(ticketReleaseRate, vendorId); // Add tickets with ID tracking
                 // Logger.log("Vendor " + vendorId + " added " + ticketReleaseRate + " tickets.");
-                Thread.sleep(6000); // Simulate delay
+                Thread.sleep(RELEASE_DELAY_MILLIS); // Simulate delay
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 System.out.println("[LOG] Vendor " + vendorId + " thread interrupted.");
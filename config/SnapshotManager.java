@@ -0,0 +1,138 @@
+package com.example.ticketing.config;
+
+import com.example.ticketing.TicketPool;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// This class saves and restores the ticket pool together with its configuration in a small binary file.
+// The pool is stored as two ticket IDs rather than one entry per ticket, and the file is read and written
+// through a memory-mapped buffer, so restoring even a very large pool costs a page-in, not a rebuild.
+//
+// The file uses the backend's snapshot format (com.ticketing.pool.PoolSnapshot, which defines it), so the CLI
+// and the backend can each restore the other's ticketing_pool.snapshot. The CLI cannot link to the backend's
+// classes, so the layout is repeated here and must change together with PoolSnapshot's version.
+//
+// Layout (big-endian): magic int, version int, totalTickets int, maxCapacity int, ticketReleaseRate int,
+// customerRetrievalRate int, span count int, then claimedUpTo long and issuedUpTo long for each span,
+// and a CRC-32 of everything before it. The CLI pool is a single span of ticket IDs, so it writes one span
+// and can only restore snapshots whose other spans (the shards of a sharded backend pool) are empty.
+public class SnapshotManager {
+    private static final String SNAPSHOT_FILE = "ticketing_pool.snapshot";
+    private static final int MAGIC = 0x5450534E; // "TPSN"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 * 7; // Up to and including the span count
+    private static final long ID_SPAN = 1L << 40; // Ticket IDs per span, as in the backend's PoolState
+
+    // A snapshot read back from disk
+    public static class Snapshot {
+        private final SystemConfig config;
+        private final long claimedUpTo;
+        private final long issuedUpTo;
+
+        Snapshot(SystemConfig config, long claimedUpTo, long issuedUpTo) {
+            this.config = config;
+            this.claimedUpTo = claimedUpTo;
+            this.issuedUpTo = issuedUpTo;
+        }
+
+        public SystemConfig getConfig() { return config; }
+
+        // Rebuild the pool exactly as it was when the snapshot was taken
+        public TicketPool toTicketPool() {
+            return new TicketPool(config.getMaxCapacity(), config.getTotalTickets(), claimedUpTo, issuedUpTo);
+        }
+    }
+
+    // Save the configuration and the current contents of the pool
+    public static void saveSnapshot(SystemConfig config, TicketPool pool) {
+        long claimedUpTo;
+        long issuedUpTo;
+        synchronized (pool) { // Read both marks while no vendor or customer is changing them
+            claimedUpTo = pool.getClaimedUpTo();
+            issuedUpTo = pool.getIssuedUpTo();
+        }
+        Path path = Paths.get(SNAPSHOT_FILE);
+        Path temporary = Paths.get(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int size = HEADER_SIZE + 16 + 4;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION)
+                    .putInt(config.getTotalTickets()).putInt(config.getMaxCapacity())
+                    .putInt(config.getTicketReleaseRate()).putInt(config.getCustomerRetrievalRate())
+                    .putInt(1).putLong(claimedUpTo).putLong(issuedUpTo);
+            buffer.putInt(checksum(buffer, size - 4));
+            buffer.force();
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to save ticket pool snapshot: " + e.getMessage());
+            return;
+        }
+        try {
+            // Replace the old snapshot in one step, so a crash never leaves a half-written one behind
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("[LOG] Ticket pool snapshot saved successfully.");
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to save ticket pool snapshot: " + e.getMessage());
+        }
+    }
+
+    // Load the snapshot, or return null if there is none or it cannot be read
+    public static Snapshot loadSnapshot() {
+        Path path = Paths.get(SNAPSHOT_FILE);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + 4 || size > Integer.MAX_VALUE) {
+                System.err.println("[ERROR] Ticket pool snapshot has the wrong size, ignoring it.");
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                System.err.println("[ERROR] Unsupported ticket pool snapshot, ignoring it.");
+                return null;
+            }
+            SystemConfig config = new SystemConfig(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+            int spans = buffer.getInt();
+            if (spans < 1 || buffer.remaining() != spans * 16L + 4) {
+                System.err.println("[ERROR] Ticket pool snapshot is truncated, ignoring it.");
+                return null;
+            }
+            long claimedUpTo = buffer.getLong();
+            long issuedUpTo = buffer.getLong();
+            boolean otherSpansEmpty = true;
+            for (int span = 1; span < spans; span++) {
+                otherSpansEmpty &= buffer.getLong() == buffer.getLong(); // Claimed up to == issued up to
+            }
+            if (buffer.getInt() != checksum(buffer, (int) size - 4) || claimedUpTo < 0 || claimedUpTo > issuedUpTo || issuedUpTo > ID_SPAN) {
+                System.err.println("[ERROR] Ticket pool snapshot is corrupt, ignoring it.");
+                return null;
+            }
+            if (!otherSpansEmpty) {
+                System.err.println("[ERROR] Ticket pool snapshot holds tickets in " + spans + " shards; the CLI pool can only restore one, ignoring it.");
+                return null;
+            }
+            System.out.println("[LOG] Ticket pool snapshot loaded successfully.");
+            return new Snapshot(config, claimedUpTo, issuedUpTo);
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to load ticket pool snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // CRC-32 of the first length bytes of the buffer
+    private static int checksum(MappedByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(length));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.ticketing.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The rate at which customers arrive over the course of a load test, as a sequence of phases.
+// Phases are written one after another, separated by commas:
+//   step <rate> <duration>                      a constant rate
+//   ramp <from> <to> <duration>                 a rate rising (or falling) linearly
+//   spike <base> <peak> <peakDuration> <duration>  a flash sale: the peak rate, then the base rate for the rest
+// Rates are purchases per second; durations are a number followed by ms, s or m, e.g. "30s".
+public class ArrivalCurve {
+    private final List<Phase> phases;
+    private final long durationNanos;
+
+    private ArrivalCurve(List<Phase> phases) {
+        this.phases = phases;
+        long total = 0;
+        for (Phase phase : phases) {
+            total += phase.durationNanos;
+        }
+        this.durationNanos = total;
+    }
+
+    // Parse a curve such as "step 100 10s, ramp 100 1000 30s, spike 100 5000 2s 20s"
+    public static ArrivalCurve parse(String text) {
+        List<Phase> phases = new ArrayList<>();
+        for (String part : text.split(",")) {
+            String[] words = part.trim().split("\\s+");
+            switch (words[0].toLowerCase()) {
+                case "step":
+                    expectWords(words, 3);
+                    phases.add(new Phase(rate(words[1]), rate(words[1]), 0, duration(words[2])));
+                    break;
+                case "ramp":
+                    expectWords(words, 4);
+                    phases.add(new Phase(rate(words[1]), rate(words[2]), 0, duration(words[3])));
+                    break;
+                case "spike":
+                    expectWords(words, 5);
+                    phases.add(new Phase(rate(words[1]), rate(words[1]), rate(words[2]), duration(words[4]), duration(words[3])));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown arrival phase: " + part.trim());
+            }
+        }
+        if (phases.isEmpty()) {
+            throw new IllegalArgumentException("The arrival curve has no phases.");
+        }
+        return new ArrivalCurve(phases);
+    }
+
+    // The arrival rate, in purchases per second, at a point in the test
+    public double rateAt(long elapsedNanos) {
+        for (Phase phase : phases) {
+            if (elapsedNanos < phase.durationNanos) {
+                return phase.rateAt(elapsedNanos);
+            }
+            elapsedNanos -= phase.durationNanos;
+        }
+        return 0;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    private static void expectWords(String[] words, int count) {
+        if (words.length != count) {
+            throw new IllegalArgumentException("Expected " + (count - 1) + " values after " + words[0] + " but found " + (words.length - 1));
+        }
+    }
+
+    private static double rate(String word) {
+        double rate = Double.parseDouble(word);
+        if (rate < 0) {
+            throw new IllegalArgumentException("Arrival rates cannot be negative: " + word);
+        }
+        return rate;
+    }
+
+    // Parse "500ms", "30s" or "2m"
+    static long duration(String word) {
+        String lower = word.toLowerCase();
+        if (lower.endsWith("ms")) {
+            return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(lower.substring(0, lower.length() - 2)));
+        }
+        if (lower.endsWith("s")) {
+            return TimeUnit.SECONDS.toNanos(Long.parseLong(lower.substring(0, lower.length() - 1)));
+        }
+        if (lower.endsWith("m")) {
+            return TimeUnit.MINUTES.toNanos(Long.parseLong(lower.substring(0, lower.length() - 1)));
+        }
+        throw new IllegalArgumentException("Durations need a unit of ms, s or m: " + word);
+    }
+
+    private static class Phase {
+        private final double fromRate;
+        private final double toRate;
+        private final double peakRate; // Rate during the peak of a spike, or 0
+        private final long durationNanos;
+        private final long peakNanos;
+
+        Phase(double fromRate, double toRate, double peakRate, long durationNanos) {
+            this(fromRate, toRate, peakRate, durationNanos, 0);
+        }
+
+        Phase(double fromRate, double toRate, double peakRate, long durationNanos, long peakNanos) {
+            if (durationNanos <= 0 || peakNanos > durationNanos) {
+                throw new IllegalArgumentException("A phase needs a positive duration that covers its peak.");
+            }
+            this.fromRate = fromRate;
+            this.toRate = toRate;
+            this.peakRate = peakRate;
+            this.durationNanos = durationNanos;
+            this.peakNanos = peakNanos;
+        }
+
+        double rateAt(long elapsedNanos) {
+            if (elapsedNanos < peakNanos) {
+                return peakRate;
+            }
+            return fromRate + (toRate - fromRate) * elapsedNanos / durationNanos;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.ticketing.load;
+
+// A latency histogram in the style of HdrHistogram: values are counted in buckets whose width grows with
+// the value, so every recorded value keeps about three significant digits (within 0.2%) across the whole
+// range of a long, in a fixed array of counters. Recording is a few shifts and an increment.
+//
+// Values below SUB_BUCKETS are counted exactly. Above that, each power of two is split into SUB_BUCKETS / 2
+// equal buckets. A histogram is meant to be recorded by one thread; the load generator gives each worker
+// its own and adds them up at the end.
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 10;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private final long[] counts = new long[(65 - SUB_BUCKET_BITS) << (SUB_BUCKET_BITS - 1)];
+    private long totalCount;
+    private long min = Long.MAX_VALUE;
+    private long max;
+    private double sum;
+
+    // Record one value, e.g. a latency in nanoseconds
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[index(value)]++;
+        totalCount++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    // Add the counts of another histogram to this one
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    // The value at or below which the given percentage of recorded values fall
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(totalCount * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(max, highestValueIn(i));
+            }
+        }
+        return max;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    // A value with g more significant bits than SUB_BUCKET_BITS is shifted right by g, leaving a number in
+    // the top half of the sub-buckets; groups are laid out one after another, half a group apart
+    private static int index(long value) {
+        int group = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return (group << (SUB_BUCKET_BITS - 1)) + (int) (value >>> group);
+    }
+
+    // The largest value counted in a bucket
+    private static long highestValueIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int group = (index >>> (SUB_BUCKET_BITS - 1)) - 1;
+        long bucket = index - ((long) group << (SUB_BUCKET_BITS - 1));
+        return ((bucket + 1) << group) - 1;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.ticketing.load;
+
+import com.example.ticketing.TicketPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Runs a load test scenario against a ticket pool without any interaction.
+// Vendors add batches at a fixed pace, and purchases arrive on the scenario's arrival curve whether or not
+// earlier ones have finished (an open loop), so a slow pool shows up as queueing rather than as a lower
+// arrival rate. Customer threads take the arrivals in order and buy one ticket each. A purchase's latency
+// is measured from when it was due to arrive, not from when a customer picked it up, so time spent queued
+// behind a stalled pool is counted.
+public class LoadGenerator {
+    private final Scenario scenario;
+    private final TicketPool ticketPool;
+    private final LinkedBlockingQueue<Long> arrivals = new LinkedBlockingQueue<>(); // Due times of waiting purchases
+    private final AtomicLong completed = new AtomicLong();
+    private final List<LatencyHistogram> histograms = new ArrayList<>();
+    private final List<LoadReport.Sample> timeline = new ArrayList<>();
+
+    public LoadGenerator(Scenario scenario) {
+        this.scenario = scenario;
+        this.ticketPool = new TicketPool(scenario.getMaxCapacity(), scenario.getTotalTickets(), scenario.isLogTickets());
+    }
+
+    // Run the scenario to the end of its arrival curve, plus the drain time, and report what happened
+    public LoadReport run() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 1; i <= scenario.getVendors(); i++) {
+            threads.add(startThread("load-vendor-" + i, vendorLoop(i)));
+        }
+        for (int i = 1; i <= scenario.getCustomers(); i++) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histograms.add(histogram);
+            threads.add(startThread("load-customer-" + i, customerLoop(i, histogram)));
+        }
+        long start = System.nanoTime();
+        Thread sampler = startThread("load-sampler", samplerLoop(start));
+        long offered = generateArrivals(start);
+        long drainDeadline = System.nanoTime() + scenario.getDrainNanos();
+        while (completed.get() < offered && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        long elapsed = System.nanoTime() - start;
+        sampler.interrupt();
+        sampler.join();
+        threads.forEach(Thread::interrupt);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LatencyHistogram latency = new LatencyHistogram();
+        histograms.forEach(latency::add); // Customer threads have stopped, so their histograms are stable
+        return new LoadReport(scenario.getName(), elapsed, offered, latency.getTotalCount(), ticketPool.getClaimedUpTo(),
+                latency, timeline);
+    }
+
+    // Queue purchases at the curve's rate until the curve ends; returns the number queued
+    private long generateArrivals(long start) {
+        ArrivalCurve curve = scenario.getArrivals();
+        long end = start + curve.getDurationNanos();
+        long next = start;
+        long offered = 0;
+        while (next < end) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            double rate = curve.rateAt(next - start);
+            if (rate > 0) {
+                arrivals.add(next);
+                offered++;
+                next += (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+            } else {
+                next += TimeUnit.MILLISECONDS.toNanos(1); // Nothing arrives; look again shortly
+            }
+        }
+        return offered;
+    }
+
+    private Runnable vendorLoop(int vendorId) {
+        return () -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                ticketPool.addTickets(scenario.getVendorBatch(), vendorId);
+                LockSupport.parkNanos(scenario.getVendorIntervalNanos());
+            }
+        };
+    }
+
+    private Runnable customerLoop(int customerId, LatencyHistogram histogram) {
+        return () -> {
+            try {
+                while (true) {
+                    long due = arrivals.take();
+                    ticketPool.removeTicket(customerId);
+                    if (Thread.currentThread().isInterrupted()) {
+                        return; // Stopped while waiting for a ticket; the purchase did not happen
+                    }
+                    histogram.record(System.nanoTime() - due);
+                    completed.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                // The test is over
+            }
+        };
+    }
+
+    // Record the pool's occupancy, the purchases completed and the backlog at every sample interval
+    private Runnable samplerLoop(long start) {
+        return () -> {
+            long next = start;
+            while (!Thread.currentThread().isInterrupted()) {
+                next += scenario.getSampleIntervalNanos();
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                timeline.add(new LoadReport.Sample(System.nanoTime() - start, ticketPool.getTicketCount(), completed.get(), arrivals.size()));
+            }
+        };
+    }
+
+    private static Thread startThread(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.ticketing.load;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+// The results of a load test: a summary of throughput and latency percentiles as key=value lines,
+// followed by the pool occupancy timeline as CSV, so both can be read by a person or a plotting script.
+public class LoadReport {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private final String name;
+    private final long elapsedNanos;
+    private final long offered;
+    private final long completed;
+    private final long ticketsSold;
+    private final LatencyHistogram latency;
+    private final List<Sample> timeline;
+
+    // One point of the timeline
+    public static class Sample {
+        private final long elapsedNanos;
+        private final int ticketsInPool;
+        private final long completed;
+        private final int backlog;
+
+        public Sample(long elapsedNanos, int ticketsInPool, long completed, int backlog) {
+            this.elapsedNanos = elapsedNanos;
+            this.ticketsInPool = ticketsInPool;
+            this.completed = completed;
+            this.backlog = backlog;
+        }
+    }
+
+    LoadReport(String name, long elapsedNanos, long offered, long completed, long ticketsSold, LatencyHistogram latency, List<Sample> timeline) {
+        this.name = name;
+        this.elapsedNanos = elapsedNanos;
+        this.offered = offered;
+        this.completed = completed;
+        this.ticketsSold = ticketsSold;
+        this.latency = latency;
+        this.timeline = timeline;
+    }
+
+    // Completed purchases per second over the whole run
+    public double getThroughput() {
+        return completed / (elapsedNanos / 1e9);
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getOffered() {
+        return offered;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    // A one-line summary for the console
+    public String summary() {
+        return String.format(Locale.ROOT, "%s: %d of %d purchases in %.1fs (%.1f/s), latency p50 %.3fms p99 %.3fms max %.3fms",
+                name, completed, offered, elapsedNanos / 1e9, getThroughput(),
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)), millis(latency.getMax()));
+    }
+
+    public void write(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("scenario=" + name);
+            writer.newLine();
+            line(writer, "durationSeconds", elapsedNanos / 1e9);
+            writer.write("purchasesOffered=" + offered);
+            writer.newLine();
+            writer.write("purchasesCompleted=" + completed);
+            writer.newLine();
+            writer.write("purchasesUnfinished=" + (offered - completed));
+            writer.newLine();
+            writer.write("ticketsSold=" + ticketsSold);
+            writer.newLine();
+            line(writer, "throughputPerSecond", getThroughput());
+            line(writer, "latencyMinMillis", millis(latency.getMin()));
+            line(writer, "latencyMeanMillis", latency.getMean() / 1e6);
+            for (double percentile : PERCENTILES) {
+                line(writer, "latencyP" + formatPercentile(percentile) + "Millis", millis(latency.getValueAtPercentile(percentile)));
+            }
+            line(writer, "latencyMaxMillis", millis(latency.getMax()));
+            writer.newLine();
+            writer.write("# timeline");
+            writer.newLine();
+            writer.write("elapsedMillis,ticketsInPool,purchasesCompleted,purchasesPerSecond,backlog");
+            writer.newLine();
+            long previousNanos = 0;
+            long previousCompleted = 0;
+            for (Sample sample : timeline) {
+                double seconds = (sample.elapsedNanos - previousNanos) / 1e9;
+                double rate = seconds > 0 ? (sample.completed - previousCompleted) / seconds : 0;
+                writer.write(String.format(Locale.ROOT, "%d,%d,%d,%.1f,%d", sample.elapsedNanos / 1_000_000, sample.ticketsInPool,
+                        sample.completed, rate, sample.backlog));
+                writer.newLine();
+                previousNanos = sample.elapsedNanos;
+                previousCompleted = sample.completed;
+            }
+        }
+    }
+
+    private static void line(BufferedWriter writer, String key, double value) throws IOException {
+        writer.write(String.format(Locale.ROOT, "%s=%.3f", key, value));
+        writer.newLine();
+    }
+
+    // 99.9 -> "99_9", so the key stays a plain identifier
+    private static String formatPercentile(double percentile) {
+        String text = percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+        return text.replace('.', '_');
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.ticketing.load;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+// A load test scenario, read from a properties file:
+//   name=flash-sale                 label written to the results
+//   pool=quiet                      quiet (no per-ticket logging) or logged (as the interactive CLI runs)
+//   totalTickets=500                tickets in the pool at the start
+//   maxCapacity=2000                most tickets the pool holds
+//   vendors=4                       vendor threads
+//   vendorBatch=25                  tickets each vendor adds at a time
+//   vendorInterval=100ms            pause between a vendor's batches
+//   customers=64                    customer threads serving the arrivals
+//   arrivals=step 100 5s, spike 100 3000 2s 10s   the arrival curve, see ArrivalCurve
+//   sampleInterval=250ms            how often the pool occupancy timeline is sampled
+//   drain=5s                        how long to let queued purchases finish after the last arrival
+//   results=load_results.txt        where the results are written
+public class Scenario {
+    private final String name;
+    private final boolean logTickets;
+    private final int totalTickets;
+    private final int maxCapacity;
+    private final int vendors;
+    private final int vendorBatch;
+    private final long vendorIntervalNanos;
+    private final int customers;
+    private final ArrivalCurve arrivals;
+    private final long sampleIntervalNanos;
+    private final long drainNanos;
+    private final String resultsFile;
+
+    private Scenario(Properties properties) {
+        this.name = properties.getProperty("name", "load-test");
+        String pool = properties.getProperty("pool", "quiet").trim().toLowerCase();
+        if (!pool.equals("quiet") && !pool.equals("logged")) {
+            throw new IllegalArgumentException("pool must be quiet or logged, not " + pool);
+        }
+        this.logTickets = pool.equals("logged");
+        this.totalTickets = intValue(properties, "totalTickets", 0);
+        this.maxCapacity = intValue(properties, "maxCapacity", 1000);
+        this.vendors = intValue(properties, "vendors", 1);
+        this.vendorBatch = intValue(properties, "vendorBatch", 10);
+        this.vendorIntervalNanos = ArrivalCurve.duration(properties.getProperty("vendorInterval", "100ms").trim());
+        this.customers = intValue(properties, "customers", 16);
+        String curve = properties.getProperty("arrivals");
+        if (curve == null) {
+            throw new IllegalArgumentException("The scenario has no arrivals curve.");
+        }
+        this.arrivals = ArrivalCurve.parse(curve);
+        this.sampleIntervalNanos = ArrivalCurve.duration(properties.getProperty("sampleInterval", "250ms").trim());
+        this.drainNanos = ArrivalCurve.duration(properties.getProperty("drain", "0s").trim());
+        this.resultsFile = properties.getProperty("results", "load_results.txt").trim();
+        if (maxCapacity <= 0 || vendorBatch <= 0 || vendorBatch > maxCapacity || customers <= 0 || sampleIntervalNanos <= 0) {
+            throw new IllegalArgumentException("The scenario needs a positive capacity, vendor batch, customer count and sample interval.");
+        }
+    }
+
+    // Read a scenario file
+    public static Scenario load(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+        return new Scenario(properties);
+    }
+
+    private static int intValue(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        int parsed = value == null ? defaultValue : Integer.parseInt(value.trim());
+        if (parsed < 0) {
+            throw new IllegalArgumentException(key + " cannot be negative.");
+        }
+        return parsed;
+    }
+
+    public String getName() { return name; }
+
+    public boolean isLogTickets() { return logTickets; }
+
+    public int getTotalTickets() { return totalTickets; }
+
+    public int getMaxCapacity() { return maxCapacity; }
+
+    public int getVendors() { return vendors; }
+
+    public int getVendorBatch() { return vendorBatch; }
+
+    public long getVendorIntervalNanos() { return vendorIntervalNanos; }
+
+    public int getCustomers() { return customers; }
+
+    public ArrivalCurve getArrivals() { return arrivals; }
+
+    public long getSampleIntervalNanos() { return sampleIntervalNanos; }
+
+    public long getDrainNanos() { return drainNanos; }
+
+    public String getResultsFile() { return resultsFile; }
+}
@@ -0,0 +1,139 @@
+package com.example.ticketing.simulation;
+
+import com.example.ticketing.Customer;
+import com.example.ticketing.TicketPool;
+import com.example.ticketing.Vendor;
+import com.example.ticketing.config.SystemConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Simulates the CLI's vendors and customers on a virtual clock instead of in real time.
+// The CLI's own Vendor, Customer and TicketPool classes are used, with the same counts, batch sizes and
+// pauses as the "start" command. Where a real thread would block in the pool, the simulated actor goes on
+// a waiting list instead. It is woken, like a notifyAll(), as soon as the other side changes the pool.
+// The seeded random generator decides where in its first pause each actor starts and the order in which
+// woken actors retry, which is all that thread scheduling leaves open. The same seed gives the same result.
+public class SaleSimulation {
+    private final SimulationClock clock = new SimulationClock();
+    private final TicketPool ticketPool;
+    private final Random random;
+    private final int batchSize; // Tickets per vendor batch
+    private final List<Vendor> vendors = new ArrayList<>();
+    private final List<Customer> customers = new ArrayList<>();
+    private final List<Runnable> waitingVendors = new ArrayList<>();
+    private final List<Runnable> waitingCustomers = new ArrayList<>();
+    private long ticketsAdded;
+    private long ticketsSold;
+    private long vendorWaits;
+    private long customerWaits;
+    private long firstSoldOut = -1;
+    private int minTickets;
+    private int maxTickets;
+    private double ticketMillis; // Tickets in the pool integrated over virtual time
+    private long lastChange;
+    private int lastCount;
+
+    public SaleSimulation(SystemConfig config, long seed) {
+        this.ticketPool = new TicketPool(config.getMaxCapacity(), config.getTotalTickets(), false);
+        this.random = new Random(seed);
+        this.batchSize = config.getTicketReleaseRate();
+        this.minTickets = ticketPool.getTicketCount();
+        this.maxTickets = minTickets;
+        this.lastCount = minTickets;
+        // The same actors as the "start" command: ticketReleaseRate vendors and customerRetrievalRate customers
+        for (int i = 1; i <= config.getTicketReleaseRate(); i++) {
+            vendors.add(new Vendor(ticketPool, config.getTicketReleaseRate(), i));
+        }
+        for (int i = 1; i <= config.getCustomerRetrievalRate(); i++) {
+            customers.add(new Customer(ticketPool, config.getCustomerRetrievalRate(), i));
+        }
+    }
+
+    // Simulate the given number of minutes and describe what happened
+    public String run(long minutes) {
+        if (minutes <= 0) {
+            throw new IllegalArgumentException("Minutes to simulate must be positive");
+        }
+        long started = System.currentTimeMillis();
+        for (Vendor vendor : vendors) {
+            clock.schedule(randomOffset(Vendor.RELEASE_DELAY_MILLIS), vendorTask(vendor));
+        }
+        for (Customer customer : customers) {
+            clock.schedule(randomOffset(customer.getRetrievalDelayMillis()), customerTask(customer));
+        }
+        long end = minutes * 60000;
+        clock.runUntil(end);
+        countChanged(); // Close the integral at the end of the run
+        long wallClock = System.currentTimeMillis() - started;
+        return "Simulated " + minutes + " minutes in " + wallClock + " ms (" + clock.getActionsRun() + " events)\n"
+                + "Tickets added: " + ticketsAdded + ", sold: " + ticketsSold + ", left in pool: " + ticketPool.getTicketCount() + "\n"
+                + "Tickets in pool: min " + minTickets + ", max " + maxTickets + ", average " + String.format("%.1f", ticketMillis / end) + "\n"
+                + "Vendors waited for space " + vendorWaits + " times, customers waited for tickets " + customerWaits + " times\n"
+                + "Pool first ran out " + (firstSoldOut < 0 ? "never" : "after " + String.format("%.1f", firstSoldOut / 60000.0) + " minutes");
+    }
+
+    private Runnable vendorTask(Vendor vendor) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                if (!vendor.tick()) {
+                    vendorWaits++;
+                    waitingVendors.add(this); // Blocked in addTickets until a customer makes room
+                    return;
+                }
+                ticketsAdded += batchSize;
+                countChanged();
+                wakeAll(waitingCustomers);
+                clock.schedule(clock.now() + Vendor.RELEASE_DELAY_MILLIS, this);
+            }
+        };
+    }
+
+    private Runnable customerTask(Customer customer) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                if (!customer.tick()) {
+                    customerWaits++;
+                    if (firstSoldOut < 0) {
+                        firstSoldOut = clock.now();
+                    }
+                    waitingCustomers.add(this); // Blocked in removeTicket until a vendor adds tickets
+                    return;
+                }
+                ticketsSold++;
+                countChanged();
+                wakeAll(waitingVendors);
+                clock.schedule(clock.now() + customer.getRetrievalDelayMillis(), this);
+            }
+        };
+    }
+
+    // notifyAll(): every waiting actor retries now, in an order the random generator picks
+    private void wakeAll(List<Runnable> waiting) {
+        if (waiting.isEmpty()) {
+            return;
+        }
+        Collections.shuffle(waiting, random);
+        for (Runnable actor : waiting) {
+            clock.schedule(clock.now(), actor);
+        }
+        waiting.clear();
+    }
+
+    // Called whenever the pool changes: add the time since the last change to the average, then track the new count
+    private void countChanged() {
+        ticketMillis += (double) lastCount * (clock.now() - lastChange);
+        lastChange = clock.now();
+        lastCount = ticketPool.getTicketCount();
+        minTickets = Math.min(minTickets, lastCount);
+        maxTickets = Math.max(maxTickets, lastCount);
+    }
+
+    private long randomOffset(long delay) {
+        return delay <= 0 ? 0 : (long) (random.nextDouble() * delay);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.ticketing.simulation;
+
+import java.util.PriorityQueue;
+
+// A virtual clock with a priority queue of actions due at virtual times. Running the simulation takes the
+// earliest action, moves the clock to its time and runs it, so hours of sales cost only as much as the
+// actions in them. Actions due at the same time run in the order they were scheduled. Single-threaded.
+public class SimulationClock {
+    private final PriorityQueue<Action> actions = new PriorityQueue<>();
+    private long now;
+    private long sequence;
+    private long actionsRun;
+
+    // The virtual time in milliseconds
+    public long now() {
+        return now;
+    }
+
+    public long getActionsRun() {
+        return actionsRun;
+    }
+
+    // Run an action at a virtual time; a time in the past means now
+    public void schedule(long time, Runnable action) {
+        actions.add(new Action(Math.max(time, now), sequence++, action));
+    }
+
+    // Run every action due up to endTime and leave the clock there
+    public void runUntil(long endTime) {
+        while (!actions.isEmpty() && actions.peek().time <= endTime) {
+            Action next = actions.poll();
+            now = next.time;
+            next.task.run();
+            actionsRun++;
+        }
+        now = endTime;
+    }
+
+    private static class Action implements Comparable<Action> {
+        private final long time;
+        private final long sequence;
+        private final Runnable task;
+
+        Action(long time, long sequence, Runnable task) {
+            this.time = time;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Action other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -1,7 +1,7 @@
 import { Component, OnInit, OnDestroy  } from '@angular/core';
 import { TicketingService } from '../../services/ticketing.service';
 import { CommonModule } from '@angular/common';
-import { Subscription, interval } from 'rxjs';
+import { Subscription, defer, retry } from 'rxjs';
 
 @Component({
   selector: 'app-log-display',
@@ -11,30 +11,63 @@ import { Subscription, interval } from 'rxjs';
   styleUrl: './log-display.component.css'
 })
 
-export class LogDisplayComponent implements OnInit {
-  logs: string[] = []; //Store logs here
-  private pollingSubscription!: Subscription;
+export class LogDisplayComponent implements OnInit, OnDestroy {
+  static readonly MAX_LOG_LINES = 1000; // Only the latest lines are kept and shown
+  logs: string[] = []; //Store logs here, oldest first
+  private logCursor: number | null = null; // Number of log lines already received from the backend; null before the first frame
+  private ring: string[] = new Array(LogDisplayComponent.MAX_LOG_LINES); // Latest lines; the oldest is at ringStart
+  private ringStart = 0;
+  private ringSize = 0;
+  private streamSubscription!: Subscription;
 
   constructor(private ticketingService: TicketingService) {}
 
   ngOnInit(): void {
-    this.startPolling();
+    this.startStreaming();
   }
 
-  startPolling(): void {
-    this.pollingSubscription = interval(2000).subscribe(() => {
-      this.fetchLogs();
-    });
+  ngOnDestroy(): void {
+    // Unsubscribe to avoid memory leaks
+    if (this.streamSubscription) {
+      this.streamSubscription.unsubscribe();
+    }
   }
 
-  fetchLogs(): void {
-    this.ticketingService.getLogs().subscribe({
-      next: (logData) => {
-        this.logs = logData;
-      },
-      error: (err) => {
-        console.error('Error fetching logs:', err);
+  // Receive new log lines as the backend pushes them, starting with the latest MAX_LOG_LINES instead of the whole log;
+  // after a disconnect, resume from the current cursor
+  startStreaming(): void {
+    this.streamSubscription = defer(() => this.logCursor === null
+        ? this.ticketingService.streamLatest(LogDisplayComponent.MAX_LOG_LINES)
+        : this.ticketingService.streamUpdates(this.logCursor))
+      .pipe(retry({ delay: 2000 }))
+      .subscribe({
+        next: (frame) => {
+          this.logCursor = frame.logCursor;
+          if (frame.logs.length > 0) {
+            this.append(frame.logs);
+          }
+        },
+        error: (err) => {
+          console.error('Error streaming logs:', err);
+        }
+      });
+  }
+
+  // Add lines to the ring, overwriting the oldest once it is full, and rebuild the displayed list from it
+  private append(lines: string[]): void {
+    const capacity = LogDisplayComponent.MAX_LOG_LINES;
+    for (const line of lines.slice(-capacity)) {
+      this.ring[(this.ringStart + this.ringSize) % capacity] = line;
+      if (this.ringSize < capacity) {
+        this.ringSize++;
+      } else {
+        this.ringStart = (this.ringStart + 1) % capacity;
       }
-    });
+    }
+    const ordered = new Array<string>(this.ringSize);
+    for (let i = 0; i < this.ringSize; i++) {
+      ordered[i] = this.ring[(this.ringStart + i) % capacity];
+    }
+    this.logs = ordered;
   }
 }
@@ -1,6 +1,6 @@
 import { Component, OnInit, OnDestroy  } from '@angular/core';
 import { TicketingService } from '../../services/ticketing.service';
-import { Subscription, interval } from 'rxjs';
+import { Subscription, defer, retry } from 'rxjs';
 // Purpose: Displays the real-time ticket count
 @Component({
   selector: 'app-ticket-status',
@@ -12,14 +12,14 @@ import { Subscription, interval } from 'rxjs';
 
 export class TicketStatusComponent implements OnInit , OnDestroy {
   ticketCount: number = 0;
-  private pollingSubscription!: Subscription;
+  private streamSubscription!: Subscription;
 
   constructor(private ticketingService: TicketingService) {}
   
   ngOnDestroy(): void {
     // Unsubscribe to avoid memory leaks
-    if (this.pollingSubscription) {
-      this.pollingSubscription.unsubscribe();
+    if (this.streamSubscription) {
+      this.streamSubscription.unsubscribe();
     }
   }
 
@@ -28,24 +28,20 @@ export class TicketStatusComponent implements OnInit , OnDestroy {
   // }
 
   ngOnInit(): void {
-    this.startPolling();
+    this.startStreaming();
   }
 
-  // Start polling the backend for ticket count every 5 seconds
-  startPolling(): void {
-    this.pollingSubscription = interval(1000).subscribe(() => {
-      this.loadTicketCount();
-    });
+  // Receive the ticket count whenever the backend pushes an update, reconnecting if the stream drops
+  startStreaming(): void {
+    this.streamSubscription = defer(() => this.ticketingService.streamUpdates(-1))
+      .pipe(retry({ delay: 2000 }))
+      .subscribe({
+        next: (frame) => {
+          this.ticketCount = frame.ticketCount;
+        },
+        error: (err) => {
+          console.error('Error streaming ticket count:', err);
+        }
+      });
   }
-
-  loadTicketCount(): void {
-    this.ticketingService.getTicketCount().subscribe({
-      next: (count) => {
-        this.ticketCount = count;
-      },
-      error: (err) => {
-        console.error('Error fetching ticket count:', err);
-      }
-    });
-  }
-}
\ No newline at end of file
+}
@@ -1,6 +1,14 @@
 import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable } from 'rxjs';
+
+// One pushed update: the current ticket count and the log lines written since the previous update
+export interface StreamFrame {
+  ticketCount: number;
+  logs: string[];
+  logCursor: number;
+}
+
 // A service is to handle API calls
 @Injectable({
   providedIn: 'root',
@@ -30,6 +38,36 @@ export class TicketingService {
     return this.http.get<string[]>(`${this.apiUrl}/logs`);
   }
 
+  // Fetch only the log lines after the first `after` lines; advance the cursor by the number of lines returned
+  getLogsAfter(after: number, limit: number = 500): Observable<string[]> {
+    return this.http.get<string[]>(`${this.apiUrl}/logs`, { params: { after, limit } });
+  }
+
+  // Subscribe to pushed count and log updates; pass after = -1 to receive only the ticket count.
+  // The stream errors when the connection drops so the caller can reconnect from its own cursor.
+  streamUpdates(after: number = 0): Observable<StreamFrame> {
+    return this.openStream(`after=${after}`);
+  }
+
+  // Subscribe to pushed updates starting with the latest `lines` log lines rather than the whole log
+  streamLatest(lines: number): Observable<StreamFrame> {
+    return this.openStream(`tail=${lines}`);
+  }
+
+  private openStream(query: string): Observable<StreamFrame> {
+    return new Observable<StreamFrame>((subscriber) => {
+      const source = new EventSource(`${this.apiUrl}/stream?${query}`);
+      source.addEventListener('update', (event) => {
+        subscriber.next(JSON.parse((event as MessageEvent).data));
+      });
+      source.onerror = () => {
+        source.close();
+        subscriber.error(new Error('Update stream disconnected'));
+      };
+      return () => source.close();
+    });
+  }
+
   //Ensure the resetSystem method in TicketingService specifies the expected response type as text
   resetSystem(): Observable<string> {
     return this.http.post<string>(`${this.apiUrl}/reset`, {}, { responseType: 'text' as 'json' });
@@ -0,0 +1,27 @@
+package com.ticketing.benchmark;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+/**
+ * Runs the benchmark suite and writes the results as JMH JSON, so runs from different releases can be
+ * compared with any JMH result viewer or a simple diff script.
+ * <p>
+ * Usage: {@code BenchmarkRunner [result-file] [benchmark-regex]}. The result file defaults to
+ * {@code jmh-results.json} and the regex to every benchmark in this package.
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+    public static void main(String[] args) throws RunnerException {
+        String resultFile = args.length > 0 ? args[0] : "jmh-results.json";
+        String include = args.length > 1 ? args[1] : BenchmarkRunner.class.getPackageName() + "\\..*Benchmark";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+        new Runner(options).run();
+    }
+}
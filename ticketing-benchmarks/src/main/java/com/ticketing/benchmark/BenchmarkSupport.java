@@ -0,0 +1,79 @@
+package com.ticketing.benchmark;
+import com.ticketing.TicketingApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+/**
+ * Fixtures shared by the benchmarks: the backend started from its own configuration with every file in a
+ * scratch directory, and a silenced console.
+ */
+final class BenchmarkSupport {
+    private static final PrintStream CONSOLE = System.out;
+    private BenchmarkSupport() {
+    }
+    /**
+     * Starts the backend as {@link TicketingApplication} would, on a random port, with its log, event log and
+     * journal in {@code directory}. Each {@code properties} entry is a {@code name=value} pair that overrides
+     * the application's configuration, such as {@code ticketing.logging.async=true}.
+     */
+    static ConfigurableApplicationContext startBackend(Path directory, String... properties) {
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("server.port", "0");
+        defaults.put("spring.main.banner-mode", "off");
+        defaults.put("logging.level.root", "WARN");
+        defaults.put("spring.autoconfigure.exclude",
+                "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,"
+                + "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration"); // No database needed
+        defaults.put("ticketing.logging.directory", directory.toString());
+        defaults.put("ticketing.event-log.directory", directory.toString());
+        defaults.put("ticketing.journal.directory", directory.toString());
+        String[] args = new String[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            args[i] = "--" + properties[i];
+        }
+        return new SpringApplicationBuilder(TicketingApplication.class)
+                .properties(defaults)
+                .run(args);
+    }
+    /**
+     * Discards console output, which every logged message is also printed to.
+     */
+    static void silenceConsole() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+    /**
+     * Restores the console silenced by {@link #silenceConsole()}.
+     */
+    static void restoreConsole() {
+        System.setOut(CONSOLE);
+    }
+    /**
+     * Creates a scratch directory for log files.
+     */
+    static Path createScratchDirectory() throws IOException {
+        return Files.createTempDirectory("ticketing-bench");
+    }
+    /**
+     * Deletes a scratch directory and everything in it.
+     */
+    static void deleteScratchDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
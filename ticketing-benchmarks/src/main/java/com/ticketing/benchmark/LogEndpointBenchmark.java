@@ -0,0 +1,66 @@
+package com.ticketing.benchmark;
+import com.ticketing.controller.TicketController;
+import com.ticketing.logging.Logger;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+/**
+ * Latency of {@link TicketController#getLogs(long, int, Integer)} against log files of several sizes, for the
+ * last page a polling client asks for, for the largest page the endpoint serves, and for the most recent lines
+ * served from the logger's in-memory tail. The controller is the backend's own bean and is called directly, so the numbers
+ * exclude HTTP and JSON serialisation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogEndpointBenchmark {
+    private static final int PAGE_SIZE = 500;
+    @Param({"1000", "100000", "1000000"})
+    public int lines;
+    private Path directory;
+    private ConfigurableApplicationContext backend;
+    private TicketController controller;
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkSupport.silenceConsole();
+        directory = BenchmarkSupport.createScratchDirectory();
+        // Write the log with a first, asynchronous run of the backend; closing it drains the queue and closes the file
+        try (ConfigurableApplicationContext writer = BenchmarkSupport.startBackend(directory,
+                "ticketing.logging.async=true", "ticketing.event-log.enabled=false")) {
+            Logger logger = writer.getBean(Logger.class);
+            for (int i = 1; i <= lines; i++) {
+                logger.log("[LOG] Customer " + (i % 100) + " purchased Ticket " + i);
+            }
+        }
+        backend = BenchmarkSupport.startBackend(directory, "ticketing.event-log.enabled=false");
+        Logger logger = backend.getBean(Logger.class);
+        for (int i = 1; i <= PAGE_SIZE; i++) {
+            logger.log("[LOG] Customer " + (i % 100) + " purchased Ticket " + (lines + i)); // Fills the in-memory tail
+        }
+        controller = backend.getBean(TicketController.class);
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        backend.close();
+        BenchmarkSupport.restoreConsole();
+        BenchmarkSupport.deleteScratchDirectory(directory);
+    }
+    @Benchmark
+    public List<String> lastPage() {
+        return controller.getLogs(lines - PAGE_SIZE, PAGE_SIZE, null).getBody();
+    }
+    @Benchmark
+    public List<String> largestPage() {
+        return controller.getLogs(0, TicketController.MAX_LOG_PAGE, null).getBody();
+    }
+    @Benchmark
+    public List<String> recentLines() {
+        return controller.getLogs(0, Integer.MAX_VALUE, PAGE_SIZE).getBody();
+    }
+}
@@ -0,0 +1,59 @@
+package com.ticketing.benchmark;
+import com.ticketing.logging.Logger;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+/**
+ * Throughput of {@link Logger#log(String)} in synchronous and asynchronous mode, with file output on and off,
+ * from one thread and from several threads at once, and of the parameterized {@link Logger#log(String, long, long)}
+ * that the ticket pools use. The logger is the backend's own, configured through {@code ticketing.logging.*}.
+ * Console output is discarded during the benchmark.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggerBenchmark {
+    private static final String MESSAGE = "[LOG] Customer 42 purchased Ticket 123456";
+    private static final String TEMPLATE = "[LOG] Customer {} purchased Ticket {}";
+    @Param({"false", "true"})
+    public boolean async;
+    @Param({"true", "false"})
+    public boolean fileOutput;
+    private Path directory;
+    private ConfigurableApplicationContext backend;
+    private Logger logger;
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkSupport.silenceConsole();
+        directory = BenchmarkSupport.createScratchDirectory();
+        backend = BenchmarkSupport.startBackend(directory, "ticketing.logging.async=" + async,
+                "ticketing.logging.file-enabled=" + fileOutput, "ticketing.event-log.enabled=false");
+        logger = backend.getBean(Logger.class);
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        backend.close();
+        BenchmarkSupport.restoreConsole();
+        BenchmarkSupport.deleteScratchDirectory(directory);
+    }
+    @Benchmark
+    @Threads(1)
+    public void log() {
+        logger.log(MESSAGE);
+    }
+    @Benchmark
+    @Threads(4)
+    public void logFromFourThreads() {
+        logger.log(MESSAGE);
+    }
+    @Benchmark
+    @Threads(1)
+    public void logTemplate() {
+        logger.log(TEMPLATE, 42, 123456);
+    }
+}
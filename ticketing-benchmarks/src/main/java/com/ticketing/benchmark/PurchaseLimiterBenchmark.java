@@ -0,0 +1,48 @@
+package com.ticketing.benchmark;
+import com.ticketing.controller.TicketRequest;
+import com.ticketing.limit.PurchaseLimiter;
+import org.openjdk.jmh.annotations.*;
+import java.util.concurrent.TimeUnit;
+/**
+ * Throughput of {@link PurchaseLimiter#tryAcquire} from several threads, over customer populations from a
+ * handful of heavy buyers, where threads meet on the same stripes, to a million customers, where most
+ * checks miss the cache. The rate and cap are high enough that checks are rarely refused, so the score
+ * measures the lookup and update rather than early returns. The limiter is built from a submitted
+ * configuration, as the controller builds it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchaseLimiterBenchmark {
+    @Param({"16", "100000", "1000000"})
+    public int customers;
+    private PurchaseLimiter limiter;
+    /**
+     * Each thread walks the customers in its own order.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private long next;
+        @Setup(Level.Trial)
+        public void setUp() {
+            next = Thread.currentThread().getId() * 7919;
+        }
+    }
+    @Setup(Level.Trial)
+    public void setUp() {
+        TicketRequest request = new TicketRequest();
+        request.setCustomerRequestsPerSecond(1_000_000);
+        request.setCustomerBurst(1_000);
+        request.setMaxTicketsPerCustomer(Integer.MAX_VALUE);
+        limiter = PurchaseLimiter.of(request);
+    }
+    @Benchmark
+    @Threads(4)
+    public int tryAcquire(Cursor cursor) {
+        cursor.next = (cursor.next + 104729) % customers;
+        return limiter.tryAcquire(cursor.next, 1);
+    }
+}
@@ -0,0 +1,125 @@
+package com.ticketing.benchmark;
+import com.ticketing.config.TicketPoolFactory;
+import com.ticketing.controller.TicketRequest;
+import com.ticketing.pool.TicketPool;
+import com.ticketing.pool.TicketRange;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+/**
+ * Throughput of publishing and claiming tickets on each pool backend, at several vendor/customer
+ * thread ratios and pool capacities.
+ * Each group runs vendors and customers against one shared pool. The benchmark uses the non-blocking
+ * {@link TicketPool#tryRelease} and {@link TicketPool#tryClaim} so that threads never park at the end of
+ * an iteration, which JMH cannot interrupt; the score counts attempts, and the {@code released} and
+ * {@code claimed} secondary results count the batches that went through. Pools are built by the backend's
+ * {@link TicketPoolFactory}, with logging turned off through {@code ticketing.logging.level=OFF}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class TicketPoolBenchmark {
+    @Param({"locking", "ring-buffer", "sharded"})
+    public String poolType;
+    @Param({"16", "1024", "65536"})
+    public int capacity;
+    @Param({"1", "10"})
+    public int batchSize;
+    private Path directory;
+    private ConfigurableApplicationContext backend;
+    private TicketPool pool;
+    /**
+     * Per-thread counts of successful operations, reported alongside the score.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Completed {
+        public long released;
+        public long claimed;
+        @Setup(Level.Iteration)
+        public void reset() {
+            released = 0;
+            claimed = 0;
+        }
+    }
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = BenchmarkSupport.createScratchDirectory();
+        backend = BenchmarkSupport.startBackend(directory, "ticketing.logging.level=OFF", "ticketing.event-log.enabled=false");
+        TicketRequest request = new TicketRequest();
+        request.setMaxTicketCapacity(capacity);
+        pool = backend.getBean(TicketPoolFactory.class).create(poolType, request);
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        backend.close();
+        BenchmarkSupport.deleteScratchDirectory(directory);
+    }
+    private long release(Completed completed) {
+        TicketRange range = pool.tryRelease(batchSize, 1, capacity);
+        if (!range.isEmpty()) {
+            completed.released++;
+        }
+        return range.getFirstTicketId();
+    }
+    private long claim(Completed completed) {
+        TicketRange range = pool.tryClaim(batchSize, 1);
+        if (!range.isEmpty()) {
+            completed.claimed++;
+        }
+        return range.getFirstTicketId();
+    }
+    @Benchmark
+    @Group("vendors1_customers1")
+    @GroupThreads(1)
+    public long release1to1(Completed completed) {
+        return release(completed);
+    }
+    @Benchmark
+    @Group("vendors1_customers1")
+    @GroupThreads(1)
+    public long claim1to1(Completed completed) {
+        return claim(completed);
+    }
+    @Benchmark
+    @Group("vendors1_customers4")
+    @GroupThreads(1)
+    public long release1to4(Completed completed) {
+        return release(completed);
+    }
+    @Benchmark
+    @Group("vendors1_customers4")
+    @GroupThreads(4)
+    public long claim1to4(Completed completed) {
+        return claim(completed);
+    }
+    @Benchmark
+    @Group("vendors4_customers1")
+    @GroupThreads(4)
+    public long release4to1(Completed completed) {
+        return release(completed);
+    }
+    @Benchmark
+    @Group("vendors4_customers1")
+    @GroupThreads(1)
+    public long claim4to1(Completed completed) {
+        return claim(completed);
+    }
+    @Benchmark
+    @Group("vendors4_customers4")
+    @GroupThreads(4)
+    public long release4to4(Completed completed) {
+        return release(completed);
+    }
+    @Benchmark
+    @Group("vendors4_customers4")
+    @GroupThreads(4)
+    public long claim4to4(Completed completed) {
+        return claim(completed);
+    }
+}
@@ -2,6 +2,7 @@ package com.ticketing;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import java.util.Map;
 /**
  * The main class for the Ticketing Application.
  * This class serves as the entry point for the Spring Boot application.
@@ -15,7 +16,10 @@ public class TicketingApplication {
      * @param args Command-line arguments passed during application startup.
      */
     public static void main(String[] args) {
-        SpringApplication.run(TicketingApplication.class, args);
+        SpringApplication application = new SpringApplication(TicketingApplication.class);
+        // Publish the ticketing metrics on /actuator/metrics unless the deployment configures exposure itself
+        application.setDefaultProperties(Map.of("management.endpoints.web.exposure.include", "health,metrics"));
+        application.run(args);
     }
 }
 
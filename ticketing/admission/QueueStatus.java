@@ -0,0 +1,61 @@
+package com.ticketing.admission;
+/**
+ * Data Transfer Object (DTO) describing a customer's place in the {@link WaitingRoom}.
+ */
+public class QueueStatus {
+    private final long position;
+    private final boolean admitted;
+    private final long ahead;
+    private final long estimatedWaitMillis;
+    private final String token;
+    /**
+     * Constructs a status.
+     * @param position            The customer's queue position.
+     * @param admitted            Whether the customer may buy tickets.
+     * @param ahead               The number of customers ahead still waiting.
+     * @param estimatedWaitMillis The expected wait at the current admission rate.
+     */
+    public QueueStatus(long position, boolean admitted, long ahead, long estimatedWaitMillis) {
+        this(position, admitted, ahead, estimatedWaitMillis, null);
+    }
+    /**
+     * Constructs the status returned when joining, carrying the position's token.
+     * @param position            The customer's queue position.
+     * @param admitted            Whether the customer may buy tickets.
+     * @param ahead               The number of customers ahead still waiting.
+     * @param estimatedWaitMillis The expected wait at the current admission rate.
+     * @param token               The token to present with the position, or {@code null}.
+     */
+    public QueueStatus(long position, boolean admitted, long ahead, long estimatedWaitMillis, String token) {
+        this.position = position;
+        this.admitted = admitted;
+        this.ahead = ahead;
+        this.estimatedWaitMillis = estimatedWaitMillis;
+        this.token = token;
+    }
+    /**
+     * Retrieves the customer's queue position.
+     * @return The position.
+     */
+    public long getPosition() {return position;}
+    /**
+     * Tells whether the customer may buy tickets.
+     * @return {@code true} once the position has been admitted.
+     */
+    public boolean isAdmitted() {return admitted;}
+    /**
+     * Retrieves the number of customers ahead that are still waiting.
+     * @return The number of customers ahead.
+     */
+    public long getAhead() {return ahead;}
+    /**
+     * Retrieves the expected wait at the current admission rate.
+     * @return The estimated wait in milliseconds.
+     */
+    public long getEstimatedWaitMillis() {return estimatedWaitMillis;}
+    /**
+     * Retrieves the token to present with the position when placing holds and leaving.
+     * @return The token, only included in the response to joining.
+     */
+    public String getToken() {return token;}
+}
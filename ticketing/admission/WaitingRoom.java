@@ -0,0 +1,359 @@
+package com.ticketing.admission;
+import com.ticketing.hold.HoldManager;
+import com.ticketing.pool.PoolListener;
+import com.ticketing.pool.TicketPool;
+import com.ticketing.pool.TicketRange;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+/**
+ * A virtual waiting room in front of ticket purchases, enabled with {@code ticketing.waiting-room.enabled=true}.
+ * <p>
+ * Arriving customers {@link #join} and get the next queue position. Every {@code ticketing.waiting-room.tick-millis}
+ * an admission thread admits the next positions in order, so customers reach the pool first come, first served
+ * instead of all at once. How many are admitted per tick follows the pool:
+ * <ul>
+ *     <li>Sales velocity: admissions keep pace with the rate at which customers complete purchases, measured
+ *     from the pool's claims and confirmed holds, and never fall below
+ *     {@code ticketing.waiting-room.min-admit-per-second}. Tickets claimed to be held are not sales yet.</li>
+ *     <li>Occupancy: no more customers are let in than the tickets in the pool can serve at the average
+ *     purchase size, and at most {@code ticketing.waiting-room.max-active} are inside at once.</li>
+ * </ul>
+ * An admitted customer is inside until it {@link #leave}s or, if it never does, for
+ * {@code ticketing.waiting-room.admission-ttl-millis}. Leaving is counted once per position, and a position
+ * that has left or timed out is no longer admitted.
+ * <p>
+ * Positions are sequential, so clients outside the process join through {@link #joinWithToken()} and get an
+ * unguessable token with their position; {@link #isAdmitted(long, String)} and {@link #leave(long, String)}
+ * only accept the position together with its token.
+ * <p>
+ * Waiting threads are parked individually and only the ones admitted by a tick are woken. Reading a position's
+ * progress through {@link #getStatus} only reads a few volatile fields and never touches the pool.
+ */
+@Component
+public class WaitingRoom implements PoolListener, DisposableBean {
+    private static final double VELOCITY_SMOOTHING = 0.2; // Weight of the latest tick in the sales velocity
+    private static final double VELOCITY_HEADROOM = 1.25; // Admit a little faster than sales so the pool never idles
+    private static final int TOKEN_BYTES = 16;
+    private final TicketPool ticketPool;
+    private final boolean enabled;
+    private final int maxActive;
+    private final double minAdmitPerSecond;
+    private final long tickMillis;
+    private final AtomicLong lastPosition = new AtomicLong();
+    private volatile long admittedUpTo; // Every position up to this one has been admitted
+    private volatile double admitPerSecond; // The admission rate over the last tick, for wait estimates
+    private volatile int poolTickets; // The pool's ticket count after its last operation
+    private final LongAdder claims = new LongAdder();
+    private final LongAdder ticketsClaimed = new LongAdder();
+    private final ConcurrentSkipListMap<Long, Thread> waiters = new ConcurrentSkipListMap<>();
+    // Tokens of the positions handed out through joinWithToken, until they time out
+    private final ConcurrentSkipListMap<Long, String> tokens = new ConcurrentSkipListMap<>();
+    // Admitted positions that have left and have not timed out yet; written under this
+    private final ConcurrentSkipListSet<Long> left = new ConcurrentSkipListSet<>();
+    private final SecureRandom random = new SecureRandom();
+    // Admission window, guarded by this: the positions admitted at each of the last window.length ticks
+    // and how many of them have left, so that expiring a tick's admissions does not count leavers twice.
+    private final long[] admittedAt;
+    private final int[] leftAt;
+    private long tick;
+    private volatile long expiredUpTo; // Positions up to this one were admitted too long ago to count as inside
+    private int inside;
+    private long lastClaims;
+    private long lastTicketsClaimed;
+    private double customersPerSecond;
+    private double ticketsPerCustomer = 1;
+    private double credit; // Fractional admissions carried over to the next tick
+    private final Thread admitter;
+    /**
+     * Constructs the waiting room and, if it is enabled, starts admitting.
+     * @param ticketPool          The pool customers are admitted to.
+     * @param holdManager         The manager whose confirmed holds count as purchases.
+     * @param enabled             Whether purchases go through the waiting room.
+     * @param maxActive           The most admitted customers allowed inside at once.
+     * @param minAdmitPerSecond   The admission rate when nothing is selling.
+     * @param tickMillis          How often customers are admitted.
+     * @param admissionTtlMillis  How long an admitted customer that never leaves counts as inside.
+     */
+    public WaitingRoom(TicketPool ticketPool, HoldManager holdManager,
+                       @Value("${ticketing.waiting-room.enabled:false}") boolean enabled,
+                       @Value("${ticketing.waiting-room.max-active:256}") int maxActive,
+                       @Value("${ticketing.waiting-room.min-admit-per-second:50}") double minAdmitPerSecond,
+                       @Value("${ticketing.waiting-room.tick-millis:50}") long tickMillis,
+                       @Value("${ticketing.waiting-room.admission-ttl-millis:30000}") long admissionTtlMillis) {
+        if (maxActive <= 0 || minAdmitPerSecond <= 0 || tickMillis <= 0 || admissionTtlMillis < tickMillis) {
+            throw new IllegalArgumentException("The waiting room needs a positive capacity, rate and tick, and a TTL of at least one tick.");
+        }
+        this.ticketPool = ticketPool;
+        this.enabled = enabled;
+        this.maxActive = maxActive;
+        this.minAdmitPerSecond = minAdmitPerSecond;
+        this.tickMillis = tickMillis;
+        this.admittedAt = new long[(int) Math.min(admissionTtlMillis / tickMillis, 1 << 20)];
+        this.leftAt = new int[admittedAt.length];
+        this.admitPerSecond = minAdmitPerSecond;
+        this.poolTickets = ticketPool.getTicketCount();
+        if (enabled) {
+            ticketPool.addListener(this);
+            holdManager.addConfirmListener(hold -> countPurchase(hold.getCount()));
+            this.admitter = new Thread(this::runAdmissions, "ticketing-waiting-room");
+            this.admitter.setDaemon(true);
+            this.admitter.start();
+        } else {
+            this.admitter = null;
+        }
+    }
+    /**
+     * Tells whether purchases go through the waiting room.
+     * @return {@code true} if the waiting room is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+    /**
+     * Joins the back of the queue.
+     * @return The customer's queue position, counting from 1.
+     */
+    public long join() {
+        return lastPosition.incrementAndGet();
+    }
+    /**
+     * Joins the back of the queue on behalf of a client outside the process.
+     * @return The new position's status, carrying the token the client must present with the position.
+     */
+    public QueueStatus joinWithToken() {
+        long position = join();
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tokens.put(position, token);
+        QueueStatus status = getStatus(position);
+        return new QueueStatus(position, status.isAdmitted(), status.getAhead(), status.getEstimatedWaitMillis(), token);
+    }
+    /**
+     * Tells whether a queue position has been handed out.
+     * @param position The queue position.
+     * @return {@code true} if some customer joined with the position.
+     */
+    public boolean isKnown(long position) {
+        return position > 0 && position <= lastPosition.get();
+    }
+    /**
+     * Tells whether a queue position is admitted: its turn has come, and it has neither left nor timed out.
+     * Always true when the waiting room is disabled.
+     * @param position The queue position.
+     * @return {@code true} if the customer holding the position may buy tickets.
+     */
+    public boolean isAdmitted(long position) {
+        return !enabled || (position > expiredUpTo && position <= admittedUpTo && !left.contains(position));
+    }
+    /**
+     * Tells whether a position handed out by {@link #joinWithToken()} is admitted, checking its token.
+     * Always true when the waiting room is disabled.
+     * @param position The queue position.
+     * @param token    The token handed out with the position.
+     * @return {@code true} if the token matches and the position is admitted.
+     */
+    public boolean isAdmitted(long position, String token) {
+        return !enabled || (hasToken(position, token) && isAdmitted(position));
+    }
+    /**
+     * Tells whether a queue position's turn has come, whether or not it has left or timed out since.
+     * For customers inside the process, which claim as soon as they are let in.
+     * @param position The queue position.
+     * @return {@code true} once the position has been admitted.
+     */
+    public boolean hasBeenAdmitted(long position) {
+        return !enabled || (position > 0 && position <= admittedUpTo);
+    }
+    /**
+     * Tells whether a token is the one handed out with a position that has not timed out.
+     * @param position The queue position.
+     * @param token    The token to check.
+     * @return {@code true} if the token matches.
+     */
+    public boolean hasToken(long position, String token) {
+        String expected = token == null ? null : tokens.get(position);
+        return expected != null && MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII), token.getBytes(StandardCharsets.US_ASCII));
+    }
+    /**
+     * Waits until a queue position is admitted.
+     * @param position The queue position returned by {@link #join()}.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public void awaitAdmission(long position) throws InterruptedException {
+        if (hasBeenAdmitted(position)) {
+            return;
+        }
+        waiters.put(position, Thread.currentThread());
+        try {
+            while (!hasBeenAdmitted(position)) { // Registered before this check, so an admission cannot be missed
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waiters.remove(position);
+        }
+    }
+    /**
+     * Tells the waiting room that an admitted customer has finished, making room for the next one.
+     * Positions that have not been admitted yet, that have already left, or that timed out are ignored.
+     * @param position The queue position.
+     */
+    public synchronized void leave(long position) {
+        if (!enabled || position <= expiredUpTo || position > admittedUpTo || !left.add(position)) {
+            return;
+        }
+        long low = Math.max(1, tick - admittedAt.length + 1);
+        long high = tick;
+        while (low < high) { // Find the tick that admitted the position
+            long middle = (low + high) >>> 1;
+            if (admittedAt[slot(middle)] >= position) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        leftAt[slot(low)]++;
+        inside--;
+    }
+    /**
+     * Leaves on behalf of a client outside the process, checking the position's token.
+     * @param position The queue position.
+     * @param token    The token handed out with the position.
+     * @return {@code false} if the token does not match, in which case nothing changes.
+     */
+    public boolean leave(long position, String token) {
+        if (!enabled) {
+            return true;
+        }
+        if (!hasToken(position, token)) {
+            return false;
+        }
+        leave(position);
+        return true;
+    }
+    /**
+     * Describes a queue position's progress without touching the pool.
+     * @param position The queue position.
+     * @return The position's status.
+     */
+    public QueueStatus getStatus(long position) {
+        long admitted = enabled ? admittedUpTo : lastPosition.get();
+        long ahead = Math.max(0, position - admitted - 1);
+        double rate = admitPerSecond;
+        return new QueueStatus(position, isAdmitted(position), ahead, (long) Math.ceil(ahead * 1000 / rate));
+    }
+    /**
+     * Retrieves the number of customers queued and not admitted yet.
+     * @return The queue length.
+     */
+    public long getQueueLength() {
+        return enabled ? Math.max(0, lastPosition.get() - admittedUpTo) : 0;
+    }
+    /**
+     * Retrieves the number of admitted customers counted as inside.
+     * @return The number of customers inside.
+     */
+    public synchronized int getInside() {
+        return inside;
+    }
+    @Override
+    public void onTicketsReleased(int vendorId, TicketRange range, int ticketCount) {
+        poolTickets = ticketCount;
+    }
+    @Override
+    public void onTicketsClaimed(int customerId, TicketRange range, int ticketCount) {
+        poolTickets = ticketCount;
+        if (customerId != HoldManager.HOLD_CUSTOMER_ID) {
+            countPurchase(range.getCount());
+        }
+    }
+    /**
+     * Adds a completed purchase to the sales velocity.
+     */
+    private void countPurchase(int tickets) {
+        claims.increment();
+        ticketsClaimed.add(tickets);
+    }
+    /**
+     * Stops admitting when the application shuts down.
+     */
+    @Override
+    public void destroy() {
+        if (admitter != null) {
+            admitter.interrupt();
+        }
+    }
+    /**
+     * Admits customers every tick until the waiting room is destroyed.
+     */
+    private void runAdmissions() {
+        long next = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            next += TimeUnit.MILLISECONDS.toNanos(tickMillis);
+            long upTo = admit();
+            for (Thread waiter : waiters.headMap(upTo, true).values()) {
+                LockSupport.unpark(waiter);
+            }
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                next = System.nanoTime(); // Fell behind; do not try to catch up with a burst
+            }
+        }
+    }
+    /**
+     * Runs one tick: expires the oldest tick's admissions, updates the sales velocity, and admits the next positions.
+     * @return The last admitted position.
+     */
+    synchronized long admit() {
+        int slot = slot(++tick);
+        inside -= (int) (admittedAt[slot] - expiredUpTo) - leftAt[slot]; // Customers admitted a window ago time out
+        expiredUpTo = admittedAt[slot];
+        left.headSet(expiredUpTo, true).clear();
+        tokens.headMap(expiredUpTo, true).clear();
+        double tickSeconds = tickMillis / 1000.0;
+        long totalClaims = claims.sum();
+        long totalTickets = ticketsClaimed.sum();
+        long newClaims = totalClaims - lastClaims;
+        customersPerSecond += VELOCITY_SMOOTHING * (newClaims / tickSeconds - customersPerSecond);
+        if (newClaims > 0) {
+            ticketsPerCustomer = Math.max(1, (double) (totalTickets - lastTicketsClaimed) / newClaims);
+        }
+        lastClaims = totalClaims;
+        lastTicketsClaimed = totalTickets;
+        long stock = (long) Math.ceil(poolTickets / ticketsPerCustomer) - inside; // Customers the pool can still serve
+        double rate = stock > 0 ? Math.max(minAdmitPerSecond, customersPerSecond * VELOCITY_HEADROOM) : minAdmitPerSecond;
+        credit = Math.min(credit + rate * tickSeconds, rate * tickSeconds + 1);
+        long budget = Math.min((long) credit, maxActive - inside);
+        if (stock > 0) {
+            budget = Math.min(budget, stock); // When sold out, keep the queue moving at the minimum rate
+        }
+        long previous = admittedUpTo;
+        long upTo = Math.min(previous + Math.max(0, budget), lastPosition.get());
+        credit -= upTo - previous;
+        inside += (int) (upTo - previous);
+        admittedAt[slot] = upTo;
+        leftAt[slot] = 0;
+        admittedUpTo = upTo;
+        admitPerSecond = Math.max(minAdmitPerSecond, (upTo - previous) / tickSeconds);
+        return upTo;
+    }
+    private int slot(long tick) {
+        return (int) (tick % admittedAt.length);
+    }
+}
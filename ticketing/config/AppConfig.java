@@ -1,8 +1,10 @@
 package com.ticketing.config;
 
 import com.ticketing.controller.TicketRequest;
+import com.ticketing.journal.TicketJournal;
 import com.ticketing.logging.Logger;
 import com.ticketing.pool.TicketPool;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 /**
@@ -27,11 +29,23 @@ public class AppConfig {
      * Creates a {@link TicketPool} bean configured with parameters from {@link TicketRequest}.
      * The {@link TicketPool} is initialized with the maximum ticket capacity, total tickets,
      * ticket release rate, and customer retrieval rate.
+     * The backend is selected with the {@code ticketing.pool.type} property: {@code locking} (default),
+     * {@code ring-buffer} or {@code sharded}, the last with {@code ticketing.pool.shards} shards; see
+     * {@link TicketPoolFactory#createApplicationPool}.
+     * If journaling is enabled, the pool is restored from the journal before it is handed out.
+     * @param poolType    The pool backend to create.
+     * @param poolFactory The factory that builds the chosen backend.
+     * @param journal     The journal that recovers and records the pool's contents.
      * @return A configured {@link TicketPool} instance.
      */
     @Bean
-    public TicketPool ticketPool() {
+    public TicketPool ticketPool(@Value("${ticketing.pool.type:locking}") String poolType,
+                                 TicketPoolFactory poolFactory,
+                                 TicketJournal journal) {
         // Use values from TicketRequest to initialize TicketPool
-        return new TicketPool(logger, ticketRequest.getMaxTicketCapacity(), ticketRequest.getTotalTickets(), ticketRequest.getTicketReleaseRate(), ticketRequest.getCustomerRetrievalRate());
+        TicketPool ticketPool = poolFactory.createApplicationPool(poolType, ticketRequest);
+        journal.attach(ticketPool);
+        logger.log("[LOG] Ticket pool initialized with the " + poolType + " backend.");
+        return ticketPool;
     }
 }
@@ -2,12 +2,16 @@ package com.ticketing.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 /**
  * Configures security settings for the backend application.
  * Provides basic authentication and controls access to different endpoints.
  * Disables CSRF protection to allow interactions with non-browser clients (e.g., Postman).
+ * Changing the log settings is an operator action, so it needs the credentials of
+ * {@code spring.security.user.*} even though the rest of {@code /api/tickets} is public.
  */
 @Configuration
 public class SecurityConfig {
@@ -21,9 +25,12 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(HttpMethod.POST, "/api/tickets/logging").authenticated() // Only operators may change what is logged
                         .requestMatchers("/api/tickets/**").permitAll() // Allow public access to all endpoints under /api/tickets
+                        .requestMatchers("/actuator/health", "/actuator/metrics/**").permitAll() // Allow monitoring to read health and metrics
                         .anyRequest().authenticated() // Require authentication for all other endpoints
                 )
+                .httpBasic(Customizer.withDefaults())
                 .csrf(csrf -> csrf.disable()); // Explicitly disable CSRF protection
         return http.build();
     }
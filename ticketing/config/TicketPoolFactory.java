@@ -0,0 +1,78 @@
+package com.ticketing.config;
+
+import com.ticketing.controller.TicketRequest;
+import com.ticketing.logging.Logger;
+import com.ticketing.pool.LockingTicketPool;
+import com.ticketing.pool.RingBufferTicketPool;
+import com.ticketing.pool.ShardedTicketPool;
+import com.ticketing.pool.TicketPool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+/**
+ * Creates {@link TicketPool}s of the configured backends, for the application's own pool and for event pools.
+ */
+@Component
+public class TicketPoolFactory {
+    private final Logger logger;
+    private final int ringCapacity;
+    private final int shards;
+    /**
+     * Constructs the factory.
+     * @param logger       The logger handed to every pool.
+     * @param ringCapacity The minimum number of slots preallocated by the ring-buffer backend.
+     * @param shards       The default shard count of the sharded backend; zero means one per core.
+     */
+    public TicketPoolFactory(Logger logger,
+                             @Value("${ticketing.pool.ring-capacity:1024}") int ringCapacity,
+                             @Value("${ticketing.pool.shards:0}") int shards) {
+        this.logger = logger;
+        this.ringCapacity = ringCapacity;
+        this.shards = shards;
+    }
+    /**
+     * Creates an event or simulation pool with the capacity, initial tickets and rates of a {@link TicketRequest}.
+     * {@code locking} keeps tickets in a lock-guarded queue of ID runs, {@code ring-buffer} uses a preallocated
+     * lock-free ring sized to at least {@code ticketing.pool.ring-capacity} slots, and {@code sharded} splits the
+     * pool into independent sub-pools; the shard count comes from {@link TicketRequest#getPoolShards()} if set,
+     * else from {@code ticketing.pool.shards}, else the number of cores.
+     * @param poolType The backend: {@code locking}, {@code ring-buffer} or {@code sharded}.
+     * @param request  The pool's configuration.
+     * @return The new pool.
+     * @throws IllegalStateException if the backend is unknown.
+     */
+    public TicketPool create(String poolType, TicketRequest request) {
+        return create(poolType, request, request.getPoolShards());
+    }
+    /**
+     * Creates the application's own pool, as {@link #create} does except that a sharded pool always takes its
+     * shard count from {@code ticketing.pool.shards}, or the number of cores: the pool is created at startup,
+     * before any configuration is submitted, so there is no request to take it from.
+     * @param poolType The backend: {@code locking}, {@code ring-buffer} or {@code sharded}.
+     * @param request  The pool's configuration.
+     * @return The new pool.
+     * @throws IllegalStateException if the backend is unknown.
+     */
+    public TicketPool createApplicationPool(String poolType, TicketRequest request) {
+        return create(poolType, request, 0);
+    }
+    /**
+     * Creates a pool of the given backend, sharded {@code poolShards} ways or by default if that is zero.
+     */
+    private TicketPool create(String poolType, TicketRequest request, int poolShards) {
+        return switch (poolType) {
+            case "locking" -> new LockingTicketPool(logger, request.getMaxTicketCapacity(), request.getTotalTickets(), request.getTicketReleaseRate(), request.getCustomerRetrievalRate());
+            case "ring-buffer" -> new RingBufferTicketPool(logger, Math.max(request.getMaxTicketCapacity(), ringCapacity), request.getTotalTickets(), request.getTicketReleaseRate(), request.getCustomerRetrievalRate());
+            case "sharded" -> new ShardedTicketPool(logger, shardCount(poolShards), request.getMaxTicketCapacity(), request.getTotalTickets(), request.getTicketReleaseRate(), request.getCustomerRetrievalRate());
+            default -> throw new IllegalStateException("Unknown ticketing.pool.type: " + poolType);
+        };
+    }
+    /**
+     * Picks the shard count for the sharded backend: the requested value, the configured default, or one per core.
+     */
+    private int shardCount(int poolShards) {
+        if (poolShards > 0) {
+            return poolShards;
+        }
+        return shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+    }
+}
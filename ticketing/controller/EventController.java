@@ -0,0 +1,127 @@
+package com.ticketing.controller;
+
+import com.ticketing.event.EventRegistry;
+import com.ticketing.event.TicketEvent;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+/**
+ * REST controller for running many events side by side.
+ * Each event has its own ticket pool, configuration, vendors and customers, held by the {@link EventRegistry}.
+ * Endpoints for an event that does not exist respond with {@code 404 Not Found}.
+ */
+@RestController
+@RequestMapping("/api/tickets/events")
+public class EventController {
+    private final EventRegistry eventRegistry;
+    /**
+     * Constructs a new instance of {@code EventController}.
+     * @param eventRegistry The registry holding every event.
+     */
+    public EventController(EventRegistry eventRegistry) {
+        this.eventRegistry = eventRegistry;
+    }
+    /**
+     * Endpoint to list every event.
+     * @return The status of each event.
+     */
+    @GetMapping
+    public List<EventStatus> getEvents() {
+        List<EventStatus> statuses = new ArrayList<>();
+        for (TicketEvent event : eventRegistry.getEvents()) {
+            statuses.add(status(event));
+        }
+        return statuses;
+    }
+    /**
+     * Endpoint to register an event or reconfigure a stopped one.
+     * @param eventId The event's ID.
+     * @param request The {@code TicketRequest} containing the event's configuration.
+     * @return A response indicating the success or failure of the operation.
+     */
+    @PutMapping("/{eventId}")
+    public ResponseEntity<String> configure(@PathVariable long eventId, @RequestBody TicketRequest request) {
+        try {
+            eventRegistry.configure(eventId, request);
+            return ResponseEntity.ok("Event " + eventId + " configured successfully!");
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+    /**
+     * Endpoint to retrieve an event.
+     * @param eventId The event's ID.
+     * @return The event's status.
+     */
+    @GetMapping("/{eventId}")
+    public ResponseEntity<EventStatus> getEvent(@PathVariable long eventId) {
+        try {
+            return ResponseEntity.ok(status(eventRegistry.get(eventId)));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
+    /**
+     * Endpoint to start an event's vendors and customers.
+     * @param eventId The event's ID.
+     * @return A response indicating the success or failure of the operation.
+     */
+    @PostMapping("/{eventId}/start")
+    public ResponseEntity<String> start(@PathVariable long eventId) {
+        try {
+            eventRegistry.start(eventId);
+            return ResponseEntity.ok("Event " + eventId + " started successfully!");
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+    /**
+     * Endpoint to stop an event's vendors and customers.
+     * @param eventId The event's ID.
+     * @return A response indicating the success or failure of the operation.
+     */
+    @PostMapping("/{eventId}/stop")
+    public ResponseEntity<String> stop(@PathVariable long eventId) {
+        try {
+            eventRegistry.stop(eventId);
+            return ResponseEntity.ok("Event " + eventId + " stopped successfully!");
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+    /**
+     * Endpoint to retrieve an event's current ticket count.
+     * @param eventId The event's ID.
+     * @return The number of tickets available for the event.
+     */
+    @GetMapping("/{eventId}/count")
+    public ResponseEntity<Integer> getTicketCount(@PathVariable long eventId) {
+        try {
+            return ResponseEntity.ok(eventRegistry.get(eventId).getTicketCount());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
+    /**
+     * Endpoint to stop and remove an event.
+     * @param eventId The event's ID.
+     * @return A response indicating the success or failure of the operation.
+     */
+    @DeleteMapping("/{eventId}")
+    public ResponseEntity<String> remove(@PathVariable long eventId) {
+        try {
+            eventRegistry.remove(eventId);
+            return ResponseEntity.ok("Event " + eventId + " removed successfully!");
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+    private static EventStatus status(TicketEvent event) {
+        return new EventStatus(event.getEventId(), event.isRunning(), event.getTicketCount(), event.getConfig());
+    }
+}
@@ -0,0 +1,43 @@
+package com.ticketing.controller;
+/**
+ * Data Transfer Object (DTO) describing one event in responses from {@link EventController}.
+ */
+public class EventStatus {
+    private final long eventId;
+    private final boolean running;
+    private final int ticketCount;
+    private final TicketRequest config;
+    /**
+     * Constructs a status.
+     * @param eventId     The event's ID.
+     * @param running     Whether the event's vendors and customers are running.
+     * @param ticketCount The number of tickets available.
+     * @param config      The event's configuration.
+     */
+    public EventStatus(long eventId, boolean running, int ticketCount, TicketRequest config) {
+        this.eventId = eventId;
+        this.running = running;
+        this.ticketCount = ticketCount;
+        this.config = config;
+    }
+    /**
+     * Retrieves the event's ID.
+     * @return The event ID.
+     */
+    public long getEventId() {return eventId;}
+    /**
+     * Tells whether the event's vendors and customers are running.
+     * @return {@code true} while the event is started.
+     */
+    public boolean isRunning() {return running;}
+    /**
+     * Retrieves the number of tickets available.
+     * @return The ticket count.
+     */
+    public int getTicketCount() {return ticketCount;}
+    /**
+     * Retrieves the event's configuration.
+     * @return The configuration.
+     */
+    public TicketRequest getConfig() {return config;}
+}
@@ -0,0 +1,77 @@
+package com.ticketing.controller;
+/**
+ * Data Transfer Object (DTO) describing the ticket pool and its holds in responses from {@link TicketController}.
+ */
+public class PoolStatus {
+    private final int ticketCount;
+    private final int totalTickets;
+    private final int activeHolds;
+    private final long heldTickets;
+    private final long confirmedHolds;
+    private final long expiredHolds;
+    private final long releasedHolds;
+    private final long returnedTickets;
+    /**
+     * Constructs a status.
+     * @param ticketCount    The number of tickets available in the pool.
+     * @param totalTickets   The number of tickets published, including tickets returned from holds.
+     * @param activeHolds    The number of holds waiting for checkout.
+     * @param heldTickets    The number of tickets in those holds.
+     * @param confirmedHolds The number of holds confirmed since startup.
+     * @param expiredHolds   The number of holds that expired since startup.
+     * @param releasedHolds  The number of holds released early since startup.
+     * @param returnedTickets The number of tickets from expired and released holds published back to the pool.
+     */
+    public PoolStatus(int ticketCount, int totalTickets, int activeHolds, long heldTickets,
+                      long confirmedHolds, long expiredHolds, long releasedHolds, long returnedTickets) {
+        this.ticketCount = ticketCount;
+        this.totalTickets = totalTickets;
+        this.activeHolds = activeHolds;
+        this.heldTickets = heldTickets;
+        this.confirmedHolds = confirmedHolds;
+        this.expiredHolds = expiredHolds;
+        this.releasedHolds = releasedHolds;
+        this.returnedTickets = returnedTickets;
+    }
+    /**
+     * Retrieves the number of tickets available in the pool.
+     * @return The ticket count.
+     */
+    public int getTicketCount() {return ticketCount;}
+    /**
+     * Retrieves the number of tickets published, including tickets returned from holds; subtract
+     * {@link #getReturnedTickets()} for the tickets vendors have published.
+     * @return The total ticket count.
+     */
+    public int getTotalTickets() {return totalTickets;}
+    /**
+     * Retrieves the number of holds waiting for checkout.
+     * @return The active hold count.
+     */
+    public int getActiveHolds() {return activeHolds;}
+    /**
+     * Retrieves the number of tickets in active holds.
+     * @return The held ticket count.
+     */
+    public long getHeldTickets() {return heldTickets;}
+    /**
+     * Retrieves the number of holds confirmed since startup.
+     * @return The confirmed hold count.
+     */
+    public long getConfirmedHolds() {return confirmedHolds;}
+    /**
+     * Retrieves the number of holds that expired since startup.
+     * @return The expired hold count.
+     */
+    public long getExpiredHolds() {return expiredHolds;}
+    /**
+     * Retrieves the number of holds released early since startup.
+     * @return The released hold count.
+     */
+    public long getReleasedHolds() {return releasedHolds;}
+    /**
+     * Retrieves the number of tickets from expired and released holds published back to the pool.
+     * @return The returned ticket count.
+     */
+    public long getReturnedTickets() {return returnedTickets;}
+}
@@ -0,0 +1,36 @@
+package com.ticketing.controller;
+
+import com.ticketing.simulation.TicketSimulator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+/**
+ * REST controller for trying out a configuration in a simulated sale before going live.
+ * Simulations run on a virtual clock against their own pool, so they finish in seconds and do not affect
+ * the running system.
+ */
+@RestController
+@RequestMapping("/api/tickets/simulate")
+public class SimulationController {
+    private final TicketSimulator ticketSimulator;
+    /**
+     * Constructs a new instance of {@code SimulationController}.
+     * @param ticketSimulator The simulator.
+     */
+    public SimulationController(TicketSimulator ticketSimulator) {
+        this.ticketSimulator = ticketSimulator;
+    }
+    /**
+     * Endpoint to simulate a sale.
+     * @param request The configuration to try and the simulation settings.
+     * @return The outcome of the simulated sale, or {@code 400 Bad Request} for an incomplete request.
+     */
+    @PostMapping
+    public ResponseEntity<SimulationResult> simulate(@RequestBody SimulationRequest request) {
+        try {
+            return ResponseEntity.ok(ticketSimulator.simulate(request));
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+}
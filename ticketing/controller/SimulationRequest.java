@@ -0,0 +1,90 @@
+package com.ticketing.controller;
+/**
+ * Data Transfer Object (DTO) for a simulation run: the configuration to try and how to simulate it.
+ */
+public class SimulationRequest {
+    /**
+     * The configuration to simulate, as it would be submitted to start the real system.
+     */
+    private TicketRequest config;
+    /**
+     * Pool backend to simulate; empty for the application's {@code ticketing.pool.type}.
+     */
+    private String poolType;
+    /**
+     * Length of the simulated sale, in minutes.
+     */
+    private int durationMinutes;
+    /**
+     * Seed of the random number generator; the same seed gives the same result.
+     */
+    private long seed;
+    /**
+     * How far each vendor and customer interval may randomly stray, as a percentage of the interval.
+     */
+    private int jitterPercent;
+    /**
+     * Interval (in minutes) between timeline samples; zero picks about a hundred samples.
+     */
+    private int sampleIntervalMinutes;
+    /**
+     * Retrieves the configuration to simulate.
+     * @return The configuration.
+     */
+    public TicketRequest getConfig() {return config;}
+    /**
+     * Sets the configuration to simulate.
+     * @param config The configuration.
+     */
+    public void setConfig(TicketRequest config) {this.config = config;}
+    /**
+     * Retrieves the pool backend to simulate.
+     * @return The backend, or {@code null} for the application default.
+     */
+    public String getPoolType() {return poolType;}
+    /**
+     * Sets the pool backend to simulate.
+     * @param poolType The backend: {@code locking}, {@code ring-buffer} or {@code sharded}.
+     */
+    public void setPoolType(String poolType) {this.poolType = poolType;}
+    /**
+     * Retrieves the length of the simulated sale.
+     * @return The duration in minutes.
+     */
+    public int getDurationMinutes() {return durationMinutes;}
+    /**
+     * Sets the length of the simulated sale.
+     * @param durationMinutes The duration in minutes.
+     */
+    public void setDurationMinutes(int durationMinutes) {this.durationMinutes = durationMinutes;}
+    /**
+     * Retrieves the random seed.
+     * @return The seed.
+     */
+    public long getSeed() {return seed;}
+    /**
+     * Sets the random seed.
+     * @param seed The seed.
+     */
+    public void setSeed(long seed) {this.seed = seed;}
+    /**
+     * Retrieves how far intervals may randomly stray.
+     * @return The jitter as a percentage of the interval.
+     */
+    public int getJitterPercent() {return jitterPercent;}
+    /**
+     * Sets how far intervals may randomly stray.
+     * @param jitterPercent The jitter as a percentage of the interval, from 0 to 100.
+     */
+    public void setJitterPercent(int jitterPercent) {this.jitterPercent = jitterPercent;}
+    /**
+     * Retrieves the interval between timeline samples.
+     * @return The interval in minutes, or zero for about a hundred samples.
+     */
+    public int getSampleIntervalMinutes() {return sampleIntervalMinutes;}
+    /**
+     * Sets the interval between timeline samples.
+     * @param sampleIntervalMinutes The interval in minutes, or zero for about a hundred samples.
+     */
+    public void setSampleIntervalMinutes(int sampleIntervalMinutes) {this.sampleIntervalMinutes = sampleIntervalMinutes;}
+}
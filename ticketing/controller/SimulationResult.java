@@ -0,0 +1,169 @@
+package com.ticketing.controller;
+import java.util.List;
+/**
+ * Data Transfer Object (DTO) describing the outcome of a simulated sale.
+ */
+public class SimulationResult {
+    private final int simulatedMinutes;
+    private final long seed;
+    private final long ticketsReleased;
+    private final long ticketsSold;
+    private final long vendorTicks;
+    private final long vendorTicksRejected;
+    private final long customerTicks;
+    private final long customerTicksUnserved;
+    private final double firstFullMinute;
+    private final double firstEmptyMinute;
+    private final int finalTicketCount;
+    private final double averageTicketCount;
+    private final int maxTicketCount;
+    private final long wallClockMillis;
+    private final List<Sample> timeline;
+    /**
+     * One point of the simulated pool's timeline.
+     */
+    public static class Sample {
+        private final double minute;
+        private final int ticketCount;
+        private final long ticketsSold;
+        /**
+         * Constructs a sample.
+         * @param minute      The simulated time of the sample.
+         * @param ticketCount The tickets in the pool at that time.
+         * @param ticketsSold The tickets sold up to that time.
+         */
+        public Sample(double minute, int ticketCount, long ticketsSold) {
+            this.minute = minute;
+            this.ticketCount = ticketCount;
+            this.ticketsSold = ticketsSold;
+        }
+        /**
+         * Retrieves the simulated time of the sample.
+         * @return The time in minutes from the start.
+         */
+        public double getMinute() {return minute;}
+        /**
+         * Retrieves the tickets in the pool at the time of the sample.
+         * @return The ticket count.
+         */
+        public int getTicketCount() {return ticketCount;}
+        /**
+         * Retrieves the tickets sold up to the time of the sample.
+         * @return The tickets sold.
+         */
+        public long getTicketsSold() {return ticketsSold;}
+    }
+    /**
+     * Constructs a result.
+     * @param simulatedMinutes      The length of the simulated sale.
+     * @param seed                  The random seed used.
+     * @param ticketsReleased       The tickets vendors published.
+     * @param ticketsSold           The tickets customers bought.
+     * @param vendorTicks           The number of times vendors tried to publish a batch.
+     * @param vendorTicksRejected   The times a vendor found the pool too full for its batch.
+     * @param customerTicks         The number of times customers tried to buy.
+     * @param customerTicksUnserved The times a customer found the pool empty.
+     * @param firstFullMinute       When a vendor was first turned away, or {@code -1} if never.
+     * @param firstEmptyMinute      When a customer was first turned away, or {@code -1} if never.
+     * @param finalTicketCount      The tickets in the pool at the end.
+     * @param averageTicketCount    The time-weighted average of the tickets in the pool.
+     * @param maxTicketCount        The most tickets the pool held.
+     * @param wallClockMillis       How long the simulation took to run.
+     * @param timeline              The pool's timeline.
+     */
+    public SimulationResult(int simulatedMinutes, long seed, long ticketsReleased, long ticketsSold, long vendorTicks,
+                            long vendorTicksRejected, long customerTicks, long customerTicksUnserved, double firstFullMinute,
+                            double firstEmptyMinute, int finalTicketCount, double averageTicketCount, int maxTicketCount,
+                            long wallClockMillis, List<Sample> timeline) {
+        this.simulatedMinutes = simulatedMinutes;
+        this.seed = seed;
+        this.ticketsReleased = ticketsReleased;
+        this.ticketsSold = ticketsSold;
+        this.vendorTicks = vendorTicks;
+        this.vendorTicksRejected = vendorTicksRejected;
+        this.customerTicks = customerTicks;
+        this.customerTicksUnserved = customerTicksUnserved;
+        this.firstFullMinute = firstFullMinute;
+        this.firstEmptyMinute = firstEmptyMinute;
+        this.finalTicketCount = finalTicketCount;
+        this.averageTicketCount = averageTicketCount;
+        this.maxTicketCount = maxTicketCount;
+        this.wallClockMillis = wallClockMillis;
+        this.timeline = timeline;
+    }
+    /**
+     * Retrieves the length of the simulated sale.
+     * @return The duration in minutes.
+     */
+    public int getSimulatedMinutes() {return simulatedMinutes;}
+    /**
+     * Retrieves the random seed used.
+     * @return The seed.
+     */
+    public long getSeed() {return seed;}
+    /**
+     * Retrieves the tickets vendors published.
+     * @return The tickets released.
+     */
+    public long getTicketsReleased() {return ticketsReleased;}
+    /**
+     * Retrieves the tickets customers bought.
+     * @return The tickets sold.
+     */
+    public long getTicketsSold() {return ticketsSold;}
+    /**
+     * Retrieves the number of times vendors tried to publish a batch.
+     * @return The vendor ticks.
+     */
+    public long getVendorTicks() {return vendorTicks;}
+    /**
+     * Retrieves the times a vendor found the pool too full for its batch.
+     * @return The rejected vendor ticks.
+     */
+    public long getVendorTicksRejected() {return vendorTicksRejected;}
+    /**
+     * Retrieves the number of times customers tried to buy.
+     * @return The customer ticks.
+     */
+    public long getCustomerTicks() {return customerTicks;}
+    /**
+     * Retrieves the times a customer found the pool empty.
+     * @return The unserved customer ticks.
+     */
+    public long getCustomerTicksUnserved() {return customerTicksUnserved;}
+    /**
+     * Retrieves when a vendor was first turned away by a full pool.
+     * @return The time in minutes, or {@code -1} if the pool never filled up.
+     */
+    public double getFirstFullMinute() {return firstFullMinute;}
+    /**
+     * Retrieves when a customer was first turned away by an empty pool.
+     * @return The time in minutes, or {@code -1} if the pool never ran out.
+     */
+    public double getFirstEmptyMinute() {return firstEmptyMinute;}
+    /**
+     * Retrieves the tickets in the pool at the end.
+     * @return The final ticket count.
+     */
+    public int getFinalTicketCount() {return finalTicketCount;}
+    /**
+     * Retrieves the time-weighted average of the tickets in the pool.
+     * @return The average ticket count.
+     */
+    public double getAverageTicketCount() {return averageTicketCount;}
+    /**
+     * Retrieves the most tickets the pool held.
+     * @return The maximum ticket count.
+     */
+    public int getMaxTicketCount() {return maxTicketCount;}
+    /**
+     * Retrieves how long the simulation took to run.
+     * @return The wall-clock time in milliseconds.
+     */
+    public long getWallClockMillis() {return wallClockMillis;}
+    /**
+     * Retrieves the pool's timeline.
+     * @return The samples, in time order.
+     */
+    public List<Sample> getTimeline() {return timeline;}
+}
@@ -1,14 +1,31 @@
 package com.ticketing.controller;
 
+import com.ticketing.admission.WaitingRoom;
+import com.ticketing.hold.Hold;
+import com.ticketing.hold.HoldManager;
+import com.ticketing.limit.PurchaseLimiter;
+import com.ticketing.logging.EventCounts;
+import com.ticketing.logging.EventType;
+import com.ticketing.logging.LogCategory;
+import com.ticketing.logging.LogLevel;
+import com.ticketing.logging.LogSettings;
 import com.ticketing.logging.Logger;
 import com.ticketing.pool.TicketPool;
+import com.ticketing.seating.SeatBlock;
+import com.ticketing.seating.SeatMap;
+import com.ticketing.seating.Section;
 import com.ticketing.service.TicketService;
+import com.ticketing.stream.TicketEventBus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.Arrays;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.UncheckedIOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.NoSuchElementException;
 /**
  * REST controller for managing ticketing system operations.
  * This controller provides endpoints to configure, start, stop, reset, and retrieve
@@ -17,22 +34,41 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/tickets")
 public class TicketController {
+    /**
+     * The most log lines {@code /logs} returns in one response; clients page through longer logs with {@code after}.
+     */
+    public static final int MAX_LOG_PAGE = 10000;
     @Autowired
     private TicketService ticketService;
     private TicketRequest ticketRequest;
+    private volatile PurchaseLimiter purchaseLimiter; // Limits from the submitted configuration, or null before one is submitted
     private final TicketPool ticketPool;
+    private final SeatMap seatMap;
+    private final HoldManager holdManager;
+    private final WaitingRoom waitingRoom;
     private final Logger logger;
+    private final TicketEventBus ticketEventBus;
     /**
      * Constructs a new instance of {@code TicketController}.
      *
      * @param ticketService The service managing ticketing system operations.
      * @param ticketPool
+     * @param seatMap       The reserved seating inventory.
+     * @param holdManager   The manager of ticket holds awaiting checkout.
+     * @param waitingRoom   The waiting room customers pass before placing holds.
      * @param logger        Logger for recording system events.
+     * @param ticketEventBus The bus that pushes ticket count and log updates to clients.
      */
-    public TicketController(TicketService ticketService, TicketPool ticketPool, Logger logger) {
+    public TicketController(TicketService ticketService, TicketPool ticketPool, SeatMap seatMap, HoldManager holdManager,
+                            WaitingRoom waitingRoom, Logger logger, TicketEventBus ticketEventBus) {
         this.ticketService = ticketService;
         this.ticketPool = ticketPool;
+        this.seatMap = seatMap;
+        this.holdManager = holdManager;
+        this.waitingRoom = waitingRoom;
         this.logger = logger;
+        this.ticketEventBus = ticketEventBus;
+        holdManager.addExpiryListener(this::refund); // Expired holds no longer count against the cap either
     }
     /**
      * Endpoint to submit the system configuration.
@@ -43,6 +79,9 @@ public class TicketController {
     public ResponseEntity<String> submit(@RequestBody TicketRequest request) {
         try {
             this.ticketRequest = request; // Store the received TicketRequest
+            PurchaseLimiter current = purchaseLimiter;
+            this.purchaseLimiter = current == null ? PurchaseLimiter.of(request) : current.reconfigure(request); // Keep what customers have bought
+            holdManager.setMaxTicketCapacity(request.getMaxTicketCapacity());
             return ResponseEntity.ok("Configuration submitted successfully!");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error submitting configuration");
@@ -57,7 +96,8 @@ public class TicketController {
         try {
             ticketService.startThreads(ticketRequest.getTotalTickets(), ticketRequest.getMaxTicketCapacity(),
                     ticketRequest.getTicketReleaseRate(), ticketRequest.getCustomerRetrievalRate(), ticketRequest.getReleaseInterval()*60000,
-                    ticketRequest.getRetrievalInterval()*60000, ticketRequest.getNoOfVendors(), ticketRequest.getNoOfCustomers());
+                    ticketRequest.getRetrievalInterval()*60000, ticketRequest.getNoOfVendors(), ticketRequest.getNoOfCustomers(),
+                    ticketRequest.getSeatingSection(), purchaseLimiter);
             return ResponseEntity.ok("Threads started successfully!");
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -84,18 +124,227 @@ public class TicketController {
     public int getTicketCount() {
         return ticketPool.getTicketCount();
     }
+    /**
+     * Endpoint to retrieve the pool's ticket counts together with hold activity.
+     * @return The pool status.
+     */
+    @GetMapping("/status")
+    public PoolStatus getStatus() {
+        return new PoolStatus(ticketPool.getTicketCount(), ticketPool.getTotalTickets(), holdManager.getActiveHolds(),
+                holdManager.getHeldTickets(), holdManager.getConfirmedHolds(), holdManager.getExpiredHolds(),
+                holdManager.getReleasedHolds(), holdManager.getReturnedTickets());
+    }
+    /**
+     * Endpoint to hold tickets for a customer while they check out.
+     * The hold lasts {@code ticketing.holds.ttl-millis} unless confirmed or released first; when it runs out its
+     * tickets go back to the pool. When the waiting room is enabled, only admitted queue positions may place holds,
+     * presented with the token handed out when joining, and only until the position leaves or times out.
+     * Held tickets count against the customer's purchase cap from the submitted configuration, and each request
+     * against its request rate.
+     * @param customerId The customer placing the hold; customer IDs start at 1.
+     * @param count      The number of tickets wanted; fewer are held if fewer are available.
+     * @param position   The customer's waiting room position, if the waiting room is enabled.
+     * @param token      The token handed out with the position.
+     * @return The hold, {@code 400 Bad Request} for an invalid customer ID or count, {@code 403 Forbidden} if the waiting room is
+     *         enabled and the position is unknown, timed out or presented with the wrong token, {@code 429 Too Many
+     *         Requests} if the position has not been admitted yet or the customer is over its rate or cap, or
+     *         {@code 409 Conflict} if no tickets are available.
+     */
+    @PostMapping("/holds")
+    public ResponseEntity<Hold> placeHold(@RequestParam int customerId, @RequestParam int count,
+                                          @RequestParam(defaultValue = "0") long position,
+                                          @RequestParam(required = false) String token) {
+        if (waitingRoom.isEnabled() && !waitingRoom.hasToken(position, token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        }
+        if (!waitingRoom.isAdmitted(position, token)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(null);
+        }
+        if (customerId <= HoldManager.HOLD_CUSTOMER_ID || count <= 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        PurchaseLimiter limiter = purchaseLimiter;
+        int allowed = limiter == null ? count : limiter.tryAcquire(customerId, count);
+        if (allowed == 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(null);
+        }
+        Hold hold = holdManager.hold(customerId, allowed);
+        if (limiter != null) {
+            limiter.refund(customerId, hold == null ? allowed : allowed - hold.getCount());
+        }
+        if (hold == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+        }
+        return ResponseEntity.ok(hold);
+    }
+    /**
+     * Endpoint to complete checkout for a hold.
+     * @param holdId The hold's ID.
+     * @return The confirmed hold, or {@code 404 Not Found} if the hold does not exist or is no longer active.
+     */
+    @PostMapping("/holds/{holdId}/confirm")
+    public ResponseEntity<Hold> confirmHold(@PathVariable long holdId) {
+        try {
+            return ResponseEntity.ok(holdManager.confirm(holdId));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
+    /**
+     * Endpoint to give a hold's tickets back before it expires. The tickets no longer count against the customer's
+     * cap, as with holds that expire.
+     * @param holdId The hold's ID.
+     * @return The released hold, or {@code 404 Not Found} if the hold does not exist or is no longer active.
+     */
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Hold> releaseHold(@PathVariable long holdId) {
+        try {
+            Hold hold = holdManager.release(holdId);
+            refund(hold);
+            return ResponseEntity.ok(hold);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
+    /**
+     * Takes a finished hold's tickets off its customer's purchase count.
+     */
+    private void refund(Hold hold) {
+        PurchaseLimiter limiter = purchaseLimiter;
+        if (limiter != null) {
+            limiter.refund(hold.getCustomerId(), hold.getCount());
+        }
+    }
+    /**
+     * Endpoint to retrieve the reserved seating sections and how many seats each has left.
+     * @return The sections.
+     */
+    @GetMapping("/seats")
+    public Collection<Section> getSections() {
+        return seatMap.getSections();
+    }
+    /**
+     * Endpoint to buy adjacent seats in a section: in the given row, or the best available block if no row is given.
+     * @param section The section's name.
+     * @param count   The number of adjacent seats.
+     * @param row     The row, from 1, or {@code 0} for the best available block in the section.
+     * @return The purchased seats, {@code 404 Not Found} for an unknown section, {@code 400 Bad Request} for an
+     *         invalid row or count, or {@code 409 Conflict} if no such block is free.
+     */
+    @PostMapping("/seats/{section}")
+    public ResponseEntity<SeatBlock> buySeats(@PathVariable String section,
+                                              @RequestParam int count,
+                                              @RequestParam(defaultValue = "0") int row) {
+        try {
+            Section seats = seatMap.getSection(section);
+            SeatBlock block = row == 0 ? seats.claimBestAvailable(count) : seats.claimAdjacent(row, count);
+            if (block == null) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+            }
+            logger.log(LogCategory.POOL, "[LOG] Purchased " + block);
+            return ResponseEntity.ok(block);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
     /**
      * Endpoint to retrieve system logs.
-     * @return A list of log messages.
+     * Lines are served from the log's offset index, so a client only pays for the lines it has not seen:
+     * a client that already holds {@code n} lines requests {@code after=n} and adds the returned
+     * page size to its cursor. With {@code tail=N} the last {@code N} lines are returned instead, usually
+     * straight from the logger's in-memory tail.
+     * @param after The number of lines the client has already seen; defaults to the start of the log.
+     * @param limit The maximum number of lines to return; defaults to and is capped at {@link #MAX_LOG_PAGE}.
+     * @param tail  The number of most recent lines to return instead of a page, also capped at {@link #MAX_LOG_PAGE};
+     *              ignores {@code after} and {@code limit}.
+     * @return A list of log messages, or 503 if the log cannot be read, so that the client keeps its cursor.
      */
     @GetMapping("/logs")
-    public List<String> getLogs() {
-        String rawLogs = ticketService.getLogs();
-        // Split the raw log content into lines, trim whitespace, and remove any empty lines
-        return Arrays.stream(rawLogs.split("\r?\n"))
-                .map(String::trim)
-                .filter(line -> !line.isEmpty())
-                .toList();
+    public ResponseEntity<List<String>> getLogs(@RequestParam(defaultValue = "0") long after,
+                                                @RequestParam(defaultValue = "" + MAX_LOG_PAGE) int limit,
+                                                @RequestParam(required = false) Integer tail) {
+        try {
+            if (tail != null) {
+                return ResponseEntity.ok(ticketService.getRecentLogs(Math.min(tail, MAX_LOG_PAGE)));
+            }
+            return ResponseEntity.ok(ticketService.getLogs(after, Math.min(limit, MAX_LOG_PAGE)));
+        } catch (UncheckedIOException | IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(null);
+        }
+    }
+    /**
+     * Endpoint to retrieve the logger's level, categories and pool line budget.
+     * @return The current log settings.
+     */
+    @GetMapping("/logging")
+    public LogSettings getLogSettings() {
+        return ticketService.getLogSettings();
+    }
+    /**
+     * Endpoint to change what is logged without restarting, for example {@code /logging?level=INFO} to stop
+     * logging ticket events, {@code /logging?category=POOL&enabled=false} to do the same without changing the
+     * level, or {@code /logging?poolLinesPerSecond=50} to summarise ticket events sooner. Unlike the other
+     * endpoints it requires authentication; see {@link com.ticketing.config.SecurityConfig}.
+     * @param level              The new level; {@code OFF}, {@code ERROR}, {@code INFO} or {@code DEBUG}.
+     * @param category           A category to switch on or off; {@code ERROR}, {@code LIFECYCLE} or {@code POOL}.
+     * @param enabled            Whether to switch {@code category} on.
+     * @param poolLinesPerSecond The number of ticket lines the pools log per second before summarising, or {@code 0} for no limit.
+     * @return The settings after the change, or 400 if the parameters are invalid.
+     */
+    @PostMapping("/logging")
+    public ResponseEntity<LogSettings> updateLogSettings(@RequestParam(required = false) LogLevel level,
+                                                         @RequestParam(required = false) LogCategory category,
+                                                         @RequestParam(required = false) Boolean enabled,
+                                                         @RequestParam(required = false) Integer poolLinesPerSecond) {
+        try {
+            return ResponseEntity.ok(ticketService.updateLogSettings(level, category, enabled, poolLinesPerSecond));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+    /**
+     * Endpoint to count ticket releases or purchases in a time window, answered from the binary event log.
+     * For example {@code /event-log?type=RELEASE&actorId=7&from=...&to=...} counts the tickets vendor 7
+     * released in that window; without {@code actorId} the counts are broken down by vendor or customer.
+     * @param type         {@code RELEASE} for vendor batches, {@code CLAIM} for customer purchases, including
+     *                     confirmed holds, or {@code HOLD} for tickets claimed to be held.
+     * @param actorId      The vendor or customer to count; defaults to all of them.
+     * @param from         The start of the window, in epoch milliseconds; defaults to the beginning of the log.
+     * @param to           The end of the window, in epoch milliseconds, exclusive; defaults to now.
+     * @param windowMillis Also count tickets per window of this many milliseconds; defaults to no breakdown.
+     * @return The counts, or 400 if the window is invalid and 409 if the event log is disabled.
+     */
+    @GetMapping("/event-log")
+    public ResponseEntity<EventCounts> queryEvents(@RequestParam EventType type,
+                                                   @RequestParam(required = false) Integer actorId,
+                                                   @RequestParam(defaultValue = "0") long from,
+                                                   @RequestParam(required = false) Long to,
+                                                   @RequestParam(defaultValue = "0") long windowMillis) {
+        try {
+            long end = to == null ? System.currentTimeMillis() + 1 : to;
+            return ResponseEntity.ok(ticketService.queryEvents(type, actorId, from, end, windowMillis));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+        }
+    }
+    /**
+     * Endpoint to stream ticket count and log updates as server-sent events.
+     * Each {@code update} event carries the current ticket count and the log lines written since the
+     * previous event; updates are coalesced so a client receives at most one event per tick.
+     * A new dashboard passes {@code tail} to start from the latest lines rather than replay the whole log, and
+     * reconnects with {@code after} set to the cursor of the last frame it received.
+     * @param after The number of log lines the client has already seen, or {@code -1} to stream only the ticket count.
+     * @param tail  If given, start with this many of the latest log lines instead; {@code after} is then ignored.
+     * @return The event stream.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(defaultValue = "0") long after,
+                             @RequestParam(required = false) Integer tail) {
+        return tail == null ? ticketEventBus.subscribe(after) : ticketEventBus.subscribeToTail(tail);
     }
     /**
      * Endpoint to reset the ticketing system.
@@ -120,7 +369,7 @@ public class TicketController {
                     .header("Content-Type", "text/plain")
                     .body("System reset successfully!");
         } catch (Exception e) {
-            logger.log("Error resetting the system: " + e.getMessage());
+            logger.log(LogCategory.ERROR, "Error resetting the system: " + e.getMessage());
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .header("Content-Type", "text/plain")
@@ -163,5 +412,39 @@ public class TicketController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
+    /**
+     * Endpoint to save the configuration and the tickets in the pool to a binary snapshot.
+     * @param request The {@code TicketRequest} containing the configuration details.
+     * @return A response indicating the success or failure of the save operation.
+     */
+    @PostMapping("/saveSnapshot")
+    public ResponseEntity<String> saveSnapshot(@RequestBody TicketRequest request) {
+        try {
+            String responseMessage = ticketService.saveSnapshot(
+                    request.getTotalTickets(),
+                    request.getMaxTicketCapacity(),
+                    request.getTicketReleaseRate(),
+                    request.getCustomerRetrievalRate()
+            );
+            return ResponseEntity.ok(responseMessage);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+    /**
+     * Endpoint to restore the pool from the saved snapshot.
+     * @return The configuration saved with the snapshot, {@code 409 Conflict} if threads are running,
+     *         or an error response.
+     */
+    @PostMapping("/restoreSnapshot")
+    public ResponseEntity<TicketRequest> restoreSnapshot() {
+        try {
+            return ResponseEntity.ok(ticketService.restoreSnapshot());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
 }
 
@@ -40,6 +40,27 @@ public class TicketRequest {
      * Number of customer threads operating in the system.
      */
     private int noOfCustomers;
+    /**
+     * Number of shards in a sharded event or simulation pool; zero uses the application default. The application's
+     * own pool is created at startup and always uses {@code ticketing.pool.shards}.
+     */
+    private int poolShards;
+    /**
+     * Reserved seating section customers buy seats in; empty for general admission.
+     */
+    private String seatingSection;
+    /**
+     * Requests per second each customer may make; zero for no limit.
+     */
+    private int customerRequestsPerSecond;
+    /**
+     * Requests a customer may make at once after being idle.
+     */
+    private int customerBurst;
+    /**
+     * Most tickets one customer may buy; zero for no cap.
+     */
+    private int maxTicketsPerCustomer;
     /**
      * Retrieves the total number of tickets in the system.
      * @return Total number of tickets.
@@ -134,5 +155,55 @@ public class TicketRequest {
      * @param noOfCustomers Number of customer threads.
      */
     public void setNoOfCustomers(int noOfCustomers) {this.noOfCustomers = noOfCustomers;}
+    /**
+     * Retrieves the number of shards in a sharded event or simulation pool.
+     * @return Number of shards, or zero for the application default.
+     */
+    public int getPoolShards() {return poolShards;}
+    /**
+     * Sets the number of shards in a sharded event or simulation pool.
+     * @param poolShards Number of shards, or zero for the application default.
+     */
+    public void setPoolShards(int poolShards) {this.poolShards = poolShards;}
+    /**
+     * Retrieves the reserved seating section customers buy seats in.
+     * @return The section's name, or {@code null} for general admission.
+     */
+    public String getSeatingSection() {return seatingSection;}
+    /**
+     * Sets the reserved seating section customers buy seats in.
+     * @param seatingSection The section's name, or {@code null} for general admission.
+     */
+    public void setSeatingSection(String seatingSection) {this.seatingSection = seatingSection;}
+    /**
+     * Retrieves the number of requests per second each customer may make.
+     * @return Requests per second, or zero for no limit.
+     */
+    public int getCustomerRequestsPerSecond() {return customerRequestsPerSecond;}
+    /**
+     * Sets the number of requests per second each customer may make.
+     * @param customerRequestsPerSecond Requests per second, or zero for no limit.
+     */
+    public void setCustomerRequestsPerSecond(int customerRequestsPerSecond) {this.customerRequestsPerSecond = customerRequestsPerSecond;}
+    /**
+     * Retrieves the number of requests a customer may make at once after being idle.
+     * @return The burst size.
+     */
+    public int getCustomerBurst() {return customerBurst;}
+    /**
+     * Sets the number of requests a customer may make at once after being idle.
+     * @param customerBurst The burst size; values below one mean one.
+     */
+    public void setCustomerBurst(int customerBurst) {this.customerBurst = customerBurst;}
+    /**
+     * Retrieves the most tickets one customer may buy.
+     * @return The purchase cap, or zero for no cap.
+     */
+    public int getMaxTicketsPerCustomer() {return maxTicketsPerCustomer;}
+    /**
+     * Sets the most tickets one customer may buy.
+     * @param maxTicketsPerCustomer The purchase cap, or zero for no cap.
+     */
+    public void setMaxTicketsPerCustomer(int maxTicketsPerCustomer) {this.maxTicketsPerCustomer = maxTicketsPerCustomer;}
 }
 
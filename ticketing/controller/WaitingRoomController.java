@@ -0,0 +1,63 @@
+package com.ticketing.controller;
+
+import com.ticketing.admission.QueueStatus;
+import com.ticketing.admission.WaitingRoom;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+/**
+ * REST controller for the waiting room in front of ticket purchases.
+ * A client joins the queue, polls its position until it is admitted, places its hold with that position and
+ * the token it got when joining, and leaves once it has checked out. Polling only reads the {@link WaitingRoom}'s counters, so it stays
+ * cheap however many clients are waiting.
+ */
+@RestController
+@RequestMapping("/api/tickets/queue")
+public class WaitingRoomController {
+    private final WaitingRoom waitingRoom;
+    /**
+     * Constructs a new instance of {@code WaitingRoomController}.
+     * @param waitingRoom The waiting room.
+     */
+    public WaitingRoomController(WaitingRoom waitingRoom) {
+        this.waitingRoom = waitingRoom;
+    }
+    /**
+     * Endpoint to join the back of the queue.
+     * @return The new queue position, its status and the token to present with it.
+     */
+    @PostMapping
+    public QueueStatus join() {
+        return waitingRoom.joinWithToken();
+    }
+    /**
+     * Endpoint to check a queue position's progress.
+     * @param position The queue position.
+     * @return The position's status, or {@code 404 Not Found} for a position that was never handed out.
+     */
+    @GetMapping("/{position}")
+    public ResponseEntity<QueueStatus> getStatus(@PathVariable long position) {
+        if (!waitingRoom.isKnown(position)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        return ResponseEntity.ok(waitingRoom.getStatus(position));
+    }
+    /**
+     * Endpoint to leave the waiting room after checking out, letting the next customer in.
+     * Leaving again has no effect.
+     * @param position The queue position.
+     * @param token    The token handed out with the position.
+     * @return A confirmation message, {@code 404 Not Found} for a position that was never handed out, or
+     *         {@code 403 Forbidden} if the token does not match or the position has timed out.
+     */
+    @DeleteMapping("/{position}")
+    public ResponseEntity<String> leave(@PathVariable long position, @RequestParam(required = false) String token) {
+        if (!waitingRoom.isKnown(position)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Unknown queue position.");
+        }
+        if (!waitingRoom.leave(position, token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Invalid queue token.");
+        }
+        return ResponseEntity.ok("Left the waiting room.");
+    }
+}
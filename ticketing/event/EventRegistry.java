@@ -0,0 +1,217 @@
+package com.ticketing.event;
+import com.ticketing.config.TicketPoolFactory;
+import com.ticketing.controller.TicketRequest;
+import com.ticketing.limit.PurchaseLimiter;
+import com.ticketing.logging.Logger;
+import com.ticketing.pool.TicketPool;
+import com.ticketing.thread.CustomerThread;
+import com.ticketing.thread.ScheduledActorEngine;
+import com.ticketing.thread.VendorThread;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * Holds the events on sale, each with its own {@link TicketPool}, configuration, vendors and customers.
+ * <p>
+ * Events are cheap while idle: an event's pool is only created when it is started or its tickets are first
+ * used, using the {@code ticketing.events.pool-type} backend. The vendors and customers of every event are
+ * ticked by one {@link ScheduledActorEngine} with {@code ticketing.events.scheduler-threads} threads, so the
+ * number of threads does not grow with the number of events or actors. At most
+ * {@code ticketing.events.max-events} events can be registered.
+ * <p>
+ * Intervals in an event's {@link TicketRequest} are in minutes, as for the application's own pool.
+ * <p>
+ * Event pools have no {@link com.ticketing.pool.PoolListener}s: the journal, the binary event log, the SSE
+ * stream, the metrics and the waiting room only follow the application's own pool, because their records carry
+ * no event ID. Event activity is therefore only visible through {@link #getPool(long)} and the lifecycle
+ * messages logged here, and an event's tickets are not recovered after a restart.
+ */
+@Component
+public class EventRegistry implements DisposableBean {
+    private final ConcurrentHashMap<Long, TicketEvent> events = new ConcurrentHashMap<>();
+    private final TicketPoolFactory poolFactory;
+    private final Logger logger;
+    private final String poolType;
+    private final int schedulerThreads;
+    private final int maxEvents;
+    private final long shutdownTimeoutMillis;
+    private final AtomicInteger registered = new AtomicInteger(); // Slots taken in the registry, reserved before adding
+    private ScheduledActorEngine engine; // Created when the first event starts
+    /**
+     * Constructs the registry.
+     * @param poolFactory           The factory that creates event pools.
+     * @param logger                Logger for event lifecycle messages.
+     * @param poolType              The pool backend of every event.
+     * @param schedulerThreads      The number of threads shared by the vendors and customers of all events.
+     * @param maxEvents             The maximum number of registered events.
+     * @param shutdownTimeoutMillis How long shutdown waits for ticks in progress.
+     */
+    public EventRegistry(TicketPoolFactory poolFactory, Logger logger,
+                         @Value("${ticketing.events.pool-type:locking}") String poolType,
+                         @Value("${ticketing.events.scheduler-threads:2}") int schedulerThreads,
+                         @Value("${ticketing.events.max-events:10000}") int maxEvents,
+                         @Value("${ticketing.threads.shutdown-timeout-millis:5000}") long shutdownTimeoutMillis) {
+        this.poolFactory = poolFactory;
+        this.logger = logger;
+        this.poolType = poolType;
+        this.schedulerThreads = schedulerThreads;
+        this.maxEvents = maxEvents;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+    }
+    /**
+     * Registers an event, or reconfigures a stopped one. Reconfiguring discards the event's tickets.
+     * @param eventId The event's ID.
+     * @param config  The event's capacity, rates, intervals and number of vendors and customers.
+     * @return The event.
+     * @throws IllegalStateException if the event is running, or if the registry is full.
+     */
+    public TicketEvent configure(long eventId, TicketRequest config) {
+        TicketEvent event = events.get(eventId);
+        if (event == null) {
+            if (registered.incrementAndGet() > maxEvents) {
+                registered.decrementAndGet();
+                throw new IllegalStateException("The registry already holds " + maxEvents + " events.");
+            }
+            TicketEvent added = new TicketEvent(eventId, config);
+            event = events.putIfAbsent(eventId, added);
+            if (event == null) {
+                logger.log("[LOG] Event " + eventId + " registered with " + config.getTotalTickets() + " tickets.");
+                return added;
+            }
+            registered.decrementAndGet(); // Registered concurrently; reconfigure that event instead
+        }
+        synchronized (event) {
+            if (event.isRunning()) {
+                throw new IllegalStateException("Event " + eventId + " is running; stop it before reconfiguring it.");
+            }
+            event.configure(config);
+        }
+        logger.log("[LOG] Event " + eventId + " configured with " + config.getTotalTickets() + " tickets.");
+        return event;
+    }
+    /**
+     * Retrieves an event.
+     * @param eventId The event's ID.
+     * @return The event.
+     * @throws NoSuchElementException if no event has that ID.
+     */
+    public TicketEvent get(long eventId) {
+        TicketEvent event = events.get(eventId);
+        if (event == null) {
+            throw new NoSuchElementException("No event with ID " + eventId + ".");
+        }
+        return event;
+    }
+    /**
+     * Retrieves every registered event.
+     * @return A live view of the events.
+     */
+    public Collection<TicketEvent> getEvents() {
+        return events.values();
+    }
+    /**
+     * Retrieves an event's pool, creating it from the event's configuration on first use.
+     * @param eventId The event's ID.
+     * @return The event's pool.
+     * @throws NoSuchElementException if no event has that ID.
+     */
+    public TicketPool getPool(long eventId) {
+        TicketEvent event = get(eventId);
+        TicketPool pool = event.getPool();
+        if (pool != null) {
+            return pool;
+        }
+        synchronized (event) {
+            if (event.getPool() == null) {
+                event.setPool(poolFactory.create(poolType, event.getConfig()));
+            }
+            return event.getPool();
+        }
+    }
+    /**
+     * Starts an event's vendors and customers on the shared scheduler threads.
+     * @param eventId The event's ID.
+     * @throws NoSuchElementException if no event has that ID.
+     * @throws IllegalStateException  if the event is already running.
+     */
+    public void start(long eventId) {
+        TicketEvent event = get(eventId);
+        synchronized (event) {
+            if (event.isRunning()) {
+                throw new IllegalStateException("Event " + eventId + " is already running!");
+            }
+            TicketPool pool = getPool(eventId);
+            TicketRequest config = event.getConfig();
+            long releaseInterval = config.getReleaseInterval() * 60000L;
+            long retrievalInterval = config.getRetrievalInterval() * 60000L;
+            List<Runnable> vendorTicks = new ArrayList<>(config.getNoOfVendors());
+            for (int i = 1; i <= config.getNoOfVendors(); i++) {
+                // The thread's own interval is only used when it runs on its own thread, never when ticked
+                vendorTicks.add(new VendorThread(logger, i, config.getTicketReleaseRate(), millis(releaseInterval), config.getMaxTicketCapacity(), pool)::tick);
+            }
+            PurchaseLimiter limiter = event.getLimiter();
+            List<Runnable> customerTicks = new ArrayList<>(config.getNoOfCustomers());
+            for (int i = 1; i <= config.getNoOfCustomers(); i++) {
+                customerTicks.add(new CustomerThread(logger, i, config.getCustomerRetrievalRate(), millis(retrievalInterval), pool, null, limiter)::tick);
+            }
+            ScheduledActorEngine shared = engine();
+            event.started(shared.scheduleAtFixedRate(vendorTicks, releaseInterval), shared.scheduleAtFixedRate(customerTicks, retrievalInterval));
+        }
+        logger.log("[LOG] Event " + eventId + " started.");
+    }
+    /**
+     * Stops an event's vendors and customers. Its tickets stay in its pool.
+     * @param eventId The event's ID.
+     * @throws NoSuchElementException if no event has that ID.
+     */
+    public void stop(long eventId) {
+        if (get(eventId).stop()) {
+            logger.log("[LOG] Event " + eventId + " stopped.");
+        }
+    }
+    /**
+     * Stops and removes an event.
+     * @param eventId The event's ID.
+     * @throws NoSuchElementException if no event has that ID.
+     */
+    public void remove(long eventId) {
+        TicketEvent event = events.remove(eventId);
+        if (event == null) {
+            throw new NoSuchElementException("No event with ID " + eventId + ".");
+        }
+        registered.decrementAndGet();
+        event.stop();
+        logger.log("[LOG] Event " + eventId + " removed.");
+    }
+    /**
+     * Stops the shared scheduler threads when the application shuts down.
+     */
+    @Override
+    public synchronized void destroy() {
+        if (engine != null) {
+            engine.shutdown(shutdownTimeoutMillis);
+            engine = null;
+        }
+    }
+    /**
+     * Narrows an interval for the actor constructors, which take milliseconds as an {@code int}.
+     */
+    private static int millis(long interval) {
+        return (int) Math.min(interval, Integer.MAX_VALUE);
+    }
+    /**
+     * Returns the shared engine, creating it when the first event starts.
+     */
+    private synchronized ScheduledActorEngine engine() {
+        if (engine == null) {
+            engine = new ScheduledActorEngine(logger, schedulerThreads);
+        }
+        return engine;
+    }
+}
@@ -0,0 +1,110 @@
+package com.ticketing.event;
+import com.ticketing.controller.TicketRequest;
+import com.ticketing.limit.PurchaseLimiter;
+import com.ticketing.pool.TicketPool;
+import com.ticketing.thread.ScheduledActorEngine;
+/**
+ * One event on sale: its configuration, its ticket pool and the schedules of its vendors and customers.
+ * An idle event holds only its configuration; {@link EventRegistry} creates the pool the first time the
+ * event's tickets are used, and its actors run on the registry's shared scheduler threads.
+ * State changes go through the registry, which synchronises on the event.
+ */
+public class TicketEvent {
+    private final long eventId;
+    private TicketRequest config;
+    private volatile TicketPool pool;
+    private PurchaseLimiter limiter;
+    private ScheduledActorEngine.Schedule vendors;
+    private ScheduledActorEngine.Schedule customers;
+    /**
+     * Constructs an idle event.
+     * @param eventId The event's ID.
+     * @param config  The event's configuration.
+     */
+    TicketEvent(long eventId, TicketRequest config) {
+        this.eventId = eventId;
+        this.config = config;
+    }
+    /**
+     * Retrieves the event's ID.
+     * @return The event ID.
+     */
+    public long getEventId() {
+        return eventId;
+    }
+    /**
+     * Retrieves the event's configuration.
+     * @return The configuration.
+     */
+    public synchronized TicketRequest getConfig() {
+        return config;
+    }
+    /**
+     * Tells whether the event's vendors and customers are running.
+     * @return {@code true} while the event is started.
+     */
+    public synchronized boolean isRunning() {
+        return vendors != null;
+    }
+    /**
+     * Retrieves the number of tickets available, without creating the pool of an event that has not been used.
+     * @return The ticket count.
+     */
+    public int getTicketCount() {
+        TicketPool current = pool;
+        if (current != null) {
+            return current.getTicketCount();
+        }
+        synchronized (this) {
+            return pool != null ? pool.getTicketCount() : config.getTotalTickets();
+        }
+    }
+    /**
+     * Replaces the configuration and drops the pool, so the next use starts from the new configuration.
+     */
+    synchronized void configure(TicketRequest config) {
+        this.config = config;
+        this.pool = null;
+        this.limiter = null;
+    }
+    /**
+     * Retrieves the event's per-customer purchase limits, creating them from the configuration on first use.
+     * They outlive stops and starts, so a customer's purchases keep counting against its cap until the event is reconfigured.
+     */
+    synchronized PurchaseLimiter getLimiter() {
+        if (limiter == null) {
+            limiter = PurchaseLimiter.of(config);
+        }
+        return limiter;
+    }
+    /**
+     * Retrieves the pool, or {@code null} if it has not been created yet.
+     */
+    TicketPool getPool() {
+        return pool;
+    }
+    synchronized void setPool(TicketPool pool) {
+        this.pool = pool;
+    }
+    /**
+     * Records the schedules of a started event's vendors and customers.
+     */
+    synchronized void started(ScheduledActorEngine.Schedule vendors, ScheduledActorEngine.Schedule customers) {
+        this.vendors = vendors;
+        this.customers = customers;
+    }
+    /**
+     * Cancels the event's vendors and customers.
+     * @return {@code false} if the event was not running.
+     */
+    synchronized boolean stop() {
+        if (vendors == null) {
+            return false;
+        }
+        vendors.cancel();
+        customers.cancel();
+        vendors = null;
+        customers = null;
+        return true;
+    }
+}
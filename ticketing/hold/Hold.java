@@ -0,0 +1,67 @@
+package com.ticketing.hold;
+import com.ticketing.pool.TicketRange;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+/**
+ * Tickets set aside for one customer until checkout completes or the hold's time runs out.
+ * A hold leaves {@link HoldState#HELD} exactly once; whichever of confirm, release and expiry gets there
+ * first decides what happens to the tickets.
+ */
+public final class Hold {
+    private static final AtomicReferenceFieldUpdater<Hold, HoldState> STATE =
+            AtomicReferenceFieldUpdater.newUpdater(Hold.class, HoldState.class, "state");
+    private final long holdId;
+    private final int customerId;
+    private final TicketRange tickets;
+    private final long expiresAt;
+    final long deadlineNanos;
+    private volatile HoldState state = HoldState.HELD;
+    Hold next; // Next hold in the same timing wheel bucket
+    long rounds; // Full turns of the wheel left before the hold is due
+    Hold(long holdId, int customerId, TicketRange tickets, long expiresAt, long deadlineNanos) {
+        this.holdId = holdId;
+        this.customerId = customerId;
+        this.tickets = tickets;
+        this.expiresAt = expiresAt;
+        this.deadlineNanos = deadlineNanos;
+    }
+    /**
+     * Retrieves the hold's ID.
+     * @return The hold ID.
+     */
+    public long getHoldId() {return holdId;}
+    /**
+     * Retrieves the ID of the customer holding the tickets.
+     * @return The customer ID.
+     */
+    public int getCustomerId() {return customerId;}
+    /**
+     * Retrieves the first ticket ID in the hold.
+     * @return The first ticket ID.
+     */
+    public long getFirstTicketId() {return tickets.getFirstTicketId();}
+    /**
+     * Retrieves the number of tickets in the hold.
+     * @return The ticket count.
+     */
+    public int getCount() {return tickets.getCount();}
+    /**
+     * Retrieves when the hold runs out, as epoch milliseconds.
+     * @return The expiry time.
+     */
+    public long getExpiresAt() {return expiresAt;}
+    /**
+     * Retrieves the hold's current stage.
+     * @return The state.
+     */
+    public HoldState getState() {return state;}
+    TicketRange getTickets() {
+        return tickets;
+    }
+    /**
+     * Moves the hold out of {@link HoldState#HELD}.
+     * @return {@code false} if another transition got there first.
+     */
+    boolean finish(HoldState outcome) {
+        return STATE.compareAndSet(this, HoldState.HELD, outcome);
+    }
+}
@@ -0,0 +1,298 @@
+package com.ticketing.hold;
+import com.ticketing.logging.LogCategory;
+import com.ticketing.logging.Logger;
+import com.ticketing.pool.TicketPool;
+import com.ticketing.pool.TicketRange;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+/**
+ * Puts tickets from the {@link TicketPool} on hold for customers while they check out.
+ * <p>
+ * {@link #hold} claims tickets from the pool and sets them aside for {@code ticketing.holds.ttl-millis};
+ * {@link #confirm} turns a hold into a sale, and {@link #release} gives the tickets back early. A hold that
+ * is neither confirmed nor released in time expires and its tickets go back to the pool. Holds are claimed
+ * from the pool under customer {@link #HOLD_CUSTOMER_ID} rather than the holding customer's ID, so the pool's
+ * listeners can tell tickets set aside from tickets sold; a sale happens on {@link #confirm}, and listeners
+ * registered with {@link #addConfirmListener} see it there. Because the pool
+ * hands out ticket IDs in order, returned tickets are published as new tickets, with new IDs, by vendor
+ * {@link #RETURN_VENDOR_ID}. Returns respect the pool's configured capacity: whatever does not fit is queued
+ * and published on later ticks as customers make room. The pool's listeners therefore see returns as
+ * releases by vendor 0; {@link #getReturnedTickets()} counts them on their own.
+ * <p>
+ * Deadlines are kept in a {@link TimingWheel} with {@code ticketing.holds.wheel-size} buckets of
+ * {@code ticketing.holds.tick-millis} each, driven by one daemon thread, so millions of outstanding holds
+ * cost no timers and each tick only touches the holds due in it. Holds expire up to one tick late.
+ */
+@Component
+public class HoldManager implements DisposableBean {
+    /**
+     * The vendor ID under which the tickets of expired and released holds are returned to the pool.
+     */
+    public static final int RETURN_VENDOR_ID = 0;
+    /**
+     * The customer ID under which held tickets are claimed from the pool. Customer IDs start at 1.
+     */
+    public static final int HOLD_CUSTOMER_ID = 0;
+    private final TicketPool ticketPool;
+    private final Logger logger;
+    private final long ttlMillis;
+    private final TimingWheel wheel;
+    private final ConcurrentHashMap<Long, Hold> holds = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<TicketRange> returns = new ConcurrentLinkedQueue<>(); // Tickets waiting to go back to the pool
+    private final AtomicLong nextHoldId = new AtomicLong(1);
+    private final LongAdder heldTickets = new LongAdder();
+    private final LongAdder placed = new LongAdder();
+    private final LongAdder confirmed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder returnedTickets = new LongAdder();
+    private volatile int maxTicketCapacity = Integer.MAX_VALUE; // No capacity until a configuration is submitted
+    private final CopyOnWriteArrayList<Consumer<Hold>> expiryListeners = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<Consumer<Hold>> confirmListeners = new CopyOnWriteArrayList<>();
+    private final Thread ticker;
+    /**
+     * Constructs the hold manager and starts its timing wheel.
+     * @param ticketPool The pool tickets are held from and returned to.
+     * @param logger     Logger for hold activity.
+     * @param ttlMillis  How long a hold lasts unless a different time is requested.
+     * @param tickMillis The resolution of hold expiry.
+     * @param wheelSize  The number of buckets in the timing wheel.
+     */
+    public HoldManager(TicketPool ticketPool, Logger logger,
+                       @Value("${ticketing.holds.ttl-millis:600000}") long ttlMillis,
+                       @Value("${ticketing.holds.tick-millis:100}") long tickMillis,
+                       @Value("${ticketing.holds.wheel-size:512}") int wheelSize) {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("Holds must last a positive time.");
+        }
+        this.ticketPool = ticketPool;
+        this.logger = logger;
+        this.ttlMillis = ttlMillis;
+        this.wheel = new TimingWheel(wheelSize, TimeUnit.MILLISECONDS.toNanos(tickMillis));
+        this.ticker = new Thread(this::runWheel, "ticketing-hold-wheel");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+    /**
+     * Claims up to {@code count} tickets for a customer and holds them for the default time.
+     * @param customerId The customer placing the hold.
+     * @param count      The number of tickets wanted.
+     * @return The hold, or {@code null} if the pool has no tickets.
+     */
+    public Hold hold(int customerId, int count) {
+        return hold(customerId, count, ttlMillis);
+    }
+    /**
+     * Claims up to {@code count} tickets for a customer and holds them for {@code holdMillis}.
+     * Does not wait for tickets: if the pool is empty, no hold is placed.
+     * @param customerId The customer placing the hold.
+     * @param count      The number of tickets wanted.
+     * @param holdMillis How long the customer has to check out.
+     * @return The hold, or {@code null} if the pool has no tickets.
+     * @throws IllegalArgumentException if {@code customerId}, {@code count} or {@code holdMillis} is not positive.
+     */
+    public Hold hold(int customerId, int count, long holdMillis) {
+        if (customerId <= HOLD_CUSTOMER_ID || count <= 0 || holdMillis <= 0) {
+            throw new IllegalArgumentException("A hold needs a positive customer ID, at least one ticket and a positive time.");
+        }
+        TicketRange tickets = ticketPool.tryClaim(count, HOLD_CUSTOMER_ID);
+        if (tickets.isEmpty()) {
+            return null;
+        }
+        Hold hold = new Hold(nextHoldId.getAndIncrement(), customerId, tickets,
+                System.currentTimeMillis() + holdMillis, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(holdMillis));
+        holds.put(hold.getHoldId(), hold);
+        heldTickets.add(tickets.getCount());
+        placed.increment();
+        wheel.schedule(hold);
+        logger.log("[LOG] Customer " + customerId + " is holding " + tickets.getCount() + " tickets under hold " + hold.getHoldId() + ".");
+        return hold;
+    }
+    /**
+     * Completes checkout for a hold, selling its tickets.
+     * @param holdId The hold's ID.
+     * @return The confirmed hold.
+     * @throws NoSuchElementException if there is no such hold, or it has already expired or been released.
+     */
+    public Hold confirm(long holdId) {
+        Hold hold = finish(holdId, HoldState.CONFIRMED);
+        confirmed.increment();
+        logger.log("[LOG] Customer " + hold.getCustomerId() + " purchased " + hold.getCount() + " tickets from hold " + holdId + ".");
+        for (Consumer<Hold> listener : confirmListeners) {
+            listener.accept(hold);
+        }
+        return hold;
+    }
+    /**
+     * Gives a hold's tickets back to the pool before it expires.
+     * @param holdId The hold's ID.
+     * @return The released hold.
+     * @throws NoSuchElementException if there is no such hold, or it has already expired or been confirmed.
+     */
+    public Hold release(long holdId) {
+        Hold hold = finish(holdId, HoldState.RELEASED);
+        released.increment();
+        returnTickets(hold.getTickets());
+        logger.log("[LOG] Customer " + hold.getCustomerId() + " released hold " + holdId + ".");
+        return hold;
+    }
+    /**
+     * Registers a callback run on the timing wheel's thread after a hold has expired and its tickets have been
+     * returned, for example to refund the customer's purchase cap. It must be quick and must not block.
+     * @param listener The callback, given the expired hold.
+     */
+    public void addExpiryListener(Consumer<Hold> listener) {
+        expiryListeners.add(listener);
+    }
+    /**
+     * Registers a callback run on the confirming thread after a hold has been confirmed, when its tickets count
+     * as sold. It must be quick and must not block.
+     * @param listener The callback, given the confirmed hold.
+     */
+    public void addConfirmListener(Consumer<Hold> listener) {
+        confirmListeners.add(listener);
+    }
+    /**
+     * Sets the pool capacity returned tickets must fit in, as configured for the vendors.
+     * @param maxTicketCapacity The maximum number of tickets in the pool; not positive for no limit.
+     */
+    public void setMaxTicketCapacity(int maxTicketCapacity) {
+        this.maxTicketCapacity = maxTicketCapacity > 0 ? maxTicketCapacity : Integer.MAX_VALUE;
+    }
+    /**
+     * Retrieves the number of holds still waiting for checkout.
+     * @return The active hold count.
+     */
+    public int getActiveHolds() {
+        return holds.size();
+    }
+    /**
+     * Retrieves the number of tickets in active holds.
+     * @return The held ticket count.
+     */
+    public long getHeldTickets() {
+        return heldTickets.sum();
+    }
+    /**
+     * Retrieves the number of holds placed since startup.
+     * @return The placed hold count.
+     */
+    public long getPlacedHolds() {
+        return placed.sum();
+    }
+    /**
+     * Retrieves the number of holds confirmed since startup.
+     * @return The confirmed hold count.
+     */
+    public long getConfirmedHolds() {
+        return confirmed.sum();
+    }
+    /**
+     * Retrieves the number of holds that expired since startup.
+     * @return The expired hold count.
+     */
+    public long getExpiredHolds() {
+        return expired.sum();
+    }
+    /**
+     * Retrieves the number of holds released early since startup.
+     * @return The released hold count.
+     */
+    public long getReleasedHolds() {
+        return released.sum();
+    }
+    /**
+     * Retrieves the number of tickets from expired and released holds that have been published back to the pool.
+     * These are included in the pool's releases, under vendor {@link #RETURN_VENDOR_ID}.
+     * @return The returned ticket count.
+     */
+    public long getReturnedTickets() {
+        return returnedTickets.sum();
+    }
+    /**
+     * Stops the timing wheel when the application shuts down. Outstanding holds are left as they are.
+     */
+    @Override
+    public void destroy() {
+        ticker.interrupt();
+    }
+    /**
+     * Moves an active hold to its final state and forgets it.
+     */
+    private Hold finish(long holdId, HoldState outcome) {
+        Hold hold = holds.get(holdId);
+        if (hold == null || !hold.finish(outcome)) {
+            throw new NoSuchElementException("No active hold with ID " + holdId + "; it may have expired.");
+        }
+        holds.remove(holdId);
+        heldTickets.add(-hold.getCount());
+        return hold;
+    }
+    /**
+     * Expires a hold that ran out; called by the timing wheel.
+     */
+    private void expire(Hold hold) {
+        if (!hold.finish(HoldState.EXPIRED)) {
+            return; // Confirmed or released at the last moment
+        }
+        holds.remove(hold.getHoldId());
+        heldTickets.add(-hold.getCount());
+        expired.increment();
+        returnTickets(hold.getTickets());
+        logger.log("[LOG] Hold " + hold.getHoldId() + " of customer " + hold.getCustomerId() + " expired.");
+        for (Consumer<Hold> listener : expiryListeners) {
+            listener.accept(hold);
+        }
+    }
+    /**
+     * Publishes tickets equal in number to a finished hold's, as many as fit in the pool's capacity, and queues
+     * the remainder for the next tick.
+     */
+    private void returnTickets(TicketRange tickets) {
+        int capacity = maxTicketCapacity;
+        int room = (int) Math.min(tickets.getCount(), Math.max(0L, (long) capacity - ticketPool.getTicketCount()));
+        int published = room > 0 ? ticketPool.tryRelease(room, RETURN_VENDOR_ID, capacity).getCount() : 0;
+        returnedTickets.add(published);
+        if (published < tickets.getCount()) {
+            returns.add(new TicketRange(tickets.getFirstTicketId() + published, tickets.getCount() - published));
+        }
+    }
+    /**
+     * Runs the timing wheel until the manager is destroyed.
+     */
+    private void runWheel() {
+        ArrayDeque<TicketRange> retry = new ArrayDeque<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            long wait = wheel.nextTickNanos() - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                wheel.advance(this::expire);
+                for (TicketRange tickets; (tickets = returns.poll()) != null; ) {
+                    retry.add(tickets);
+                }
+                while (!retry.isEmpty()) {
+                    returnTickets(retry.poll()); // What still does not fit is requeued
+                }
+            } catch (RuntimeException e) {
+                logger.log(LogCategory.ERROR, "[LOG] Hold expiry failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ticketing.hold;
+/**
+ * The stages of a {@link Hold}.
+ */
+public enum HoldState {
+    /**
+     * The tickets are reserved for the customer until the hold expires.
+     */
+    HELD,
+    /**
+     * The customer checked out; the tickets are sold.
+     */
+    CONFIRMED,
+    /**
+     * The hold ran out before checkout; its tickets went back to the pool.
+     */
+    EXPIRED,
+    /**
+     * The customer gave the tickets back before the hold ran out.
+     */
+    RELEASED
+}
@@ -0,0 +1,88 @@
+package com.ticketing.hold;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+/**
+ * A hashed timing wheel of hold deadlines.
+ * <p>
+ * The wheel is a ring of buckets, each covering one tick. A hold goes into the bucket of its deadline's tick,
+ * with the number of full turns of the wheel left before it is due; each tick visits a single bucket,
+ * expiring the holds that are due and counting down the others. Scheduling is O(1) and a tick costs
+ * O(holds in its bucket), however many holds are outstanding, instead of one timer per hold.
+ * <p>
+ * Any thread may {@link #schedule} holds; they are queued and moved into their buckets by the ticking
+ * thread, which owns the buckets. Holds that leave {@link HoldState#HELD} early are not unlinked at once:
+ * they are dropped when their bucket is next visited.
+ */
+final class TimingWheel {
+    private final Hold[] buckets;
+    private final int mask;
+    private final long tickNanos;
+    private final long startNanos;
+    private final ConcurrentLinkedQueue<Hold> scheduled = new ConcurrentLinkedQueue<>();
+    private long tick; // The next tick to process; only touched by the ticking thread
+    /**
+     * Constructs an empty wheel.
+     * @param wheelSize The number of buckets, rounded up to a power of two.
+     * @param tickNanos The time covered by one bucket.
+     */
+    TimingWheel(int wheelSize, long tickNanos) {
+        if (wheelSize <= 0 || tickNanos <= 0) {
+            throw new IllegalArgumentException("The timing wheel needs at least one bucket and a positive tick.");
+        }
+        this.buckets = new Hold[wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1];
+        this.mask = buckets.length - 1;
+        this.tickNanos = tickNanos;
+        this.startNanos = System.nanoTime();
+    }
+    /**
+     * Adds a hold to the wheel.
+     * @param hold The hold, whose deadline decides when it expires.
+     */
+    void schedule(Hold hold) {
+        scheduled.add(hold);
+    }
+    /**
+     * Returns when the next tick is due, in {@link System#nanoTime()} terms.
+     * @return The deadline of the next tick.
+     */
+    long nextTickNanos() {
+        return startNanos + (tick + 1) * tickNanos;
+    }
+    /**
+     * Processes the current tick: moves newly scheduled holds into their buckets, then hands every hold in
+     * the current bucket that is due and still held to {@code expired}.
+     * @param expired Receives the holds that have run out.
+     */
+    void advance(Consumer<Hold> expired) {
+        for (Hold hold; (hold = scheduled.poll()) != null; ) {
+            long due = (hold.deadlineNanos - startNanos) / tickNanos;
+            hold.rounds = Math.max(0, (due - tick) / buckets.length);
+            int index = (int) (Math.max(due, tick) & mask); // A deadline already past goes into the current bucket
+            hold.next = buckets[index];
+            buckets[index] = hold;
+        }
+        int index = (int) (tick & mask);
+        Hold previous = null;
+        Hold hold = buckets[index];
+        while (hold != null) {
+            Hold next = hold.next;
+            boolean done = hold.getState() != HoldState.HELD || hold.rounds == 0;
+            if (done) {
+                if (previous == null) {
+                    buckets[index] = next;
+                } else {
+                    previous.next = next;
+                }
+                hold.next = null;
+                if (hold.getState() == HoldState.HELD) {
+                    expired.accept(hold);
+                }
+            } else {
+                hold.rounds--;
+                previous = hold;
+            }
+            hold = next;
+        }
+        tick++;
+    }
+}
@@ -0,0 +1,81 @@
+package com.ticketing.journal;
+import com.ticketing.pool.PoolState;
+import java.util.Arrays;
+/**
+ * The pool state rebuilt from a snapshot and the journal records written after it.
+ * Since tickets in a span are issued consecutively and claimed oldest first, replaying a record only
+ * raises a span's claimed or issued high-water mark. Records can therefore be applied in any order,
+ * which matters because pool listeners, and with them the journal, may see concurrent batches out of order.
+ */
+class JournalState {
+    private long[] claimedUpTo = new long[0];
+    private long[] issuedUpTo = new long[0];
+    /**
+     * Constructs an empty state.
+     */
+    JournalState() {
+    }
+    /**
+     * Constructs a state starting from a snapshot.
+     * @param snapshot The snapshotted pool state.
+     */
+    JournalState(PoolState snapshot) {
+        ensureSpans(snapshot.getSpanCount());
+        for (int span = 0; span < snapshot.getSpanCount(); span++) {
+            claimedUpTo[span] = snapshot.getClaimedUpTo(span);
+            issuedUpTo[span] = snapshot.getIssuedUpTo(span);
+        }
+    }
+    /**
+     * Applies a published batch.
+     * @param firstTicketId The first ticket ID of the batch.
+     * @param count         The number of tickets in the batch.
+     */
+    void released(long firstTicketId, int count) {
+        int span = ensureSpanOf(firstTicketId);
+        issuedUpTo[span] = Math.max(issuedUpTo[span], firstTicketId + count - 1);
+    }
+    /**
+     * Applies a claimed batch.
+     * @param firstTicketId The first ticket ID of the batch.
+     * @param count         The number of tickets in the batch.
+     */
+    void claimed(long firstTicketId, int count) {
+        int span = ensureSpanOf(firstTicketId);
+        long last = firstTicketId + count - 1;
+        claimedUpTo[span] = Math.max(claimedUpTo[span], last);
+        issuedUpTo[span] = Math.max(issuedUpTo[span], last); // A claim whose release record was lost
+    }
+    /**
+     * Returns whether any span has been seen.
+     * @return {@code true} if nothing has been recorded.
+     */
+    boolean isEmpty() {
+        return claimedUpTo.length == 0;
+    }
+    /**
+     * Converts the rebuilt state into a pool state.
+     * @return The pool state, with at least one span.
+     */
+    PoolState toPoolState() {
+        ensureSpans(1);
+        return new PoolState(claimedUpTo, issuedUpTo);
+    }
+    private int ensureSpanOf(long ticketId) {
+        int span = PoolState.spanOf(ticketId);
+        ensureSpans(span + 1);
+        return span;
+    }
+    private void ensureSpans(int spans) {
+        int current = claimedUpTo.length;
+        if (spans <= current) {
+            return;
+        }
+        claimedUpTo = Arrays.copyOf(claimedUpTo, spans);
+        issuedUpTo = Arrays.copyOf(issuedUpTo, spans);
+        for (int span = current; span < spans; span++) {
+            claimedUpTo[span] = PoolState.spanBase(span);
+            issuedUpTo[span] = PoolState.spanBase(span);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ticketing.journal;
+import com.ticketing.pool.PoolSnapshot;
+import com.ticketing.pool.PoolState;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+/**
+ * Reads and writes pool snapshots: the per-span high-water marks of a {@link PoolState} together with the
+ * number of the last journal segment the snapshot includes.
+ * <p>
+ * Layout, big-endian: magic {@code int}, version {@code int}, last segment {@code long}, span count
+ * {@code int}, then claimed-up-to and issued-up-to {@code long}s for each span, and finally a CRC-32 of
+ * everything before it; the span section and checksum are those of {@link PoolSnapshot}. A snapshot is written to a temporary file and moved into place, so a crash never
+ * leaves a half-written snapshot behind.
+ */
+final class SnapshotFile {
+    private static final int MAGIC = 0x544A534E; // "TJSN"
+    private static final int VERSION = 1;
+    private SnapshotFile() {
+    }
+    /**
+     * A snapshot read back from disk.
+     */
+    static final class Snapshot {
+        final PoolState state;
+        final long lastSegment;
+        Snapshot(PoolState state, long lastSegment) {
+            this.state = state;
+            this.lastSegment = lastSegment;
+        }
+    }
+    /**
+     * Writes a snapshot, replacing any previous one.
+     * @param path        The snapshot file.
+     * @param state       The pool state.
+     * @param lastSegment The last journal segment whose records the state includes.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    static void write(Path path, PoolState state, long lastSegment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 8 + PoolSnapshot.spansSize(state) + 4);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(lastSegment);
+        PoolSnapshot.putSpans(buffer, state);
+        buffer.putInt(PoolSnapshot.checksum(buffer, buffer.position()));
+        buffer.flip();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    /**
+     * Reads a snapshot.
+     * @param path The snapshot file.
+     * @return The snapshot, or {@code null} if there is none.
+     * @throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    static Snapshot read(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < 24 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a ticket pool snapshot: " + path);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + " in " + path);
+        }
+        long lastSegment = buffer.getLong();
+        return new Snapshot(PoolSnapshot.getSpans(buffer, path), lastSegment);
+    }
+}
@@ -0,0 +1,395 @@
+package com.ticketing.journal;
+
+import com.ticketing.logging.LogCategory;
+import com.ticketing.logging.Logger;
+import com.ticketing.pool.PoolListener;
+import com.ticketing.pool.PoolState;
+import com.ticketing.pool.TicketPool;
+import com.ticketing.pool.TicketRange;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+/**
+ * An append-only binary journal of every batch published to or claimed from the {@link TicketPool},
+ * used to rebuild the pool after a restart or crash.
+ * <p>
+ * Each batch becomes a 21-byte record: type, vendor or customer ID, first ticket ID, ticket count and a
+ * CRC-32. Records are collected in a buffer and written with one call per
+ * {@code ticketing.journal.group-commit-size} records (group commit); a background thread writes whatever
+ * is buffered and syncs the file every {@code ticketing.journal.fsync-interval-millis}.
+ * A larger group or a longer interval raises throughput; after a crash, at most the records of the last
+ * interval are lost. With an interval of {@code 0}, every group is forced to disk as it is written.
+ * <p>
+ * The journal is split into numbered segments. Every {@code ticketing.journal.snapshot-interval-millis} the
+ * current segment is sealed, the previous snapshot and the sealed segments are compacted into a new
+ * {@link SnapshotFile snapshot}, and the sealed segments are deleted. At startup the pool is restored from
+ * the snapshot plus the records of any later segments.
+ * <p>
+ * Segments are written through a {@link RandomAccessFile} rather than a {@link FileChannel}: groups are
+ * written on vendor and customer threads, which are interrupted when the system stops, and an interrupt
+ * closes a {@code FileChannel} and loses the buffered records.
+ * <p>
+ * Journaling is off unless {@code ticketing.journal.enabled=true}.
+ */
+@Component
+public class TicketJournal implements PoolListener, DisposableBean {
+    /**
+     * The size of one record in bytes.
+     */
+    static final int RECORD_SIZE = 21;
+    private static final int PAYLOAD_SIZE = RECORD_SIZE - 4;
+    private static final byte RELEASE = 1;
+    private static final byte CLAIM = 2;
+    private static final String SNAPSHOT_FILE = "ticketing_snapshot.bin";
+    private static final String SEGMENT_PREFIX = "ticketing_journal.";
+    private static final String SEGMENT_SUFFIX = ".bin";
+    private final Logger logger;
+    private final boolean enabled;
+    private final Path directory;
+    private final int groupCommitSize;
+    private final long fsyncIntervalMillis;
+    private final long snapshotIntervalMillis;
+    /**
+     * Guards the buffer, the CRC and the current segment.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final CRC32 crc = new CRC32();
+    private final byte[] bytes;
+    private final ByteBuffer buffer; // Wraps bytes
+    private int bufferedRecords;
+    private boolean segmentWritten; // Whether the current segment has any records
+    private RandomAccessFile segment;
+    private long segmentNumber;
+    private ScheduledExecutorService scheduler;
+    /**
+     * Constructs the journal. Nothing is read or written until {@link #attach(TicketPool)} is called.
+     * @param logger                 Logger for recovery and error messages.
+     * @param enabled                Whether the pool is journaled at all.
+     * @param directory              The directory holding the journal segments and the snapshot.
+     * @param groupCommitSize        The number of records written to the file in one call.
+     * @param fsyncIntervalMillis    How often buffered records are written and forced to disk; {@code 0} forces every group.
+     * @param snapshotIntervalMillis How often the journal is compacted into a snapshot.
+     */
+    public TicketJournal(Logger logger,
+                         @Value("${ticketing.journal.enabled:false}") boolean enabled,
+                         @Value("${ticketing.journal.directory:.}") String directory,
+                         @Value("${ticketing.journal.group-commit-size:64}") int groupCommitSize,
+                         @Value("${ticketing.journal.fsync-interval-millis:100}") long fsyncIntervalMillis,
+                         @Value("${ticketing.journal.snapshot-interval-millis:60000}") long snapshotIntervalMillis) {
+        if (groupCommitSize <= 0 || fsyncIntervalMillis < 0 || snapshotIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Journal group size and snapshot interval must be positive and the fsync interval must not be negative.");
+        }
+        this.logger = logger;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.groupCommitSize = groupCommitSize;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+        this.bytes = new byte[groupCommitSize * RECORD_SIZE];
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+    /**
+     * Restores the pool from the latest snapshot and journal, records its state in a fresh snapshot and starts
+     * journaling its batches. Must be called before vendors and customers use the pool. Does nothing when
+     * journaling is disabled.
+     * @param pool The pool to recover and journal.
+     * @throws IllegalStateException if the journal cannot be read or the pool cannot hold the recovered state;
+     *                               the application refuses to start rather than lose the journaled tickets.
+     */
+    public void attach(TicketPool pool) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            SnapshotFile.Snapshot snapshot = SnapshotFile.read(snapshotPath());
+            JournalState state = snapshot == null ? new JournalState() : new JournalState(snapshot.state);
+            long lastSegment = snapshot == null ? 0 : snapshot.lastSegment;
+            long records = 0;
+            for (long number : listSegments()) {
+                if (number > lastSegment) {
+                    records += replay(segmentPath(number), state);
+                    lastSegment = number;
+                }
+            }
+            if (snapshot != null || records > 0) {
+                pool.restoreState(state.toPoolState());
+                logger.log("[LOG] Ticket pool recovered from journal: " + pool.getTicketCount() + " tickets available.");
+            }
+            SnapshotFile.write(snapshotPath(), pool.exportState(), lastSegment);
+            deleteSegmentsUpTo(lastSegment);
+            openSegment(lastSegment + 1);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to recover the ticket pool from the journal: " + e.getMessage(), e);
+        }
+        pool.addListener(this);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ticketing-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (fsyncIntervalMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::sync, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        scheduler.scheduleWithFixedDelay(this::snapshot, snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    @Override
+    public void onTicketsReleased(int vendorId, TicketRange range, int ticketCount) {
+        append(RELEASE, vendorId, range);
+    }
+    @Override
+    public void onTicketsClaimed(int customerId, TicketRange range, int ticketCount) {
+        append(CLAIM, customerId, range);
+    }
+    /**
+     * Starts the journal afresh from a restored state: the current segment is sealed and the restored state
+     * becomes the snapshot, since the records before it no longer describe the pool. Runs on the journal
+     * thread so it cannot interleave with a compaction.
+     */
+    @Override
+    public void onStateRestored(PoolState state) {
+        try {
+            scheduler.submit(() -> {
+                long sealed = seal();
+                SnapshotFile.write(snapshotPath(), state, sealed);
+                deleteSegmentsUpTo(sealed);
+                return null;
+            }).get();
+        } catch (ExecutionException e) {
+            System.err.println("[ERROR] Failed to write ticket pool snapshot: " + e.getCause().getMessage());
+        } catch (RejectedExecutionException e) {
+            // Shut down
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    /**
+     * Writes any buffered records, forces the journal to disk and closes it when the application shuts down.
+     */
+    @Override
+    public void destroy() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown(); // Lets a running compaction finish; interrupting it would only waste it
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            writeBuffer();
+            segment.getFD().sync();
+            segment.close();
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to close ticket journal: " + e.getMessage());
+        } finally {
+            segment = null;
+            lock.unlock();
+        }
+    }
+    /**
+     * Adds a record to the buffer, writing the buffer out once it holds a full group.
+     */
+    private void append(byte type, int actorId, TicketRange range) {
+        lock.lock();
+        try {
+            if (segment == null) {
+                return; // Shut down
+            }
+            int start = buffer.position();
+            buffer.put(type).putInt(actorId).putLong(range.getFirstTicketId()).putInt(range.getCount());
+            crc.reset();
+            crc.update(bytes, start, PAYLOAD_SIZE);
+            buffer.putInt((int) crc.getValue());
+            if (++bufferedRecords == groupCommitSize) {
+                writeBuffer();
+                if (fsyncIntervalMillis == 0) {
+                    segment.getFD().sync();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to write ticket journal: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Writes the buffered records to the current segment. Must be called with the lock held.
+     */
+    private void writeBuffer() throws IOException {
+        if (bufferedRecords == 0) {
+            return;
+        }
+        segment.write(bytes, 0, buffer.position());
+        buffer.clear();
+        bufferedRecords = 0;
+        segmentWritten = true;
+    }
+    /**
+     * Writes the buffered records and forces them to disk; runs every fsync interval.
+     */
+    private void sync() {
+        RandomAccessFile current;
+        lock.lock();
+        try {
+            writeBuffer();
+            current = segment;
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to write ticket journal: " + e.getMessage());
+            return;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            current.getFD().sync(); // Outside the lock, so pool listeners are not held up by the disk
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to sync ticket journal: " + e.getMessage());
+        }
+    }
+    /**
+     * Seals the current segment and compacts the previous snapshot and the sealed segments into a new snapshot.
+     * Runs on the journal thread; pool listeners only wait for the segment switch.
+     */
+    private void snapshot() {
+        boolean idle;
+        lock.lock();
+        try {
+            idle = !segmentWritten && bufferedRecords == 0;
+        } finally {
+            lock.unlock();
+        }
+        if (idle) {
+            return; // Nothing happened since the last snapshot
+        }
+        try {
+            long sealed = seal();
+            SnapshotFile.Snapshot previous = SnapshotFile.read(snapshotPath());
+            JournalState state = previous == null ? new JournalState() : new JournalState(previous.state);
+            long after = previous == null ? 0 : previous.lastSegment;
+            for (long number : listSegments()) {
+                if (number > after && number <= sealed) {
+                    replay(segmentPath(number), state);
+                }
+            }
+            SnapshotFile.write(snapshotPath(), state.toPoolState(), sealed);
+            deleteSegmentsUpTo(sealed);
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to write ticket pool snapshot: " + e.getMessage());
+        }
+    }
+    /**
+     * Writes the buffered records, forces and closes the current segment and switches to a new one.
+     * @return The number of the sealed segment.
+     */
+    private long seal() throws IOException {
+        lock.lock();
+        try {
+            writeBuffer();
+            segment.getFD().sync();
+            segment.close();
+            long sealed = segmentNumber;
+            openSegment(sealed + 1);
+            return sealed;
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Applies every intact record of a segment to {@code state}, stopping at the first torn or corrupt record.
+     * @return The number of records applied.
+     */
+    private long replay(Path path, JournalState state) throws IOException {
+        long records = 0;
+        CRC32 check = new CRC32();
+        ByteBuffer chunk = ByteBuffer.allocate(RECORD_SIZE * 4096);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(chunk) > 0 || chunk.position() > 0) {
+                chunk.flip();
+                if (chunk.remaining() < RECORD_SIZE) {
+                    break; // A record torn by a crash
+                }
+                while (chunk.remaining() >= RECORD_SIZE) {
+                    int start = chunk.position();
+                    check.reset();
+                    check.update(chunk.array(), start, PAYLOAD_SIZE);
+                    byte type = chunk.get();
+                    chunk.getInt(); // Vendor or customer ID, kept for auditing
+                    long firstTicketId = chunk.getLong();
+                    int count = chunk.getInt();
+                    if (chunk.getInt() != (int) check.getValue() || count <= 0 || (type != RELEASE && type != CLAIM)) {
+                        logger.log(LogCategory.ERROR, "[LOG] Ignoring corrupt journal records from offset " + (records * RECORD_SIZE) + " in " + path.getFileName() + ".");
+                        return records;
+                    }
+                    if (type == RELEASE) {
+                        state.released(firstTicketId, count);
+                    } else {
+                        state.claimed(firstTicketId, count);
+                    }
+                    records++;
+                }
+                chunk.compact();
+            }
+        }
+        return records;
+    }
+    /**
+     * Opens a new, empty segment. Must be called with the lock held or before journaling starts.
+     */
+    private void openSegment(long number) throws IOException {
+        segment = new RandomAccessFile(Files.createFile(segmentPath(number)).toFile(), "rw");
+        segmentNumber = number;
+        segmentWritten = false;
+    }
+    /**
+     * Returns the numbers of the segments in the journal directory, in ascending order.
+     */
+    private List<Long> listSegments() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not a journal segment
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+    private void deleteSegmentsUpTo(long number) throws IOException {
+        for (long existing : listSegments()) {
+            if (existing <= number) {
+                Files.deleteIfExists(segmentPath(existing));
+            }
+        }
+    }
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+    private Path snapshotPath() {
+        return directory.resolve(SNAPSHOT_FILE);
+    }
+}
@@ -0,0 +1,175 @@
+package com.ticketing.limit;
+/**
+ * The per-customer state of a {@link PurchaseLimiter}: an open-addressing map from customer ID to a
+ * theoretical arrival time and a purchase count, held in primitive arrays.
+ * The map is split into stripes by the hash of the ID, each with its own arrays and lock, so no lock
+ * covers the whole map and a lookup neither boxes the key nor allocates. Removal shifts later entries
+ * back instead of leaving tombstones, so idle customers can be evicted in place. A stripe that is still
+ * half full after evicting grows, so each eviction scan frees at least a quarter of the stripe and the
+ * scans cost amortised constant time per insert.
+ */
+final class CustomerBuckets {
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int INITIAL_STRIPE_CAPACITY = 64;
+    private final Stripe[] stripes;
+    private final int stripeShift;
+    /**
+     * Constructs an empty map.
+     * @param concurrency The expected number of concurrent callers, rounded up to a power of two stripes.
+     */
+    CustomerBuckets(int concurrency) {
+        int count = Integer.highestOneBit(Math.max(2, concurrency) - 1) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeShift = 64 - Integer.numberOfTrailingZeros(count);
+    }
+    /**
+     * Checks and records a request; see {@link PurchaseLimiter#tryAcquire(long, int)}.
+     */
+    int acquire(long customerId, long now, int tickets, long intervalNanos, long toleranceNanos, int cap) {
+        long hash = hash(customerId);
+        return stripes[(int) (hash >>> stripeShift)].acquire(customerId, (int) hash, now, tickets, intervalNanos, toleranceNanos, cap);
+    }
+    /**
+     * Takes tickets back off a customer's purchase count.
+     */
+    void refund(long customerId, int tickets) {
+        long hash = hash(customerId);
+        stripes[(int) (hash >>> stripeShift)].refund(customerId, (int) hash, tickets);
+    }
+    /**
+     * Returns the number of customers held.
+     */
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+    /**
+     * Mixes the bits of a customer ID (the MurmurHash3 finaliser), since IDs are usually small and sequential.
+     */
+    private static long hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        return key ^ (key >>> 33);
+    }
+    /**
+     * One lock's share of the map.
+     */
+    private static final class Stripe {
+        private long[] keys = newKeys(INITIAL_STRIPE_CAPACITY);
+        private long[] arrivals = new long[INITIAL_STRIPE_CAPACITY];
+        private int[] purchases = new int[INITIAL_STRIPE_CAPACITY];
+        private int size;
+        synchronized int acquire(long key, int hash, long now, int tickets, long intervalNanos, long toleranceNanos, int cap) {
+            int slot = find(key, hash);
+            if (keys[slot] != key) {
+                if (size + 1 > keys.length * 3 / 4) {
+                    evictIdle(now);
+                    if (size + 1 > keys.length / 2) { // Evicting freed too little to be worth scanning again soon
+                        grow();
+                    }
+                    slot = find(key, hash);
+                }
+                keys[slot] = key;
+                arrivals[slot] = now;
+                purchases[slot] = 0;
+                size++;
+            }
+            long arrival = Math.max(arrivals[slot], now);
+            if (arrival - now > toleranceNanos) {
+                return 0; // The bucket is empty
+            }
+            if (cap == 0) {
+                arrivals[slot] = arrival + intervalNanos;
+                return tickets; // Nothing to remember but the bucket, so the customer can be evicted once it refills
+            }
+            int allowed = Math.min(tickets, cap - purchases[slot]);
+            if (allowed <= 0) {
+                return 0;
+            }
+            arrivals[slot] = arrival + intervalNanos;
+            purchases[slot] += allowed;
+            return allowed;
+        }
+        synchronized void refund(long key, int hash, int tickets) {
+            int slot = find(key, hash);
+            if (keys[slot] == key) {
+                purchases[slot] = Math.max(0, purchases[slot] - tickets);
+            }
+        }
+        /**
+         * Returns the slot holding the key, or the empty slot where it would go.
+         */
+        private int find(long key, int hash) {
+            int mask = keys.length - 1;
+            int slot = hash & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+        /**
+         * Removes customers whose bucket has refilled and who have bought nothing, so forgetting them changes nothing.
+         */
+        private void evictIdle(long now) {
+            int slot = 0;
+            while (slot < keys.length) {
+                if (keys[slot] != EMPTY && arrivals[slot] <= now && purchases[slot] == 0) {
+                    removeAt(slot); // Re-examine the slot: a later entry may have moved into it
+                } else {
+                    slot++;
+                }
+            }
+        }
+        /**
+         * Removes an entry, moving back later entries of the same probe run so lookups still find them.
+         */
+        private void removeAt(int slot) {
+            int mask = keys.length - 1;
+            int hole = slot;
+            int next = (slot + 1) & mask;
+            while (keys[next] != EMPTY) {
+                int home = (int) hash(keys[next]) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) { // Its home is at or before the hole
+                    keys[hole] = keys[next];
+                    arrivals[hole] = arrivals[next];
+                    purchases[hole] = purchases[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[hole] = EMPTY;
+            size--;
+        }
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldArrivals = arrivals;
+            int[] oldPurchases = purchases;
+            keys = newKeys(oldKeys.length << 1);
+            arrivals = new long[keys.length];
+            purchases = new int[keys.length];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = find(oldKeys[i], (int) hash(oldKeys[i]));
+                    keys[slot] = oldKeys[i];
+                    arrivals[slot] = oldArrivals[i];
+                    purchases[slot] = oldPurchases[i];
+                }
+            }
+        }
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            java.util.Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+    }
+}
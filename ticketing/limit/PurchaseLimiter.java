@@ -0,0 +1,94 @@
+package com.ticketing.limit;
+import com.ticketing.controller.TicketRequest;
+/**
+ * Enforces per-customer request rates and purchase caps before a request reaches the ticket pool.
+ * <p>
+ * Each customer has a token bucket that refills at {@code requestsPerSecond} and holds up to {@code burst}
+ * requests, and a count of the tickets it has bought against {@code maxTicketsPerCustomer}. Either limit is
+ * off when set to zero. The bucket is kept as a single theoretical arrival time, in the manner of the
+ * generic cell rate algorithm: a request is allowed if the bucket would not overflow, and each allowed
+ * request pushes the time forward by one refill interval.
+ * <p>
+ * Customers live in a {@link CustomerBuckets} map striped by customer ID, so checks for different customers
+ * rarely meet on the same lock, and a check allocates nothing. A customer whose bucket has refilled and who
+ * has bought nothing is forgotten when its stripe needs room; customers who have bought tickets are kept
+ * so their cap holds. {@link #reconfigure} changes the limits without forgetting what customers have bought.
+ */
+public final class PurchaseLimiter {
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int maxTicketsPerCustomer;
+    private final CustomerBuckets buckets;
+    /**
+     * Constructs a limiter.
+     * @param requestsPerSecond     The sustained request rate allowed per customer, or {@code 0} for no rate limit.
+     * @param burst                 The number of requests a customer may make at once after being idle.
+     * @param maxTicketsPerCustomer The most tickets one customer may buy, or {@code 0} for no cap.
+     */
+    public PurchaseLimiter(int requestsPerSecond, int burst, int maxTicketsPerCustomer) {
+        this(requestsPerSecond, burst, maxTicketsPerCustomer, null);
+    }
+    private PurchaseLimiter(int requestsPerSecond, int burst, int maxTicketsPerCustomer, CustomerBuckets buckets) {
+        if (requestsPerSecond < 0 || maxTicketsPerCustomer < 0) {
+            throw new IllegalArgumentException("Rate and purchase limits cannot be negative.");
+        }
+        this.intervalNanos = requestsPerSecond == 0 ? 0 : 1_000_000_000L / requestsPerSecond;
+        this.toleranceNanos = intervalNanos * (Math.max(1, burst) - 1);
+        this.maxTicketsPerCustomer = maxTicketsPerCustomer;
+        this.buckets = buckets != null || !isLimited() ? buckets : new CustomerBuckets(Runtime.getRuntime().availableProcessors() * 4);
+    }
+    /**
+     * Creates the limiter described by an event's configuration.
+     * @param config The configuration.
+     * @return The limiter.
+     */
+    public static PurchaseLimiter of(TicketRequest config) {
+        return new PurchaseLimiter(config.getCustomerRequestsPerSecond(), config.getCustomerBurst(), config.getMaxTicketsPerCustomer());
+    }
+    /**
+     * Creates a limiter with the limits of a new configuration that keeps this limiter's customers: what they
+     * have bought still counts against the new cap, and their buckets carry on at the new rate.
+     * @param config The new configuration.
+     * @return The limiter, sharing its per-customer state with this one.
+     */
+    public PurchaseLimiter reconfigure(TicketRequest config) {
+        return new PurchaseLimiter(config.getCustomerRequestsPerSecond(), config.getCustomerBurst(), config.getMaxTicketsPerCustomer(), buckets);
+    }
+    /**
+     * Tells whether either limit is on.
+     * @return {@code false} if every request is allowed in full.
+     */
+    public boolean isLimited() {
+        return intervalNanos > 0 || maxTicketsPerCustomer > 0;
+    }
+    /**
+     * Checks a purchase request against the customer's rate and cap, and records it if it is allowed.
+     * @param customerId The customer making the request.
+     * @param tickets    The number of tickets wanted.
+     * @return The number of tickets the customer may claim: {@code tickets}, fewer if the cap is close, or
+     *         {@code 0} if the customer is over its rate or has reached its cap.
+     */
+    public int tryAcquire(long customerId, int tickets) {
+        if (!isLimited() || tickets <= 0) {
+            return tickets;
+        }
+        return buckets.acquire(customerId, System.nanoTime(), tickets, intervalNanos, toleranceNanos, maxTicketsPerCustomer);
+    }
+    /**
+     * Gives back tickets that were allowed but not claimed, for example because the pool had fewer.
+     * @param customerId The customer.
+     * @param tickets    The number of tickets not claimed.
+     */
+    public void refund(long customerId, int tickets) {
+        if (maxTicketsPerCustomer > 0 && tickets > 0) {
+            buckets.refund(customerId, tickets);
+        }
+    }
+    /**
+     * Retrieves the number of customers being tracked.
+     * @return The customer count.
+     */
+    public int size() {
+        return buckets == null ? 0 : buckets.size();
+    }
+}
@@ -0,0 +1,155 @@
+package com.ticketing.logging;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+/**
+ * A log file the {@link RollingLogFile} has rotated out, holding the lines numbered
+ * {@code firstLine + 1} to {@code endLine}. Until it is compressed, lines are read through the index of the
+ * {@link LogFile} that wrote them; afterwards they are read by decompressing the file from the start, which
+ * costs at most one rotated file per page.
+ */
+class ArchivedLog {
+    private static final String COMPRESSED_SUFFIX = ".gz";
+    private final long firstLine;
+    private final long endLine;
+    private final long archivedAt;
+    private volatile Path path;
+    private volatile LogFile file; // The sealed file that wrote the lines, or null once compressed
+    /**
+     * Constructs an archived log.
+     * @param path       The file holding the lines, compressed if its name ends in {@code .gz}.
+     * @param firstLine  The number of lines logged before this file.
+     * @param endLine    The number of lines logged up to the end of this file.
+     * @param archivedAt When the file was rotated out, in epoch milliseconds.
+     * @param file       The sealed file that wrote the lines, or {@code null} if it was archived by an earlier run.
+     */
+    ArchivedLog(Path path, long firstLine, long endLine, long archivedAt, LogFile file) {
+        this.path = path;
+        this.firstLine = firstLine;
+        this.endLine = endLine;
+        this.archivedAt = archivedAt;
+        this.file = file;
+    }
+    long firstLine() {
+        return firstLine;
+    }
+    long endLine() {
+        return endLine;
+    }
+    long archivedAt() {
+        return archivedAt;
+    }
+    boolean isCompressed() {
+        return isCompressed(path);
+    }
+    /**
+     * Reads a page of the file's lines.
+     * @param skip  The number of the file's lines to skip.
+     * @param limit The maximum number of lines to return.
+     * @return The lines.
+     * @throws IOException if the file cannot be read.
+     */
+    List<String> readLines(long skip, int limit) throws IOException {
+        LogFile open = file;
+        if (open != null) {
+            try {
+                return open.readLines(skip, limit);
+            } catch (ClosedChannelException e) {
+                // Compressed while we were reading: read the compressed file instead
+            }
+        }
+        List<String> lines = new ArrayList<>((int) Math.min(limit, endLine - firstLine));
+        try (BufferedReader reader = reader()) {
+            for (long i = 0; i < skip; i++) {
+                if (reader.readLine() == null) {
+                    return lines;
+                }
+            }
+            String line;
+            while (lines.size() < limit && (line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+    /**
+     * Reads the whole file as text.
+     * @return The file's contents.
+     * @throws IOException if the file cannot be read.
+     */
+    String readAll() throws IOException {
+        Path current = path;
+        if (!isCompressed(current)) {
+            return Files.readString(current);
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(current))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+    /**
+     * Compresses the file with gzip, switches readers to the compressed copy and deletes the original.
+     * The compressed file is written under a temporary name first, so a crash never leaves a partial one.
+     * @throws IOException if the file cannot be compressed.
+     */
+    void compress() throws IOException {
+        if (isCompressed()) {
+            return;
+        }
+        Path plain = path;
+        Path compressed = plain.resolveSibling(plain.getFileName() + COMPRESSED_SUFFIX);
+        Path temporary = plain.resolveSibling(plain.getFileName() + COMPRESSED_SUFFIX + ".tmp");
+        try (InputStream in = Files.newInputStream(plain);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary), 64 * 1024)) {
+            in.transferTo(out);
+        }
+        Files.move(temporary, compressed, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        path = compressed; // Before the open file is closed, so a reader that finds it closed reads this
+        LogFile open = file;
+        file = null;
+        if (open != null) {
+            open.close();
+        }
+        Files.deleteIfExists(plain);
+    }
+    /**
+     * Closes the file and deletes it.
+     * @throws IOException if the file cannot be deleted.
+     */
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+    /**
+     * Closes the sealed file that wrote the lines, if it is still open.
+     * @throws IOException if the file cannot be closed.
+     */
+    void close() throws IOException {
+        LogFile open = file;
+        file = null;
+        if (open != null) {
+            open.close();
+        }
+    }
+    private static boolean isCompressed(Path path) {
+        return path.getFileName().toString().endsWith(COMPRESSED_SUFFIX);
+    }
+    private BufferedReader reader() throws IOException {
+        Path current = path;
+        InputStream in = Files.newInputStream(current);
+        if (isCompressed(current)) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+}
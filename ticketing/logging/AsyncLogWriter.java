@@ -0,0 +1,241 @@
+package com.ticketing.logging;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+/**
+ * Moves log messages off the calling threads: callers enqueue into a bounded, lock-free ring of
+ * preallocated slots and a single writer thread drains it in batches. A slot holds the message template,
+ * its {@code long} arguments and the timestamp, so enqueuing allocates nothing; the writer renders lines,
+ * prints each batch to the console in one call and appends it to the {@link RollingLogFile}, which is flushed
+ * to disk once per flush interval rather than once per message.
+ */
+class AsyncLogWriter implements Runnable {
+    private final RollingLogFile logFile;
+    private final LogTail recentLines;
+    private final Runnable onFlush;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final String[] messages;
+    private final byte[] argCounts;
+    private final long[] firstArgs;
+    private final long[] secondArgs;
+    private final long[] timestamps;
+    /**
+     * Per-slot sequence numbers: a slot is free for position {@code p} when its sequence equals {@code p}
+     * and holds the message for {@code p} when it equals {@code p + 1}.
+     */
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); // Next position a caller writes
+    private long head; // Next position the writer reads; only touched by the writer thread
+    private volatile long drainedUpTo; // Head as of the last drain, for readers on other threads
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long droppedTotal; // Written only by the writer thread
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final LogFormatter formatter = new LogFormatter();
+    private final StringBuilder console = new StringBuilder();
+    private final Thread thread;
+    private volatile boolean running = true;
+    /**
+     * Constructs a writer; call {@link #start()} to begin draining.
+     * @param logFile         The file to append to, or {@code null} to write to the console only.
+     * @param recentLines     The ring of recent lines, filled as lines are written.
+     * @param onFlush         Called on the writer thread after each flush of the file.
+     * @param queueCapacity   The number of queued messages before the overflow policy applies (rounded up to a power of two).
+     * @param flushIntervalMillis How often buffered lines are written to the file.
+     * @param overflowPolicy  What to do with messages that arrive while the queue is full.
+     * @param sampleRate      With {@link OverflowPolicy#SAMPLE}, keep one in this many overflowing messages.
+     */
+    AsyncLogWriter(RollingLogFile logFile, LogTail recentLines, Runnable onFlush, int queueCapacity, long flushIntervalMillis, OverflowPolicy overflowPolicy, int sampleRate) {
+        int size = Integer.highestOneBit(Math.max(2, queueCapacity));
+        if (size < queueCapacity) {
+            size <<= 1;
+        }
+        this.logFile = logFile;
+        this.recentLines = recentLines;
+        this.onFlush = onFlush;
+        this.flushIntervalNanos = Math.max(1, flushIntervalMillis) * 1_000_000L;
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.messages = new String[size];
+        this.argCounts = new byte[size];
+        this.firstArgs = new long[size];
+        this.secondArgs = new long[size];
+        this.timestamps = new long[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.thread = new Thread(this, "ticketing-log-writer");
+        this.thread.setDaemon(true);
+    }
+    /**
+     * Starts the writer thread.
+     */
+    void start() {
+        thread.start();
+    }
+    /**
+     * Queues a message, applying the overflow policy if the queue is full.
+     * @param template  The message, with a {@code {}} for each argument.
+     * @param argCount  The number of arguments, from 0 to 2.
+     * @param arg0      The first argument.
+     * @param arg1      The second argument.
+     * @param timestamp The time the message was logged, in epoch milliseconds.
+     */
+    void enqueue(String template, int argCount, long arg0, long arg1, long timestamp) {
+        if (tryEnqueue(template, argCount, arg0, arg1, timestamp)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP
+                || (overflowPolicy == OverflowPolicy.SAMPLE && overflowCount.getAndIncrement() % sampleRate != 0)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        while (!tryEnqueue(template, argCount, arg0, arg1, timestamp)) {
+            if (!running) {
+                return; // The writer has been closed and will not make room any more
+            }
+            LockSupport.unpark(thread); // Queue full: make sure the writer is draining
+            LockSupport.parkNanos(50_000L);
+        }
+    }
+    /**
+     * Returns the approximate number of messages waiting to be written.
+     * @return The queue depth.
+     */
+    long queueDepth() {
+        return Math.max(0, tail.get() - drainedUpTo);
+    }
+    /**
+     * Returns the number of messages discarded by the overflow policy since the writer started.
+     * Messages dropped since the writer's last batch are not counted yet.
+     * @return The number of dropped messages.
+     */
+    long droppedCount() {
+        return droppedTotal;
+    }
+    /**
+     * Stops the writer after it has drained every queued message and flushed the file.
+     */
+    void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    /**
+     * Drains the queue in batches until closed, flushing the file once per flush interval.
+     */
+    @Override
+    public void run() {
+        long nextFlush = System.nanoTime() + flushIntervalNanos;
+        while (running) {
+            int drained = drain();
+            long now = System.nanoTime();
+            if (now - nextFlush >= 0) {
+                flush();
+                nextFlush = now + flushIntervalNanos;
+            } else if (drained == 0) {
+                LockSupport.parkNanos(nextFlush - now); // Idle until the next flush or until callers need room
+            }
+        }
+        drain();
+        flush();
+    }
+    /**
+     * Claims a slot with a compare-and-set on the tail and publishes the message into it.
+     * @return {@code false} if the queue is full.
+     */
+    private boolean tryEnqueue(String template, int argCount, long arg0, long arg1, long timestamp) {
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence < position) {
+                return false; // The writer has not freed this slot yet
+            }
+            if (sequence == position && tail.compareAndSet(position, position + 1)) {
+                break;
+            }
+        }
+        messages[index] = template;
+        argCounts[index] = (byte) argCount;
+        firstArgs[index] = arg0;
+        secondArgs[index] = arg1;
+        timestamps[index] = timestamp;
+        sequences.set(index, position + 1);
+        if ((position & ((messages.length >> 1) - 1)) == 0) {
+            LockSupport.unpark(thread); // Every half queue of messages, wake the writer instead of waiting for the flush interval
+        }
+        return true;
+    }
+    /**
+     * Formats up to one queue's worth of published messages into the file buffer and prints the batch
+     * to the console in a single call.
+     * @return The number of messages drained.
+     */
+    private int drain() {
+        int drained = 0;
+        while (drained < messages.length) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break; // Nothing published at the head yet
+            }
+            String line = formatter.formatToString(timestamps[index], messages[index], argCounts[index], firstArgs[index], secondArgs[index]);
+            messages[index] = null;
+            sequences.set(index, head + messages.length);
+            head++;
+            drained++;
+            write(line);
+        }
+        drainedUpTo = head;
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            droppedTotal += lost;
+            write(formatter.formatToString(System.currentTimeMillis(), "[LOG] {} log messages dropped because the log queue was full.", 1, lost, 0));
+        }
+        if (console.length() > 0) {
+            System.out.print(console);
+            console.setLength(0);
+        }
+        return drained;
+    }
+    /**
+     * Adds a formatted line to the recent lines, the pending console batch and the file buffer.
+     */
+    private void write(String line) {
+        recentLines.add(line);
+        console.append(line).append(System.lineSeparator());
+        if (logFile == null) {
+            return;
+        }
+        try {
+            logFile.append(line);
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to write log to file: " + e.getMessage());
+        }
+    }
+    /**
+     * Writes the file buffer to disk.
+     */
+    private void flush() {
+        if (logFile == null) {
+            return;
+        }
+        try {
+            logFile.flush();
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to write log to file: " + e.getMessage());
+        }
+        onFlush.run();
+    }
+}
@@ -0,0 +1,107 @@
+package com.ticketing.logging;
+import java.util.Map;
+import java.util.TreeMap;
+/**
+ * The answer to an {@link EventLog} query: how many matching events and tickets a time window holds, broken
+ * down by vendor or customer and, optionally, by fixed-size time windows.
+ */
+public class EventCounts {
+    private final EventType type;
+    private final Integer actorId;
+    private final long from;
+    private final long to;
+    private final long windowMillis;
+    private long events;
+    private long tickets;
+    private final Map<Integer, Long> ticketsByActor = new TreeMap<>();
+    private final Map<Long, Long> ticketsByWindow = new TreeMap<>();
+    private int segmentsScanned;
+    private long recordsRead;
+    /**
+     * Constructs empty counts for a query.
+     * @param type         The event type counted.
+     * @param actorId      The only vendor or customer counted, or {@code null} for all of them.
+     * @param from         The start of the queried time, in epoch milliseconds, inclusive.
+     * @param to           The end of the queried time, in epoch milliseconds, exclusive.
+     * @param windowMillis The width of the time windows tickets are also counted in, or {@code 0} for none.
+     */
+    EventCounts(EventType type, Integer actorId, long from, long to, long windowMillis) {
+        this.type = type;
+        this.actorId = actorId;
+        this.from = from;
+        this.to = to;
+        this.windowMillis = windowMillis;
+    }
+    /**
+     * Counts a record in the queried time if it matches the type and actor.
+     */
+    void add(long timestamp, byte recordType, int recordActorId, int count) {
+        if (recordType != type.code() || (actorId != null && recordActorId != actorId)) {
+            return;
+        }
+        events++;
+        tickets += count;
+        ticketsByActor.merge(recordActorId, (long) count, Long::sum);
+        if (windowMillis > 0) {
+            long window = from + (timestamp - from) / windowMillis * windowMillis;
+            ticketsByWindow.merge(window, (long) count, Long::sum);
+        }
+    }
+    void segmentScanned() {
+        segmentsScanned++;
+    }
+    void recordRead() {
+        recordsRead++;
+    }
+    /**
+     * Retrieves the event type counted.
+     * @return The event type.
+     */
+    public EventType getType() {return type;}
+    /**
+     * Retrieves the vendor or customer the query was limited to.
+     * @return The actor ID, or {@code null} for all actors.
+     */
+    public Integer getActorId() {return actorId;}
+    /**
+     * Retrieves the start of the queried time.
+     * @return The start, in epoch milliseconds.
+     */
+    public long getFrom() {return from;}
+    /**
+     * Retrieves the end of the queried time.
+     * @return The exclusive end, in epoch milliseconds.
+     */
+    public long getTo() {return to;}
+    /**
+     * Retrieves the number of matching events.
+     * @return The event count.
+     */
+    public long getEvents() {return events;}
+    /**
+     * Retrieves the number of tickets in the matching events.
+     * @return The ticket count.
+     */
+    public long getTickets() {return tickets;}
+    /**
+     * Retrieves the tickets per vendor or customer ID.
+     * @return The ticket counts by actor ID.
+     */
+    public Map<Integer, Long> getTicketsByActor() {return ticketsByActor;}
+    /**
+     * Retrieves the tickets per time window, keyed by the window's start in epoch milliseconds.
+     * Windows without events are left out; empty unless a window width was requested.
+     * @return The ticket counts by window.
+     */
+    public Map<Long, Long> getTicketsByWindow() {return ticketsByWindow;}
+    /**
+     * Retrieves the number of segments the query read from.
+     * @return The segment count.
+     */
+    public int getSegmentsScanned() {return segmentsScanned;}
+    /**
+     * Retrieves the number of records the query read, including those just outside the window.
+     * @return The record count.
+     */
+    public long getRecordsRead() {return recordsRead;}
+}
@@ -0,0 +1,414 @@
+package com.ticketing.logging;
+
+import com.ticketing.hold.Hold;
+import com.ticketing.hold.HoldManager;
+import com.ticketing.pool.PoolListener;
+import com.ticketing.pool.TicketPool;
+import com.ticketing.pool.TicketRange;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+/**
+ * A binary log of every batch published to or claimed from the {@link TicketPool}, kept alongside the text
+ * log so that questions such as "how many tickets did vendor 7 release between 10:00 and 10:05" can be
+ * answered without scanning {@code ticketing_logs.txt}.
+ * <p>
+ * Each batch becomes a fixed-size record of timestamp, {@link EventType}, vendor or customer ID, first ticket
+ * ID and ticket count. Tickets returned from expired and released holds are recorded as releases by vendor 0
+ * ({@link HoldManager#RETURN_VENDOR_ID}). Tickets claimed for holds are recorded as {@link EventType#HOLD}
+ * under customer {@link HoldManager#HOLD_CUSTOMER_ID}, and become a {@link EventType#CLAIM} by the holding
+ * customer when the hold is confirmed, so claims count purchases only. Records are written in timestamp order to segments partitioned by time: a new segment
+ * {@code ticketing_events.<first timestamp>.bin} starts with the first record of every
+ * {@code ticketing.event-log.segment-millis} partition. Each segment keeps a sparse index of every
+ * {@code ticketing.event-log.index-interval}-th record, so {@link #query} skips segments outside its window
+ * and seeks into the others instead of reading them from the start.
+ * <p>
+ * Records are collected on the vendor and customer threads in one of two buffers, under a lock held only to
+ * copy the record in. When a buffer fills, they switch to the other and hand the full one to the background
+ * {@code ticketing-events} thread, which also writes a partly filled buffer every
+ * {@code ticketing.event-log.flush-interval-millis}; a vendor or customer only waits if the other buffer fills
+ * too before the full one has been written. The background thread splits the records into segments by their
+ * timestamps, so starting segments and deleting old ones happen there as well. A query writes the buffers
+ * first, so it sees every event up to the moment it was made. Segments are written through a
+ * {@link java.io.RandomAccessFile} for the reason given in {@link com.ticketing.journal.TicketJournal}.
+ * <p>
+ * Sealed segments are deleted once there are more than {@code ticketing.event-log.max-segments} of them or
+ * their last record is older than {@code ticketing.event-log.max-age-millis}, checked whenever a new segment
+ * is started and at startup; a query never counts events from deleted segments.
+ * <p>
+ * The event log is on unless {@code ticketing.event-log.enabled=false}.
+ */
+@Component
+public class EventLog implements PoolListener, DisposableBean {
+    private static final String SEGMENT_PREFIX = "ticketing_events.";
+    private static final String SEGMENT_SUFFIX = ".bin";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final int MAX_WINDOWS = 10_000;
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentMillis;
+    private final int indexInterval;
+    private final int maxSegments;
+    private final long maxAgeMillis;
+    /**
+     * Guards the buffers and the last timestamp; held by the vendor and customer threads only to copy a record in.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition drained = lock.newCondition(); // Signalled when a full buffer has been written
+    private ByteBuffer active; // Collecting records
+    private ByteBuffer standby; // Empty and ready, or null while the other buffer waits to be written
+    private ByteBuffer full; // Handed to the background thread and not yet taken, or null
+    private long lastTimestamp;
+    private boolean closed;
+    /**
+     * Held while buffers are written; guards the segment list and the current segment.
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final List<EventSegment> segments = new ArrayList<>(); // Oldest first; the last one is written
+    private volatile EventSegment[] readable = new EventSegment[0]; // Copy of segments for queries
+    private EventSegment current;
+    private ScheduledExecutorService scheduler;
+    /**
+     * Opens the segments left by earlier runs and starts recording the pool's batches.
+     * @param ticketPool          The pool whose batches are recorded.
+     * @param holdManager         The manager whose confirmed holds are recorded as claims.
+     * @param enabled             Whether events are recorded at all.
+     * @param directory           The directory holding the segments.
+     * @param segmentMillis       The length of the time partition each segment covers.
+     * @param indexInterval       Index one in this many records.
+     * @param bufferRecords       The number of records in each of the two buffers.
+     * @param flushIntervalMillis How often collected records are written.
+     * @param maxSegments         Keep at most this many segments, including the one being written; {@code 0} for no limit.
+     * @param maxAgeMillis        Delete segments whose last record is older than this; {@code 0} for no limit.
+     * @throws IllegalStateException if the existing segments cannot be read.
+     */
+    public EventLog(TicketPool ticketPool, HoldManager holdManager,
+                    @Value("${ticketing.event-log.enabled:true}") boolean enabled,
+                    @Value("${ticketing.event-log.directory:.}") String directory,
+                    @Value("${ticketing.event-log.segment-millis:300000}") long segmentMillis,
+                    @Value("${ticketing.event-log.index-interval:256}") int indexInterval,
+                    @Value("${ticketing.event-log.buffer-records:1024}") int bufferRecords,
+                    @Value("${ticketing.event-log.flush-interval-millis:200}") long flushIntervalMillis,
+                    @Value("${ticketing.event-log.max-segments:288}") int maxSegments,
+                    @Value("${ticketing.event-log.max-age-millis:0}") long maxAgeMillis) {
+        if (segmentMillis <= 0 || indexInterval <= 0 || bufferRecords <= 0 || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Event log segment length, index interval, buffer size and flush interval must be positive.");
+        }
+        if (maxSegments < 0 || maxAgeMillis < 0) {
+            throw new IllegalArgumentException("Event log retention limits must not be negative.");
+        }
+        this.maxSegments = maxSegments;
+        this.maxAgeMillis = maxAgeMillis;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentMillis = segmentMillis;
+        this.indexInterval = indexInterval;
+        this.active = ByteBuffer.allocate(bufferRecords * EventSegment.RECORD_SIZE);
+        this.standby = ByteBuffer.allocate(bufferRecords * EventSegment.RECORD_SIZE);
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(this.directory);
+            openSegments();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open the event log: " + e.getMessage(), e);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ticketing-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        ticketPool.addListener(this);
+        holdManager.addConfirmListener(this::onHoldConfirmed);
+    }
+    @Override
+    public void onTicketsReleased(int vendorId, TicketRange range, int ticketCount) {
+        append(EventType.RELEASE, vendorId, range);
+    }
+    @Override
+    public void onTicketsClaimed(int customerId, TicketRange range, int ticketCount) {
+        append(customerId == HoldManager.HOLD_CUSTOMER_ID ? EventType.HOLD : EventType.CLAIM, customerId, range);
+    }
+    /**
+     * Counts the events of one type in a time window, optionally for a single vendor or customer.
+     * Only the segments overlapping the window are read, each from the last indexed record before it.
+     * @param type         The event type to count.
+     * @param actorId      The vendor or customer to count, or {@code null} for all of them.
+     * @param from         The start of the window, in epoch milliseconds, inclusive.
+     * @param to           The end of the window, in epoch milliseconds, exclusive.
+     * @param windowMillis Also count tickets per window of this many milliseconds, or {@code 0} for no breakdown.
+     * @return The counts.
+     * @throws IllegalArgumentException if the window is empty or would be split into too many windows.
+     * @throws IllegalStateException    if the event log is disabled or cannot be read.
+     */
+    public EventCounts query(EventType type, Integer actorId, long from, long to, long windowMillis) {
+        if (type == null || to <= from || windowMillis < 0) {
+            throw new IllegalArgumentException("A query needs an event type and a window that ends after it starts.");
+        }
+        if (windowMillis > 0 && (to - from) / windowMillis >= MAX_WINDOWS) {
+            throw new IllegalArgumentException("A query can be broken down into at most " + MAX_WINDOWS + " windows.");
+        }
+        if (!enabled) {
+            throw new IllegalStateException("The event log is disabled.");
+        }
+        flush();
+        EventCounts counts = new EventCounts(type, actorId, from, to, windowMillis);
+        try {
+            for (EventSegment segment : readable) {
+                if (segment.firstTimestamp() < to && segment.lastTimestamp() >= from) {
+                    try {
+                        segment.scan(from, to, counts);
+                    } catch (NoSuchFileException e) {
+                        // Expired while the query was running; its events are no longer part of the log
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read the event log: " + e.getMessage(), e);
+        }
+        return counts;
+    }
+    /**
+     * Writes any collected records and closes the current segment when the application shuts down.
+     * Records arriving after that are dropped.
+     */
+    @Override
+    public void destroy() {
+        if (scheduler == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            closed = true; // Before shutting down, so that no more buffers are handed off
+            drained.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        scheduler.shutdown();
+        writeLock.lock();
+        try {
+            writeCollected();
+            if (current != null) {
+                current.seal();
+                current = null;
+            }
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to close event log: " + e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    /**
+     * Records a confirmed hold as a purchase by the customer who held it.
+     */
+    private void onHoldConfirmed(Hold hold) {
+        append(EventType.CLAIM, hold.getCustomerId(), new TicketRange(hold.getFirstTicketId(), hold.getCount()));
+    }
+    /**
+     * Collects a record, handing the buffer to the background thread once it is full.
+     */
+    private void append(EventType type, int actorId, TicketRange range) {
+        if (range.getCount() == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (!closed && !active.hasRemaining() && !handOff()) {
+                drained.awaitUninterruptibly(); // Both buffers are full; wait for the background thread
+            }
+            if (closed) {
+                return;
+            }
+            long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp); // Keep segments in timestamp order
+            active.putLong(timestamp).put(type.code()).putInt(actorId).putLong(range.getFirstTicketId()).putInt(range.getCount());
+            lastTimestamp = timestamp;
+            if (!active.hasRemaining()) {
+                handOff();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Switches to the standby buffer and has the background thread write the full one; called under the lock.
+     * @return {@code false} if the standby buffer has not been written yet.
+     */
+    private boolean handOff() {
+        if (standby == null) {
+            return false;
+        }
+        full = active;
+        active = standby;
+        standby = null;
+        scheduler.execute(this::writeFull);
+        return true;
+    }
+    /**
+     * Writes the buffer handed off by {@link #append}, if no flush has written it already.
+     */
+    private void writeFull() {
+        writeLock.lock();
+        try {
+            write(takeFull());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    /**
+     * Writes collected records on the background thread or before a query.
+     */
+    private void flush() {
+        writeLock.lock();
+        try {
+            writeCollected();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    /**
+     * Writes the full buffer, then whatever the active one holds; called under the write lock.
+     */
+    private void writeCollected() {
+        write(takeFull());
+        ByteBuffer collected;
+        lock.lock();
+        try {
+            collected = full; // The active buffer filled up and was handed off in the meantime
+            full = null;
+            if (collected == null && active.position() > 0) {
+                collected = active; // The standby buffer is free: only the write lock holder takes the full one
+                active = standby;
+                standby = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        write(collected);
+    }
+    /**
+     * Takes the buffer waiting to be written, if any.
+     */
+    private ByteBuffer takeFull() {
+        lock.lock();
+        try {
+            ByteBuffer taken = full;
+            full = null;
+            return taken;
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Writes a buffer's records to the segments of their time partitions and returns it as the standby buffer.
+     * If the write fails the records are lost, so that the vendor and customer threads never wait on a broken disk.
+     */
+    private void write(ByteBuffer records) {
+        if (records == null) {
+            return;
+        }
+        try {
+            byte[] bytes = records.array();
+            int length = records.position();
+            int start = 0;
+            for (int offset = 0; offset < length; offset += EventSegment.RECORD_SIZE) {
+                long timestamp = records.getLong(offset);
+                if (current == null || current.isPast(timestamp)) {
+                    if (offset > start) {
+                        current.write(bytes, start, offset - start, records.getLong(offset - EventSegment.RECORD_SIZE));
+                    }
+                    start = offset;
+                    roll(timestamp);
+                }
+                current.recordAdded(timestamp);
+            }
+            if (length > start) {
+                current.write(bytes, start, length - start, records.getLong(length - EventSegment.RECORD_SIZE));
+            }
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to write event log: " + e.getMessage());
+        } finally {
+            records.clear();
+            lock.lock();
+            try {
+                standby = records;
+                drained.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    /**
+     * Seals the current segment and starts the one for the partition holding {@code timestamp}.
+     */
+    private void roll(long timestamp) throws IOException {
+        if (current != null) {
+            current.seal();
+            current = null; // Started again by the next write if creating the new one fails
+        }
+        long partitionEnd = timestamp - Math.floorMod(timestamp, segmentMillis) + segmentMillis;
+        current = EventSegment.create(segmentPath(timestamp, SEGMENT_SUFFIX), segmentPath(timestamp, INDEX_SUFFIX), timestamp, partitionEnd, indexInterval);
+        segments.add(current);
+        expireSegments(timestamp);
+        readable = segments.toArray(new EventSegment[0]);
+    }
+    /**
+     * Deletes the oldest sealed segments while there are too many or they are too old. The segment being
+     * written is never deleted.
+     */
+    private void expireSegments(long now) throws IOException {
+        while (segments.size() > 1 && segments.get(0) != current
+                && ((maxSegments > 0 && segments.size() > maxSegments)
+                    || (maxAgeMillis > 0 && segments.get(0).lastTimestamp() < now - maxAgeMillis))) {
+            segments.remove(0).delete();
+        }
+    }
+    /**
+     * Opens the segments of earlier runs in timestamp order. Later segments never start before an earlier
+     * one ends, since a new segment is only started after the last record of the previous one.
+     */
+    private void openSegments() throws IOException {
+        List<Long> timestamps = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    timestamps.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not a segment
+                }
+            }
+        }
+        timestamps.sort(null);
+        for (long timestamp : timestamps) {
+            EventSegment segment = EventSegment.open(segmentPath(timestamp, SEGMENT_SUFFIX), segmentPath(timestamp, INDEX_SUFFIX), timestamp, indexInterval);
+            if (segment == null) {
+                Files.deleteIfExists(segmentPath(timestamp, SEGMENT_SUFFIX));
+                Files.deleteIfExists(segmentPath(timestamp, INDEX_SUFFIX));
+                continue;
+            }
+            segments.add(segment);
+            lastTimestamp = Math.max(lastTimestamp, segment.lastTimestamp() + 1); // A new segment must not reuse an old name
+        }
+        expireSegments(System.currentTimeMillis());
+        readable = segments.toArray(new EventSegment[0]);
+    }
+    private Path segmentPath(long timestamp, String suffix) {
+        return directory.resolve(SEGMENT_PREFIX + timestamp + suffix);
+    }
+}
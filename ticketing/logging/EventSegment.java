@@ -0,0 +1,302 @@
+package com.ticketing.logging;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+/**
+ * One time partition of the {@link EventLog}: a file of fixed-size records in timestamp order, and a sparse
+ * index holding the timestamp of every {@code indexInterval}-th record. A query binary-searches the index
+ * for the last indexed record before its window and reads forward from there, so it reads at most one
+ * index interval of records outside the window.
+ * <p>
+ * Only the event log's writer appends, under its lock. Any number of readers can scan concurrently without
+ * locking: the record count and the index are published through volatile fields after the data they cover.
+ * The index is kept in memory and written next to the segment as {@code .idx} when the segment is sealed;
+ * a segment found without one at startup is indexed again from its records.
+ */
+class EventSegment implements Closeable {
+    /**
+     * The size of one record: timestamp, type, actor ID, first ticket ID and ticket count.
+     */
+    static final int RECORD_SIZE = 8 + 1 + 4 + 8 + 4;
+    private static final int SCAN_RECORDS = 2048; // Records read per positioned read
+    private final Path path;
+    private final Path indexPath;
+    private final long firstTimestamp;
+    private final long partitionEnd;
+    private final int indexInterval;
+    private RandomAccessFile file; // Open while the segment is written, null once sealed
+    private long bufferedRecords; // Records handed to recordAdded, including those not yet written
+    private volatile long records; // Records written to the file
+    private volatile long lastTimestamp;
+    /**
+     * Index entries as pairs of timestamp and record number; entries {@code 0..indexEntries-1} are valid.
+     */
+    private volatile long[] index;
+    private volatile int indexEntries;
+    private EventSegment(Path path, Path indexPath, long firstTimestamp, long partitionEnd, int indexInterval, RandomAccessFile file) {
+        this.path = path;
+        this.indexPath = indexPath;
+        this.firstTimestamp = firstTimestamp;
+        this.partitionEnd = partitionEnd;
+        this.indexInterval = indexInterval;
+        this.file = file;
+        this.index = new long[64];
+        this.lastTimestamp = firstTimestamp;
+    }
+    /**
+     * Creates a new segment for writing.
+     * @param path           The segment file.
+     * @param indexPath      Where the index is written when the segment is sealed.
+     * @param firstTimestamp The timestamp of the segment's first record.
+     * @param partitionEnd   The first timestamp that belongs to the next segment.
+     * @param indexInterval  Index one in this many records.
+     * @return The segment.
+     * @throws IOException if the file cannot be created.
+     */
+    static EventSegment create(Path path, Path indexPath, long firstTimestamp, long partitionEnd, int indexInterval) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+        file.setLength(0);
+        return new EventSegment(path, indexPath, firstTimestamp, partitionEnd, indexInterval, file);
+    }
+    /**
+     * Opens a sealed segment left by an earlier run, dropping a partly written last record. The index is
+     * loaded from its file, or rebuilt from the records and written if the file is missing or does not match.
+     * @param path           The segment file.
+     * @param indexPath      The segment's index file.
+     * @param firstTimestamp The timestamp in the segment's name.
+     * @param indexInterval  Index one in this many records when the index has to be rebuilt.
+     * @return The segment, or {@code null} if it holds no complete record.
+     * @throws IOException if the segment cannot be read.
+     */
+    static EventSegment open(Path path, Path indexPath, long firstTimestamp, int indexInterval) throws IOException {
+        EventSegment segment = new EventSegment(path, indexPath, firstTimestamp, firstTimestamp, indexInterval, null);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long count = channel.size() / RECORD_SIZE;
+            if (channel.size() != count * RECORD_SIZE) {
+                channel.truncate(count * RECORD_SIZE); // Torn write at a crash
+            }
+            if (count == 0) {
+                return null;
+            }
+            segment.records = count;
+            segment.bufferedRecords = count;
+            ByteBuffer last = ByteBuffer.allocate(8);
+            channel.read(last, (count - 1) * RECORD_SIZE);
+            segment.lastTimestamp = last.getLong(0);
+            if (!segment.loadIndex()) {
+                segment.rebuildIndex(channel);
+                segment.writeIndex();
+            }
+        }
+        return segment;
+    }
+    /**
+     * Returns the timestamp of the segment's first record, which is also its name.
+     * @return The first timestamp.
+     */
+    long firstTimestamp() {
+        return firstTimestamp;
+    }
+    /**
+     * Returns the timestamp of the last record written.
+     * @return The last timestamp.
+     */
+    long lastTimestamp() {
+        return lastTimestamp;
+    }
+    /**
+     * Returns whether a record with the given timestamp belongs to a later segment.
+     * @param timestamp The record's timestamp.
+     * @return {@code true} if this segment's partition has ended.
+     */
+    boolean isPast(long timestamp) {
+        return timestamp >= partitionEnd;
+    }
+    /**
+     * Accounts for a record the writer has buffered, indexing it if it is due. The index entry is ignored by
+     * readers until the record has been {@link #write written}.
+     * @param timestamp The record's timestamp, no earlier than the previous record's.
+     */
+    void recordAdded(long timestamp) {
+        if (bufferedRecords % indexInterval == 0) {
+            int entries = indexEntries;
+            long[] current = index;
+            if (current.length < (entries + 1) * 2) {
+                long[] grown = new long[current.length << 1];
+                System.arraycopy(current, 0, grown, 0, entries * 2);
+                index = grown; // Readers see either array; both hold every published entry
+                current = grown;
+            }
+            current[entries * 2] = timestamp;
+            current[entries * 2 + 1] = bufferedRecords;
+            indexEntries = entries + 1;
+        }
+        bufferedRecords++;
+    }
+    /**
+     * Appends buffered records to the file and publishes them to readers.
+     * @param bytes  The encoded records.
+     * @param offset The offset of the first record in {@code bytes}.
+     * @param length The number of bytes to write, a multiple of {@link #RECORD_SIZE}.
+     * @param last   The timestamp of the last record written.
+     * @throws IOException if the write fails.
+     */
+    void write(byte[] bytes, int offset, int length, long last) throws IOException {
+        file.write(bytes, offset, length);
+        lastTimestamp = last;
+        records += length / RECORD_SIZE; // Publish: the bytes are written before the count is
+    }
+    /**
+     * Reads every record with a timestamp in {@code [from, to)} into the counts.
+     * @param from   The start of the window, inclusive.
+     * @param to     The end of the window, exclusive.
+     * @param counts The counts to add matching records to.
+     * @throws IOException if the segment cannot be read.
+     */
+    void scan(long from, long to, EventCounts counts) throws IOException {
+        long published = records;
+        long record = seek(from, published);
+        if (record >= published) {
+            return;
+        }
+        counts.segmentScanned();
+        ByteBuffer chunk = ByteBuffer.allocate(SCAN_RECORDS * RECORD_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (record < published) {
+                chunk.clear();
+                chunk.limit((int) Math.min(SCAN_RECORDS, published - record) * RECORD_SIZE);
+                long position = record * RECORD_SIZE;
+                while (chunk.hasRemaining()) {
+                    if (channel.read(chunk, position + chunk.position()) < 0) {
+                        return;
+                    }
+                }
+                chunk.flip();
+                while (chunk.hasRemaining()) {
+                    long timestamp = chunk.getLong();
+                    if (timestamp >= to) {
+                        return; // Records are in timestamp order: the rest of the segment is later
+                    }
+                    byte type = chunk.get();
+                    int actorId = chunk.getInt();
+                    chunk.getLong(); // First ticket ID; not aggregated
+                    int count = chunk.getInt();
+                    record++;
+                    counts.recordRead();
+                    if (timestamp >= from) {
+                        counts.add(timestamp, type, actorId, count);
+                    }
+                }
+            }
+        }
+    }
+    /**
+     * Writes the index and closes the file; the segment stays readable.
+     * @throws IOException if the index cannot be written.
+     */
+    void seal() throws IOException {
+        if (file == null) {
+            return;
+        }
+        try {
+            writeIndex();
+        } finally {
+            close();
+        }
+    }
+    /**
+     * Deletes the segment and its index once it has expired. A query that had already opened it still reads it to the end.
+     * @throws IOException if a file cannot be deleted.
+     */
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(indexPath);
+    }
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            file.close();
+            file = null;
+        }
+    }
+    /**
+     * Finds the record to start reading from for a window starting at {@code from}: the last indexed record
+     * before it, or the first record of the segment.
+     */
+    private long seek(long from, long published) {
+        int entries = indexEntries;
+        long[] current = index;
+        int low = 0;
+        int high = entries - 1;
+        long start = 0;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (current[middle * 2] < from && current[middle * 2 + 1] < published) {
+                start = current[middle * 2 + 1];
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return start;
+    }
+    /**
+     * Loads the index file, checking that its entries fit the records.
+     * @return {@code false} if the file is missing or does not describe this segment.
+     */
+    private boolean loadIndex() throws IOException {
+        if (!Files.exists(indexPath)) {
+            return false;
+        }
+        byte[] bytes = Files.readAllBytes(indexPath);
+        if (bytes.length % 16 != 0 || bytes.length == 0) {
+            return false;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long[] loaded = new long[bytes.length / 8];
+        long previous = -1;
+        for (int i = 0; i < loaded.length; i += 2) {
+            loaded[i] = buffer.getLong();
+            loaded[i + 1] = buffer.getLong();
+            if (loaded[i + 1] <= previous || loaded[i + 1] >= records) {
+                return false;
+            }
+            previous = loaded[i + 1];
+        }
+        index = loaded;
+        indexEntries = loaded.length / 2;
+        return true;
+    }
+    /**
+     * Indexes the segment again by reading every record's timestamp.
+     */
+    private void rebuildIndex(FileChannel channel) throws IOException {
+        ByteBuffer timestamp = ByteBuffer.allocate(8);
+        bufferedRecords = 0;
+        indexEntries = 0;
+        for (long record = 0; record < records; record += indexInterval) {
+            timestamp.clear();
+            channel.read(timestamp, record * RECORD_SIZE);
+            bufferedRecords = record;
+            recordAdded(timestamp.getLong(0));
+        }
+        bufferedRecords = records;
+    }
+    /**
+     * Writes the in-memory index to the index file.
+     */
+    private void writeIndex() throws IOException {
+        int entries = indexEntries;
+        ByteBuffer buffer = ByteBuffer.allocate(entries * 16);
+        for (int i = 0; i < entries * 2; i++) {
+            buffer.putLong(index[i]);
+        }
+        Files.write(indexPath, buffer.array());
+    }
+}
@@ -0,0 +1,30 @@
+package com.ticketing.logging;
+/**
+ * The kinds of records kept in the {@link EventLog}.
+ */
+public enum EventType {
+    /**
+     * A vendor published a batch of tickets to the pool.
+     */
+    RELEASE((byte) 1),
+    /**
+     * A customer bought a batch of tickets, either claimed from the pool directly or by confirming a hold.
+     */
+    CLAIM((byte) 2),
+    /**
+     * A batch of tickets was claimed from the pool to be held for a customer, under
+     * {@link com.ticketing.hold.HoldManager#HOLD_CUSTOMER_ID}; it is only a purchase once the hold is confirmed.
+     */
+    HOLD((byte) 3);
+    private final byte code;
+    EventType(byte code) {
+        this.code = code;
+    }
+    /**
+     * Returns the byte stored for this type in a record.
+     * @return The record code.
+     */
+    byte code() {
+        return code;
+    }
+}
@@ -0,0 +1,36 @@
+package com.ticketing.logging;
+/**
+ * The kinds of messages the {@link Logger} can switch on and off independently, each with the
+ * {@link LogLevel} it is logged at.
+ */
+public enum LogCategory {
+    /**
+     * Failures: files that cannot be written, corrupt records, tasks that threw.
+     */
+    ERROR(LogLevel.ERROR),
+    /**
+     * Starting, stopping and configuring the system, events and threads.
+     */
+    LIFECYCLE(LogLevel.INFO),
+    /**
+     * Tickets published to and claimed from the pool, one line per ticket or per-second summaries.
+     */
+    POOL(LogLevel.DEBUG);
+    private final LogLevel level;
+    LogCategory(LogLevel level) {
+        this.level = level;
+    }
+    /**
+     * Returns the level the category is logged at.
+     * @return The category's level.
+     */
+    public LogLevel getLevel() {
+        return level;
+    }
+    /**
+     * Returns the category's bit in the logger's mask of enabled categories.
+     */
+    int bit() {
+        return 1 << ordinal();
+    }
+}
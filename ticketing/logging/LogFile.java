@@ -0,0 +1,196 @@
+package com.ticketing.logging;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+/**
+ * An append-only log file that stays open for the lifetime of the logger.
+ * Lines are encoded into a single reused buffer, which is written to the file channel when it fills up
+ * or when {@link #flush()} is called. A {@link LogIndex} of line offsets is kept alongside the file so
+ * that a page of lines can be read with one positioned read instead of scanning the whole file.
+ * Appending and flushing are not thread-safe and must be serialized by the caller;
+ * {@link #readLines(long, int)} may be called from any thread at any time.
+ * <p>
+ * When the {@link RollingLogFile} rotates the log, the file is {@link #seal() sealed}: it stops accepting
+ * lines but stays readable through its index until it has been compressed.
+ */
+class LogFile implements Closeable {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private final FileChannel channel;
+    private final FileChannel readChannel;
+    private final LogIndex index;
+    private final ByteBuffer buffer;
+    private long flushedSize; // Bytes of the file already written to the channel
+    private boolean sealed;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    /**
+     * Opens (or creates) the log file for appending, together with its line index.
+     * @param path       The log file location.
+     * @param indexPath  The location of the line offset index.
+     * @param bufferSize The size of the reused output buffer in bytes.
+     * @throws IOException if the file or its index cannot be opened.
+     */
+    LogFile(Path path, Path indexPath, int bufferSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.readChannel = FileChannel.open(path, StandardOpenOption.READ);
+        this.flushedSize = channel.size();
+        this.index = LogIndex.open(indexPath, readChannel);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+    /**
+     * Appends a line to the output buffer, writing the buffer out first if the line does not fit.
+     * The line becomes visible to {@link #readLines(long, int)} at the next {@link #flush()}.
+     * @param line The line to append, without a line separator.
+     * @throws IOException if the buffer could not be written to the file.
+     */
+    void append(CharSequence line) throws IOException {
+        index.add(flushedSize + buffer.position());
+        encode(line);
+        encode(LINE_SEPARATOR);
+    }
+    /**
+     * Writes all buffered bytes to the file and publishes the written lines to readers.
+     * @throws IOException if the write fails.
+     */
+    void flush() throws IOException {
+        writeBuffer();
+        index.commit(flushedSize);
+    }
+    /**
+     * Returns the size of the file including lines still in the buffer.
+     * @return The size in bytes.
+     */
+    long size() {
+        return flushedSize + buffer.position();
+    }
+    /**
+     * Returns the number of lines readers can currently see.
+     * @return The committed line count.
+     */
+    int lineCount() {
+        return index.size();
+    }
+    /**
+     * Reads a page of lines with a single positioned read.
+     * Lines are numbered from 1; the page holds the lines numbered {@code after + 1} to {@code after + limit}.
+     * @param after The number of lines to skip.
+     * @param limit The maximum number of lines to return.
+     * @return The lines, trimmed of surrounding whitespace; empty if there are no lines after {@code after}.
+     * @throws IOException if the file cannot be read.
+     */
+    List<String> readLines(long after, int limit) throws IOException {
+        int lines = index.size();
+        if (after < 0) {
+            after = 0;
+        }
+        if (after >= lines || limit <= 0) {
+            return List.of();
+        }
+        int from = (int) after;
+        int to = (int) Math.min(lines, after + limit);
+        long start = index.boundary(from);
+        ByteBuffer bytes = ByteBuffer.allocate((int) (index.boundary(to) - start));
+        while (bytes.hasRemaining()) {
+            if (readChannel.read(bytes, start + bytes.position()) < 0) {
+                break;
+            }
+        }
+        byte[] array = bytes.array();
+        List<String> page = new ArrayList<>(to - from);
+        for (int line = from; line < to; line++) {
+            int offset = (int) (index.boundary(line) - start);
+            int length = (int) (index.boundary(line + 1) - start) - offset;
+            while (length > 0 && (array[offset + length - 1] & 0xFF) <= ' ') {
+                length--; // Strip the line separator and trailing whitespace
+            }
+            while (length > 0 && (array[offset] & 0xFF) <= ' ') {
+                offset++; // Lines written by older versions may be indented
+                length--;
+            }
+            page.add(new String(array, offset, length, StandardCharsets.UTF_8));
+        }
+        return page;
+    }
+    /**
+     * Flushes the buffer and closes the file for writing, together with its index file. The lines stay
+     * readable until {@link #close()} is called.
+     * @throws IOException if the final write or the close fails.
+     */
+    void seal() throws IOException {
+        if (sealed) {
+            return;
+        }
+        sealed = true;
+        try {
+            flush();
+        } finally {
+            channel.close();
+            index.close();
+        }
+    }
+    /**
+     * Flushes the buffer and closes the file and its index.
+     * @throws IOException if the final write or the close fails.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            seal();
+        } finally {
+            readChannel.close();
+        }
+    }
+    /**
+     * Writes the buffered bytes to the channel without publishing them, which is safe mid-line.
+     */
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            flushedSize += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+    /**
+     * Encodes text into the buffer as UTF-8, writing the buffer out whenever it overflows. ASCII, which is
+     * what log lines almost always are, is copied byte by byte without going through the charset encoder.
+     */
+    private void encode(CharSequence text) throws IOException {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                encodeWithCharset(text.subSequence(i, length));
+                return;
+            }
+            if (!buffer.hasRemaining()) {
+                writeBuffer();
+            }
+            buffer.put((byte) c);
+        }
+    }
+    /**
+     * Encodes non-ASCII text with the UTF-8 encoder.
+     */
+    private void encodeWithCharset(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (!result.isOverflow()) {
+                break;
+            }
+            writeBuffer(); // Buffer full: write it out and continue with the rest of the text
+        }
+        encoder.reset();
+    }
+}
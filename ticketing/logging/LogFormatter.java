@@ -0,0 +1,105 @@
+package com.ticketing.logging;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+/**
+ * Renders log messages into timestamped lines for the thread that writes the log. A message is a template
+ * in which each {@code {}} is replaced by the next of up to two {@code long} arguments, so callers hand over
+ * a constant template and primitives instead of a concatenated string.
+ * <p>
+ * Lines are built in one reused {@link StringBuilder}, and the timestamp prefix is formatted once per
+ * second and reused for every line logged within that second. A formatter is not thread-safe: each
+ * writer owns one.
+ * <p>
+ * Every message becomes exactly one line: line breaks in it are folded, with any blank space around them,
+ * into a single space, and trailing whitespace is trimmed, so the log never holds blank lines and each line
+ * a reader counts is a whole message.
+ */
+final class LogFormatter {
+    /**
+     * The formatter used to timestamp log messages in the format "yyyy-MM-dd HH:mm:ss".
+     */
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final StringBuilder line = new StringBuilder(256);
+    private long cachedSecond = Long.MIN_VALUE;
+    private String cachedPrefix;
+    /**
+     * Renders a message into the reused line buffer, valid until the next call.
+     * @param timestamp The time the message was logged, in epoch milliseconds.
+     * @param template  The message, with a {@code {}} for each argument.
+     * @param argCount  The number of arguments, from 0 to 2; with 0 the template is logged as it is.
+     * @param arg0      The first argument.
+     * @param arg1      The second argument.
+     * @return The timestamped line.
+     */
+    StringBuilder format(long timestamp, String template, int argCount, long arg0, long arg1) {
+        line.setLength(0);
+        line.append(prefix(timestamp));
+        int messageStart = line.length();
+        if (argCount == 0) {
+            return singleLine(line.append(template), messageStart);
+        }
+        int start = 0;
+        for (int arg = 0; arg < argCount; arg++) {
+            int placeholder = template.indexOf("{}", start);
+            if (placeholder < 0) {
+                break; // More arguments than placeholders: the rest are ignored
+            }
+            line.append(template, start, placeholder).append(arg == 0 ? arg0 : arg1);
+            start = placeholder + 2;
+        }
+        return singleLine(line.append(template, start, template.length()), messageStart);
+    }
+    /**
+     * Renders a message into a new string, for callers that keep the line.
+     */
+    String formatToString(long timestamp, String template, int argCount, long arg0, long arg1) {
+        return format(timestamp, template, argCount, arg0, arg1).toString();
+    }
+    /**
+     * Folds the line breaks of a rendered message into single spaces and trims trailing whitespace. Messages
+     * without line breaks, which is nearly all of them, are only scanned once.
+     */
+    private static StringBuilder singleLine(StringBuilder text, int from) {
+        int length = text.length();
+        int firstBreak = from;
+        while (firstBreak < length && text.charAt(firstBreak) != '\n' && text.charAt(firstBreak) != '\r') {
+            firstBreak++;
+        }
+        int out = firstBreak;
+        boolean folding = false;
+        for (int in = firstBreak; in < length; in++) {
+            char c = text.charAt(in);
+            if (c == '\n' || c == '\r') {
+                while (out > from && Character.isWhitespace(text.charAt(out - 1))) {
+                    out--;
+                }
+                folding = true;
+            } else if (!folding || !Character.isWhitespace(c)) {
+                if (folding && out > from) {
+                    text.setCharAt(out++, ' ');
+                }
+                folding = false;
+                text.setCharAt(out++, c);
+            }
+        }
+        while (out > from && Character.isWhitespace(text.charAt(out - 1))) {
+            out--;
+        }
+        text.setLength(out);
+        return text;
+    }
+    /**
+     * Returns the "[yyyy-MM-dd HH:mm:ss] " prefix for a timestamp, formatting it only when the second changes.
+     */
+    private String prefix(long timestamp) {
+        long second = Math.floorDiv(timestamp, 1000);
+        if (second != cachedSecond) {
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+            cachedPrefix = "[" + time.format(DATE_FORMATTER) + "] ";
+            cachedSecond = second;
+        }
+        return cachedPrefix;
+    }
+}
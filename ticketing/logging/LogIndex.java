@@ -0,0 +1,182 @@
+package com.ticketing.logging;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+/**
+ * An offset index of the lines in a log file, kept alongside it in a file of 8-byte line start offsets.
+ * Line {@code n} (zero-based) spans the bytes from {@code boundary(n)} to {@code boundary(n + 1)}.
+ * A single writer adds line starts as it buffers lines and commits them once their bytes are on disk;
+ * any number of readers can look up boundaries of committed lines concurrently without locking.
+ * <p>
+ * Committing publishes lines in memory at once but only appends their offsets to the index file when a full
+ * buffer of them has built up, and on {@link #close()}, so a logger that commits every line does not write
+ * the index file every line. Offsets lost in a crash are recovered by scanning the log when it is reopened.
+ */
+class LogIndex implements Closeable {
+    private static final int SCAN_CHUNK = 64 * 1024;
+    private final FileChannel indexChannel;
+    /**
+     * Line boundaries; entries {@code 0..committed} are valid, the last one being the end of committed data.
+     */
+    private volatile long[] boundaries;
+    private volatile int committed;
+    private long[] pending = new long[256]; // Starts of lines buffered but not yet committed
+    private int pendingCount;
+    private final ByteBuffer indexBuffer = ByteBuffer.allocateDirect(8 * 512);
+    private LogIndex(FileChannel indexChannel, long[] boundaries, int committed) {
+        this.indexChannel = indexChannel;
+        this.boundaries = boundaries;
+        this.committed = committed;
+    }
+    /**
+     * Opens the index for a log file, loading the persisted offsets and indexing any lines written after them.
+     * Offsets that point past the end of the log (for example after a crash) are discarded.
+     * @param indexPath The index file location.
+     * @param log       An open channel on the log file.
+     * @return The opened index.
+     * @throws IOException if the index or the log cannot be read.
+     */
+    static LogIndex open(Path indexPath, FileChannel log) throws IOException {
+        FileChannel indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long logSize = log.size();
+        int stored = (int) (indexChannel.size() / 8);
+        long[] starts = new long[Math.max(16, stored + 1)];
+        int lines = 0;
+        ByteBuffer chunk = ByteBuffer.allocate(SCAN_CHUNK);
+        long position = 0;
+        while (lines < stored) {
+            chunk.clear();
+            int read = indexChannel.read(chunk, position);
+            if (read <= 0) {
+                break;
+            }
+            position += read - read % 8;
+            chunk.flip();
+            while (chunk.remaining() >= 8 && lines < stored) {
+                long start = chunk.getLong();
+                if (start >= logSize || (lines > 0 && start <= starts[lines - 1])) {
+                    stored = lines; // Stale or corrupt tail: re-index from the log itself
+                    break;
+                }
+                starts[lines++] = start;
+            }
+        }
+        indexChannel.truncate(lines * 8L);
+        indexChannel.position(lines * 8L);
+        starts[lines] = logSize;
+        LogIndex index = new LogIndex(indexChannel, starts, lines);
+        index.indexTail(log, lines == 0 ? 0 : starts[lines - 1], logSize);
+        return index;
+    }
+    /**
+     * Records the start offset of a line that has been buffered but not yet written to disk.
+     * @param lineStart The byte offset of the line in the log file.
+     */
+    void add(long lineStart) {
+        if (pendingCount == pending.length) {
+            long[] grown = new long[pending.length << 1];
+            System.arraycopy(pending, 0, grown, 0, pendingCount);
+            pending = grown;
+        }
+        pending[pendingCount++] = lineStart;
+    }
+    /**
+     * Makes every pending line visible to readers and buffers their offsets for the index file.
+     * @param end The log file size after the pending lines were written.
+     * @throws IOException if the index file cannot be written.
+     */
+    void commit(long end) throws IOException {
+        if (pendingCount == 0) {
+            return;
+        }
+        int base = committed;
+        long[] target = ensureCapacity(base + pendingCount + 1);
+        for (int i = 0; i < pendingCount; i++) {
+            target[base + i] = pending[i];
+            if (!indexBuffer.hasRemaining()) {
+                writeIndexBuffer();
+            }
+            indexBuffer.putLong(pending[i]);
+        }
+        target[base + pendingCount] = end;
+        committed = base + pendingCount; // Publish: boundaries are written before the count is
+        pendingCount = 0;
+    }
+    /**
+     * Returns the number of lines visible to readers.
+     * @return The committed line count.
+     */
+    int size() {
+        return committed;
+    }
+    /**
+     * Returns the byte offset where a committed line starts, or the end of committed data for {@code line == size()}.
+     * @param line The zero-based line number.
+     * @return The byte offset.
+     */
+    long boundary(int line) {
+        return boundaries[line];
+    }
+    /**
+     * Writes the offsets still buffered to the index file and closes it.
+     * @throws IOException if the index file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writeIndexBuffer();
+        } finally {
+            indexChannel.close();
+        }
+    }
+    /**
+     * Indexes the lines that follow the last persisted offset by scanning the log for line breaks.
+     */
+    private void indexTail(FileChannel log, long from, long logSize) throws IOException {
+        if (from == 0 && committed == 0 && logSize > 0) {
+            add(0);
+        }
+        ByteBuffer chunk = ByteBuffer.allocate(SCAN_CHUNK);
+        long position = from;
+        while (position < logSize) {
+            chunk.clear();
+            int read = log.read(chunk, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (chunk.get(i) == '\n' && position + i + 1 < logSize) {
+                    add(position + i + 1);
+                }
+            }
+            position += read;
+        }
+        commit(logSize);
+    }
+    /**
+     * Grows the boundary array if needed, copying the committed boundaries before publishing the new array.
+     */
+    private long[] ensureCapacity(int required) {
+        long[] current = boundaries;
+        if (current.length >= required) {
+            return current;
+        }
+        long[] grown = new long[Math.max(required, current.length << 1)];
+        System.arraycopy(current, 0, grown, 0, committed + 1);
+        boundaries = grown; // Readers see either array; both hold every committed boundary
+        return grown;
+    }
+    /**
+     * Appends the buffered offsets to the index file.
+     */
+    private void writeIndexBuffer() throws IOException {
+        indexBuffer.flip();
+        while (indexBuffer.hasRemaining()) {
+            indexChannel.write(indexBuffer);
+        }
+        indexBuffer.clear();
+    }
+}
@@ -0,0 +1,23 @@
+package com.ticketing.logging;
+/**
+ * How much the {@link Logger} writes. Each {@link LogCategory} has a level, and a category is only logged
+ * while the logger's level is at least as verbose as the category's.
+ */
+public enum LogLevel {
+    /**
+     * Nothing is logged.
+     */
+    OFF,
+    /**
+     * Only failures are logged.
+     */
+    ERROR,
+    /**
+     * Failures and lifecycle messages such as threads starting and stopping are logged.
+     */
+    INFO,
+    /**
+     * Everything is logged, including the ticket-by-ticket pool events.
+     */
+    DEBUG
+}
@@ -0,0 +1,13 @@
+package com.ticketing.logging;
+/**
+ * Receives a notification whenever new log lines become readable through {@link Logger#getLogs(long, int)}.
+ * Listeners are called on the logging thread, so they must be quick and must not log themselves.
+ */
+@FunctionalInterface
+public interface LogListener {
+    /**
+     * Called after log lines have been written to the log file.
+     * @param lineCount The number of log lines now readable.
+     */
+    void onLogsWritten(long lineCount);
+}
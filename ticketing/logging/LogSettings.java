@@ -0,0 +1,36 @@
+package com.ticketing.logging;
+import java.util.Map;
+/**
+ * The {@link Logger}'s current filtering and sampling settings, as returned by the logging endpoint.
+ */
+public class LogSettings {
+    private final LogLevel level;
+    private final Map<LogCategory, Boolean> categories;
+    private final int poolLinesPerSecond;
+    /**
+     * Constructs a settings snapshot.
+     * @param level              The logger's level.
+     * @param categories         Whether each category is switched on; a switched-on category is still only logged if the level allows it.
+     * @param poolLinesPerSecond The number of pool event lines logged per second before the rest are summarised, or {@code 0} for no limit.
+     */
+    public LogSettings(LogLevel level, Map<LogCategory, Boolean> categories, int poolLinesPerSecond) {
+        this.level = level;
+        this.categories = categories;
+        this.poolLinesPerSecond = poolLinesPerSecond;
+    }
+    /**
+     * Retrieves the logger's level.
+     * @return The level.
+     */
+    public LogLevel getLevel() {return level;}
+    /**
+     * Retrieves whether each category is switched on.
+     * @return The categories.
+     */
+    public Map<LogCategory, Boolean> getCategories() {return categories;}
+    /**
+     * Retrieves the number of pool event lines logged per second before the rest are summarised.
+     * @return The line budget, or {@code 0} for no limit.
+     */
+    public int getPoolLinesPerSecond() {return poolLinesPerSecond;}
+}
@@ -0,0 +1,63 @@
+package com.ticketing.logging;
+import java.util.Arrays;
+import java.util.List;
+/**
+ * A preallocated ring of the most recently written log lines, so that "the last N lines" can be served
+ * from memory instead of from the log file.
+ * <p>
+ * There is only ever one writer (the synchronous logger holding its write lock, or the asynchronous
+ * writer thread), so adding a line is a slot store followed by a volatile count update, without locks or
+ * atomic instructions. Readers copy only the slots they asked for and then re-read the count to discard
+ * any slot the writer may have overwritten meanwhile.
+ */
+class LogTail {
+    private final String[] lines;
+    private final int mask;
+    private volatile long written; // Lines ever added; slot (p & mask) holds line p while p >= written - capacity
+    /**
+     * Constructs an empty tail.
+     * @param capacity The number of lines kept, rounded up to a power of two.
+     */
+    LogTail(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity));
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.lines = new String[size];
+        this.mask = size - 1;
+    }
+    /**
+     * Adds a line, overwriting the oldest one once the ring is full. Must only be called by the single writer.
+     * @param line The formatted log line.
+     */
+    void add(String line) {
+        long position = written;
+        lines[(int) position & mask] = line;
+        written = position + 1; // Publish: the slot is written before the count is
+    }
+    /**
+     * Returns the number of lines the ring can hold.
+     * @return The capacity.
+     */
+    int capacity() {
+        return lines.length;
+    }
+    /**
+     * Returns up to {@code count} of the most recent lines, oldest first.
+     * @param count The maximum number of lines to return.
+     * @return The lines; fewer than {@code count} if fewer have been written or the ring holds fewer.
+     */
+    List<String> last(int count) {
+        long end = written;
+        long start = Math.max(0, end - Math.min(count, lines.length));
+        String[] copy = new String[(int) (end - start)];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = lines[(int) (start + i) & mask];
+        }
+        // The writer stores line q into the slot of line q - capacity while the count is q, so a slot copied
+        // for line p is only known to be intact if the count has stayed below p + capacity
+        long overwritten = written - lines.length + 1 - start;
+        List<String> recent = Arrays.asList(copy);
+        return overwritten > 0 ? recent.subList((int) Math.min(overwritten, copy.length), copy.length) : recent;
+    }
+}
@@ -1,37 +1,346 @@
 package com.ticketing.logging;
 
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
 /**
  * Handles logging functionality for the ticketing system.
  * The logger writes logs to a file and provides a method to retrieve logs as a string.
  * It timestamps all log messages and ensures thread-safe operations for logging.
+ * <p>
+ * In the default synchronous mode every message is written and flushed before {@link #log(String)} returns.
+ * Hot call sites pass a constant template and {@code long} arguments instead, as in
+ * {@code log("[LOG] Vendor {} added Ticket {}", vendorId, ticketId)}: the line is only rendered by the
+ * thread that writes it, so in asynchronous mode the caller allocates nothing and messages dropped by the
+ * overflow policy are never formatted.
+ * With {@code ticketing.logging.async=true} callers only enqueue the message; a single writer thread
+ * drains the queue in batches and flushes the file every {@code ticketing.logging.flush-interval-millis}.
+ * When the queue is full, {@code ticketing.logging.overflow-policy} decides whether callers block,
+ * drop the message, or keep one in {@code ticketing.logging.sample-rate} messages.
+ * <p>
+ * The log file is written to {@code ticketing.logging.directory} (the working directory by default);
+ * with {@code ticketing.logging.file-enabled=false} messages only go to the console.
+ * <p>
+ * The file is rotated when it reaches {@code ticketing.logging.max-file-bytes} and, if
+ * {@code ticketing.logging.rotate-interval-millis} is set, at the end of every interval. Rotated files are
+ * compressed in the background unless {@code ticketing.logging.compress-rotated=false}, and deleted once
+ * there are more than {@code ticketing.logging.max-rotated-files} of them or they are older than
+ * {@code ticketing.logging.max-rotated-age-millis}. {@link #getLogs()} and {@link #getLogs(long, int)} read
+ * the rotated files as if they were still part of the log.
+ * <p>
+ * The last {@code ticketing.logging.tail-capacity} lines are also kept in memory, so
+ * {@link #getRecentLogs(int)} serves the usual "last few hundred lines" without touching the disk.
+ * <p>
+ * Every message belongs to a {@link LogCategory}, and is only written while its category is switched on
+ * and {@code ticketing.logging.level} is at least the category's level; messages logged without a
+ * category count as {@link LogCategory#LIFECYCLE}. Both can be changed at runtime, and a message that is
+ * filtered out costs a single volatile read. The pools log at most
+ * {@code ticketing.logging.pool-lines-per-second} ticket lines per second and summarise the rest per vendor
+ * and customer; see {@link #setPoolLinesPerSecond(int)}.
  */
 @Component
-public class Logger {
+public class Logger implements DisposableBean {
     /**
      * The file where all logs are stored.
      */
     private static final String LOG_FILE = "ticketing_logs.txt";
     /**
-     * The formatter used to timestamp log messages in the format "yyyy-MM-dd HH:mm:ss".
+     * The offset index kept alongside the log file for paginated reads.
      */
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String LOG_INDEX_FILE = "ticketing_logs.idx";
+    private static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 200;
+    private static final int DEFAULT_SAMPLE_RATE = 10;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long DEFAULT_MAX_FILE_BYTES = 16L * 1024 * 1024;
+    private static final int DEFAULT_MAX_ROTATED_FILES = 10;
+    private static final int DEFAULT_TAIL_CAPACITY = 1024;
+    private static final int DEFAULT_POOL_LINES_PER_SECOND = 200;
+    /**
+     * The location of the log file.
+     */
+    private final Path logPath;
+    /**
+     * The open log file and the files rotated out of it, or {@code null} if file output is disabled or the
+     * file could not be opened.
+     */
+    private final RollingLogFile logFile;
+    /**
+     * The background writer in asynchronous mode, or {@code null} in synchronous mode.
+     */
+    private final AsyncLogWriter asyncWriter;
+    /**
+     * The most recently written lines, filled by whichever thread writes the log.
+     */
+    private final LogTail tail;
+    /**
+     * Serialises synchronous writes. A lock rather than the object monitor, so that a virtual thread
+     * blocked on file I/O while holding it does not pin its carrier thread.
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    /**
+     * Renders lines in synchronous mode; guarded by {@link #writeLock}.
+     */
+    private final LogFormatter formatter = new LogFormatter();
+    private volatile LogListener[] listeners = new LogListener[0];
+    /**
+     * The bits of the categories that are both switched on and allowed by the level; recomputed under the
+     * logger's monitor whenever either changes, so that checking a category is a single volatile read.
+     */
+    private volatile int enabledMask;
+    /**
+     * The bits of the categories that are switched on, whatever the level; guarded by the logger's monitor.
+     */
+    private int switchedOnCategories;
+    /**
+     * The level; guarded by the logger's monitor.
+     */
+    private LogLevel level;
+    private volatile int poolLinesPerSecond;
+    /**
+     * Constructs a synchronous logger.
+     */
+    public Logger() {
+        this(false, DEFAULT_QUEUE_CAPACITY, DEFAULT_FLUSH_INTERVAL_MILLIS, OverflowPolicy.BLOCK, DEFAULT_SAMPLE_RATE, ".", true);
+    }
+    /**
+     * Constructs a logger with the given mode and asynchronous-mode settings and the default rotation settings.
+     * @param async               Whether messages are handed to a background writer thread.
+     * @param queueCapacity       The number of messages the asynchronous queue can hold.
+     * @param flushIntervalMillis How often the background writer flushes the log file.
+     * @param overflowPolicy      What to do with messages logged while the queue is full.
+     * @param sampleRate          With {@link OverflowPolicy#SAMPLE}, keep one in this many overflowing messages.
+     * @param directory           The directory that holds the log file and its index.
+     * @param fileEnabled         Whether messages are written to the log file as well as the console.
+     */
+    public Logger(boolean async, int queueCapacity, long flushIntervalMillis, OverflowPolicy overflowPolicy,
+                  int sampleRate, String directory, boolean fileEnabled) {
+        this(async, queueCapacity, flushIntervalMillis, overflowPolicy, sampleRate, directory, fileEnabled,
+                DEFAULT_MAX_FILE_BYTES, 0, DEFAULT_MAX_ROTATED_FILES, 0, true, DEFAULT_TAIL_CAPACITY,
+                LogLevel.DEBUG, DEFAULT_POOL_LINES_PER_SECOND);
+    }
+    /**
+     * Constructs a logger with the given mode, asynchronous-mode and rotation settings.
+     * @param async               Whether messages are handed to a background writer thread.
+     * @param queueCapacity       The number of messages the asynchronous queue can hold.
+     * @param flushIntervalMillis How often the background writer flushes the log file.
+     * @param overflowPolicy      What to do with messages logged while the queue is full.
+     * @param sampleRate          With {@link OverflowPolicy#SAMPLE}, keep one in this many overflowing messages.
+     * @param directory           The directory that holds the log file and its index.
+     * @param fileEnabled         Whether messages are written to the log file as well as the console.
+     * @param maxFileBytes        Rotate the log file when it reaches this size; {@code 0} for no size limit.
+     * @param rotateIntervalMillis Rotate the log file at every multiple of this interval; {@code 0} for no time-based rotation.
+     * @param maxRotatedFiles     Keep at most this many rotated files; {@code 0} for no limit.
+     * @param maxRotatedAgeMillis Delete rotated files older than this; {@code 0} for no limit.
+     * @param compressRotated     Whether rotated files are compressed with gzip.
+     * @param tailCapacity        The number of recent lines kept in memory, rounded up to a power of two.
+     * @param level               The most verbose level logged.
+     * @param poolLinesPerSecond  The number of ticket lines the pools log per second before summarising; {@code 0} for no limit.
+     */
+    @Autowired
+    public Logger(@Value("${ticketing.logging.async:false}") boolean async,
+                  @Value("${ticketing.logging.queue-capacity:8192}") int queueCapacity,
+                  @Value("${ticketing.logging.flush-interval-millis:200}") long flushIntervalMillis,
+                  @Value("${ticketing.logging.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+                  @Value("${ticketing.logging.sample-rate:10}") int sampleRate,
+                  @Value("${ticketing.logging.directory:.}") String directory,
+                  @Value("${ticketing.logging.file-enabled:true}") boolean fileEnabled,
+                  @Value("${ticketing.logging.max-file-bytes:16777216}") long maxFileBytes,
+                  @Value("${ticketing.logging.rotate-interval-millis:0}") long rotateIntervalMillis,
+                  @Value("${ticketing.logging.max-rotated-files:10}") int maxRotatedFiles,
+                  @Value("${ticketing.logging.max-rotated-age-millis:0}") long maxRotatedAgeMillis,
+                  @Value("${ticketing.logging.compress-rotated:true}") boolean compressRotated,
+                  @Value("${ticketing.logging.tail-capacity:1024}") int tailCapacity,
+                  @Value("${ticketing.logging.level:DEBUG}") LogLevel level,
+                  @Value("${ticketing.logging.pool-lines-per-second:200}") int poolLinesPerSecond) {
+        for (LogCategory category : LogCategory.values()) {
+            switchedOnCategories |= category.bit();
+        }
+        setLevel(level);
+        setPoolLinesPerSecond(poolLinesPerSecond);
+        this.logPath = Paths.get(directory, LOG_FILE);
+        this.logFile = fileEnabled
+                ? openLogFile(logPath, Paths.get(directory, LOG_INDEX_FILE), maxFileBytes, rotateIntervalMillis, maxRotatedFiles, maxRotatedAgeMillis, compressRotated)
+                : null;
+        this.tail = new LogTail(tailCapacity);
+        if (async) {
+            this.asyncWriter = new AsyncLogWriter(logFile, tail, this::notifyListeners, queueCapacity, flushIntervalMillis, overflowPolicy, sampleRate);
+            this.asyncWriter.start();
+        } else {
+            this.asyncWriter = null;
+        }
+    }
     /**
      * Logs a message to both the console and a log file, with a timestamp.
      * This method ensures thread safety while logging messages.
      * @param message The message to log.
      */
-    public synchronized void log(String message) {
-        String timestampedMessage = "[" + LocalDateTime.now().format(DATE_FORMATTER) + "] " + message;
-        System.out.println(timestampedMessage);
-        writeToFile(timestampedMessage);
+    public void log(String message) {
+        log(LogCategory.LIFECYCLE, message);
+    }
+    /**
+     * Logs a message with one argument, rendered in place of the template's {@code {}} by the writing thread.
+     * @param template The message template; a constant, so that the call allocates nothing.
+     * @param arg      The argument.
+     */
+    public void log(String template, long arg) {
+        log(LogCategory.LIFECYCLE, template, arg);
+    }
+    /**
+     * Logs a message with two arguments, rendered in place of the template's first and second {@code {}}
+     * by the writing thread.
+     * @param template The message template; a constant, so that the call allocates nothing.
+     * @param arg0     The first argument.
+     * @param arg1     The second argument.
+     */
+    public void log(String template, long arg0, long arg1) {
+        log(LogCategory.LIFECYCLE, template, arg0, arg1);
+    }
+    /**
+     * Logs a message of the given category, if the category is enabled.
+     * @param category The message's category.
+     * @param message  The message to log.
+     */
+    public void log(LogCategory category, String message) {
+        if ((enabledMask & category.bit()) != 0) {
+            write(message, 0, 0, 0);
+        }
+    }
+    /**
+     * Logs a message of the given category with one argument, if the category is enabled.
+     * @param category The message's category.
+     * @param template The message template; a constant, so that the call allocates nothing.
+     * @param arg      The argument.
+     */
+    public void log(LogCategory category, String template, long arg) {
+        if ((enabledMask & category.bit()) != 0) {
+            write(template, 1, arg, 0);
+        }
+    }
+    /**
+     * Logs a message of the given category with two arguments, if the category is enabled.
+     * @param category The message's category.
+     * @param template The message template; a constant, so that the call allocates nothing.
+     * @param arg0     The first argument.
+     * @param arg1     The second argument.
+     */
+    public void log(LogCategory category, String template, long arg0, long arg1) {
+        if ((enabledMask & category.bit()) != 0) {
+            write(template, 2, arg0, arg1);
+        }
+    }
+    /**
+     * Returns whether messages of the given category are currently written, so that callers can skip
+     * work that only serves the log.
+     * @param category The category to check.
+     * @return {@code true} if the category is switched on and allowed by the level.
+     */
+    public boolean isEnabled(LogCategory category) {
+        return (enabledMask & category.bit()) != 0;
+    }
+    /**
+     * Changes the most verbose level logged.
+     * @param level The new level.
+     */
+    public synchronized void setLevel(LogLevel level) {
+        this.level = Objects.requireNonNull(level, "level");
+        updateEnabledMask();
+    }
+    /**
+     * Returns the most verbose level logged.
+     * @return The level.
+     */
+    public synchronized LogLevel getLevel() {
+        return level;
+    }
+    /**
+     * Switches a category on or off. A category that is switched on is still only logged if the level allows it.
+     * @param category The category.
+     * @param enabled  Whether the category is switched on.
+     */
+    public synchronized void setEnabled(LogCategory category, boolean enabled) {
+        if (enabled) {
+            switchedOnCategories |= category.bit();
+        } else {
+            switchedOnCategories &= ~category.bit();
+        }
+        updateEnabledMask();
+    }
+    /**
+     * Recomputes {@link #enabledMask} from the switched-on categories and the level.
+     */
+    private void updateEnabledMask() {
+        int mask = 0;
+        for (LogCategory category : LogCategory.values()) {
+            if ((switchedOnCategories & category.bit()) != 0 && category.getLevel().compareTo(level) <= 0) {
+                mask |= category.bit();
+            }
+        }
+        enabledMask = mask;
+    }
+    /**
+     * Changes how many ticket lines the pools log per second. Once a second's budget is spent, the pools
+     * count the remaining tickets per vendor and customer and log one summary line for each with the next
+     * batch after the second is over, labelled with how long the window really lasted, such as {@code "Vendor 4 added 500 tickets in the last 1003 ms"}.
+     * @param poolLinesPerSecond The number of ticket lines per second, or {@code 0} to log every ticket.
+     * @throws IllegalArgumentException If the number is negative.
+     */
+    public void setPoolLinesPerSecond(int poolLinesPerSecond) {
+        if (poolLinesPerSecond < 0) {
+            throw new IllegalArgumentException("Pool lines per second must not be negative: " + poolLinesPerSecond);
+        }
+        this.poolLinesPerSecond = poolLinesPerSecond;
+    }
+    /**
+     * Returns how many ticket lines the pools log per second.
+     * @return The number of lines, or {@code 0} if every ticket is logged.
+     */
+    public int getPoolLinesPerSecond() {
+        return poolLinesPerSecond;
+    }
+    /**
+     * Returns the current level, categories and pool line budget.
+     * @return A snapshot of the settings.
+     */
+    public synchronized LogSettings getSettings() {
+        Map<LogCategory, Boolean> categories = new EnumMap<>(LogCategory.class);
+        for (LogCategory category : LogCategory.values()) {
+            categories.put(category, (switchedOnCategories & category.bit()) != 0);
+        }
+        return new LogSettings(level, categories, poolLinesPerSecond);
+    }
+    private void write(String template, int argCount, long arg0, long arg1) {
+        if (asyncWriter != null) {
+            asyncWriter.enqueue(template, argCount, arg0, arg1, System.currentTimeMillis());
+            return;
+        }
+        logSynchronously(template, argCount, arg0, arg1);
+    }
+    /**
+     * Writes a message to the console and the log file before returning.
+     */
+    private void logSynchronously(String template, int argCount, long arg0, long arg1) {
+        writeLock.lock();
+        try {
+            String timestampedMessage = formatter.formatToString(System.currentTimeMillis(), template, argCount, arg0, arg1);
+            tail.add(timestampedMessage);
+            System.out.println(timestampedMessage);
+            writeToFile(timestampedMessage);
+            notifyListeners();
+        } finally {
+            writeLock.unlock();
+        }
     }
     /**
      * Writes a log message to the log file.
@@ -39,23 +348,146 @@ public class Logger {
      * @param message The message to write to the file.
      */
     private void writeToFile(String message) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(LOG_FILE, true))) {
-            writer.write(message);
-            writer.newLine();
+        if (logFile == null) {
+            return;
+        }
+        try {
+            logFile.append(message);
+            logFile.flush();
         } catch (IOException e) {
             System.err.println("[ERROR] Failed to write log to file: " + e.getMessage());
         }
     }
     /**
-     * Retrieves all logs stored in the log file as a single string.
+     * Retrieves all logs stored in the log file and the retained rotated files as a single string.
      * If the log file cannot be read, an error message is returned instead.
      * @return The contents of the log file, or an error message if the file cannot be read.
      */
     public String getLogs() {
         try {
-            return Files.readString(Paths.get(LOG_FILE));
+            return logFile == null ? Files.readString(logPath) : logFile.readAll();
         } catch (IOException e) {
             return "[ERROR] Unable to retrieve logs: " + e.getMessage();
         }
     }
-}
\ No newline at end of file
+    /**
+     * Retrieves a page of log lines using the log's offset index, reading only the requested lines.
+     * Lines are numbered from 1 in the order they were written, across rotations, so a client that has seen
+     * {@code n} lines asks for {@code after = n} and advances by the size of the returned page. Lines in rotated
+     * files that have since been deleted are skipped.
+     * Lines still waiting in the asynchronous queue become visible once they are flushed.
+     * @param after The number of lines the caller has already seen.
+     * @param limit The maximum number of lines to return.
+     * @return The log lines after {@code after}.
+     * @throws IllegalStateException if the log file is not open.
+     * @throws UncheckedIOException  if the log cannot be read. Failures are never returned as lines, so a
+     *                               caller's cursor only ever advances over real log lines.
+     */
+    public List<String> getLogs(long after, int limit) {
+        if (logFile == null) {
+            throw new IllegalStateException("Unable to retrieve logs: log file is not open");
+        }
+        try {
+            return logFile.readLines(after, limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to retrieve logs: " + e.getMessage(), e);
+        }
+    }
+    /**
+     * Retrieves the most recent log lines, from memory when the in-memory tail holds enough of them and
+     * from the log file otherwise. In asynchronous mode the tail already holds lines the writer has not
+     * flushed to the file yet.
+     * @param count The maximum number of lines to return.
+     * @return Up to {@code count} of the latest lines, oldest first.
+     * @throws UncheckedIOException if older lines are needed and the log cannot be read.
+     */
+    public List<String> getRecentLogs(int count) {
+        if (count <= 0) {
+            return List.of();
+        }
+        List<String> recent = tail.last(count);
+        if (recent.size() == count || logFile == null || logFile.lineCount() <= recent.size()) {
+            return recent;
+        }
+        long lines = logFile.lineCount(); // Older history than the tail holds: read it from disk
+        return getLogs(Math.max(0, lines - count), count);
+    }
+    /**
+     * Returns the number of log lines written, counting those in rotated files; a client that has read up to
+     * here passes it as {@code after} to {@link #getLogs(long, int)} to read only newer lines.
+     * @return The number of log lines.
+     */
+    public long getLogCount() {
+        return logFile == null ? 0 : logFile.lineCount();
+    }
+    /**
+     * Returns the number of messages waiting in the asynchronous queue, or zero in synchronous mode.
+     * @return The queue depth.
+     */
+    public long getQueueDepth() {
+        return asyncWriter == null ? 0 : asyncWriter.queueDepth();
+    }
+    /**
+     * Returns the number of messages the asynchronous overflow policy has discarded, or zero in synchronous mode.
+     * @return The number of dropped messages.
+     */
+    public long getDroppedCount() {
+        return asyncWriter == null ? 0 : asyncWriter.droppedCount();
+    }
+    /**
+     * Registers a listener that is notified whenever new lines have been written to the log file.
+     * @param listener The listener to register.
+     */
+    public synchronized void addListener(LogListener listener) {
+        LogListener[] current = listeners;
+        LogListener[] updated = new LogListener[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+    /**
+     * Tells every registered listener how many log lines are now readable.
+     */
+    private void notifyListeners() {
+        LogListener[] current = listeners;
+        if (current.length == 0) {
+            return;
+        }
+        long lineCount = getLogCount();
+        for (LogListener listener : current) {
+            listener.onLogsWritten(lineCount);
+        }
+    }
+    /**
+     * Drains any queued messages and closes the log file when the application shuts down.
+     */
+    @Override
+    public void destroy() {
+        if (asyncWriter != null) {
+            asyncWriter.close();
+        }
+        if (logFile != null) {
+            writeLock.lock();
+            try {
+                logFile.close();
+            } catch (IOException e) {
+                System.err.println("[ERROR] Failed to close log file: " + e.getMessage());
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+    /**
+     * Opens the log file for appending, falling back to console-only logging if it cannot be opened.
+     * @return The open log file, or {@code null}.
+     */
+    private static RollingLogFile openLogFile(Path logPath, Path indexPath, long maxFileBytes, long rotateIntervalMillis,
+                                              int maxRotatedFiles, long maxRotatedAgeMillis, boolean compressRotated) {
+        try {
+            return new RollingLogFile(logPath, indexPath, BUFFER_SIZE, maxFileBytes, rotateIntervalMillis, maxRotatedFiles, maxRotatedAgeMillis, compressRotated);
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to open log file: " + e.getMessage());
+            return null;
+        }
+    }
+}
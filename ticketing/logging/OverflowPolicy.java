@@ -0,0 +1,18 @@
+package com.ticketing.logging;
+/**
+ * Decides what an asynchronous {@link Logger} does with a message when its queue is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * The calling thread waits until the writer thread has made room; no message is lost.
+     */
+    BLOCK,
+    /**
+     * The message is discarded and counted; the writer later logs how many messages were dropped.
+     */
+    DROP,
+    /**
+     * One in every {@code sample-rate} overflowing messages waits for room; the others are dropped and counted.
+     */
+    SAMPLE
+}
@@ -0,0 +1,330 @@
+package com.ticketing.logging;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+/**
+ * The log file together with the files rotated out of it. Lines are numbered across all of them, so a
+ * reader paging with {@link #readLines(long, int)} does not notice a rotation.
+ * <p>
+ * The log is rotated when the current file reaches its size limit or when its rotation interval ends:
+ * the file is sealed, renamed to {@code <name>.<first line>-<end line>.txt} and replaced by a new, empty
+ * file. That is all the writer does; compressing the rotated file and deleting files beyond the retention
+ * limits happen on a background thread. A rotated file is read through its in-memory index until it has
+ * been compressed, and by decompressing it afterwards.
+ * <p>
+ * Like {@link LogFile}, appending and flushing must be serialized by the caller, and reads may come from
+ * any thread at any time.
+ */
+class RollingLogFile implements Closeable {
+    private static final String ARCHIVE_SUFFIX = ".txt";
+    private final Path directory;
+    private final Path logPath;
+    private final Path indexPath;
+    private final String archivePrefix;
+    private final int bufferSize;
+    private final long maxBytes;
+    private final long rotateIntervalMillis;
+    private final int maxArchives;
+    private final long maxArchiveAgeMillis;
+    private final boolean compress;
+    private final ExecutorService archiver;
+    /**
+     * The file being written and the number of lines logged before it, replaced together on rotation.
+     */
+    private volatile Current current;
+    /**
+     * Rotated files, oldest first. Changed by the writer on rotation and by the archiver on retention.
+     */
+    private volatile ArchivedLog[] archives;
+    private long nextRotation;
+    /**
+     * Opens the log file and finds the files rotated out of it by earlier runs.
+     * @param logPath             The log file.
+     * @param indexPath           The log file's line index.
+     * @param bufferSize          The size of the output buffer in bytes.
+     * @param maxBytes            Rotate when the file reaches this size; {@code 0} for no size limit.
+     * @param rotateIntervalMillis Rotate at every multiple of this interval; {@code 0} for no time-based rotation.
+     * @param maxArchives         Keep at most this many rotated files; {@code 0} for no limit.
+     * @param maxArchiveAgeMillis Delete rotated files older than this; {@code 0} for no limit.
+     * @param compress            Whether rotated files are compressed with gzip.
+     * @throws IOException if the log file cannot be opened.
+     */
+    RollingLogFile(Path logPath, Path indexPath, int bufferSize, long maxBytes, long rotateIntervalMillis,
+                   int maxArchives, long maxArchiveAgeMillis, boolean compress) throws IOException {
+        this.directory = logPath.toAbsolutePath().getParent();
+        this.logPath = logPath;
+        this.indexPath = indexPath;
+        String name = logPath.getFileName().toString();
+        this.archivePrefix = (name.endsWith(ARCHIVE_SUFFIX) ? name.substring(0, name.length() - ARCHIVE_SUFFIX.length()) : name) + ".";
+        this.bufferSize = bufferSize;
+        this.maxBytes = maxBytes;
+        this.rotateIntervalMillis = rotateIntervalMillis;
+        this.maxArchives = maxArchives;
+        this.maxArchiveAgeMillis = maxArchiveAgeMillis;
+        this.compress = compress;
+        this.archiver = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ticketing-log-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.archives = findArchives();
+        long firstLine = archives.length == 0 ? 0 : archives[archives.length - 1].endLine();
+        this.current = new Current(new LogFile(logPath, indexPath, bufferSize), firstLine);
+        this.nextRotation = nextRotation(System.currentTimeMillis());
+        for (ArchivedLog archive : archives) {
+            if (compress && !archive.isCompressed()) {
+                archiver.execute(() -> compress(archive)); // Left uncompressed by a crash or an earlier setting
+            }
+        }
+        archiver.execute(this::applyRetention);
+    }
+    /**
+     * Appends a line, rotating the file first if it is full or its interval has ended.
+     * @param line The line to append, without a line separator.
+     * @throws IOException if the line cannot be written or the file cannot be rotated.
+     */
+    void append(CharSequence line) throws IOException {
+        LogFile file = current.file;
+        if ((maxBytes > 0 && file.size() >= maxBytes)
+                || (rotateIntervalMillis > 0 && System.currentTimeMillis() >= nextRotation)) {
+            rotate();
+            file = current.file;
+        }
+        file.append(line);
+    }
+    /**
+     * Writes all buffered bytes to the current file and publishes the written lines to readers.
+     * @throws IOException if the write fails.
+     */
+    void flush() throws IOException {
+        current.file.flush();
+    }
+    /**
+     * Returns the number of lines logged, including those in rotated files.
+     * @return The number of the last readable line.
+     */
+    long lineCount() {
+        Current snapshot = current;
+        return snapshot.firstLine + snapshot.file.lineCount();
+    }
+    /**
+     * Reads a page of lines across the rotated files and the current file. Lines are numbered from 1 in the
+     * order they were logged; lines in files already deleted by the retention policy are skipped.
+     * @param after The number of lines to skip.
+     * @param limit The maximum number of lines to return.
+     * @return The lines, without line separators.
+     * @throws IOException if a file cannot be read, including {@link ClosedChannelException} once the log
+     *                     has been closed.
+     */
+    List<String> readLines(long after, int limit) throws IOException {
+        while (true) {
+            Current snapshot = current; // Before the archives: a rotation publishes the archive first
+            try {
+                return readPage(snapshot, after, limit);
+            } catch (ClosedChannelException e) {
+                if (current == snapshot) {
+                    throw e; // Closed without a rotation: the log is shutting down
+                }
+                // The file was rotated out and compressed while we read it: read it again from the archive
+            }
+        }
+    }
+    private List<String> readPage(Current snapshot, long after, int limit) throws IOException {
+        ArchivedLog[] rotated = archives;
+        List<String> page = new ArrayList<>();
+        long cursor = Math.max(0, after);
+        for (ArchivedLog archive : rotated) {
+            if (page.size() >= limit) {
+                return page;
+            }
+            if (archive.endLine() <= cursor) {
+                continue;
+            }
+            cursor = Math.max(cursor, archive.firstLine());
+            List<String> lines = readArchive(archive, cursor - archive.firstLine(), limit - page.size());
+            page.addAll(lines);
+            cursor += lines.size();
+        }
+        if (page.size() < limit && snapshot.firstLine + snapshot.file.lineCount() > cursor) {
+            cursor = Math.max(cursor, snapshot.firstLine);
+            page.addAll(snapshot.file.readLines(cursor - snapshot.firstLine, limit - page.size()));
+        }
+        return page;
+    }
+    /**
+     * Reads every retained line as text, the rotated files first.
+     * @return The log's contents.
+     * @throws IOException if a file cannot be read.
+     */
+    String readAll() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (ArchivedLog archive : archives) {
+            try {
+                text.append(archive.readAll());
+            } catch (NoSuchFileException e) {
+                try {
+                    text.append(archive.readAll()); // Compressed meanwhile: the path has moved on
+                } catch (NoSuchFileException deleted) {
+                    // Deleted by the retention policy meanwhile
+                }
+            }
+        }
+        return text.append(Files.readString(logPath)).toString();
+    }
+    /**
+     * Waits for pending compression, then closes the current file and the rotated files still open.
+     * @throws IOException if a file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        archiver.shutdown();
+        try {
+            archiver.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            current.file.close();
+        } finally {
+            for (ArchivedLog archive : archives) {
+                archive.close();
+            }
+        }
+    }
+    /**
+     * Seals the current file, renames it after the lines it holds and starts a new one. A file without
+     * lines is left in place.
+     */
+    private void rotate() throws IOException {
+        nextRotation = nextRotation(System.currentTimeMillis());
+        Current old = current;
+        old.file.flush();
+        int lines = old.file.lineCount();
+        if (lines == 0) {
+            return;
+        }
+        long endLine = old.firstLine + lines;
+        Path archivePath = directory.resolve(archivePrefix + old.firstLine + "-" + endLine + ARCHIVE_SUFFIX);
+        old.file.seal(); // Stays readable through its index until it is compressed
+        Files.move(logPath, archivePath);
+        Files.deleteIfExists(indexPath);
+        ArchivedLog archive = new ArchivedLog(archivePath, old.firstLine, endLine, System.currentTimeMillis(), old.file);
+        synchronized (this) {
+            ArchivedLog[] rotated = Arrays.copyOf(archives, archives.length + 1);
+            rotated[rotated.length - 1] = archive;
+            archives = rotated;
+        }
+        current = new Current(new LogFile(logPath, indexPath, bufferSize), endLine);
+        if (compress) {
+            archiver.execute(() -> compress(archive));
+        }
+        archiver.execute(this::applyRetention);
+    }
+    /**
+     * Compresses a rotated file on the archiver thread.
+     */
+    private void compress(ArchivedLog archive) {
+        try {
+            archive.compress();
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to compress rotated log file: " + e.getMessage());
+        }
+    }
+    /**
+     * Deletes the oldest rotated files beyond the count and age limits, on the archiver thread.
+     */
+    private void applyRetention() {
+        long cutoff = System.currentTimeMillis() - maxArchiveAgeMillis;
+        while (true) {
+            ArchivedLog oldest;
+            synchronized (this) {
+                ArchivedLog[] rotated = archives;
+                if (rotated.length == 0
+                        || ((maxArchives <= 0 || rotated.length <= maxArchives)
+                        && (maxArchiveAgeMillis <= 0 || rotated[0].archivedAt() >= cutoff))) {
+                    return;
+                }
+                oldest = rotated[0];
+                archives = Arrays.copyOfRange(rotated, 1, rotated.length);
+            }
+            try {
+                oldest.delete();
+            } catch (IOException e) {
+                System.err.println("[ERROR] Failed to delete rotated log file: " + e.getMessage());
+            }
+        }
+    }
+    /**
+     * Reads from a rotated file, skipping it if the retention policy deleted it meanwhile.
+     */
+    private List<String> readArchive(ArchivedLog archive, long skip, int limit) throws IOException {
+        try {
+            return archive.readLines(skip, limit);
+        } catch (NoSuchFileException e) {
+            try {
+                return archive.readLines(skip, limit); // Compressed meanwhile: the path has moved on
+            } catch (NoSuchFileException deleted) {
+                return List.of(); // Deleted by the retention policy meanwhile
+            }
+        }
+    }
+    /**
+     * Finds the files rotated out by earlier runs, preferring the compressed copy where a crash left both.
+     */
+    private ArchivedLog[] findArchives() throws IOException {
+        List<ArchivedLog> found = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, archivePrefix + "*-*" + ARCHIVE_SUFFIX + "*")) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(path); // Compression interrupted by a crash
+                    continue;
+                }
+                boolean compressed = name.endsWith(ARCHIVE_SUFFIX + ".gz");
+                if (!compressed && !name.endsWith(ARCHIVE_SUFFIX)) {
+                    continue;
+                }
+                String range = name.substring(archivePrefix.length(), name.length() - (compressed ? ARCHIVE_SUFFIX.length() + 3 : ARCHIVE_SUFFIX.length()));
+                int dash = range.indexOf('-');
+                try {
+                    long firstLine = Long.parseLong(range.substring(0, dash));
+                    long endLine = Long.parseLong(range.substring(dash + 1));
+                    if (!compressed && Files.exists(path.resolveSibling(name + ".gz"))) {
+                        Files.deleteIfExists(path); // Compressed, but the original was not deleted yet
+                        continue;
+                    }
+                    found.add(new ArchivedLog(path, firstLine, endLine, Files.getLastModifiedTime(path).toMillis(), null));
+                } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                    // Not a rotated log file
+                }
+            }
+        }
+        found.sort(Comparator.comparingLong(ArchivedLog::firstLine));
+        return found.toArray(new ArchivedLog[0]);
+    }
+    private long nextRotation(long now) {
+        return rotateIntervalMillis <= 0 ? Long.MAX_VALUE : (now / rotateIntervalMillis + 1) * rotateIntervalMillis;
+    }
+    /**
+     * The file being written and the number of lines logged before it.
+     */
+    private static final class Current {
+        private final LogFile file;
+        private final long firstLine;
+        private Current(LogFile file, long firstLine) {
+            this.file = file;
+            this.firstLine = firstLine;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.ticketing.metrics;
+
+import com.ticketing.hold.HoldManager;
+import com.ticketing.logging.Logger;
+import com.ticketing.pool.PoolListener;
+import com.ticketing.pool.TicketPool;
+import com.ticketing.pool.TicketRange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.TimeUnit;
+/**
+ * Publishes ticket pool and logger metrics to Micrometer, and from there to {@code /actuator/metrics}.
+ * <ul>
+ *     <li>{@code ticketing.tickets.released} and {@code ticketing.tickets.sold}: tickets published by vendors
+ *     and sold, either claimed by a customer or in a confirmed hold; the sales rate is the rate of the sold
+ *     counter.</li>
+ *     <li>{@code ticketing.tickets.held}: tickets claimed from the pool to be held for checkout, which are not
+ *     counted as sold unless the hold is confirmed.</li>
+ *     <li>{@code ticketing.tickets.returned}: tickets from expired and released holds published back to the
+ *     pool, which are not counted as released.</li>
+ *     <li>{@code ticketing.pool.wait} (tagged {@code side=vendor|customer}): how long vendors waited for
+ *     space in a full pool and customers waited for tickets in an empty one, as a percentile histogram.</li>
+ *     <li>{@code ticketing.pool.occupancy}: tickets currently in the pool.</li>
+ *     <li>{@code ticketing.log.queue.depth} and {@code ticketing.log.dropped}: the asynchronous log queue.</li>
+ * </ul>
+ * Counters and timers are recorded from the pool's listener callbacks, which run after the pool operation
+ * and outside any pool lock; Micrometer's counters and timers are themselves lock-free. Wait times are only
+ * recorded when a thread actually waited. Gauges are read when metrics are scraped, not on every operation.
+ */
+@Component
+public class TicketMetrics implements PoolListener {
+    private final Counter ticketsReleased;
+    private final Counter ticketsSold;
+    private final Counter ticketsReturned;
+    private final Counter ticketsHeld;
+    private final Timer vendorWait;
+    private final Timer customerWait;
+    /**
+     * Registers the meters and starts listening to the pool and to confirmed holds.
+     * @param registry    The registry to publish to.
+     * @param ticketPool  The pool to observe.
+     * @param holdManager The manager whose confirmed holds are counted as sold.
+     * @param logger      The logger whose queue is observed.
+     */
+    public TicketMetrics(MeterRegistry registry, TicketPool ticketPool, HoldManager holdManager, Logger logger) {
+        this.ticketsReleased = Counter.builder("ticketing.tickets.released")
+                .description("Tickets published to the pool by vendors")
+                .baseUnit("tickets")
+                .register(registry);
+        this.ticketsSold = Counter.builder("ticketing.tickets.sold")
+                .description("Tickets claimed by customers or sold from confirmed holds")
+                .baseUnit("tickets")
+                .register(registry);
+        this.ticketsReturned = Counter.builder("ticketing.tickets.returned")
+                .description("Tickets from expired and released holds returned to the pool")
+                .baseUnit("tickets")
+                .register(registry);
+        this.ticketsHeld = Counter.builder("ticketing.tickets.held")
+                .description("Tickets claimed from the pool to be held for checkout")
+                .baseUnit("tickets")
+                .register(registry);
+        this.vendorWait = Timer.builder("ticketing.pool.wait")
+                .description("Time spent waiting on the ticket pool")
+                .tag("side", "vendor")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.customerWait = Timer.builder("ticketing.pool.wait")
+                .description("Time spent waiting on the ticket pool")
+                .tag("side", "customer")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder("ticketing.pool.occupancy", ticketPool, TicketPool::getTicketCount)
+                .description("Tickets currently available in the pool")
+                .baseUnit("tickets")
+                .register(registry);
+        Gauge.builder("ticketing.log.queue.depth", logger, Logger::getQueueDepth)
+                .description("Log messages waiting to be written in asynchronous mode")
+                .baseUnit("messages")
+                .register(registry);
+        FunctionCounter.builder("ticketing.log.dropped", logger, Logger::getDroppedCount)
+                .description("Log messages discarded because the asynchronous queue was full")
+                .baseUnit("messages")
+                .register(registry);
+        ticketPool.addListener(this);
+        holdManager.addConfirmListener(hold -> ticketsSold.increment(hold.getCount()));
+    }
+    @Override
+    public void onTicketsReleased(int vendorId, TicketRange range, int ticketCount) {
+        if (vendorId == HoldManager.RETURN_VENDOR_ID) {
+            ticketsReturned.increment(range.getCount());
+        } else {
+            ticketsReleased.increment(range.getCount());
+        }
+    }
+    @Override
+    public void onTicketsClaimed(int customerId, TicketRange range, int ticketCount) {
+        if (customerId == HoldManager.HOLD_CUSTOMER_ID) {
+            ticketsHeld.increment(range.getCount());
+        } else {
+            ticketsSold.increment(range.getCount());
+        }
+    }
+    @Override
+    public void onVendorWaited(int vendorId, long waitNanos) {
+        vendorWait.record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+    @Override
+    public void onCustomerWaited(int customerId, long waitNanos) {
+        customerWait.record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+}
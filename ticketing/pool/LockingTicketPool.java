@@ -0,0 +1,292 @@
+package com.ticketing.pool;
+import com.ticketing.logging.Logger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+/**
+ * A {@link TicketPool} that keeps primitive ticket IDs in a {@link TicketIdQueue} guarded by a single lock.
+ * The pool allows vendors to add tickets and customers to retrieve tickets; vendors wait on the
+ * {@code notFull} condition and customers on {@code notEmpty}, so each wake-up only reaches the side
+ * that can make progress. A {@link ReentrantLock} is used rather than the object monitor because a
+ * virtual thread waiting on a lock condition releases its carrier thread.
+ */
+public class LockingTicketPool implements TicketPool {
+    private final TicketIdQueue tickets;
+    private final Logger logger;
+    private final int maxTicketCapacity;
+    private int totalTickets;
+    private int ticketReleaseRate;
+    private int customerRetrievalRate;
+    private long nextTicketId = 1; // ID given to the next ticket added to the pool
+    private final PoolListeners listeners = new PoolListeners();
+    private final PoolEventLog eventLog;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition notEmpty = lock.newCondition();
+    /**
+     * Constructs a LockingTicketPool with the specified initial configuration.
+     * @param logger               The logger used for logging operations.
+     * @param maxTicketCapacity    The maximum capacity of tickets in the pool.
+     * @param totalTickets         The initial number of tickets in the pool.
+     * @param ticketReleaseRate    The rate at which vendors release tickets.
+     * @param customerRetrievalRate The rate at which customers retrieve tickets.
+     */
+    public LockingTicketPool(Logger logger, int maxTicketCapacity, int totalTickets, int ticketReleaseRate, int customerRetrievalRate) {
+        this.logger = logger;
+        this.eventLog = new PoolEventLog(logger);
+        this.maxTicketCapacity = maxTicketCapacity;
+        this.totalTickets = totalTickets;
+        this.ticketReleaseRate = ticketReleaseRate;
+        this.customerRetrievalRate = customerRetrievalRate;
+        this.tickets = new TicketIdQueue(Math.max(maxTicketCapacity, totalTickets));
+
+        // Pre-fill the pool with the initial tickets
+        for (int i = 1; i <= totalTickets; i++) {
+            tickets.add(nextTicketId++);
+        }
+    }
+    /**
+     * Publishes a batch of new tickets as one contiguous {@link TicketRange}.
+     * The batch is added under a single acquisition of the pool's lock; if the pool would exceed
+     * its maximum capacity, the calling thread waits until space becomes available.
+     * @param count             The number of tickets to publish.
+     * @param vendorId          The ID of the vendor publishing tickets.
+     * @param maxTicketCapacity The maximum capacity of the pool.
+     * @return The published range, or an empty range if the thread was interrupted while waiting.
+     */
+    @Override
+    public TicketRange release(int count, int vendorId, int maxTicketCapacity) {
+        if (count <= 0) {
+            return TicketRange.empty();
+        }
+        TicketRange released;
+        int ticketCount;
+        long waitStart = 0;
+        lock.lock();
+        try {
+            while (tickets.size() + count > maxTicketCapacity) {
+                if (waitStart == 0) {
+                    waitStart = System.nanoTime(); // Only the slow path is timed
+                }
+                try {
+                    notFull.await();  // Wait if the pool is full
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    logger.log("[LOG] Vendor thread interrupted during addTickets.");
+                    return TicketRange.empty(); // Exit if interrupted
+                }
+            }
+            released = addBatch(count);
+            ticketCount = tickets.size();
+        } finally {
+            lock.unlock();
+        }
+        if (waitStart != 0) {
+            listeners.vendorWaited(vendorId, System.nanoTime() - waitStart);
+        }
+        return announceRelease(released, vendorId, ticketCount);
+    }
+    /**
+     * Publishes a batch of new tickets if it fits within {@code maxTicketCapacity} right now, without waiting.
+     * @param count             The number of tickets to publish.
+     * @param vendorId          The ID of the vendor publishing tickets.
+     * @param maxTicketCapacity The maximum capacity of the pool.
+     * @return The published range, or an empty range if the batch does not fit.
+     */
+    @Override
+    public TicketRange tryRelease(int count, int vendorId, int maxTicketCapacity) {
+        if (count <= 0) {
+            return TicketRange.empty();
+        }
+        TicketRange released;
+        int ticketCount;
+        lock.lock();
+        try {
+            if (tickets.size() + count > maxTicketCapacity) {
+                return TicketRange.empty();
+            }
+            released = addBatch(count);
+            ticketCount = tickets.size();
+        } finally {
+            lock.unlock();
+        }
+        return announceRelease(released, vendorId, ticketCount);
+    }
+    /**
+     * Issues {@code count} new ticket IDs and queues them. Must be called with the lock held.
+     */
+    private TicketRange addBatch(int count) {
+        TicketRange released = new TicketRange(nextTicketId, count);
+        tickets.addRun(nextTicketId, count);
+        nextTicketId += count;
+        totalTickets += count;
+        notEmpty.signalAll(); // Notify waiting customers
+        return released;
+    }
+    /**
+     * Notifies listeners about a published batch and logs its tickets, outside the lock.
+     */
+    private TicketRange announceRelease(TicketRange released, int vendorId, int ticketCount) {
+        listeners.released(vendorId, released, ticketCount);
+        eventLog.released(vendorId, released);
+        return released;
+    }
+    /**
+     * Claims up to {@code count} of the oldest tickets as one contiguous {@link TicketRange}.
+     * The tickets are taken under a single acquisition of the pool's lock and never more than are available.
+     * If the pool is empty, the calling thread waits until tickets are available.
+     * @param count      The maximum number of tickets to claim.
+     * @param customerId The ID of the customer claiming tickets.
+     * @return The claimed range, or an empty range if the thread was interrupted while waiting.
+     */
+    @Override
+    public TicketRange claim(int count, int customerId) {
+        if (count <= 0) {
+            return TicketRange.empty();
+        }
+        TicketRange claimed;
+        int ticketCount;
+        long waitStart = 0;
+        lock.lock();
+        try {
+            while (tickets.isEmpty()) {
+                if (waitStart == 0) {
+                    waitStart = System.nanoTime(); // Only the slow path is timed
+                }
+                try {
+                    notEmpty.await(); // Wait if no tickets are available
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    logger.log("[LOG] Customer thread interrupted during removeTicket.");
+                    return TicketRange.empty(); // Exit if interrupted
+                }
+            }
+            claimed = takeBatch(count);
+            ticketCount = tickets.size();
+        } finally {
+            lock.unlock();
+        }
+        if (waitStart != 0) {
+            listeners.customerWaited(customerId, System.nanoTime() - waitStart);
+        }
+        return announceClaim(claimed, customerId, ticketCount);
+    }
+    /**
+     * Claims up to {@code count} of the oldest tickets if any are available right now, without waiting.
+     * @param count      The maximum number of tickets to claim.
+     * @param customerId The ID of the customer claiming tickets.
+     * @return The claimed range, or an empty range if the pool is empty.
+     */
+    @Override
+    public TicketRange tryClaim(int count, int customerId) {
+        if (count <= 0) {
+            return TicketRange.empty();
+        }
+        TicketRange claimed;
+        int ticketCount;
+        lock.lock();
+        try {
+            if (tickets.isEmpty()) {
+                return TicketRange.empty();
+            }
+            claimed = takeBatch(count);
+            ticketCount = tickets.size();
+        } finally {
+            lock.unlock();
+        }
+        return announceClaim(claimed, customerId, ticketCount);
+    }
+    /**
+     * Takes up to {@code count} of the oldest queued tickets. Must be called with the lock held and the queue not empty.
+     */
+    private TicketRange takeBatch(int count) {
+        int taken = Math.min(count, tickets.size());
+        // IDs are queued in the order they were issued, so the oldest tickets form one run
+        TicketRange claimed = new TicketRange(tickets.takeRun(taken), taken);
+        totalTickets -= taken;
+        notFull.signalAll(); // Notify waiting vendors
+        return claimed;
+    }
+    /**
+     * Notifies listeners about a claimed batch and logs its tickets, outside the lock.
+     */
+    private TicketRange announceClaim(TicketRange claimed, int customerId, int ticketCount) {
+        listeners.claimed(customerId, claimed, ticketCount);
+        eventLog.claimed(customerId, claimed);
+        return claimed;
+    }
+    /**
+     * Returns the current number of tickets available in the pool.
+     * @return The number of tickets currently in the pool.
+     */
+    @Override
+    public int getTicketCount() {
+        lock.lock();
+        try {
+            return tickets.size(); // Number of available tickets in the pool
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Returns the total number of tickets managed by the pool so far.
+     * @return The total number of tickets managed.
+     */
+    @Override
+    public int getTotalTickets() {
+        lock.lock();
+        try {
+            return totalTickets;
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Registers a listener that is notified after every published or claimed batch.
+     * @param listener The listener to register.
+     */
+    @Override
+    public void addListener(PoolListener listener) {
+        listeners.add(listener);
+    }
+    /**
+     * Captures the pool's contents: the queue always holds the most recently issued IDs.
+     * @return The pool's state, a single span.
+     */
+    @Override
+    public PoolState exportState() {
+        lock.lock();
+        try {
+            long issuedUpTo = nextTicketId - 1;
+            return new PoolState(new long[] {issuedUpTo - tickets.size()}, new long[] {issuedUpTo});
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Replaces the pool's contents with a previously captured state.
+     * @param state The state to restore.
+     * @throws IllegalStateException if the state has more than one span.
+     */
+    @Override
+    public void restoreState(PoolState state) {
+        if (state.getSpanCount() != 1) {
+            throw new IllegalStateException("The locking pool holds one span of ticket IDs but the saved state has " + state.getSpanCount() + ".");
+        }
+        lock.lock();
+        try {
+            TicketRange available = state.getAvailable(0);
+            tickets.clear();
+            if (!available.isEmpty()) {
+                tickets.addRun(available.getFirstTicketId(), available.getCount());
+            }
+            nextTicketId = state.getIssuedUpTo(0) + 1;
+            totalTickets = tickets.size();
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        listeners.restored(state);
+    }
+}
+
@@ -0,0 +1,187 @@
+package com.ticketing.pool;
+import com.ticketing.logging.LogCategory;
+import com.ticketing.logging.Logger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+/**
+ * Logs the tickets a pool publishes and hands out as {@link LogCategory#POOL} messages.
+ * Each ticket gets its own line until {@link Logger#getPoolLinesPerSecond()} lines have been logged in the
+ * current window of at least a second; tickets beyond that are only counted per vendor and customer, and the
+ * first pool operation after the window is over logs the counts as one summary line each, labelled with the
+ * window's real length. With the category disabled a batch costs a volatile read.
+ * <p>
+ * Each window counts into fixed tables of {@link #SUMMARY_SLOTS} vendors and customers, so counting allocates
+ * nothing and a window's summaries take bounded memory however many IDs clients send; actors beyond the table
+ * are summed into one line for the others. A window's tables are dropped once it has been logged.
+ */
+class PoolEventLog implements java.io.Serializable {
+    static final String RELEASED_SUMMARY_LOG = "[LOG] Vendor %d added %d tickets in the last %d ms";
+    static final String CLAIMED_SUMMARY_LOG = "[LOG] Customer %d purchased %d tickets in the last %d ms";
+    static final String OTHER_RELEASED_SUMMARY_LOG = "[LOG] Other vendors added %d tickets in the last %d ms";
+    static final String OTHER_CLAIMED_SUMMARY_LOG = "[LOG] Other customers purchased %d tickets in the last %d ms";
+    static final int SUMMARY_SLOTS = 64; // A power of two
+    private static final long WINDOW_MILLIS = 1000;
+    private final Logger logger;
+    private final AtomicReference<Window> window = new AtomicReference<>(new Window(0));
+    /**
+     * Constructs the event log of a pool.
+     * @param logger The logger to write to.
+     */
+    PoolEventLog(Logger logger) {
+        this.logger = logger;
+    }
+    /**
+     * Logs a batch a vendor published.
+     */
+    void released(int vendorId, TicketRange range) {
+        if (range.isEmpty() || !logger.isEnabled(LogCategory.POOL)) {
+            return;
+        }
+        Window current = currentWindow();
+        if (!current.withinBudget(range.getCount(), logger.getPoolLinesPerSecond())) {
+            current.releases.add(vendorId, range.getCount());
+            if (current.logged) {
+                current.releases.drain(vendorId, logger, RELEASED_SUMMARY_LOG, OTHER_RELEASED_SUMMARY_LOG, current.length);
+            }
+            return;
+        }
+        for (long ticketId = range.getFirstTicketId(); ticketId <= range.getLastTicketId(); ticketId++) {
+            logger.log(LogCategory.POOL, TicketPool.RELEASED_TICKET_LOG, vendorId, ticketId);
+        }
+    }
+    /**
+     * Logs a batch a customer claimed.
+     */
+    void claimed(int customerId, TicketRange range) {
+        if (range.isEmpty() || !logger.isEnabled(LogCategory.POOL)) {
+            return;
+        }
+        Window current = currentWindow();
+        if (!current.withinBudget(range.getCount(), logger.getPoolLinesPerSecond())) {
+            current.claims.add(customerId, range.getCount());
+            if (current.logged) {
+                current.claims.drain(customerId, logger, CLAIMED_SUMMARY_LOG, OTHER_CLAIMED_SUMMARY_LOG, current.length);
+            }
+            return;
+        }
+        for (long ticketId = range.getFirstTicketId(); ticketId <= range.getLastTicketId(); ticketId++) {
+            logger.log(LogCategory.POOL, TicketPool.CLAIMED_TICKET_LOG, customerId, ticketId);
+        }
+    }
+    /**
+     * Returns the current window, first replacing it with a fresh one and logging its summaries if it is over.
+     */
+    private Window currentWindow() {
+        long now = System.currentTimeMillis();
+        Window current = window.get();
+        if (now - current.start < WINDOW_MILLIS) {
+            return current;
+        }
+        Window next = new Window(now);
+        if (!window.compareAndSet(current, next)) {
+            return window.get(); // Another thread moved the window on and logs the last one
+        }
+        if (current.start > 0) {
+            current.length = now - current.start;
+            current.logged = true; // Counts added from now on are logged by the thread that adds them
+            current.releases.drainAll(logger, RELEASED_SUMMARY_LOG, OTHER_RELEASED_SUMMARY_LOG, current.length);
+            current.claims.drainAll(logger, CLAIMED_SUMMARY_LOG, OTHER_CLAIMED_SUMMARY_LOG, current.length);
+        }
+        return next;
+    }
+    /**
+     * One logging window: its line budget and the tickets counted instead of logged. A new window starts with a
+     * full budget, so there is no reset to race with the threads taking from it.
+     */
+    private static final class Window implements java.io.Serializable {
+        final long start;
+        final AtomicLong lines = new AtomicLong();
+        final Counts releases = new Counts();
+        final Counts claims = new Counts();
+        volatile long length; // Set before logged
+        volatile boolean logged;
+        Window(long start) {
+            this.start = start;
+        }
+        /**
+         * Takes {@code count} lines from the budget.
+         * @return {@code true} if the lines fit in the budget and should be logged one by one.
+         */
+        boolean withinBudget(int count, int limit) {
+            return limit <= 0 || lines.addAndGet(count) <= limit;
+        }
+    }
+    /**
+     * Ticket counts per actor in an open-addressed table of {@link #SUMMARY_SLOTS} slots. A slot's key is the
+     * actor ID with bit 32 set, so zero marks a free slot; once taken a slot is never freed. Every
+     * count is moved out with {@code getAndSet(0)}, so it is logged exactly once, by whichever of the window's
+     * logger and a late adder gets to it.
+     */
+    private static final class Counts implements java.io.Serializable {
+        private final AtomicLongArray keys = new AtomicLongArray(SUMMARY_SLOTS);
+        private final AtomicLongArray tickets = new AtomicLongArray(SUMMARY_SLOTS);
+        private final AtomicLong others = new AtomicLong();
+        void add(int actorId, int count) {
+            int slot = slot(actorId, true);
+            if (slot < 0) {
+                others.addAndGet(count);
+            } else {
+                tickets.addAndGet(slot, count);
+            }
+        }
+        /**
+         * Logs what one actor added after its window was logged.
+         */
+        void drain(int actorId, Logger logger, String template, String othersTemplate, long length) {
+            int slot = slot(actorId, false);
+            if (slot >= 0) {
+                long count = tickets.getAndSet(slot, 0);
+                if (count > 0) {
+                    logger.log(LogCategory.POOL, String.format(template, actorId, count, length));
+                }
+            } else {
+                long rest = others.getAndSet(0);
+                if (rest > 0) {
+                    logger.log(LogCategory.POOL, String.format(othersTemplate, rest, length));
+                }
+            }
+        }
+        void drainAll(Logger logger, String template, String othersTemplate, long length) {
+            for (int slot = 0; slot < SUMMARY_SLOTS; slot++) {
+                long key = keys.get(slot);
+                long count = key == 0 ? 0 : tickets.getAndSet(slot, 0);
+                if (count > 0) {
+                    logger.log(LogCategory.POOL, String.format(template, (int) key, count, length));
+                }
+            }
+            long rest = others.getAndSet(0);
+            if (rest > 0) {
+                logger.log(LogCategory.POOL, String.format(othersTemplate, rest, length));
+            }
+        }
+        /**
+         * Finds an actor's slot, taking a free one if {@code claim} is set.
+         * @return The slot, or -1 if the actor has none and the table is full.
+         */
+        private int slot(int actorId, boolean claim) {
+            long key = (1L << 32) | (actorId & 0xFFFFFFFFL);
+            int start = (actorId * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(SUMMARY_SLOTS)); // Fibonacci hash
+            for (int i = 0; i < SUMMARY_SLOTS; i++) {
+                int slot = (start + i) & (SUMMARY_SLOTS - 1);
+                long found = keys.get(slot);
+                if (found == 0 && claim && keys.compareAndSet(slot, 0, key)) {
+                    return slot;
+                }
+                found = keys.get(slot);
+                if (found == key) {
+                    return slot;
+                }
+                if (found == 0) {
+                    return -1; // Not in the table, and not claiming
+                }
+            }
+            return -1;
+        }
+    }
+}
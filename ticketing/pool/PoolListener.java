@@ -0,0 +1,44 @@
+package com.ticketing.pool;
+/**
+ * Receives a notification after every batch a {@link TicketPool} publishes or hands out.
+ * Listeners are called on the vendor or customer thread after the pool operation has completed and
+ * outside any pool lock, so they must be quick and must not block.
+ */
+public interface PoolListener {
+    /**
+     * Called after a vendor has published a batch of tickets.
+     * @param vendorId    The ID of the vendor that published the tickets.
+     * @param range       The published tickets.
+     * @param ticketCount The number of tickets available in the pool after the operation.
+     */
+    void onTicketsReleased(int vendorId, TicketRange range, int ticketCount);
+    /**
+     * Called after a customer has claimed a batch of tickets.
+     * @param customerId  The ID of the customer that claimed the tickets.
+     * @param range       The claimed tickets.
+     * @param ticketCount The number of tickets available in the pool after the operation.
+     */
+    void onTicketsClaimed(int customerId, TicketRange range, int ticketCount);
+    /**
+     * Called after a vendor that found the pool full has been let in. Not called for batches that
+     * fit straight away, so listeners cost nothing on the uncontended path.
+     * @param vendorId  The ID of the vendor that waited.
+     * @param waitNanos How long the vendor waited for space, in nanoseconds.
+     */
+    default void onVendorWaited(int vendorId, long waitNanos) {
+    }
+    /**
+     * Called after a customer that found the pool empty has been handed tickets. Not called when
+     * tickets were available straight away.
+     * @param customerId The ID of the customer that waited.
+     * @param waitNanos  How long the customer waited for tickets, in nanoseconds.
+     */
+    default void onCustomerWaited(int customerId, long waitNanos) {
+    }
+    /**
+     * Called after the pool's contents have been replaced through {@link TicketPool#restoreState(PoolState)}.
+     * @param state The restored state.
+     */
+    default void onStateRestored(PoolState state) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.ticketing.pool;
+/**
+ * The set of {@link PoolListener}s registered with a pool.
+ * Registration copies a small array; notification reads it once without locking, which keeps the
+ * per-operation cost of having listeners to a volatile read and a loop.
+ */
+class PoolListeners implements java.io.Serializable {
+    private volatile PoolListener[] listeners = new PoolListener[0];
+    /**
+     * Registers a listener.
+     * @param listener The listener to notify about pool operations.
+     */
+    synchronized void add(PoolListener listener) {
+        PoolListener[] current = listeners;
+        PoolListener[] updated = new PoolListener[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+    /**
+     * Notifies every listener that a vendor published tickets.
+     */
+    void released(int vendorId, TicketRange range, int ticketCount) {
+        for (PoolListener listener : listeners) {
+            listener.onTicketsReleased(vendorId, range, ticketCount);
+        }
+    }
+    /**
+     * Notifies every listener that a customer claimed tickets.
+     */
+    void claimed(int customerId, TicketRange range, int ticketCount) {
+        for (PoolListener listener : listeners) {
+            listener.onTicketsClaimed(customerId, range, ticketCount);
+        }
+    }
+    /**
+     * Notifies every listener that a vendor had to wait for space.
+     */
+    void vendorWaited(int vendorId, long waitNanos) {
+        for (PoolListener listener : listeners) {
+            listener.onVendorWaited(vendorId, waitNanos);
+        }
+    }
+    /**
+     * Notifies every listener that a customer had to wait for tickets.
+     */
+    void customerWaited(int customerId, long waitNanos) {
+        for (PoolListener listener : listeners) {
+            listener.onCustomerWaited(customerId, waitNanos);
+        }
+    }
+    /**
+     * Notifies every listener that the pool's contents were replaced.
+     */
+    void restored(PoolState state) {
+        for (PoolListener listener : listeners) {
+            listener.onStateRestored(state);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.ticketing.pool;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+/**
+ * A saved copy of a {@link TicketPool}: its configuration and its {@link PoolState}, stored in a compact
+ * versioned binary file that is written and read through a {@link MappedByteBuffer}.
+ * <p>
+ * The file holds two ticket IDs per span rather than one entry per ticket, so saving and restoring a pool of
+ * millions of tickets costs a few pages of I/O and no per-ticket objects.
+ * <p>
+ * Layout, big-endian: magic {@code int}, version {@code int}, total tickets, maximum capacity, release rate
+ * and retrieval rate {@code int}s, span count {@code int}, then claimed-up-to and issued-up-to {@code long}s
+ * for each span, and finally a CRC-32 of everything before it. The file is written next to its destination
+ * and moved into place, so a crash never leaves a half-written snapshot behind.
+ * <p>
+ * This is the one snapshot format of the system: the CLI's {@code SnapshotManager} writes and reads the same
+ * layout, with a single span, so either side can restore the other's {@code ticketing_pool.snapshot}. The span
+ * section and checksum are also used by the journal's snapshots, through {@link #putSpans},
+ * {@link #getSpans} and {@link #checksum}. Any change to the layout needs a new version number.
+ */
+public final class PoolSnapshot {
+    private static final int MAGIC = 0x5450534E; // "TPSN"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 * 6; // Magic, version and the configuration, before the spans
+    private final int totalTickets;
+    private final int maxTicketCapacity;
+    private final int ticketReleaseRate;
+    private final int customerRetrievalRate;
+    private final PoolState state;
+    /**
+     * Constructs a snapshot.
+     * @param totalTickets          The total number of tickets the pool was configured with.
+     * @param maxTicketCapacity     The maximum capacity of the pool.
+     * @param ticketReleaseRate     The number of tickets released per interval.
+     * @param customerRetrievalRate The number of tickets retrieved per interval.
+     * @param state                 The pool's contents.
+     */
+    public PoolSnapshot(int totalTickets, int maxTicketCapacity, int ticketReleaseRate, int customerRetrievalRate, PoolState state) {
+        this.totalTickets = totalTickets;
+        this.maxTicketCapacity = maxTicketCapacity;
+        this.ticketReleaseRate = ticketReleaseRate;
+        this.customerRetrievalRate = customerRetrievalRate;
+        this.state = state;
+    }
+    /**
+     * Returns the total number of tickets the pool was configured with.
+     * @return The total ticket count.
+     */
+    public int getTotalTickets() {
+        return totalTickets;
+    }
+    /**
+     * Returns the maximum capacity of the pool.
+     * @return The maximum ticket capacity.
+     */
+    public int getMaxTicketCapacity() {
+        return maxTicketCapacity;
+    }
+    /**
+     * Returns the number of tickets released per interval.
+     * @return The release rate.
+     */
+    public int getTicketReleaseRate() {
+        return ticketReleaseRate;
+    }
+    /**
+     * Returns the number of tickets retrieved per interval.
+     * @return The retrieval rate.
+     */
+    public int getCustomerRetrievalRate() {
+        return customerRetrievalRate;
+    }
+    /**
+     * Returns the pool's contents.
+     * @return The pool state.
+     */
+    public PoolState getState() {
+        return state;
+    }
+    /**
+     * Writes the snapshot, replacing any previous one.
+     * @param path The snapshot file.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public void write(Path path) throws IOException {
+        int size = HEADER_SIZE + spansSize(state) + 4;
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION)
+                    .putInt(totalTickets).putInt(maxTicketCapacity).putInt(ticketReleaseRate).putInt(customerRetrievalRate);
+            putSpans(buffer, state);
+            buffer.putInt(checksum(buffer, size - 4));
+            buffer.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    /**
+     * Reads a snapshot.
+     * @param path The snapshot file.
+     * @return The snapshot, or {@code null} if there is none.
+     * @throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    public static PoolSnapshot read(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + 4 + 4 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a ticket pool snapshot: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a ticket pool snapshot: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + path);
+            }
+            int totalTickets = buffer.getInt();
+            int maxTicketCapacity = buffer.getInt();
+            int ticketReleaseRate = buffer.getInt();
+            int customerRetrievalRate = buffer.getInt();
+            PoolState state = getSpans(buffer, path);
+            return new PoolSnapshot(totalTickets, maxTicketCapacity, ticketReleaseRate, customerRetrievalRate, state);
+        }
+    }
+    /**
+     * Returns the size of a state's span section: the span count and two marks per span.
+     * @param state The pool state.
+     * @return The size in bytes.
+     */
+    public static int spansSize(PoolState state) {
+        return 4 + state.getSpanCount() * 16;
+    }
+    /**
+     * Writes a state's span section at the buffer's position.
+     * @param buffer The buffer to write to.
+     * @param state  The pool state.
+     */
+    public static void putSpans(ByteBuffer buffer, PoolState state) {
+        int spans = state.getSpanCount();
+        buffer.putInt(spans);
+        for (int span = 0; span < spans; span++) {
+            buffer.putLong(state.getClaimedUpTo(span)).putLong(state.getIssuedUpTo(span));
+        }
+    }
+    /**
+     * Reads a span section from the buffer's position, which must be followed by exactly the trailing checksum,
+     * and verifies that checksum over everything from the start of the buffer.
+     * @param buffer The buffer to read from.
+     * @param path   The file the buffer was read from, for error messages.
+     * @return The pool state.
+     * @throws IOException if the section is truncated, the checksum does not match or the marks are invalid.
+     */
+    public static PoolState getSpans(ByteBuffer buffer, Path path) throws IOException {
+        int spans = buffer.getInt();
+        if (spans < 0 || buffer.remaining() != spans * 16L + 4) {
+            throw new IOException("Truncated snapshot: " + path);
+        }
+        long[] claimedUpTo = new long[spans];
+        long[] issuedUpTo = new long[spans];
+        for (int span = 0; span < spans; span++) {
+            claimedUpTo[span] = buffer.getLong();
+            issuedUpTo[span] = buffer.getLong();
+        }
+        if (buffer.getInt() != checksum(buffer, buffer.position() - 4)) {
+            throw new IOException("Corrupt snapshot: " + path);
+        }
+        try {
+            return new PoolState(claimedUpTo, issuedUpTo);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt snapshot: " + path + ": " + e.getMessage());
+        }
+    }
+    /**
+     * Computes the CRC-32 of the first {@code length} bytes of a buffer, whatever its position.
+     * @param buffer The buffer.
+     * @param length The number of bytes to check.
+     * @return The checksum.
+     */
+    public static int checksum(ByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(length));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,95 @@
+package com.ticketing.pool;
+/**
+ * The contents of a {@link TicketPool} in a form that can be persisted and restored.
+ * <p>
+ * Ticket IDs are issued in ranges called spans: span {@code i} covers IDs {@code i * ID_SPAN + 1} to
+ * {@code (i + 1) * ID_SPAN}. The locking and ring-buffer pools only use span 0; a sharded pool uses one
+ * span per shard. Within a span, IDs are issued consecutively and claimed oldest first, so the tickets
+ * available in a span are exactly the IDs above the highest claimed one and up to the highest issued one.
+ * A pool's state is therefore two numbers per span, however many tickets it holds.
+ */
+public final class PoolState implements java.io.Serializable {
+    /**
+     * The number of ticket IDs in each span.
+     */
+    public static final long ID_SPAN = 1L << 40;
+    private final long[] claimedUpTo;
+    private final long[] issuedUpTo;
+    /**
+     * Constructs a state from per-span high-water marks.
+     * @param claimedUpTo The highest claimed ticket ID of each span, or the span's base if none was claimed.
+     * @param issuedUpTo  The highest issued ticket ID of each span, or the span's base if none was issued.
+     * @throws IllegalArgumentException if the arrays differ in length or a span's marks are out of order.
+     */
+    public PoolState(long[] claimedUpTo, long[] issuedUpTo) {
+        if (claimedUpTo.length != issuedUpTo.length) {
+            throw new IllegalArgumentException("Every span needs both a claimed and an issued mark.");
+        }
+        for (int span = 0; span < claimedUpTo.length; span++) {
+            if (claimedUpTo[span] < spanBase(span) || claimedUpTo[span] > issuedUpTo[span] || issuedUpTo[span] > spanBase(span) + ID_SPAN) {
+                throw new IllegalArgumentException("Invalid marks for span " + span + ": claimed up to " + claimedUpTo[span] + ", issued up to " + issuedUpTo[span]);
+            }
+        }
+        this.claimedUpTo = claimedUpTo.clone();
+        this.issuedUpTo = issuedUpTo.clone();
+    }
+    /**
+     * Returns the number of spans in this state.
+     * @return The span count.
+     */
+    public int getSpanCount() {
+        return claimedUpTo.length;
+    }
+    /**
+     * Returns the highest claimed ticket ID of a span.
+     * @param span The span.
+     * @return The highest claimed ID, or the span's base if none was claimed.
+     */
+    public long getClaimedUpTo(int span) {
+        return claimedUpTo[span];
+    }
+    /**
+     * Returns the highest issued ticket ID of a span.
+     * @param span The span.
+     * @return The highest issued ID, or the span's base if none was issued.
+     */
+    public long getIssuedUpTo(int span) {
+        return issuedUpTo[span];
+    }
+    /**
+     * Returns the tickets available in a span.
+     * @param span The span.
+     * @return The available tickets as one range, possibly empty.
+     */
+    public TicketRange getAvailable(int span) {
+        int count = (int) (issuedUpTo[span] - claimedUpTo[span]);
+        return count == 0 ? TicketRange.empty() : new TicketRange(claimedUpTo[span] + 1, count);
+    }
+    /**
+     * Returns the number of tickets available across all spans.
+     * @return The ticket count.
+     */
+    public long getTicketCount() {
+        long count = 0;
+        for (int span = 0; span < claimedUpTo.length; span++) {
+            count += issuedUpTo[span] - claimedUpTo[span];
+        }
+        return count;
+    }
+    /**
+     * Returns the span a ticket ID belongs to.
+     * @param ticketId The ticket ID.
+     * @return The span.
+     */
+    public static int spanOf(long ticketId) {
+        return (int) ((ticketId - 1) / ID_SPAN);
+    }
+    /**
+     * Returns the base of a span: its first ticket ID minus one.
+     * @param span The span.
+     * @return The span's base.
+     */
+    public static long spanBase(int span) {
+        return span * ID_SPAN;
+    }
+}
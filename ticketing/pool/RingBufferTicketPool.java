@@ -0,0 +1,386 @@
+package com.ticketing.pool;
+import com.ticketing.logging.Logger;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+/**
+ * A {@link TicketPool} backed by a preallocated multi-producer/multi-consumer ring buffer.
+ * Vendors and customers reserve space and tickets with atomic counters instead of a shared monitor,
+ * so adds and removals that do not have to wait never take a lock. Only threads that are actually
+ * blocked (a vendor facing a full pool, a customer facing an empty one) park on a {@link Condition},
+ * and they are signalled only when the other side has freed space or published tickets.
+ */
+public class RingBufferTicketPool implements TicketPool {
+    private static final int SPIN_LIMIT = 100; // Busy-spins before yielding during a slot hand-over
+    private final Logger logger;
+    /**
+     * Ticket ID slots; a slot is written by exactly one vendor and read by exactly one customer per lap.
+     */
+    private final long[] slots;
+    /**
+     * Per-slot sequence numbers that hand a slot over between vendors and customers.
+     * A slot holding {@code position} is writable when its sequence equals {@code position}
+     * and readable when it equals {@code position + 1}.
+     */
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final int capacity;
+    private final AtomicLong tail = new AtomicLong(); // Next position a vendor writes
+    private final AtomicLong head = new AtomicLong(); // Next position a customer reads
+    private final AtomicInteger reserved = new AtomicInteger(); // Slots held by published or in-flight tickets
+    private final AtomicInteger available = new AtomicInteger(); // Published tickets not yet taken by a customer
+    private final AtomicInteger totalTickets = new AtomicInteger();
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition notFull = waitLock.newCondition();
+    private final Condition notEmpty = waitLock.newCondition();
+    private final AtomicInteger waitingVendors = new AtomicInteger();
+    private final AtomicInteger waitingCustomers = new AtomicInteger();
+    private final PoolListeners listeners = new PoolListeners();
+    private final PoolEventLog eventLog;
+    private final int ticketReleaseRate;
+    private final int customerRetrievalRate;
+    /**
+     * Constructs a RingBufferTicketPool with the specified initial configuration.
+     * The ring is allocated once, sized to the larger of {@code maxTicketCapacity} and {@code totalTickets}.
+     * @param logger               The logger used for logging operations.
+     * @param maxTicketCapacity    The maximum capacity of tickets in the pool.
+     * @param totalTickets         The initial number of tickets in the pool.
+     * @param ticketReleaseRate    The rate at which vendors release tickets.
+     * @param customerRetrievalRate The rate at which customers retrieve tickets.
+     */
+    public RingBufferTicketPool(Logger logger, int maxTicketCapacity, int totalTickets, int ticketReleaseRate, int customerRetrievalRate) {
+        this.logger = logger;
+        this.eventLog = new PoolEventLog(logger);
+        this.capacity = Math.max(1, Math.max(maxTicketCapacity, totalTickets));
+        int ringSize = Integer.highestOneBit(capacity);
+        if (ringSize < capacity) {
+            ringSize <<= 1; // Round up so positions map to slots with a mask
+        }
+        this.slots = new long[ringSize];
+        this.sequences = new AtomicLongArray(ringSize);
+        this.mask = ringSize - 1;
+        this.ticketReleaseRate = ticketReleaseRate;
+        this.customerRetrievalRate = customerRetrievalRate;
+        for (int i = 0; i < ringSize; i++) {
+            sequences.set(i, i);
+        }
+
+        // Pre-fill the pool with the initial tickets
+        for (int i = 0; i < totalTickets; i++) {
+            publish(i, i + 1);
+        }
+        tail.set(totalTickets);
+        reserved.set(totalTickets);
+        available.set(totalTickets);
+        this.totalTickets.set(totalTickets);
+    }
+    /**
+     * Publishes a batch of new tickets as one contiguous {@link TicketRange}.
+     * Space for the whole batch is reserved with a single compare-and-set and its ring positions with a
+     * single fetch-and-add. If the pool is at capacity, the calling thread parks until customers free space.
+     * The effective capacity is the smaller of {@code maxTicketCapacity} and the size the ring was built with.
+     * @param count             The number of tickets to publish.
+     * @param vendorId          The ID of the vendor publishing tickets.
+     * @param maxTicketCapacity The maximum capacity of the pool.
+     * @return The published range, or an empty range if the thread was interrupted while waiting.
+     */
+    @Override
+    public TicketRange release(int count, int vendorId, int maxTicketCapacity) {
+        if (count <= 0) {
+            return TicketRange.empty();
+        }
+        int limit = Math.min(maxTicketCapacity, capacity);
+        if (!tryReserve(count, limit)) {
+            long waitStart = System.nanoTime(); // Only the slow path is timed
+            if (!awaitSpace(count, limit)) {
+                logger.log("[LOG] Vendor thread interrupted during addTickets.");
+                return TicketRange.empty(); // Exit if interrupted
+            }
+            listeners.vendorWaited(vendorId, System.nanoTime() - waitStart);
+        }
+        return publishBatch(count, vendorId);
+    }
+    /**
+     * Publishes a batch of new tickets if it fits within the pool's capacity right now, without waiting.
+     * @param count             The number of tickets to publish.
+     * @param vendorId          The ID of the vendor publishing tickets.
+     * @param maxTicketCapacity The maximum capacity of the pool.
+     * @return The published range, or an empty range if the batch does not fit.
+     */
+    @Override
+    public TicketRange tryRelease(int count, int vendorId, int maxTicketCapacity) {
+        if (count <= 0 || !tryReserve(count, Math.min(maxTicketCapacity, capacity))) {
+            return TicketRange.empty();
+        }
+        return publishBatch(count, vendorId);
+    }
+    /**
+     * Writes a batch whose space has already been reserved into the ring and announces it.
+     */
+    private TicketRange publishBatch(int count, int vendorId) {
+        long position = tail.getAndAdd(count);
+        for (int i = 0; i < count; i++) {
+            publish(position + i, position + i + 1); // Ticket IDs follow ring positions, so they are unique
+        }
+        available.addAndGet(count);
+        totalTickets.addAndGet(count);
+        signalWaiters(waitingCustomers, notEmpty); // Wake customers waiting for tickets
+        TicketRange released = new TicketRange(position + 1, count);
+        listeners.released(vendorId, released, available.get());
+        // Log outside the slot hand-over so customers never spin behind file I/O
+        eventLog.released(vendorId, released);
+        return released;
+    }
+    /**
+     * Claims up to {@code count} of the oldest tickets as one contiguous {@link TicketRange}.
+     * The tickets are taken with a single compare-and-set and their ring positions with a single
+     * fetch-and-add, so never more than are available. If the pool is empty, the calling thread parks
+     * until a vendor publishes tickets.
+     * @param count      The maximum number of tickets to claim.
+     * @param customerId The ID of the customer claiming tickets.
+     * @return The claimed range, or an empty range if the thread was interrupted while waiting.
+     */
+    @Override
+    public TicketRange claim(int count, int customerId) {
+        if (count <= 0) {
+            return TicketRange.empty();
+        }
+        int taken = tryTake(count);
+        if (taken == 0) {
+            long waitStart = System.nanoTime(); // Only the slow path is timed
+            taken = awaitTickets(count);
+            if (taken == 0) {
+                logger.log("[LOG] Customer thread interrupted during removeTicket.");
+                return TicketRange.empty(); // Exit if interrupted
+            }
+            listeners.customerWaited(customerId, System.nanoTime() - waitStart);
+        }
+        return consumeBatch(taken, customerId);
+    }
+    /**
+     * Claims up to {@code count} of the oldest tickets if any are available right now, without waiting.
+     * @param count      The maximum number of tickets to claim.
+     * @param customerId The ID of the customer claiming tickets.
+     * @return The claimed range, or an empty range if the pool is empty.
+     */
+    @Override
+    public TicketRange tryClaim(int count, int customerId) {
+        int taken = count <= 0 ? 0 : tryTake(count);
+        if (taken == 0) {
+            return TicketRange.empty();
+        }
+        return consumeBatch(taken, customerId);
+    }
+    /**
+     * Reads a batch of tickets that have already been taken out of the ring and announces it.
+     */
+    private TicketRange consumeBatch(int taken, int customerId) {
+        long position = head.getAndAdd(taken);
+        long firstTicketId = consume(position);
+        for (int i = 1; i < taken; i++) {
+            consume(position + i); // IDs in consecutive positions are consecutive
+        }
+        reserved.addAndGet(-taken);
+        totalTickets.addAndGet(-taken);
+        signalWaiters(waitingVendors, notFull); // Wake vendors waiting for space
+        TicketRange claimed = new TicketRange(firstTicketId, taken);
+        listeners.claimed(customerId, claimed, available.get());
+        eventLog.claimed(customerId, claimed);
+        return claimed;
+    }
+    /**
+     * Returns the current number of tickets available in the pool.
+     * @return The number of tickets currently in the pool.
+     */
+    @Override
+    public int getTicketCount() {
+        return available.get();
+    }
+    /**
+     * Returns the total number of tickets managed by the pool so far.
+     * @return The total number of tickets managed.
+     */
+    @Override
+    public int getTotalTickets() {
+        return totalTickets.get();
+    }
+    /**
+     * Registers a listener that is notified after every published or claimed batch.
+     * @param listener The listener to register.
+     */
+    @Override
+    public void addListener(PoolListener listener) {
+        listeners.add(listener);
+    }
+    /**
+     * Captures the pool's contents: ticket IDs follow ring positions, so the read and write positions
+     * are the highest claimed and issued IDs.
+     * @return The pool's state, a single span.
+     */
+    @Override
+    public PoolState exportState() {
+        return new PoolState(new long[] {head.get()}, new long[] {tail.get()});
+    }
+    /**
+     * Replaces the pool's contents with a previously captured state, placing each ticket at the ring
+     * position its ID corresponds to.
+     * @param state The state to restore.
+     * @throws IllegalStateException if the state has more than one span or more tickets than the ring holds.
+     */
+    @Override
+    public void restoreState(PoolState state) {
+        if (state.getSpanCount() != 1) {
+            throw new IllegalStateException("The ring-buffer pool holds one span of ticket IDs but the saved state has " + state.getSpanCount() + ".");
+        }
+        int count = state.getAvailable(0).getCount();
+        if (count > capacity) {
+            throw new IllegalStateException("The saved state holds " + count + " tickets but the ring holds " + capacity + ".");
+        }
+        long first = state.getClaimedUpTo(0);
+        long last = state.getIssuedUpTo(0);
+        waitLock.lock();
+        try {
+            for (int i = 0; i < slots.length; i++) {
+                long position = first + i;
+                int index = (int) position & mask;
+                if (position < last) {
+                    slots[index] = position + 1;
+                    sequences.set(index, position + 1); // Published and readable
+                } else {
+                    sequences.set(index, position); // Free for the vendor that reaches this position
+                }
+            }
+            head.set(first);
+            tail.set(last);
+            reserved.set(count);
+            available.set(count);
+            totalTickets.set(count);
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            waitLock.unlock();
+        }
+        listeners.restored(state);
+    }
+    /**
+     * Reserves space for {@code count} tickets if that keeps the pool within {@code limit}.
+     */
+    private boolean tryReserve(int count, int limit) {
+        while (true) {
+            int current = reserved.get();
+            if (current + count > limit) {
+                return false;
+            }
+            if (reserved.compareAndSet(current, current + count)) {
+                return true;
+            }
+        }
+    }
+    /**
+     * Takes up to {@code count} published tickets, returning how many were taken (zero if the pool is empty).
+     */
+    private int tryTake(int count) {
+        while (true) {
+            int current = available.get();
+            if (current == 0) {
+                return 0;
+            }
+            int taken = Math.min(current, count);
+            if (available.compareAndSet(current, current - taken)) {
+                return taken;
+            }
+        }
+    }
+    /**
+     * Parks the calling vendor until space for {@code count} tickets has been reserved.
+     * @return {@code false} if the thread was interrupted while waiting.
+     */
+    private boolean awaitSpace(int count, int limit) {
+        waitingVendors.incrementAndGet();
+        waitLock.lock();
+        try {
+            while (!tryReserve(count, limit)) {
+                notFull.await(); // Wait if the pool is full
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waitLock.unlock();
+            waitingVendors.decrementAndGet();
+        }
+    }
+    /**
+     * Parks the calling customer until at least one ticket has been taken.
+     * @return The number of tickets taken, or zero if the thread was interrupted while waiting.
+     */
+    private int awaitTickets(int count) {
+        waitingCustomers.incrementAndGet();
+        waitLock.lock();
+        try {
+            int taken;
+            while ((taken = tryTake(count)) == 0) {
+                notEmpty.await(); // Wait if no tickets are available
+            }
+            return taken;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            waitLock.unlock();
+            waitingCustomers.decrementAndGet();
+        }
+    }
+    /**
+     * Signals the threads parked on {@code condition}, taking the lock only when someone is waiting.
+     * Waiters register before re-checking the counters under the lock, so no wakeup is lost.
+     */
+    private void signalWaiters(AtomicInteger waiting, Condition condition) {
+        if (waiting.get() == 0) {
+            return;
+        }
+        waitLock.lock();
+        try {
+            condition.signalAll();
+        } finally {
+            waitLock.unlock();
+        }
+    }
+    /**
+     * Writes a ticket into the slot for {@code position} once its previous occupant has been read.
+     */
+    private void publish(long position, long ticketId) {
+        int index = (int) position & mask;
+        for (int spins = 0; sequences.get(index) != position; spins++) {
+            backOff(spins); // A customer is still reading the previous lap
+        }
+        slots[index] = ticketId;
+        sequences.set(index, position + 1);
+    }
+    /**
+     * Reads the ticket ID at {@code position} once its vendor has finished writing it and frees the slot.
+     */
+    private long consume(long position) {
+        int index = (int) position & mask;
+        for (int spins = 0; sequences.get(index) != position + 1; spins++) {
+            backOff(spins); // The vendor that reserved this slot is still writing it
+        }
+        long ticketId = slots[index];
+        sequences.set(index, position + slots.length);
+        return ticketId;
+    }
+    /**
+     * Waits briefly for another thread to finish a slot hand-over: spin first, then yield the CPU
+     * so the thread being waited for can run even when threads outnumber cores.
+     */
+    private static void backOff(int spins) {
+        if (spins < SPIN_LIMIT) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.ticketing.pool;
+import com.ticketing.logging.Logger;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+/**
+ * A {@link TicketPool} split into independent {@link TicketShard}s so that vendors and customers on
+ * different cores rarely touch the same lock or cache line.
+ * Each vendor publishes to its home shard and each customer takes from its home shard (chosen by ID),
+ * stealing from the other shards in turn when its own runs dry. The capacity limit is enforced across
+ * all shards with a {@link LongAdder}: a vendor first adds its batch to the counter and backs out if the
+ * sum then exceeds the limit, so concurrent vendors never overfill the pool between them.
+ * As with {@link RingBufferTicketPool}, threads only take the shared wait lock when they actually have to wait.
+ * <p>
+ * Ticket IDs are unique but not dense: shard {@code i} numbers its tickets from {@code i * 2^40 + 1}.
+ * {@link #getTicketCount()} reads the counter without locking any shard, so while batches are in flight
+ * it can briefly include tickets that are reserved but not yet queued.
+ */
+public class ShardedTicketPool implements TicketPool {
+    private final Logger logger;
+    private final TicketShard[] shards;
+    private final LongAdder occupancy = new LongAdder(); // Tickets queued or reserved, across all shards
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition notFull = waitLock.newCondition();
+    private final Condition notEmpty = waitLock.newCondition();
+    private final AtomicInteger waitingVendors = new AtomicInteger();
+    private final AtomicInteger waitingCustomers = new AtomicInteger();
+    private final PoolListeners listeners = new PoolListeners();
+    private final PoolEventLog eventLog;
+    private final int ticketReleaseRate;
+    private final int customerRetrievalRate;
+    /**
+     * Constructs a ShardedTicketPool with the specified initial configuration.
+     * The initial tickets are spread evenly over the shards.
+     * @param logger               The logger used for logging operations.
+     * @param shardCount           The number of shards, typically the number of cores.
+     * @param maxTicketCapacity    The maximum capacity of tickets in the pool.
+     * @param totalTickets         The initial number of tickets in the pool.
+     * @param ticketReleaseRate    The rate at which vendors release tickets.
+     * @param customerRetrievalRate The rate at which customers retrieve tickets.
+     */
+    public ShardedTicketPool(Logger logger, int shardCount, int maxTicketCapacity, int totalTickets, int ticketReleaseRate, int customerRetrievalRate) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("A sharded pool needs at least one shard.");
+        }
+        this.logger = logger;
+        this.eventLog = new PoolEventLog(logger);
+        this.ticketReleaseRate = ticketReleaseRate;
+        this.customerRetrievalRate = customerRetrievalRate;
+        this.shards = new TicketShard[shardCount];
+        int shardCapacity = Math.max(maxTicketCapacity, totalTickets) / shardCount + 1;
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new TicketShard(i, shardCapacity);
+        }
+
+        // Pre-fill the pool with the initial tickets
+        for (int i = 0; i < shardCount; i++) {
+            int share = totalTickets / shardCount + (i < totalTickets % shardCount ? 1 : 0);
+            if (share > 0) {
+                shards[i].add(share);
+            }
+        }
+        occupancy.add(totalTickets);
+    }
+    /**
+     * Publishes a batch of new tickets to the vendor's home shard as one contiguous {@link TicketRange}.
+     * If the batch would take the pool over {@code maxTicketCapacity}, the calling thread waits until
+     * customers free space.
+     * @param count             The number of tickets to publish.
+     * @param vendorId          The ID of the vendor publishing tickets.
+     * @param maxTicketCapacity The maximum capacity of the pool.
+     * @return The published range, or an empty range if the thread was interrupted while waiting.
+     */
+    @Override
+    public TicketRange release(int count, int vendorId, int maxTicketCapacity) {
+        if (count <= 0) {
+            return TicketRange.empty();
+        }
+        if (!tryReserve(count, maxTicketCapacity, true)) {
+            long waitStart = System.nanoTime(); // Only the slow path is timed
+            if (!awaitSpace(count, maxTicketCapacity)) {
+                logger.log("[LOG] Vendor thread interrupted during addTickets.");
+                return TicketRange.empty(); // Exit if interrupted
+            }
+            listeners.vendorWaited(vendorId, System.nanoTime() - waitStart);
+        }
+        return publish(count, vendorId);
+    }
+    /**
+     * Publishes a batch of new tickets if it fits within the pool's capacity right now, without waiting.
+     * @param count             The number of tickets to publish.
+     * @param vendorId          The ID of the vendor publishing tickets.
+     * @param maxTicketCapacity The maximum capacity of the pool.
+     * @return The published range, or an empty range if the batch does not fit.
+     */
+    @Override
+    public TicketRange tryRelease(int count, int vendorId, int maxTicketCapacity) {
+        if (count <= 0 || !tryReserve(count, maxTicketCapacity, true)) {
+            return TicketRange.empty();
+        }
+        return publish(count, vendorId);
+    }
+    /**
+     * Claims up to {@code count} of the oldest tickets of one shard as one contiguous {@link TicketRange}.
+     * The customer's home shard is tried first, then every other shard in turn. If the whole pool is
+     * empty, the calling thread waits until a vendor publishes tickets.
+     * @param count      The maximum number of tickets to claim.
+     * @param customerId The ID of the customer claiming tickets.
+     * @return The claimed range, or an empty range if the thread was interrupted while waiting.
+     */
+    @Override
+    public TicketRange claim(int count, int customerId) {
+        if (count <= 0) {
+            return TicketRange.empty();
+        }
+        TicketRange claimed = takeAny(count, customerId);
+        if (claimed.isEmpty()) {
+            long waitStart = System.nanoTime(); // Only the slow path is timed
+            claimed = awaitTickets(count, customerId);
+            if (claimed.isEmpty()) {
+                logger.log("[LOG] Customer thread interrupted during removeTicket.");
+                return TicketRange.empty(); // Exit if interrupted
+            }
+            listeners.customerWaited(customerId, System.nanoTime() - waitStart);
+        }
+        return announceClaim(claimed, customerId);
+    }
+    /**
+     * Claims up to {@code count} tickets from the customer's home shard or any other shard, without waiting.
+     * @param count      The maximum number of tickets to claim.
+     * @param customerId The ID of the customer claiming tickets.
+     * @return The claimed range, or an empty range if every shard is empty.
+     */
+    @Override
+    public TicketRange tryClaim(int count, int customerId) {
+        if (count <= 0) {
+            return TicketRange.empty();
+        }
+        TicketRange claimed = takeAny(count, customerId);
+        return claimed.isEmpty() ? claimed : announceClaim(claimed, customerId);
+    }
+    /**
+     * Returns the approximate number of tickets available in the pool, without locking any shard.
+     * @return The number of tickets currently in the pool.
+     */
+    @Override
+    public int getTicketCount() {
+        return (int) Math.max(0, occupancy.sum());
+    }
+    /**
+     * Returns the total number of tickets managed by the pool so far.
+     * @return The total number of tickets managed.
+     */
+    @Override
+    public int getTotalTickets() {
+        return getTicketCount();
+    }
+    /**
+     * Registers a listener that is notified after every published or claimed batch.
+     * @param listener The listener to register.
+     */
+    @Override
+    public void addListener(PoolListener listener) {
+        listeners.add(listener);
+    }
+    /**
+     * Captures the pool's contents, one span per shard.
+     * @return The pool's state.
+     */
+    @Override
+    public PoolState exportState() {
+        long[] claimedUpTo = new long[shards.length];
+        long[] issuedUpTo = new long[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i].exportTo(i, claimedUpTo, issuedUpTo);
+        }
+        return new PoolState(claimedUpTo, issuedUpTo);
+    }
+    /**
+     * Replaces the pool's contents with a previously captured state, span {@code i} going to shard {@code i}.
+     * @param state The state to restore.
+     * @throws IllegalStateException if the state has more spans than the pool has shards.
+     */
+    @Override
+    public void restoreState(PoolState state) {
+        if (state.getSpanCount() > shards.length) {
+            throw new IllegalStateException("The saved state has " + state.getSpanCount() + " spans of ticket IDs but the pool has " + shards.length + " shards.");
+        }
+        for (int i = 0; i < shards.length; i++) {
+            long base = PoolState.spanBase(i);
+            if (i < state.getSpanCount()) {
+                shards[i].restore(state.getClaimedUpTo(i), state.getIssuedUpTo(i));
+            } else {
+                shards[i].restore(base, base);
+            }
+        }
+        occupancy.reset();
+        occupancy.add(state.getTicketCount());
+        signalWaiters(waitingCustomers, notEmpty);
+        signalWaiters(waitingVendors, notFull);
+        listeners.restored(state);
+    }
+    /**
+     * Returns the number of shards.
+     * @return The shard count.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+    /**
+     * Adds {@code count} to the occupancy if the result stays within {@code limit}, backing out otherwise.
+     * Every reservation reads the sum after adding to it, so of any set of reservations that succeed, the
+     * last one has seen all the others and none can take the pool past the limit. Two overlapping attempts
+     * can both back out although one would have fitted, so a failed first attempt wakes the waiting vendors
+     * to try again; their retries are serialised by the wait lock and cannot collide with each other.
+     * @param firstAttempt Whether the caller is not yet waiting for space.
+     */
+    private boolean tryReserve(int count, int limit, boolean firstAttempt) {
+        occupancy.add(count);
+        if (occupancy.sum() <= limit) {
+            return true;
+        }
+        occupancy.add(-count);
+        if (firstAttempt) {
+            signalWaiters(waitingVendors, notFull);
+        }
+        return false;
+    }
+    /**
+     * Queues a reserved batch on the vendor's home shard, then wakes waiting customers and announces it.
+     */
+    private TicketRange publish(int count, int vendorId) {
+        TicketRange released = shards[home(vendorId)].add(count);
+        signalWaiters(waitingCustomers, notEmpty); // Wake customers waiting for tickets
+        listeners.released(vendorId, released, getTicketCount());
+        eventLog.released(vendorId, released);
+        return released;
+    }
+    /**
+     * Takes tickets from the customer's home shard, or steals them from the next non-empty shard.
+     */
+    private TicketRange takeAny(int count, int customerId) {
+        int home = home(customerId);
+        for (int i = 0; i < shards.length; i++) {
+            TicketRange taken = shards[(home + i) % shards.length].take(count);
+            if (!taken.isEmpty()) {
+                occupancy.add(-taken.getCount());
+                signalWaiters(waitingVendors, notFull); // Wake vendors waiting for space
+                return taken;
+            }
+        }
+        return TicketRange.empty();
+    }
+    private TicketRange announceClaim(TicketRange claimed, int customerId) {
+        listeners.claimed(customerId, claimed, getTicketCount());
+        eventLog.claimed(customerId, claimed);
+        return claimed;
+    }
+    private int home(int actorId) {
+        return Math.floorMod(actorId, shards.length);
+    }
+    /**
+     * Parks the calling vendor until space for {@code count} tickets has been reserved.
+     * @return {@code false} if the thread was interrupted while waiting.
+     */
+    private boolean awaitSpace(int count, int limit) {
+        waitingVendors.incrementAndGet();
+        waitLock.lock();
+        try {
+            while (!tryReserve(count, limit, false)) {
+                notFull.await(); // Wait if the pool is full
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waitLock.unlock();
+            waitingVendors.decrementAndGet();
+        }
+    }
+    /**
+     * Parks the calling customer until it has taken tickets from some shard.
+     * @return The tickets taken, or an empty range if the thread was interrupted while waiting.
+     */
+    private TicketRange awaitTickets(int count, int customerId) {
+        waitingCustomers.incrementAndGet();
+        waitLock.lock();
+        try {
+            TicketRange taken;
+            while ((taken = takeAny(count, customerId)).isEmpty()) {
+                notEmpty.await(); // Wait if no tickets are available
+            }
+            return taken;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return TicketRange.empty();
+        } finally {
+            waitLock.unlock();
+            waitingCustomers.decrementAndGet();
+        }
+    }
+    /**
+     * Signals the threads parked on {@code condition}, taking the lock only when someone is waiting.
+     * Waiters register before re-checking the shards under the lock, so no wakeup is lost.
+     */
+    private void signalWaiters(AtomicInteger waiting, Condition condition) {
+        if (waiting.get() == 0) {
+            return;
+        }
+        waitLock.lock();
+        try {
+            condition.signalAll();
+        } finally {
+            waitLock.unlock();
+        }
+    }
+}
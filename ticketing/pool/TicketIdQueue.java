@@ -0,0 +1,107 @@
+package com.ticketing.pool;
+import java.util.NoSuchElementException;
+/**
+ * A first-in, first-out queue of primitive ticket IDs backed by a growable circular {@code long[]}.
+ * Adding and taking are O(1) and allocation-free; the array only grows (doubling) when it is full.
+ * This class is not thread-safe and is meant to be guarded by the owning pool.
+ */
+class TicketIdQueue implements java.io.Serializable {
+    private static final int MIN_CAPACITY = 16;
+    private long[] ids;
+    private int head; // Index of the oldest ticket ID
+    private int size;
+    /**
+     * Constructs a queue able to hold at least {@code initialCapacity} IDs before growing.
+     * @param initialCapacity The expected number of ticket IDs.
+     */
+    TicketIdQueue(int initialCapacity) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < initialCapacity) {
+            capacity <<= 1;
+        }
+        this.ids = new long[capacity];
+    }
+    /**
+     * Removes every ticket ID from the queue.
+     */
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+    /**
+     * Appends a ticket ID to the tail of the queue.
+     * @param id The ticket ID to add.
+     */
+    void add(long id) {
+        if (size == ids.length) {
+            grow();
+        }
+        ids[(head + size) & (ids.length - 1)] = id;
+        size++;
+    }
+    /**
+     * Appends {@code count} consecutive ticket IDs starting at {@code firstId}.
+     * @param firstId The first ticket ID to add.
+     * @param count   The number of IDs to add.
+     */
+    void addRun(long firstId, int count) {
+        for (int i = 0; i < count; i++) {
+            add(firstId + i);
+        }
+    }
+    /**
+     * Removes {@code count} ticket IDs from the head of the queue in one step.
+     * Callers that only ever add consecutive runs get back the first ID of a consecutive run.
+     * @param count The number of IDs to remove.
+     * @return The first (oldest) ticket ID removed.
+     * @throws NoSuchElementException if the queue holds fewer than {@code count} IDs.
+     */
+    long takeRun(int count) {
+        if (count <= 0 || count > size) {
+            throw new NoSuchElementException("Cannot take " + count + " of " + size + " tickets");
+        }
+        long firstId = ids[head];
+        head = (head + count) & (ids.length - 1);
+        size -= count;
+        return firstId;
+    }
+    /**
+     * Removes and returns the ticket ID at the head of the queue.
+     * @return The oldest ticket ID.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    long take() {
+        if (size == 0) {
+            throw new NoSuchElementException("No tickets in the queue");
+        }
+        long id = ids[head];
+        head = (head + 1) & (ids.length - 1);
+        size--;
+        return id;
+    }
+    /**
+     * Returns the number of ticket IDs in the queue.
+     * @return The queue size.
+     */
+    int size() {
+        return size;
+    }
+    /**
+     * Checks whether the queue holds no ticket IDs.
+     * @return {@code true} if the queue is empty.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+    /**
+     * Doubles the backing array, unwrapping the contents so the head starts at index zero.
+     */
+    private void grow() {
+        long[] grown = new long[ids.length << 1];
+        int firstPart = Math.min(size, ids.length - head);
+        System.arraycopy(ids, head, grown, 0, firstPart);
+        System.arraycopy(ids, 0, grown, firstPart, size - firstPart);
+        ids = grown;
+        head = 0;
+    }
+}
@@ -1,38 +1,59 @@
 package com.ticketing.pool;
-import com.ticketing.logging.Logger;
-import java.util.LinkedList;
 /**
  * Represents a pool of tickets that can be managed concurrently by vendors and customers.
- * The pool allows vendors to add tickets and customers to retrieve tickets, with synchronized methods
- * to ensure thread safety during operations.
+ * Vendors add tickets to the pool and customers retrieve them. Implementations must be
+ * thread-safe: adding blocks while the pool is at capacity and retrieving blocks while it is empty.
+ * Tickets are held as primitive {@code long} IDs; a readable name is only built when a ticket is
+ * rendered for a log line or an API response, see {@link #ticketName(long)}. Per-ticket log lines use the
+ * templates {@link #RELEASED_TICKET_LOG} and {@link #CLAIMED_TICKET_LOG}, which render tickets the same way
+ * but only on the logger's writing thread.
+ * The backend used by the application is chosen in {@link com.ticketing.config.AppConfig}.
  */
-public class TicketPool implements java.io.Serializable {
-    private LinkedList<String> tickets = new LinkedList<>();
-    private final Logger logger;
-    private final int maxTicketCapacity;
-    private int totalTickets;
-    private int ticketReleaseRate;
-    private int customerRetrievalRate;
+public interface TicketPool extends java.io.Serializable {
     /**
-     * Constructs a TicketPool with the specified initial configuration.
-     * @param logger               The logger used for logging operations.
-     * @param maxTicketCapacity    The maximum capacity of tickets in the pool.
-     * @param totalTickets         The initial number of tickets in the pool.
-     * @param ticketReleaseRate    The rate at which vendors release tickets.
-     * @param customerRetrievalRate The rate at which customers retrieve tickets.
+     * Log template for a published ticket, taking the vendor ID and the ticket ID.
      */
-    public TicketPool(Logger logger, int maxTicketCapacity, int totalTickets, int ticketReleaseRate, int customerRetrievalRate) {
-        this.logger = logger;
-        this.maxTicketCapacity = maxTicketCapacity;
-        this.totalTickets = totalTickets;
-        this.ticketReleaseRate = ticketReleaseRate;
-        this.customerRetrievalRate = customerRetrievalRate;
-
-        // Pre-fill the pool with the initial tickets
-        for (int i = 1; i <= totalTickets; i++) {
-            tickets.add("Ticket " + i);
-        }
-    }
+    String RELEASED_TICKET_LOG = "[LOG] Vendor {} added Ticket {}";
+    /**
+     * Log template for a claimed ticket, taking the customer ID and the ticket ID.
+     */
+    String CLAIMED_TICKET_LOG = "[LOG] Customer {} purchased Ticket {}";
+    /**
+     * Publishes a batch of new tickets as one contiguous {@link TicketRange}.
+     * The whole batch is reserved in a single atomic step; if it does not fit within
+     * {@code maxTicketCapacity}, the calling thread waits until space becomes available.
+     * @param count             The number of tickets to publish.
+     * @param vendorId          The ID of the vendor publishing tickets.
+     * @param maxTicketCapacity The maximum capacity of the pool.
+     * @return The published range, or an empty range if the thread was interrupted while waiting.
+     */
+    TicketRange release(int count, int vendorId, int maxTicketCapacity);
+    /**
+     * Claims up to {@code count} of the oldest tickets as one contiguous {@link TicketRange}.
+     * The tickets are taken in a single atomic step and never more than are available;
+     * if the pool is empty, the calling thread waits until tickets are published.
+     * @param count      The maximum number of tickets to claim.
+     * @param customerId The ID of the customer claiming tickets.
+     * @return The claimed range, or an empty range if the thread was interrupted while waiting.
+     */
+    TicketRange claim(int count, int customerId);
+    /**
+     * Publishes a batch of new tickets only if it fits within {@code maxTicketCapacity} right now.
+     * Never blocks, so it can be called from a shared scheduler thread.
+     * @param count             The number of tickets to publish.
+     * @param vendorId          The ID of the vendor publishing tickets.
+     * @param maxTicketCapacity The maximum capacity of the pool.
+     * @return The published range, or an empty range if the batch does not fit.
+     */
+    TicketRange tryRelease(int count, int vendorId, int maxTicketCapacity);
+    /**
+     * Claims up to {@code count} of the oldest tickets only if the pool is not empty right now.
+     * Never blocks, so it can be called from a shared scheduler thread.
+     * @param count      The maximum number of tickets to claim.
+     * @param customerId The ID of the customer claiming tickets.
+     * @return The claimed range, or an empty range if the pool is empty.
+     */
+    TicketRange tryClaim(int count, int customerId);
     /**
      * Adds tickets to the pool up to the specified release rate.
      * If the pool reaches its maximum capacity, the calling thread waits until space becomes available.
@@ -40,23 +61,8 @@ public class TicketPool implements java.io.Serializable {
      * @param vendorId          The ID of the vendor adding tickets.
      * @param maxTicketCapacity The maximum capacity of the pool.
      */
-    public synchronized void addTickets(int ticketReleaseRate, int vendorId, int maxTicketCapacity) {
-        while (tickets.size() + ticketReleaseRate > maxTicketCapacity) {
-            try {
-                wait();  // Wait if the pool is full
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.log("[LOG] Vendor thread interrupted during addTickets.");
-                return; // Exit if interrupted
-            }
-        }
-        for (int i = 0; i < ticketReleaseRate; i++) {
-            String ticket = "Ticket " + (tickets.size() + 1);
-            tickets.add(ticket);
-            totalTickets++;
-            logger.log("[LOG] Vendor " + vendorId + " added " + ticket);
-        }
-        notifyAll(); // Notify waiting threads
+    default void addTickets(int ticketReleaseRate, int vendorId, int maxTicketCapacity) {
+        release(ticketReleaseRate, vendorId, maxTicketCapacity);
     }
     /**
      * Removes tickets from the pool at the specified retrieval rate.
@@ -64,37 +70,45 @@ public class TicketPool implements java.io.Serializable {
      * @param customerRetrievalRate The number of tickets to retrieve.
      * @param customerId            The ID of the customer retrieving tickets.
      */
-    public synchronized void removeTicket(int customerRetrievalRate, int customerId) {
-        while (tickets.isEmpty()) {
-            try {
-                wait(); // Wait if no tickets are available
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.log("[LOG] Customer thread interrupted during removeTicket.");
-                return; // Exit if interrupted
-            }
-        }
-        for (int i = 0; i < customerRetrievalRate; i++) {
-            String ticket = "Ticket " + (tickets.size() - 1);
-            tickets.remove(ticket); //remove method can be used to remove a specific ticket, but it requires you to have the reference to that exact ticket object
-            totalTickets--;
-            logger.log("[LOG] Customer " + customerId + " purchased " + ticket);
-        }
-        notifyAll(); // Notify waiting threads
+    default void removeTicket(int customerRetrievalRate, int customerId) {
+        claim(customerRetrievalRate, customerId);
     }
     /**
      * Returns the current number of tickets available in the pool.
      * @return The number of tickets currently in the pool.
      */
-    public synchronized int getTicketCount() {
-        return tickets.size(); // tickets is the list of tickets // Number of available tickets in the pool
-    }
+    int getTicketCount();
     /**
      * Returns the total number of tickets managed by the pool so far.
      * @return The total number of tickets managed.
      */
-    public synchronized int getTotalTickets() {
-        return totalTickets;
+    int getTotalTickets();
+    /**
+     * Registers a listener that is notified after every published or claimed batch.
+     * @param listener The listener to register.
+     */
+    void addListener(PoolListener listener);
+    /**
+     * Captures the pool's contents so they can be persisted.
+     * The result is only consistent while no vendor or customer is using the pool.
+     * @return The pool's state.
+     */
+    PoolState exportState();
+    /**
+     * Replaces the pool's contents with a previously captured state.
+     * Must be called while no vendor or customer is using the pool. Registered listeners are told about the
+     * new contents once they are in place.
+     * @param state The state to restore.
+     * @throws IllegalStateException if this backend cannot hold the state, for example because it was
+     *                               captured from a sharded pool with more shards.
+     */
+    void restoreState(PoolState state);
+    /**
+     * Renders a ticket ID in the form used by log lines and API responses.
+     * @param ticketId The ticket ID.
+     * @return The display name of the ticket, e.g. {@code "Ticket 42"}.
+     */
+    static String ticketName(long ticketId) {
+        return "Ticket " + ticketId;
     }
 }
-
@@ -0,0 +1,76 @@
+package com.ticketing.pool;
+/**
+ * An immutable, contiguous range of ticket IDs published or claimed in a single pool operation.
+ * A range is represented by its first ticket ID and its size, so a batch of any size costs one small object.
+ */
+public final class TicketRange implements java.io.Serializable {
+    private static final TicketRange EMPTY = new TicketRange(0, 0);
+    private final long firstTicketId;
+    private final int count;
+    /**
+     * Constructs a range of {@code count} consecutive ticket IDs starting at {@code firstTicketId}.
+     * @param firstTicketId The first ticket ID in the range.
+     * @param count         The number of tickets in the range.
+     * @throws IllegalArgumentException if {@code count} is negative.
+     */
+    public TicketRange(long firstTicketId, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Ticket range size cannot be negative: " + count);
+        }
+        this.firstTicketId = firstTicketId;
+        this.count = count;
+    }
+    /**
+     * Returns the range holding no tickets, used when an operation was interrupted.
+     * @return The empty range.
+     */
+    public static TicketRange empty() {
+        return EMPTY;
+    }
+    /**
+     * Retrieves the first ticket ID in the range.
+     * @return The first ticket ID.
+     */
+    public long getFirstTicketId() {
+        return firstTicketId;
+    }
+    /**
+     * Retrieves the last ticket ID in the range.
+     * @return The last ticket ID, or {@code firstTicketId - 1} if the range is empty.
+     */
+    public long getLastTicketId() {
+        return firstTicketId + count - 1;
+    }
+    /**
+     * Retrieves the number of tickets in the range.
+     * @return The range size.
+     */
+    public int getCount() {
+        return count;
+    }
+    /**
+     * Checks whether the range holds no tickets.
+     * @return {@code true} if the range is empty.
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+    /**
+     * Checks whether a ticket ID falls inside the range.
+     * @param ticketId The ticket ID to check.
+     * @return {@code true} if the ticket belongs to the range.
+     */
+    public boolean contains(long ticketId) {
+        return ticketId >= firstTicketId && ticketId < firstTicketId + count;
+    }
+    @Override
+    public String toString() {
+        if (count == 0) {
+            return "no tickets";
+        }
+        if (count == 1) {
+            return TicketPool.ticketName(firstTicketId);
+        }
+        return "Tickets " + firstTicketId + "-" + getLastTicketId();
+    }
+}
@@ -0,0 +1,93 @@
+package com.ticketing.pool;
+import java.util.concurrent.locks.ReentrantLock;
+/**
+ * One sub-pool of a {@link ShardedTicketPool}: a {@link TicketIdQueue} with its own lock and its own ID range.
+ * Shard {@code i} issues IDs from span {@code i} (see {@link PoolState}), so IDs are unique across shards
+ * without any shared counter and every batch a shard issues is still one contiguous run.
+ * The shard does not enforce capacity; the owning pool does that across all shards.
+ */
+class TicketShard implements java.io.Serializable {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TicketIdQueue tickets;
+    private long nextTicketId;
+    /**
+     * The queue size, readable without the lock so that customers can skip empty shards cheaply.
+     */
+    private volatile int size;
+    /**
+     * Constructs an empty shard.
+     * @param index           The shard's position in the pool, which selects its ID range.
+     * @param initialCapacity The expected number of tickets held by the shard.
+     */
+    TicketShard(int index, int initialCapacity) {
+        this.tickets = new TicketIdQueue(initialCapacity);
+        this.nextTicketId = PoolState.spanBase(index) + 1;
+    }
+    /**
+     * Issues and queues {@code count} new tickets.
+     * @param count The number of tickets to add.
+     * @return The issued range.
+     */
+    TicketRange add(int count) {
+        lock.lock();
+        try {
+            TicketRange added = new TicketRange(nextTicketId, count);
+            tickets.addRun(nextTicketId, count);
+            nextTicketId += count;
+            size = tickets.size();
+            return added;
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Records the shard's highest claimed and issued IDs in {@code claimedUpTo[index]} and {@code issuedUpTo[index]}.
+     */
+    void exportTo(int index, long[] claimedUpTo, long[] issuedUpTo) {
+        lock.lock();
+        try {
+            issuedUpTo[index] = nextTicketId - 1;
+            claimedUpTo[index] = issuedUpTo[index] - tickets.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Replaces the shard's tickets with the IDs above {@code claimedUpTo} and up to {@code issuedUpTo}.
+     */
+    void restore(long claimedUpTo, long issuedUpTo) {
+        lock.lock();
+        try {
+            tickets.clear();
+            if (issuedUpTo > claimedUpTo) {
+                tickets.addRun(claimedUpTo + 1, (int) (issuedUpTo - claimedUpTo));
+            }
+            nextTicketId = issuedUpTo + 1;
+            size = tickets.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Takes up to {@code count} of the shard's oldest tickets.
+     * @param count The maximum number of tickets to take.
+     * @return The taken range, or an empty range if the shard is empty.
+     */
+    TicketRange take(int count) {
+        if (size == 0) {
+            return TicketRange.empty(); // Skip the lock when there is obviously nothing to take
+        }
+        lock.lock();
+        try {
+            int taken = Math.min(count, tickets.size());
+            if (taken == 0) {
+                return TicketRange.empty();
+            }
+            TicketRange range = new TicketRange(tickets.takeRun(taken), taken);
+            size = tickets.size();
+            return range;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
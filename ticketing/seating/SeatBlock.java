@@ -0,0 +1,49 @@
+package com.ticketing.seating;
+/**
+ * A block of adjacent seats in one row of a {@link Section}. Rows and seats are numbered from 1.
+ */
+public final class SeatBlock {
+    private final String section;
+    private final int row;
+    private final int firstSeat;
+    private final int count;
+    /**
+     * Constructs a block.
+     * @param section   The section's name.
+     * @param row       The row.
+     * @param firstSeat The lowest seat number in the block.
+     * @param count     The number of seats.
+     */
+    public SeatBlock(String section, int row, int firstSeat, int count) {
+        this.section = section;
+        this.row = row;
+        this.firstSeat = firstSeat;
+        this.count = count;
+    }
+    /**
+     * Retrieves the section's name.
+     * @return The section.
+     */
+    public String getSection() {return section;}
+    /**
+     * Retrieves the row.
+     * @return The row number.
+     */
+    public int getRow() {return row;}
+    /**
+     * Retrieves the lowest seat number in the block.
+     * @return The first seat number.
+     */
+    public int getFirstSeat() {return firstSeat;}
+    /**
+     * Retrieves the number of seats in the block.
+     * @return The seat count.
+     */
+    public int getCount() {return count;}
+    @Override
+    public String toString() {
+        return count == 1
+                ? "Section " + section + " Row " + row + " Seat " + firstSeat
+                : "Section " + section + " Row " + row + " Seats " + firstSeat + "-" + (firstSeat + count - 1);
+    }
+}
@@ -0,0 +1,64 @@
+package com.ticketing.seating;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+/**
+ * The reserved-seating inventory: a fixed set of {@link Section}s, alongside the general-admission
+ * {@link com.ticketing.pool.TicketPool}.
+ * <p>
+ * Sections are configured with {@code ticketing.seating.sections} as comma-separated
+ * {@code name:rows x seatsPerRow} entries, for example {@code A:20x30,B:10x40}. Without it there is no
+ * reserved seating.
+ */
+@Component
+public class SeatMap {
+    private final Map<String, Section> sections;
+    /**
+     * Constructs the seat map from its configuration.
+     * @param layout The sections, as {@code name:rows x seatsPerRow} entries separated by commas.
+     * @throws IllegalArgumentException if the layout cannot be parsed or names a section twice.
+     */
+    public SeatMap(@Value("${ticketing.seating.sections:}") String layout) {
+        Map<String, Section> parsed = new LinkedHashMap<>();
+        for (String entry : layout.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] nameAndSize = entry.trim().split(":");
+            String[] size = nameAndSize.length == 2 ? nameAndSize[1].split("x") : new String[0];
+            if (size.length != 2) {
+                throw new IllegalArgumentException("Expected name:rows x seatsPerRow in ticketing.seating.sections but found " + entry);
+            }
+            String name = nameAndSize[0].trim();
+            Section section = new Section(name, Integer.parseInt(size[0].trim()), Integer.parseInt(size[1].trim()));
+            if (parsed.put(name, section) != null) {
+                throw new IllegalArgumentException("Section " + name + " is configured twice.");
+            }
+        }
+        this.sections = Collections.unmodifiableMap(parsed);
+    }
+    /**
+     * Retrieves every section, in configuration order.
+     * @return The sections.
+     */
+    public Collection<Section> getSections() {
+        return sections.values();
+    }
+    /**
+     * Retrieves a section.
+     * @param name The section's name.
+     * @return The section.
+     * @throws NoSuchElementException if there is no such section.
+     */
+    public Section getSection(String name) {
+        Section section = sections.get(name);
+        if (section == null) {
+            throw new NoSuchElementException("No section named " + name + ".");
+        }
+        return section;
+    }
+}
@@ -0,0 +1,255 @@
+package com.ticketing.seating;
+import java.util.concurrent.atomic.AtomicLongArray;
+/**
+ * One section of reserved seating: rows of numbered seats, with a bitset of the seats that are still free.
+ * <p>
+ * Each row occupies whole 64-bit words, bit {@code i} of word {@code k} standing for seat {@code 64k + i} of
+ * the row, so a search never straddles two rows and works a word at a time: finding {@code n} adjacent free
+ * seats in a row takes O(words &times; log n) bit operations, however many seats the row has.
+ * <p>
+ * Seats are claimed by compare-and-set on the words they occupy. A claim that loses a race on one word gives
+ * back the words it has already taken, so a block of seats is claimed entirely or not at all, and searches
+ * simply try again with the seats that are left.
+ * <p>
+ * Rows and seats are numbered from 1, row 1 being the front row.
+ */
+public final class Section {
+    private final String name;
+    private final int rows;
+    private final int seatsPerRow;
+    private final int wordsPerRow;
+    private final AtomicLongArray free;
+    /**
+     * Constructs a section with every seat free.
+     * @param name        The section's name.
+     * @param rows        The number of rows.
+     * @param seatsPerRow The number of seats in each row.
+     * @throws IllegalArgumentException if the section has no seats.
+     */
+    Section(String name, int rows, int seatsPerRow) {
+        if (rows <= 0 || seatsPerRow <= 0) {
+            throw new IllegalArgumentException("Section " + name + " needs at least one row and one seat per row.");
+        }
+        this.name = name;
+        this.rows = rows;
+        this.seatsPerRow = seatsPerRow;
+        this.wordsPerRow = (seatsPerRow + 63) >>> 6;
+        this.free = new AtomicLongArray(Math.multiplyExact(rows, wordsPerRow));
+        long lastWord = (seatsPerRow & 63) == 0 ? -1L : (1L << (seatsPerRow & 63)) - 1; // No bits beyond the last seat
+        for (int row = 0; row < rows; row++) {
+            for (int k = 0; k < wordsPerRow; k++) {
+                free.set(row * wordsPerRow + k, k == wordsPerRow - 1 ? lastWord : -1L);
+            }
+        }
+    }
+    /**
+     * Retrieves the section's name.
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+    /**
+     * Retrieves the number of rows.
+     * @return The row count.
+     */
+    public int getRows() {
+        return rows;
+    }
+    /**
+     * Retrieves the number of seats in each row.
+     * @return The seats per row.
+     */
+    public int getSeatsPerRow() {
+        return seatsPerRow;
+    }
+    /**
+     * Counts the free seats in the section.
+     * @return The number of free seats.
+     */
+    public int getFreeSeats() {
+        int count = 0;
+        for (int i = 0; i < free.length(); i++) {
+            count += Long.bitCount(free.get(i));
+        }
+        return count;
+    }
+    /**
+     * Claims {@code count} adjacent seats in a row, choosing the free block closest to the middle of the row.
+     * @param row   The row, from 1.
+     * @param count The number of seats.
+     * @return The claimed seats, or {@code null} if the row has no {@code count} adjacent free seats.
+     * @throws IllegalArgumentException if the row does not exist or {@code count} is not positive.
+     */
+    public SeatBlock claimAdjacent(int row, int count) {
+        if (row < 1 || row > rows) {
+            throw new IllegalArgumentException("Section " + name + " has rows 1 to " + rows + ".");
+        }
+        checkCount(count);
+        return count > seatsPerRow ? null : claimInRow(row - 1, count, new long[wordsPerRow]);
+    }
+    /**
+     * Claims the best {@code count} adjacent seats in the section: the front-most row that has that many
+     * adjacent free seats, and within it the block closest to the middle.
+     * @param count The number of seats.
+     * @return The claimed seats, or {@code null} if no row has {@code count} adjacent free seats.
+     * @throws IllegalArgumentException if {@code count} is not positive.
+     */
+    public SeatBlock claimBestAvailable(int count) {
+        checkCount(count);
+        if (count > seatsPerRow) {
+            return null;
+        }
+        long[] starts = new long[wordsPerRow];
+        for (int row = 0; row < rows; row++) {
+            SeatBlock block = claimInRow(row, count, starts);
+            if (block != null) {
+                return block;
+            }
+        }
+        return null;
+    }
+    /**
+     * Frees a block of seats claimed from this section, for example when a hold expires.
+     * @param block The seats to free.
+     * @throws IllegalArgumentException if the block belongs to another section.
+     * @throws IllegalStateException    if some of the seats were already free.
+     */
+    public void release(SeatBlock block) {
+        if (!block.getSection().equals(name)) {
+            throw new IllegalArgumentException(block + " is not in section " + name + ".");
+        }
+        int base = (block.getRow() - 1) * wordsPerRow;
+        int start = block.getFirstSeat() - 1;
+        boolean alreadyFree = false;
+        for (int k = start >>> 6; k <= (start + block.getCount() - 1) >>> 6; k++) {
+            long mask = mask(k, start, block.getCount());
+            alreadyFree |= (free.getAndAccumulate(base + k, mask, (current, bits) -> current | bits) & mask) != 0;
+        }
+        if (alreadyFree) {
+            throw new IllegalStateException("Some of " + block + " were not claimed.");
+        }
+    }
+    /**
+     * Finds and claims the block closest to the middle of a row, searching again if another customer takes
+     * part of the chosen block first.
+     * @param starts Scratch space of one row's words.
+     */
+    private SeatBlock claimInRow(int row, int count, long[] starts) {
+        int base = row * wordsPerRow;
+        while (true) {
+            for (int k = 0; k < wordsPerRow; k++) {
+                starts[k] = free.get(base + k);
+            }
+            // Keep only the seats followed by count - 1 free seats, doubling the covered width each pass
+            for (int covered = 1; covered < count; ) {
+                int shift = Math.min(covered, count - covered);
+                andShifted(starts, shift);
+                covered += shift;
+            }
+            int start = nearest(starts, (seatsPerRow - count) / 2);
+            if (start < 0) {
+                return null;
+            }
+            if (tryClaim(base, start, count)) {
+                return new SeatBlock(name, row + 1, start + 1, count);
+            }
+        }
+    }
+    /**
+     * Clears the bits of a block word by word, giving back the words already cleared if a seat was taken.
+     */
+    private boolean tryClaim(int base, int start, int count) {
+        int first = start >>> 6;
+        int last = (start + count - 1) >>> 6;
+        for (int k = first; k <= last; k++) {
+            long mask = mask(k, start, count);
+            long current;
+            do {
+                current = free.get(base + k);
+                if ((current & mask) != mask) {
+                    for (int taken = first; taken < k; taken++) {
+                        long takenMask = mask(taken, start, count);
+                        free.getAndAccumulate(base + taken, takenMask, (value, bits) -> value | bits);
+                    }
+                    return false;
+                }
+            } while (!free.compareAndSet(base + k, current, current & ~mask));
+        }
+        return true;
+    }
+    /**
+     * Returns the bits of word {@code k} covered by seats {@code start} to {@code start + count - 1}.
+     */
+    private static long mask(int k, int start, int count) {
+        int low = Math.max(start - (k << 6), 0);
+        int high = Math.min(start + count - (k << 6), 64);
+        return (high == 64 ? -1L : (1L << high) - 1) & (-1L << low);
+    }
+    /**
+     * Computes {@code bits &= bits >>> shift} over the words of one row, treated as a single bitset.
+     * Works in place from the lowest word up, since each word only reads itself and higher words.
+     */
+    private static void andShifted(long[] bits, int shift) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        for (int k = 0; k < bits.length; k++) {
+            int source = k + wordShift;
+            long shifted = 0;
+            if (source < bits.length) {
+                shifted = bits[source] >>> bitShift;
+                if (bitShift != 0 && source + 1 < bits.length) {
+                    shifted |= bits[source + 1] << (64 - bitShift);
+                }
+            }
+            bits[k] &= shifted;
+        }
+    }
+    /**
+     * Returns the set bit closest to {@code target}, preferring the lower one on a tie, or -1 if none is set.
+     */
+    private static int nearest(long[] bits, int target) {
+        int above = nextSetBit(bits, target);
+        int below = previousSetBit(bits, target - 1);
+        if (below < 0) {
+            return above;
+        }
+        if (above < 0) {
+            return below;
+        }
+        return above - target < target - below ? above : below;
+    }
+    private static int nextSetBit(long[] bits, int from) {
+        int k = from >>> 6;
+        if (k >= bits.length) {
+            return -1;
+        }
+        long word = bits[k] & (-1L << (from & 63));
+        while (word == 0) {
+            if (++k == bits.length) {
+                return -1;
+            }
+            word = bits[k];
+        }
+        return (k << 6) + Long.numberOfTrailingZeros(word);
+    }
+    private static int previousSetBit(long[] bits, int from) {
+        if (from < 0) {
+            return -1;
+        }
+        int k = from >>> 6;
+        long word = bits[k] & (-1L >>> (63 - (from & 63)));
+        while (word == 0) {
+            if (--k < 0) {
+                return -1;
+            }
+            word = bits[k];
+        }
+        return (k << 6) + 63 - Long.numberOfLeadingZeros(word);
+    }
+    private static void checkCount(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("At least one seat must be requested.");
+        }
+    }
+}
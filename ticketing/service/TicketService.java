@@ -1,38 +1,94 @@
 package com.ticketing.service;
+import com.ticketing.admission.WaitingRoom;
 import com.ticketing.controller.TicketRequest;
+import com.ticketing.logging.EventCounts;
+import com.ticketing.logging.EventLog;
+import com.ticketing.logging.EventType;
+import com.ticketing.limit.PurchaseLimiter;
+import com.ticketing.pool.PoolSnapshot;
 import com.ticketing.pool.TicketPool;
+import com.ticketing.seating.SeatMap;
+import com.ticketing.seating.Section;
 import com.ticketing.thread.VendorThread;
 import com.ticketing.thread.CustomerThread;
+import com.ticketing.thread.ScheduledActorEngine;
+import com.ticketing.thread.ThreadMode;
+import com.ticketing.logging.LogCategory;
+import com.ticketing.logging.LogLevel;
+import com.ticketing.logging.LogSettings;
 import com.ticketing.logging.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 /**
  * Service class for managing the high-level operations of the ticketing system.
  * Responsibilities include starting/stopping threads, handling ticket operations,
  * saving and loading configurations, and managing logs.
+ * <p>
+ * Vendor and customer tasks run on an executor chosen by {@code ticketing.threads.mode}: one platform
+ * thread each ({@code PLATFORM}, the default), one virtual thread each ({@code VIRTUAL}), or a fixed pool
+ * of {@code ticketing.threads.pool-size} platform threads ({@code BOUNDED}). In {@code SCHEDULED} mode no
+ * thread belongs to a task: {@code ticketing.threads.scheduler-threads} scheduler threads tick every
+ * vendor and customer at its release or retrieval interval.
+ * <p>
+ * When a seating section is chosen, customers buy reserved seats from the {@link SeatMap} instead of
+ * general-admission tickets from the pool; vendors keep releasing into the pool. General-admission customers
+ * queue in the {@link WaitingRoom} before each batch when it is enabled.
  */
 @Service
 public class TicketService {
     private final TicketPool ticketPool;
+    private final SeatMap seatMap;
+    private final WaitingRoom waitingRoom;
     private final Logger logger;
-    private static final List<Thread> vendorThreads = new ArrayList<>();
-    private static final List<Thread> customerThreads = new ArrayList<>();
+    private final EventLog eventLog;
+    private final ThreadMode threadMode;
+    private final int poolSize;
+    private final int schedulerThreads;
+    private final long shutdownTimeoutMillis;
+    private ExecutorService executor; // Runs the vendor and customer tasks while the system is started
+    private ScheduledActorEngine scheduler; // Ticks the vendors and customers instead, in scheduled mode
+    private PurchaseLimiter purchaseLimiter; // Limits of the customers being started, or null for none
     private boolean running = false;
     private static final String CONFIG_FILE = "config.properties";
+    private static final String SNAPSHOT_FILE = "ticketing_pool.snapshot";
     /**
      * Constructor for injecting dependencies.
-     * @param ticketPool    Shared ticket pool for managing ticket availability.
-     * @param logger        Logger for logging operations.
+     * @param ticketPool            Shared ticket pool for managing ticket availability.
+     * @param seatMap               Reserved seating inventory.
+     * @param waitingRoom           The waiting room in front of general-admission purchases.
+     * @param logger                Logger for logging operations.
+     * @param eventLog              The binary log of pool events that answers event queries.
+     * @param threadMode            Which threads run the vendor and customer tasks.
+     * @param poolSize              The number of threads in {@link ThreadMode#BOUNDED} mode.
+     * @param schedulerThreads      The number of scheduler threads in {@link ThreadMode#SCHEDULED} mode.
+     * @param shutdownTimeoutMillis How long {@link #stopThreads()} waits for the tasks to finish.
      */
     @Autowired
-    public TicketService(TicketPool ticketPool, Logger logger) {
+    public TicketService(TicketPool ticketPool, SeatMap seatMap, WaitingRoom waitingRoom, Logger logger, EventLog eventLog,
+                         @Value("${ticketing.threads.mode:PLATFORM}") ThreadMode threadMode,
+                         @Value("${ticketing.threads.pool-size:256}") int poolSize,
+                         @Value("${ticketing.threads.scheduler-threads:2}") int schedulerThreads,
+                         @Value("${ticketing.threads.shutdown-timeout-millis:5000}") long shutdownTimeoutMillis) {
         this.ticketPool = ticketPool;
+        this.seatMap = seatMap;
+        this.waitingRoom = waitingRoom;
         this.logger = logger;
+        this.eventLog = eventLog;
+        this.threadMode = threadMode;
+        this.poolSize = poolSize;
+        this.schedulerThreads = schedulerThreads;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
     }
     /**
      * Starts vendor and customer threads to manage ticket release and retrieval.
@@ -44,38 +100,99 @@ public class TicketService {
      * @param retrievalInterval     Interval (in milliseconds) for ticket retrieval.
      * @param noOfVendors           Number of vendor threads to start.
      * @param noOfCustomers         Number of customer threads to start.
-     * @throws IllegalStateException if threads are already running.
+     * @param seatingSection        Section customers buy reserved seats in, or {@code null} or empty for general admission.
+     * @param purchaseLimiter       Per-customer request rate and purchase cap for general admission, or {@code null} for none.
+     * @throws IllegalStateException if threads are already running, if a bounded pool is too small for every vendor and
+     *                               customer, or if the seating section does not exist.
      */
     @Transactional
-    public synchronized void startThreads(int totalTickets, int maxTicketCapacity, int ticketReleaseRate, int customerRetrievalRate, int releaseInterval, int retrievalInterval, int noOfVendors, int noOfCustomers) {
+    public synchronized void startThreads(int totalTickets, int maxTicketCapacity, int ticketReleaseRate, int customerRetrievalRate, int releaseInterval, int retrievalInterval, int noOfVendors, int noOfCustomers, String seatingSection, PurchaseLimiter purchaseLimiter) {
         if (running) throw new IllegalStateException("Threads are already running!");
+        Section section = seatingSection(seatingSection);
+        this.purchaseLimiter = purchaseLimiter;
+        if (threadMode == ThreadMode.BOUNDED && noOfVendors + noOfCustomers > poolSize) {
+            throw new IllegalStateException("The thread pool has " + poolSize + " threads but " + (noOfVendors + noOfCustomers) + " vendors and customers were requested.");
+        }
+        if (threadMode == ThreadMode.SCHEDULED) {
+            startScheduled(maxTicketCapacity, ticketReleaseRate, customerRetrievalRate, releaseInterval, retrievalInterval, noOfVendors, noOfCustomers, section);
+            return;
+        }
+        executor = threadMode.newExecutor(poolSize);
         running = true;
-        // each thread can run independently and simultaneously
-        // Start multiple vendor threads to periodically add tickets
+        // each task can run independently and simultaneously
+        // Start multiple vendor tasks to periodically add tickets
+        for (int i = 1; i <= noOfVendors; i++) {
+            executor.execute(new VendorThread(logger, i, ticketReleaseRate, releaseInterval, maxTicketCapacity, ticketPool));
+        }
+        // Start multiple customer tasks to purchase tickets
+        for (int i = 1; i <= noOfCustomers; i++) {
+            executor.execute(newCustomer(i, customerRetrievalRate, retrievalInterval, section));
+        }
+        logger.log("[LOG] Threads started successfully in " + threadMode + " mode.");
+    }
+    /**
+     * Registers every vendor and customer with a new {@link ScheduledActorEngine}, one fixed-rate group per side.
+     */
+    private void startScheduled(int maxTicketCapacity, int ticketReleaseRate, int customerRetrievalRate, int releaseInterval, int retrievalInterval, int noOfVendors, int noOfCustomers, Section section) {
+        List<Runnable> vendorTicks = new ArrayList<>(noOfVendors);
         for (int i = 1; i <= noOfVendors; i++) {
-            VendorThread vendorThread = new VendorThread(logger, i, ticketReleaseRate, releaseInterval, maxTicketCapacity, ticketPool);
-            Thread thread = new Thread(vendorThread);
-            vendorThreads.add(thread); //All the created thread objects are stored in the vendorThreads list, which can be used later to manage or monitor these threads
-            thread.start();
+            vendorTicks.add(new VendorThread(logger, i, ticketReleaseRate, releaseInterval, maxTicketCapacity, ticketPool)::tick);
         }
-        // Start multiple customer threads to purchase tickets
+        List<Runnable> customerTicks = new ArrayList<>(noOfCustomers);
         for (int i = 1; i <= noOfCustomers; i++) {
-            CustomerThread customerThread = new CustomerThread(logger, i, customerRetrievalRate, retrievalInterval, ticketPool);
-            Thread thread = new Thread(customerThread);
-            customerThreads.add(thread);
-            thread.start();
+            customerTicks.add(newCustomer(i, customerRetrievalRate, retrievalInterval, section)::tick);
         }
-        logger.log("[LOG] Threads started successfully.");
+        scheduler = new ScheduledActorEngine(logger, schedulerThreads);
+        scheduler.scheduleAtFixedRate(vendorTicks, releaseInterval);
+        scheduler.scheduleAtFixedRate(customerTicks, retrievalInterval);
+        running = true;
+        logger.log("[LOG] " + noOfVendors + " vendors and " + noOfCustomers + " customers scheduled on " + schedulerThreads + " threads.");
+    }
+    /**
+     * Looks up the section customers buy seats in.
+     * @return The section, or {@code null} for general admission.
+     */
+    private Section seatingSection(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        try {
+            return seatMap.getSection(name);
+        } catch (NoSuchElementException e) {
+            throw new IllegalStateException(e.getMessage());
+        }
+    }
+    /**
+     * Creates a customer that buys general-admission tickets, or seats if a section is given.
+     */
+    private CustomerThread newCustomer(int customerId, int customerRetrievalRate, int retrievalInterval, Section section) {
+        return section == null
+                ? new CustomerThread(logger, customerId, customerRetrievalRate, retrievalInterval, ticketPool,
+                        waitingRoom.isEnabled() ? waitingRoom : null, purchaseLimiter)
+                : new CustomerThread(logger, customerId, customerRetrievalRate, retrievalInterval, section);
     }
     /**
      * Stops all running threads.
+     * Every task is interrupted, and the call waits up to {@code ticketing.threads.shutdown-timeout-millis}
+     * for them to finish before releasing the executor.
      */
     @Transactional
     public synchronized void stopThreads() {
-        vendorThreads.forEach(Thread::interrupt);
-        customerThreads.forEach(Thread::interrupt);
-        vendorThreads.clear();
-        customerThreads.clear();
+        if (executor != null) {
+            executor.shutdownNow(); // Interrupts every vendor and customer task
+            try {
+                if (!executor.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    logger.log("[LOG] Some threads did not stop within " + shutdownTimeoutMillis + " ms.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+        if (scheduler != null) {
+            scheduler.shutdown(shutdownTimeoutMillis);
+            scheduler = null;
+        }
         running = false;
         logger.log("[LOG] All threads stopped.");
     }
@@ -87,6 +204,71 @@ public class TicketService {
     public String getLogs() {
         return logger.getLogs(); // Fetch logs from the logger
     }
+    /**
+     * Retrieves a page of log lines from the logger's offset index.
+     * @param after The number of lines the caller has already seen.
+     * @param limit The maximum number of lines to return.
+     * @return The log lines written after the first {@code after} lines.
+     * @throws IllegalStateException if the log file is not open.
+     * @throws java.io.UncheckedIOException if the log cannot be read.
+     */
+    public List<String> getLogs(long after, int limit) {
+        return logger.getLogs(after, limit);
+    }
+    /**
+     * Retrieves the most recent log lines, served from the logger's in-memory tail when it holds enough of them.
+     * @param count The maximum number of lines to return.
+     * @return Up to {@code count} of the latest log lines, oldest first.
+     */
+    public List<String> getRecentLogs(int count) {
+        return logger.getRecentLogs(count);
+    }
+    /**
+     * Retrieves the logger's level, categories and pool line budget.
+     * @return The current log settings.
+     */
+    public LogSettings getLogSettings() {
+        return logger.getSettings();
+    }
+    /**
+     * Changes the logger's settings at runtime; settings passed as {@code null} are left as they are.
+     * @param level              The new level.
+     * @param category           A category to switch on or off; requires {@code enabled}.
+     * @param enabled            Whether to switch {@code category} on.
+     * @param poolLinesPerSecond The number of ticket lines the pools log per second, or {@code 0} for no limit.
+     * @return The settings after the change.
+     * @throws IllegalArgumentException if only one of {@code category} and {@code enabled} is given, or the line budget is negative.
+     */
+    public LogSettings updateLogSettings(LogLevel level, LogCategory category, Boolean enabled, Integer poolLinesPerSecond) {
+        if ((category == null) != (enabled == null)) {
+            throw new IllegalArgumentException("A category and whether it is enabled must be given together.");
+        }
+        if (poolLinesPerSecond != null) {
+            logger.setPoolLinesPerSecond(poolLinesPerSecond);
+        }
+        if (level != null) {
+            logger.setLevel(level);
+        }
+        if (category != null) {
+            logger.setEnabled(category, enabled);
+        }
+        logger.log("[LOG] Log settings changed.");
+        return logger.getSettings();
+    }
+    /**
+     * Counts ticket releases or purchases in a time window from the binary event log, without reading the text log.
+     * @param type         The event type to count.
+     * @param actorId      The vendor or customer to count, or {@code null} for all of them.
+     * @param from         The start of the window, in epoch milliseconds, inclusive.
+     * @param to           The end of the window, in epoch milliseconds, exclusive.
+     * @param windowMillis Also count tickets per window of this many milliseconds, or {@code 0} for no breakdown.
+     * @return The counts, broken down by vendor or customer.
+     * @throws IllegalArgumentException if the window is invalid.
+     * @throws IllegalStateException    if the event log is disabled or cannot be read.
+     */
+    public EventCounts queryEvents(EventType type, Integer actorId, long from, long to, long windowMillis) {
+        return eventLog.query(type, actorId, from, to, windowMillis);
+    }
     /**
      * Saves the configuration to a properties file.
      * @param totalTickets          Total number of tickets.
@@ -116,7 +298,7 @@ public class TicketService {
             logger.log("[LOG] Configuration saved.");
             return "Configuration saved successfully!";
         } catch (IOException e) {
-            logger.log("[LOG] Failed to save configuration: " + e.getMessage());
+            logger.log(LogCategory.ERROR, "[LOG] Failed to save configuration: " + e.getMessage());
             throw new RuntimeException("Failed to save configuration", e);
         }
     }
@@ -142,9 +324,58 @@ public class TicketService {
             logger.log("[LOG] Configuration loaded.");
             return config;
         } catch (IOException e) {
-            logger.log("[LOG] Failed to load configuration: " + e.getMessage());
+            logger.log(LogCategory.ERROR, "[LOG] Failed to load configuration: " + e.getMessage());
             throw new RuntimeException("Failed to load configuration", e);
         }
     }
+    /**
+     * Saves the configuration and the tickets currently in the pool to a binary snapshot.
+     * The pool is stored as ticket ID ranges, so the snapshot stays a few dozen bytes however many tickets it holds.
+     * @param totalTickets          Total number of tickets.
+     * @param maxTicketCapacity     Maximum capacity of the ticket pool.
+     * @param ticketReleaseRate     Number of tickets released per interval.
+     * @param customerRetrievalRate Number of tickets retrieved by customers per interval.
+     * @return A success message if the snapshot is saved successfully.
+     * @throws RuntimeException If an error occurs while saving the snapshot.
+     */
+    public synchronized String saveSnapshot(int totalTickets, int maxTicketCapacity, int ticketReleaseRate, int customerRetrievalRate) {
+        PoolSnapshot snapshot = new PoolSnapshot(totalTickets, maxTicketCapacity, ticketReleaseRate, customerRetrievalRate, ticketPool.exportState());
+        try {
+            snapshot.write(Paths.get(SNAPSHOT_FILE));
+            logger.log("[LOG] Ticket pool snapshot saved with " + snapshot.getState().getTicketCount() + " tickets.");
+            return "Snapshot saved successfully!";
+        } catch (IOException e) {
+            logger.log(LogCategory.ERROR, "[LOG] Failed to save snapshot: " + e.getMessage());
+            throw new RuntimeException("Failed to save snapshot", e);
+        }
+    }
+    /**
+     * Restores the pool from the snapshot written by {@link #saveSnapshot} and returns the configuration saved with it.
+     * @return A {@link TicketRequest} object containing the snapshot's configuration.
+     * @throws IllegalStateException if threads are running, or if the pool backend cannot hold the saved tickets.
+     * @throws RuntimeException      If there is no snapshot or it cannot be read.
+     */
+    public synchronized TicketRequest restoreSnapshot() {
+        if (running) throw new IllegalStateException("Stop the threads before restoring a snapshot.");
+        Path path = Paths.get(SNAPSHOT_FILE);
+        PoolSnapshot snapshot;
+        try {
+            snapshot = PoolSnapshot.read(path);
+        } catch (IOException e) {
+            logger.log(LogCategory.ERROR, "[LOG] Failed to restore snapshot: " + e.getMessage());
+            throw new RuntimeException("Failed to restore snapshot", e);
+        }
+        if (snapshot == null) {
+            throw new RuntimeException("No snapshot has been saved.");
+        }
+        ticketPool.restoreState(snapshot.getState());
+        TicketRequest config = new TicketRequest();
+        config.setTotalTickets(snapshot.getTotalTickets());
+        config.setMaxTicketCapacity(snapshot.getMaxTicketCapacity());
+        config.setTicketReleaseRate(snapshot.getTicketReleaseRate());
+        config.setCustomerRetrievalRate(snapshot.getCustomerRetrievalRate());
+        logger.log("[LOG] Ticket pool restored from snapshot with " + ticketPool.getTicketCount() + " tickets.");
+        return config;
+    }
 }
 
@@ -0,0 +1,59 @@
+package com.ticketing.simulation;
+import java.util.PriorityQueue;
+/**
+ * A discrete-event simulation engine: a virtual clock and a priority queue of actions due at virtual times.
+ * {@link #runUntil} repeatedly takes the earliest action, moves the clock to its time and runs it, so hours
+ * of virtual time cost only as much as the actions in them. Actions due at the same time run in the order
+ * they were scheduled, which makes a run fully reproducible. Not thread-safe: everything runs on the caller.
+ */
+final class DiscreteEventSimulation {
+    private final PriorityQueue<ScheduledAction> actions = new PriorityQueue<>();
+    private long now;
+    private long sequence;
+    /**
+     * Returns the virtual time.
+     * @return The current time in virtual milliseconds.
+     */
+    long now() {
+        return now;
+    }
+    /**
+     * Schedules an action.
+     * @param time   The virtual time to run it at; a time in the past means now.
+     * @param action The action, which may schedule further actions.
+     */
+    void schedule(long time, Runnable action) {
+        actions.add(new ScheduledAction(Math.max(time, now), sequence++, action));
+    }
+    /**
+     * Runs every action due up to {@code endTime}, then leaves the clock at {@code endTime}.
+     * @param endTime The virtual time to stop at.
+     * @return The number of actions run.
+     */
+    long runUntil(long endTime) {
+        long count = 0;
+        while (!actions.isEmpty() && actions.peek().time <= endTime) {
+            ScheduledAction next = actions.poll();
+            now = next.time;
+            next.action.run();
+            count++;
+        }
+        now = endTime;
+        return count;
+    }
+    private static final class ScheduledAction implements Comparable<ScheduledAction> {
+        private final long time;
+        private final long sequence;
+        private final Runnable action;
+        ScheduledAction(long time, long sequence, Runnable action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.action = action;
+        }
+        @Override
+        public int compareTo(ScheduledAction other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.ticketing.simulation;
+import com.ticketing.logging.LogLevel;
+import com.ticketing.logging.Logger;
+import com.ticketing.logging.OverflowPolicy;
+/**
+ * A logger that discards every message, handed to the pools and actors of a simulation so that a day of
+ * simulated sales neither floods the console nor ends up in the application's log file.
+ */
+final class SilentLogger extends Logger {
+    SilentLogger() {
+        super(false, 1, 1, OverflowPolicy.DROP, 1, ".", false);
+        setLevel(LogLevel.OFF);
+    }
+}
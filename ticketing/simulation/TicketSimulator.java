@@ -0,0 +1,238 @@
+package com.ticketing.simulation;
+import com.ticketing.config.TicketPoolFactory;
+import com.ticketing.controller.SimulationRequest;
+import com.ticketing.controller.SimulationResult;
+import com.ticketing.controller.TicketRequest;
+import com.ticketing.logging.Logger;
+import com.ticketing.pool.PoolListener;
+import com.ticketing.pool.TicketPool;
+import com.ticketing.pool.TicketRange;
+import com.ticketing.thread.CustomerThread;
+import com.ticketing.thread.VendorThread;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+/**
+ * Simulates a sale on a virtual clock, so a configuration can be tried out over hours or days of sales in
+ * seconds before it goes live.
+ * <p>
+ * The simulation uses a real {@link TicketPool} of the chosen backend and real {@link VendorThread}s and
+ * {@link CustomerThread}s, driven through the same non-blocking {@code tick()} calls as in
+ * {@link com.ticketing.thread.ThreadMode#SCHEDULED} mode, but from a {@link DiscreteEventSimulation} instead of
+ * scheduler threads: each tick runs at its virtual time and schedules the actor's next tick one interval
+ * later. Each actor starts at a random point in its first interval and, with a jitter, every interval strays
+ * randomly by up to that percentage. All randomness comes from one generator seeded by the request, and
+ * everything runs on the calling thread, so the same request always gives the same result.
+ * <p>
+ * Nothing is logged and nothing touches the application's own pool. Because a run holds the request thread and
+ * its whole timeline in memory, requests are capped by {@code ticketing.simulation.max-duration-minutes},
+ * {@code max-actors}, {@code max-samples} and {@code max-ticks}, the last being the total number of vendor and
+ * customer ticks the run would take.
+ */
+@Component
+public class TicketSimulator {
+    private static final int DEFAULT_SAMPLES = 100;
+    private final String defaultPoolType;
+    private final TicketPoolFactory poolFactory;
+    private final Logger silentLogger = new SilentLogger();
+    private final int maxDurationMinutes;
+    private final int maxActors;
+    private final int maxSamples;
+    private final long maxTicks;
+    /**
+     * Constructs the simulator.
+     * @param defaultPoolType The backend simulated when a request does not name one.
+     * @param ringCapacity    The minimum number of slots of simulated ring-buffer pools.
+     * @param shards          The default shard count of simulated sharded pools; zero means one per core.
+     * @param maxDurationMinutes The longest sale that may be simulated, in minutes.
+     * @param maxActors       The most vendors plus customers a simulation may have.
+     * @param maxSamples      The most timeline samples a simulation may take.
+     * @param maxTicks        The most vendor and customer ticks a simulation may run.
+     */
+    public TicketSimulator(@Value("${ticketing.pool.type:locking}") String defaultPoolType,
+                           @Value("${ticketing.pool.ring-capacity:1024}") int ringCapacity,
+                           @Value("${ticketing.pool.shards:0}") int shards,
+                           @Value("${ticketing.simulation.max-duration-minutes:43200}") int maxDurationMinutes,
+                           @Value("${ticketing.simulation.max-actors:10000}") int maxActors,
+                           @Value("${ticketing.simulation.max-samples:10000}") int maxSamples,
+                           @Value("${ticketing.simulation.max-ticks:50000000}") long maxTicks) {
+        if (maxDurationMinutes <= 0 || maxActors <= 0 || maxSamples <= 0 || maxTicks <= 0) {
+            throw new IllegalArgumentException("Simulation limits must be positive.");
+        }
+        this.defaultPoolType = defaultPoolType;
+        this.poolFactory = new TicketPoolFactory(silentLogger, ringCapacity, shards);
+        this.maxDurationMinutes = maxDurationMinutes;
+        this.maxActors = maxActors;
+        this.maxSamples = maxSamples;
+        this.maxTicks = maxTicks;
+    }
+    /**
+     * Runs a simulation.
+     * @param request The configuration and simulation settings.
+     * @return What happened over the simulated sale.
+     * @throws IllegalStateException if the request is incomplete or the pool backend is unknown.
+     * @throws IllegalArgumentException if the request is over the simulator's limits.
+     */
+    public SimulationResult simulate(SimulationRequest request) {
+        TicketRequest config = request.getConfig();
+        if (config == null || request.getDurationMinutes() <= 0 || config.getReleaseInterval() <= 0 || config.getRetrievalInterval() <= 0) {
+            throw new IllegalStateException("A simulation needs a configuration with positive intervals and a positive duration.");
+        }
+        if (request.getJitterPercent() < 0 || request.getJitterPercent() > 100) {
+            throw new IllegalStateException("Jitter must be between 0 and 100 percent.");
+        }
+        checkLimits(request, config);
+        long started = System.currentTimeMillis();
+        String poolType = request.getPoolType() == null || request.getPoolType().isBlank() ? defaultPoolType : request.getPoolType();
+        TicketPool pool = poolFactory.create(poolType, config);
+        Run run = new Run(pool, request);
+        long releaseInterval = config.getReleaseInterval() * 60000L;
+        long retrievalInterval = config.getRetrievalInterval() * 60000L;
+        for (int i = 1; i <= config.getNoOfVendors(); i++) {
+            VendorThread vendor = new VendorThread(silentLogger, i, config.getTicketReleaseRate(), (int) releaseInterval, config.getMaxTicketCapacity(), pool);
+            run.repeat(releaseInterval, () -> run.vendorTick(vendor));
+        }
+        for (int i = 1; i <= config.getNoOfCustomers(); i++) {
+            CustomerThread customer = new CustomerThread(silentLogger, i, config.getCustomerRetrievalRate(), (int) retrievalInterval, pool);
+            run.repeat(retrievalInterval, () -> run.customerTick(customer));
+        }
+        long end = request.getDurationMinutes() * 60000L;
+        long sampleInterval = sampleIntervalMillis(request);
+        run.sample();
+        for (long time = sampleInterval; time < end + sampleInterval; time += sampleInterval) {
+            run.simulation.runUntil(Math.min(time, end));
+            run.sample();
+        }
+        return run.result(request, end, System.currentTimeMillis() - started);
+    }
+    /**
+     * Rejects requests whose duration, actors, samples or ticks are over the limits.
+     */
+    private void checkLimits(SimulationRequest request, TicketRequest config) {
+        if (request.getDurationMinutes() > maxDurationMinutes) {
+            throw new IllegalArgumentException("A simulation may last at most " + maxDurationMinutes + " minutes.");
+        }
+        if (config.getNoOfVendors() < 0 || config.getNoOfCustomers() < 0
+                || (long) config.getNoOfVendors() + config.getNoOfCustomers() > maxActors) {
+            throw new IllegalArgumentException("A simulation may have at most " + maxActors + " vendors and customers.");
+        }
+        if (request.getSampleIntervalMinutes() < 0) {
+            throw new IllegalArgumentException("The sample interval must not be negative.");
+        }
+        long samples = request.getDurationMinutes() * 60000L / sampleIntervalMillis(request);
+        if (samples > maxSamples) {
+            throw new IllegalArgumentException("A simulation may take at most " + maxSamples + " samples; use a longer sample interval.");
+        }
+        long ticks = (long) config.getNoOfVendors() * (request.getDurationMinutes() / config.getReleaseInterval() + 1)
+                + (long) config.getNoOfCustomers() * (request.getDurationMinutes() / config.getRetrievalInterval() + 1);
+        if (ticks > maxTicks) {
+            throw new IllegalArgumentException("A simulation may run at most " + maxTicks + " ticks; shorten it or use fewer actors or longer intervals.");
+        }
+    }
+    private static long sampleIntervalMillis(SimulationRequest request) {
+        return request.getSampleIntervalMinutes() > 0
+                ? request.getSampleIntervalMinutes() * 60000L
+                : Math.max(1, request.getDurationMinutes() * 60000L / DEFAULT_SAMPLES);
+    }
+    /**
+     * The state of one simulation run. Its listener is called synchronously by the pool on the simulating thread.
+     */
+    private static final class Run implements PoolListener {
+        private final DiscreteEventSimulation simulation = new DiscreteEventSimulation();
+        private final TicketPool pool;
+        private final SplittableRandom random;
+        private final double jitter;
+        private final List<SimulationResult.Sample> timeline = new ArrayList<>();
+        private long released;
+        private long sold;
+        private long vendorTicks;
+        private long vendorTicksRejected;
+        private long customerTicks;
+        private long customerTicksUnserved;
+        private long firstFull = -1;
+        private long firstEmpty = -1;
+        private int ticketCount;
+        private int maxTicketCount;
+        private long lastChange;
+        private double ticketMillis; // Integral of the ticket count over virtual time
+        Run(TicketPool pool, SimulationRequest request) {
+            this.pool = pool;
+            this.random = new SplittableRandom(request.getSeed());
+            this.jitter = request.getJitterPercent() / 100.0;
+            this.ticketCount = pool.getTicketCount();
+            this.maxTicketCount = ticketCount;
+            pool.addListener(this);
+        }
+        /**
+         * Runs an action at a random point of its first interval and then once every interval.
+         */
+        void repeat(long interval, Runnable action) {
+            simulation.schedule(random.nextLong(interval), new Runnable() {
+                @Override
+                public void run() {
+                    action.run();
+                    simulation.schedule(simulation.now() + jittered(interval), this);
+                }
+            });
+        }
+        void vendorTick(VendorThread vendor) {
+            long before = released;
+            vendor.tick();
+            vendorTicks++;
+            if (released == before) {
+                vendorTicksRejected++;
+                if (firstFull < 0) {
+                    firstFull = simulation.now();
+                }
+            }
+        }
+        void customerTick(CustomerThread customer) {
+            long before = sold;
+            customer.tick();
+            customerTicks++;
+            if (sold == before) {
+                customerTicksUnserved++;
+                if (firstEmpty < 0) {
+                    firstEmpty = simulation.now();
+                }
+            }
+        }
+        void sample() {
+            timeline.add(new SimulationResult.Sample(simulation.now() / 60000.0, ticketCount, sold));
+        }
+        @Override
+        public void onTicketsReleased(int vendorId, TicketRange range, int ticketCount) {
+            released += range.getCount();
+            countChanged(ticketCount);
+        }
+        @Override
+        public void onTicketsClaimed(int customerId, TicketRange range, int ticketCount) {
+            sold += range.getCount();
+            countChanged(ticketCount);
+        }
+        private void countChanged(int newCount) {
+            ticketMillis += (double) ticketCount * (simulation.now() - lastChange);
+            lastChange = simulation.now();
+            ticketCount = newCount;
+            maxTicketCount = Math.max(maxTicketCount, newCount);
+        }
+        private long jittered(long interval) {
+            if (jitter == 0) {
+                return interval;
+            }
+            long spread = (long) (interval * jitter);
+            return Math.max(1, interval + random.nextLong(-spread, spread + 1));
+        }
+        SimulationResult result(SimulationRequest request, long end, long wallClockMillis) {
+            countChanged(ticketCount); // Close the integral at the end of the run
+            return new SimulationResult(request.getDurationMinutes(), request.getSeed(), released, sold, vendorTicks, vendorTicksRejected,
+                    customerTicks, customerTicksUnserved, minutes(firstFull), minutes(firstEmpty), pool.getTicketCount(),
+                    ticketMillis / end, maxTicketCount, wallClockMillis, timeline);
+        }
+        private static double minutes(long millis) {
+            return millis < 0 ? -1 : millis / 60000.0;
+        }
+    }
+}
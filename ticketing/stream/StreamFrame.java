@@ -0,0 +1,37 @@
+package com.ticketing.stream;
+import java.util.List;
+/**
+ * A single update pushed to a dashboard client over the event stream.
+ * Each frame carries the latest ticket count and the log lines written since the client's previous frame.
+ */
+public class StreamFrame {
+    private final int ticketCount;
+    private final List<String> logs;
+    private final long logCursor;
+    /**
+     * Constructs a frame.
+     * @param ticketCount The number of tickets currently available in the pool.
+     * @param logs        The log lines the client has not seen yet.
+     * @param logCursor   The number of log lines the client has seen once it has applied this frame.
+     */
+    public StreamFrame(int ticketCount, List<String> logs, long logCursor) {
+        this.ticketCount = ticketCount;
+        this.logs = logs;
+        this.logCursor = logCursor;
+    }
+    /**
+     * Retrieves the number of tickets currently available in the pool.
+     * @return The ticket count.
+     */
+    public int getTicketCount() {return ticketCount;}
+    /**
+     * Retrieves the log lines written since the client's previous frame.
+     * @return The new log lines, possibly empty.
+     */
+    public List<String> getLogs() {return logs;}
+    /**
+     * Retrieves the log cursor to resume from, for example after reconnecting.
+     * @return The number of log lines the client has seen.
+     */
+    public long getLogCursor() {return logCursor;}
+}
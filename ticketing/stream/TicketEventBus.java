@@ -0,0 +1,198 @@
+package com.ticketing.stream;
+
+import com.ticketing.logging.LogListener;
+import com.ticketing.logging.Logger;
+import com.ticketing.pool.PoolListener;
+import com.ticketing.pool.PoolState;
+import com.ticketing.pool.TicketPool;
+import com.ticketing.pool.TicketRange;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+/**
+ * Pushes ticket count and log updates to dashboard clients over server-sent events.
+ * The ticket pool and the logger publish to the bus after every operation, which only records the latest
+ * state. A single ticker thread turns that state into frames: every {@code ticketing.stream.tick-millis}
+ * it checks whether anything changed and, if at least {@code ticketing.stream.coalesce-window-millis}
+ * have passed since the last frame, sends each client one frame with the current count and the log
+ * lines that client has not seen yet. However busy the pool is, a client receives at most one frame per tick.
+ */
+@Component
+public class TicketEventBus implements PoolListener, LogListener, DisposableBean {
+    /**
+     * The name of the server-sent event that carries a {@link StreamFrame}.
+     */
+    static final String EVENT_NAME = "update";
+    private final Logger logger;
+    private final long coalesceWindowMillis;
+    private final int maxLogLinesPerFrame;
+    private final ScheduledExecutorService ticker;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private volatile int ticketCount;
+    private volatile boolean dirty;
+    private long lastFrameMillis;
+    /**
+     * Constructs the event bus and registers it with the ticket pool and the logger.
+     * @param ticketPool           The pool whose ticket count is streamed.
+     * @param logger               The logger whose lines are streamed.
+     * @param tickMillis           How often the bus checks for changes and sends frames.
+     * @param coalesceWindowMillis The minimum time between two frames sent because of changes.
+     * @param maxLogLinesPerFrame  The maximum number of log lines sent to a client in one frame.
+     */
+    public TicketEventBus(TicketPool ticketPool, Logger logger,
+                          @Value("${ticketing.stream.tick-millis:250}") long tickMillis,
+                          @Value("${ticketing.stream.coalesce-window-millis:500}") long coalesceWindowMillis,
+                          @Value("${ticketing.stream.max-log-lines-per-frame:500}") int maxLogLinesPerFrame) {
+        if (tickMillis <= 0 || coalesceWindowMillis < 0 || maxLogLinesPerFrame <= 0) {
+            throw new IllegalArgumentException("Stream tick and frame size must be positive and the coalescing window must not be negative.");
+        }
+        this.logger = logger;
+        this.coalesceWindowMillis = coalesceWindowMillis;
+        this.maxLogLinesPerFrame = maxLogLinesPerFrame;
+        this.ticketCount = ticketPool.getTicketCount();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ticketing-event-bus");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticketPool.addListener(this);
+        logger.addListener(this);
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+    /**
+     * Opens a stream for a new client. The client receives a first frame on the next tick.
+     * @param after The number of log lines the client has already seen, or {@code -1} to receive only the ticket count.
+     * @return The emitter that carries the client's frames.
+     */
+    public SseEmitter subscribe(long after) {
+        SseEmitter emitter = new SseEmitter(0L); // No timeout: the stream lives as long as the client keeps it open
+        Subscriber subscriber = new Subscriber(emitter, after);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+    /**
+     * Opens a stream for a new client that starts with the last lines of the log instead of all of it.
+     * @param lines How many of the latest log lines the client receives first.
+     * @return The emitter that carries the client's frames.
+     */
+    public SseEmitter subscribeToTail(int lines) {
+        return subscribe(Math.max(0, logger.getLogCount() - Math.max(0, lines)));
+    }
+    @Override
+    public void onTicketsReleased(int vendorId, TicketRange range, int ticketCount) {
+        publishCount(ticketCount);
+    }
+    @Override
+    public void onTicketsClaimed(int customerId, TicketRange range, int ticketCount) {
+        publishCount(ticketCount);
+    }
+    @Override
+    public void onStateRestored(PoolState state) {
+        publishCount((int) state.getTicketCount());
+    }
+    @Override
+    public void onLogsWritten(long lineCount) {
+        dirty = true;
+    }
+    /**
+     * Records the latest ticket count. The value is written before the dirty flag, so the ticker never
+     * clears the flag without also seeing the count that set it.
+     */
+    private void publishCount(int count) {
+        ticketCount = count;
+        dirty = true;
+    }
+    /**
+     * Sends one frame to every client that has something new, coalescing all changes since the last frame.
+     */
+    private void tick() {
+        try {
+            if (subscribers.isEmpty()) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            boolean changed = dirty && now - lastFrameMillis >= coalesceWindowMillis;
+            if (changed) {
+                dirty = false;
+                lastFrameMillis = now;
+            }
+            int count = ticketCount;
+            Map<Long, List<String>> pages = new HashMap<>(); // Clients at the same cursor share one read
+            for (Subscriber subscriber : subscribers) {
+                if (changed || subscriber.pending) {
+                    send(subscriber, count, pages);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("[ERROR] Failed to send stream frames: " + e.getMessage());
+        }
+    }
+    /**
+     * Sends a subscriber its next frame and advances its log cursor, dropping the subscriber if the connection is gone.
+     */
+    private void send(Subscriber subscriber, int count, Map<Long, List<String>> pages) {
+        List<String> logs = subscriber.logCursor < 0
+                ? List.of()
+                : pages.computeIfAbsent(subscriber.logCursor, this::readLogs);
+        long cursor = subscriber.logCursor < 0 ? subscriber.logCursor : subscriber.logCursor + logs.size();
+        try {
+            subscriber.emitter.send(SseEmitter.event()
+                    .name(EVENT_NAME)
+                    .data(new StreamFrame(count, logs, cursor), MediaType.APPLICATION_JSON));
+            subscriber.logCursor = cursor;
+            subscriber.pending = logs.size() == maxLogLinesPerFrame; // More lines may remain; keep going next tick
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+    /**
+     * Reads the page of log lines after a cursor, or none if the log cannot be read, so the cursor stays put
+     * and the lines are sent once the log is readable again.
+     */
+    private List<String> readLogs(long after) {
+        try {
+            return logger.getLogs(after, maxLogLinesPerFrame);
+        } catch (UncheckedIOException | IllegalStateException e) {
+            System.err.println("[ERROR] Failed to read logs for the stream: " + e.getMessage());
+            return List.of();
+        }
+    }
+    /**
+     * Stops the ticker and closes every open stream when the application shuts down.
+     */
+    @Override
+    public void destroy() {
+        ticker.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+    /**
+     * A connected client and how far it has read the log. Only the ticker thread touches the cursor.
+     */
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private long logCursor;
+        private boolean pending = true;
+        private Subscriber(SseEmitter emitter, long logCursor) {
+            this.emitter = emitter;
+            this.logCursor = logCursor;
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package com.ticketing.thread;
+import com.ticketing.admission.WaitingRoom;
+import com.ticketing.limit.PurchaseLimiter;
+import com.ticketing.logging.LogCategory;
 import com.ticketing.logging.Logger;
 import com.ticketing.pool.TicketPool;
+import com.ticketing.pool.TicketRange;
+import com.ticketing.seating.SeatBlock;
+import com.ticketing.seating.Section;
 import org.hibernate.StaleObjectStateException;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.transaction.annotation.Transactional;
@@ -10,6 +16,11 @@ import java.util.Optional;
  * The thread interacts with a shared {@link TicketPool} to retrieve tickets
  * and to purchase tickets. It handles concurrency
  * issues like locking and retries to avoid conflicts during database operations.
+ * A customer constructed with a {@link Section} buys reserved seats instead: each batch is the best
+ * block of adjacent seats still free in that section.
+ * A customer constructed with a {@link WaitingRoom} queues in it before every batch and only claims
+ * tickets once admitted. A customer constructed with a {@link PurchaseLimiter} asks it before every batch
+ * and skips batches over its request rate or purchase cap.
  */
 public class CustomerThread implements Runnable {
     private final int customerId;
@@ -18,6 +29,10 @@ public class CustomerThread implements Runnable {
     private final Logger logger;
     private boolean paused = false;
     private final TicketPool ticketPool;
+    private final Section section; // Reserved seating section, or null for general admission
+    private final WaitingRoom waitingRoom; // Queue in front of the pool, or null to claim directly
+    private final PurchaseLimiter limiter; // Per-customer rate and cap, or null for no limits
+    private long position; // Waiting room position held between ticks, or 0
     /**
      * Constructs a new CustomerThread.
      * @param logger               Logger for logging thread activity.
@@ -27,11 +42,58 @@ public class CustomerThread implements Runnable {
      * @param ticketPool           Shared pool of tickets to manage availability.
      */
     public CustomerThread(Logger logger, int customerId, int customerRetrievalRate, int retrievalInterval, TicketPool ticketPool) {
+        this(logger, customerId, customerRetrievalRate, retrievalInterval, ticketPool, null);
+    }
+    /**
+     * Constructs a CustomerThread that waits its turn in a waiting room before each batch.
+     * @param logger                Logger for logging thread activity.
+     * @param customerId            Unique identifier for the customer.
+     * @param customerRetrievalRate Number of tickets to retrieve per interval.
+     * @param retrievalInterval     Time interval (in milliseconds) between ticket retrievals.
+     * @param ticketPool            Shared pool of tickets to manage availability.
+     * @param waitingRoom           The waiting room in front of the pool, or {@code null} to claim directly.
+     */
+    public CustomerThread(Logger logger, int customerId, int customerRetrievalRate, int retrievalInterval, TicketPool ticketPool, WaitingRoom waitingRoom) {
+        this(logger, customerId, customerRetrievalRate, retrievalInterval, ticketPool, waitingRoom, null);
+    }
+    /**
+     * Constructs a CustomerThread whose purchases are subject to per-customer limits.
+     * @param logger                Logger for logging thread activity.
+     * @param customerId            Unique identifier for the customer.
+     * @param customerRetrievalRate Number of tickets to retrieve per interval.
+     * @param retrievalInterval     Time interval (in milliseconds) between ticket retrievals.
+     * @param ticketPool            Shared pool of tickets to manage availability.
+     * @param waitingRoom           The waiting room in front of the pool, or {@code null} to claim directly.
+     * @param limiter               The event's purchase limits, or {@code null} for none.
+     */
+    public CustomerThread(Logger logger, int customerId, int customerRetrievalRate, int retrievalInterval, TicketPool ticketPool,
+                          WaitingRoom waitingRoom, PurchaseLimiter limiter) {
         this.logger = logger;
         this.customerId = customerId;
         this.customerRetrievalRate = customerRetrievalRate;
         this.retrievalInterval = retrievalInterval;
         this.ticketPool = ticketPool;
+        this.section = null;
+        this.waitingRoom = waitingRoom;
+        this.limiter = limiter;
+    }
+    /**
+     * Constructs a CustomerThread that buys reserved seats.
+     * @param logger                Logger for logging thread activity.
+     * @param customerId            Unique identifier for the customer.
+     * @param customerRetrievalRate Number of adjacent seats to buy per interval.
+     * @param retrievalInterval     Time interval (in milliseconds) between purchases.
+     * @param section               The section to buy seats in.
+     */
+    public CustomerThread(Logger logger, int customerId, int customerRetrievalRate, int retrievalInterval, Section section) {
+        this.logger = logger;
+        this.customerId = customerId;
+        this.customerRetrievalRate = customerRetrievalRate;
+        this.retrievalInterval = retrievalInterval;
+        this.ticketPool = null;
+        this.section = section;
+        this.waitingRoom = null;
+        this.limiter = null;
     }
     /**
      * Executes the thread's main logic.
@@ -44,13 +106,73 @@ public class CustomerThread implements Runnable {
     public void run() {
         while (!Thread.currentThread().isInterrupted()) {
                 try {
-                    ticketPool.removeTicket(customerRetrievalRate, customerId); // Retrieve tickets from the shared pool
+                    if (section != null) {
+                        buySeats(); // Seats are never restocked, so there is nothing to wait for
+                    } else if (waitingRoom != null) {
+                        claimWhenAdmitted();
+                    } else {
+                        claimBatch(true); // Claim the whole batch from the shared pool in one step
+                    }
                     Thread.sleep( retrievalInterval );
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt(); // Preserve the interrupt flag
-                    logger.log("[LOG] Customer " + customerId + " thread interrupted.");
+                    logger.log("[LOG] Customer {} thread interrupted.", customerId);
                 }
         }
-        logger.log("[LOG] Customer " + customerId + " thread stopped.");
+        logger.log("[LOG] Customer {} thread stopped.", customerId);
+    }
+    /**
+     * Claims one batch without waiting, for use by {@link ScheduledActorEngine}.
+     * If the pool is empty, the customer leaves empty-handed and tries again on its next tick.
+     */
+    public void tick() {
+        if (section != null) {
+            buySeats();
+        } else if (waitingRoom != null) {
+            if (position == 0) {
+                position = waitingRoom.join();
+            }
+            if (waitingRoom.hasBeenAdmitted(position)) { // Otherwise keep the place in the queue until the next tick
+                claimBatch(false);
+                waitingRoom.leave(position);
+                position = 0;
+            }
+        } else {
+            claimBatch(false);
+        }
+    }
+    /**
+     * Queues in the waiting room, then claims a batch once admitted and leaves.
+     */
+    private void claimWhenAdmitted() throws InterruptedException {
+        long queuePosition = waitingRoom.join();
+        try {
+            waitingRoom.awaitAdmission(queuePosition);
+            claimBatch(true);
+        } finally {
+            waitingRoom.leave(queuePosition);
+        }
+    }
+    /**
+     * Claims a batch within the customer's limits, waiting for tickets or leaving empty-handed if there are none.
+     */
+    private void claimBatch(boolean wait) {
+        int allowed = limiter == null ? customerRetrievalRate : limiter.tryAcquire(customerId, customerRetrievalRate);
+        if (allowed == 0) {
+            return; // Over the request rate or purchase cap
+        }
+        TicketRange claimed = wait ? ticketPool.claim(allowed, customerId) : ticketPool.tryClaim(allowed, customerId);
+        if (limiter != null) {
+            limiter.refund(customerId, allowed - claimed.getCount());
+        }
+    }
+    /**
+     * Buys the best block of adjacent seats still free in the customer's section, if there is one.
+     */
+    private void buySeats() {
+        SeatBlock seats = section.claimBestAvailable(customerRetrievalRate);
+        if (seats != null) {
+            logger.log(LogCategory.POOL, "[LOG] Customer " + customerId + " purchased " + seats);
+        }
     }
 }
\ No newline at end of file
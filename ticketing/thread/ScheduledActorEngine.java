@@ -0,0 +1,126 @@
+package com.ticketing.thread;
+import com.ticketing.logging.LogCategory;
+import com.ticketing.logging.Logger;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * Drives vendors and customers from a small, fixed set of scheduler threads instead of one sleeping thread each.
+ * Actors that share an interval are split into one slice per scheduler thread; each slice is a single
+ * fixed-rate task that ticks all of its actors in turn. The slices are staggered across the interval so
+ * the work is spread evenly, and fixed-rate scheduling keeps the effective rate accurate because a late
+ * tick does not push back the ticks after it.
+ * Ticks must not block: actors use {@link com.ticketing.pool.TicketPool#tryRelease} and
+ * {@link com.ticketing.pool.TicketPool#tryClaim}, and simply try again on their next tick.
+ * One engine can drive many independent groups of actors, such as the vendors and customers of many
+ * events; each group can be cancelled on its own through the {@link Schedule} it was registered with.
+ */
+public class ScheduledActorEngine {
+    private final Logger logger;
+    private final int threads;
+    private final ScheduledExecutorService scheduler;
+    private int actorCount;
+    /**
+     * Constructs an engine with its own scheduler threads.
+     * @param logger  Logger for reporting failed ticks and shutdown.
+     * @param threads The number of scheduler threads, independent of the number of actors.
+     */
+    public ScheduledActorEngine(Logger logger, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("The scheduler needs at least one thread.");
+        }
+        this.logger = logger;
+        this.threads = threads;
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "ticketing-scheduler-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads, factory);
+        executor.setRemoveOnCancelPolicy(true); // Cancelled groups leave the queue at once, not at their next tick
+        this.scheduler = executor;
+    }
+    /**
+     * Ticks every actor in {@code ticks} once per {@code intervalMillis}.
+     * @param ticks          One non-blocking tick per actor, e.g. {@link VendorThread#tick()}.
+     * @param intervalMillis The time between two ticks of the same actor; values below 1 ms are raised to 1 ms.
+     * @return The handle that cancels this group of actors.
+     */
+    public synchronized Schedule scheduleAtFixedRate(List<Runnable> ticks, long intervalMillis) {
+        int slices = Math.min(threads, ticks.size());
+        Schedule schedule = new Schedule(ticks.size(), new ScheduledFuture<?>[slices]);
+        long period = Math.max(1, intervalMillis);
+        for (int slice = 0; slice < slices; slice++) {
+            // Contiguous slices of near-equal size, each offset by an equal share of the interval
+            int from = (int) ((long) ticks.size() * slice / slices);
+            int to = (int) ((long) ticks.size() * (slice + 1) / slices);
+            Runnable[] batch = ticks.subList(from, to).toArray(new Runnable[0]);
+            schedule.slices[slice] = scheduler.scheduleAtFixedRate(() -> tickAll(batch), period * slice / slices, period, TimeUnit.MILLISECONDS);
+        }
+        actorCount += ticks.size();
+        return schedule;
+    }
+    /**
+     * Stops every actor and waits for ticks in progress to finish.
+     * @param timeoutMillis How long to wait for ticks in progress.
+     */
+    public synchronized void shutdown(long timeoutMillis) {
+        scheduler.shutdownNow();
+        try {
+            if (!scheduler.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.log("[LOG] Scheduler threads did not stop within " + timeoutMillis + " ms.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.log("[LOG] Scheduler stopped " + actorCount + " actors.");
+    }
+    /**
+     * A group of actors registered with {@link #scheduleAtFixedRate}.
+     */
+    public final class Schedule {
+        private final int actors;
+        private final ScheduledFuture<?>[] slices;
+        private boolean cancelled;
+        private Schedule(int actors, ScheduledFuture<?>[] slices) {
+            this.actors = actors;
+            this.slices = slices;
+        }
+        /**
+         * Stops ticking the group's actors. A tick in progress is allowed to finish.
+         */
+        public void cancel() {
+            synchronized (ScheduledActorEngine.this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                for (ScheduledFuture<?> slice : slices) {
+                    slice.cancel(false);
+                }
+                actorCount -= actors;
+            }
+        }
+    }
+    /**
+     * Runs one tick of every actor in a slice. A failing actor is reported and skipped so the rest of the
+     * slice, and its future ticks, keep running.
+     */
+    private void tickAll(Runnable[] batch) {
+        for (Runnable tick : batch) {
+            if (Thread.currentThread().isInterrupted()) {
+                return; // Shutting down
+            }
+            try {
+                tick.run();
+            } catch (RuntimeException e) {
+                logger.log(LogCategory.ERROR, "[LOG] Scheduled tick failed: " + e.getMessage());
+            }
+        }
+    }
+}
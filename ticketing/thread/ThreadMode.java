@@ -0,0 +1,72 @@
+package com.ticketing.thread;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * Decides which threads run the {@link VendorThread} and {@link CustomerThread} tasks.
+ * In every mode but {@link #SCHEDULED}, each vendor and customer task holds its thread for as long
+ * as it runs, sleeping between batches or waiting on the ticket pool.
+ */
+public enum ThreadMode {
+    /**
+     * One platform thread per vendor and per customer.
+     */
+    PLATFORM,
+    /**
+     * One virtual thread per vendor and per customer, so tens of thousands of customers can be
+     * simulated on a handful of carrier threads. Requires Java 21 or later.
+     */
+    VIRTUAL,
+    /**
+     * A fixed pool of {@code ticketing.threads.pool-size} platform threads. Starting more vendors
+     * and customers than the pool has threads is refused, since the extra tasks would never run.
+     */
+    BOUNDED,
+    /**
+     * No thread per task: a {@link ScheduledActorEngine} with {@code ticketing.threads.scheduler-threads}
+     * threads ticks every vendor and customer at its configured interval.
+     */
+    SCHEDULED;
+
+    /**
+     * Creates an executor that runs tasks in this mode.
+     * @param poolSize The number of threads in {@link #BOUNDED} mode; ignored otherwise.
+     * @return The new executor.
+     * @throws IllegalStateException if virtual threads are requested on a Java version without them,
+     *                               or for {@link #SCHEDULED} mode, which has no per-task executor.
+     */
+    public ExecutorService newExecutor(int poolSize) {
+        switch (this) {
+            case VIRTUAL:
+                return newVirtualThreadPerTaskExecutor();
+            case BOUNDED:
+                return Executors.newFixedThreadPool(poolSize, namedThreads("ticketing-worker-"));
+            case SCHEDULED:
+                throw new IllegalStateException("Scheduled mode runs actors on a ScheduledActorEngine, not a per-task executor.");
+            default:
+                return Executors.newCachedThreadPool(namedThreads("ticketing-thread-"));
+        }
+    }
+    /**
+     * Creates a virtual-thread-per-task executor. Looked up at run time so the application still
+     * builds and runs in the other modes on Java 17.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("Virtual threads require Java 21 or later.");
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to create virtual thread executor: " + e.getMessage(), e);
+        }
+    }
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> new Thread(runnable, prefix + counter.incrementAndGet());
+    }
+}
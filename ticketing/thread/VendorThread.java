@@ -40,15 +40,22 @@ public class VendorThread implements Runnable {
     public void run() {
         while (!Thread.currentThread().isInterrupted()) {
             try {
-                ticketPool.addTickets(ticketReleaseRate, vendorId, maxTicketCapacity); // Add tickets to the shared pool
+                ticketPool.release(ticketReleaseRate, vendorId, maxTicketCapacity); // Publish the whole batch to the shared pool in one step
                 Thread.sleep( releaseInterval ); // Simulate delay
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
-                logger.log("[LOG] Vendor " + vendorId + " thread interrupted.");
+                logger.log("[LOG] Vendor {} thread interrupted.", vendorId);
                 return;
             }
         }
-        logger.log("[LOG] Vendor " + vendorId + " thread stopped.");
+        logger.log("[LOG] Vendor {} thread stopped.", vendorId);
+    }
+    /**
+     * Releases one batch without waiting, for use by {@link ScheduledActorEngine}.
+     * If the batch does not fit in the pool, the vendor skips it and tries again on its next tick.
+     */
+    public void tick() {
+        ticketPool.tryRelease(ticketReleaseRate, vendorId, maxTicketCapacity);
     }
 }
 